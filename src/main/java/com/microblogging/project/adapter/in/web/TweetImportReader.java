@@ -0,0 +1,191 @@
+package com.microblogging.project.adapter.in.web;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microblogging.project.domain.model.TweetImport;
+import com.microblogging.project.domain.model.TweetIngestionReport;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Reads the tweets of a bulk import from a request body as it arrives, one item at a time, from either
+ * <ul>
+ *     <li>NDJSON: one tweet per line, blank lines ignored, or</li>
+ *     <li>a JSON array of tweets.</li>
+ * </ul>
+ * A tweet is {@code {"id": UUID, "userId": UUID, "content": string, "createdAt": ISO date-time}}, {@code id} and
+ * {@code createdAt} are optional. Items that are not tweets are rejected on the report and reading goes on. Malformed
+ * JSON only rejects its line in NDJSON, but stops reading an array since the next item cannot be found.
+ */
+public class TweetImportReader implements Iterator<TweetImport>, Closeable {
+
+    // Longest NDJSON line kept in memory, longer lines are rejected
+    public static final int MAX_LINE_CHARS = 16 * 1024;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Item(UUID id, UUID userId, String content, LocalDateTime createdAt) {
+    }
+
+    private final ObjectMapper mapper;
+    private final TweetIngestionReport report;
+    // One of them, depending on the format
+    private final BufferedReader lines;
+    private final JsonParser parser;
+
+    private long index;
+    private TweetImport next;
+    private boolean done;
+    private boolean lineTooLong;
+
+    public TweetImportReader(InputStream body, boolean ndjson, ObjectMapper mapper, TweetIngestionReport report)
+            throws IOException {
+        this.mapper = mapper;
+        this.report = report;
+        if (ndjson) {
+            this.lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            this.parser = null;
+            return;
+        }
+        this.lines = null;
+        this.parser = mapper.createParser(body);
+        try {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                stop(0, "Expected a JSON array of tweets");
+            }
+        } catch (JsonProcessingException e) {
+            stop(0, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            try {
+                next = parser == null ? readLine() : readElement();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read the tweets to import", e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public TweetImport next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        TweetImport tweet = next;
+        next = null;
+        return tweet;
+    }
+
+    private TweetImport readLine() throws IOException {
+        String line;
+        while ((line = nextLine()) != null) {
+            if (line.isBlank() && !lineTooLong) {
+                continue;
+            }
+            long itemIndex = index++;
+            if (lineTooLong) {
+                report.reject(itemIndex, "Line longer than " + MAX_LINE_CHARS + " characters");
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = mapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                report.reject(itemIndex, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            TweetImport tweet = toImport(itemIndex, node);
+            if (tweet != null) {
+                return tweet;
+            }
+        }
+        done = true;
+        return null;
+    }
+
+    // The next line without its terminator, or null at the end of the body. Past the limit, characters are skipped
+    private String nextLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        lineTooLong = false;
+        int c;
+        while ((c = lines.read()) != -1 && c != '\n') {
+            if (line.length() < MAX_LINE_CHARS) {
+                line.append((char) c);
+            } else {
+                lineTooLong = true;
+            }
+        }
+        return c == -1 && line.isEmpty() ? null : line.toString();
+    }
+
+    private TweetImport readElement() throws IOException {
+        while (true) {
+            long itemIndex = index;
+            try {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.END_ARRAY) {
+                    done = true;
+                    return null;
+                }
+                if (token == null) {
+                    stop(itemIndex, "Unexpected end of the JSON array");
+                    return null;
+                }
+                index++;
+                TweetImport tweet = toImport(itemIndex, parser.readValueAsTree());
+                if (tweet != null) {
+                    return tweet;
+                }
+            } catch (JsonProcessingException e) {
+                stop(itemIndex, "Malformed JSON, stopped reading: " + e.getOriginalMessage());
+                return null;
+            }
+        }
+    }
+
+    private TweetImport toImport(long itemIndex, JsonNode node) {
+        if (node == null || !node.isObject()) {
+            report.reject(itemIndex, "Expected a JSON object");
+            return null;
+        }
+        try {
+            Item item = mapper.treeToValue(node, Item.class);
+            return new TweetImport(itemIndex, item.id(), item.userId(), item.content(), item.createdAt());
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            report.reject(itemIndex, "Invalid tweet: " + (e instanceof JsonProcessingException json
+                    ? json.getOriginalMessage() : e.getMessage()));
+            return null;
+        }
+    }
+
+    private void stop(long itemIndex, String reason) {
+        report.reject(itemIndex, reason);
+        done = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (parser != null) {
+            parser.close();
+        } else {
+            lines.close();
+        }
+    }
+}
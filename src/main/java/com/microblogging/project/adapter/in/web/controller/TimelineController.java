@@ -1,11 +1,14 @@
 package com.microblogging.project.adapter.in.web.controller;
 
+import com.microblogging.project.application.service.TimelineService;
 import com.microblogging.project.application.usecase.TimelineQuery;
-import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.model.TimelineCursor;
+import com.microblogging.project.domain.model.TimelinePage;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
@@ -16,6 +19,9 @@ import java.util.UUID;
 @RequestMapping("/timeline")
 public class TimelineController {
 
+    // Opaque token to pass back as the "cursor" parameter to get the next page
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final TimelineQuery timelineQuery;
 
     public TimelineController(TimelineQuery timelineQuery) {
@@ -23,13 +29,21 @@ public class TimelineController {
     }
 
     @GetMapping
-    public ResponseEntity<List<TweetDTO>> timeline(@RequestHeader("X-User-Id") UUID userId) {
-        List<Tweet> tweets = timelineQuery.getTimeline(userId);
-        List<TweetDTO> response = tweets.stream()
+    public ResponseEntity<List<TweetDTO>> timeline(@RequestHeader("X-User-Id") UUID userId,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "" + TimelineService.TIMELINE_SIZE) int limit) {
+        TimelineCursor position = cursor == null ? null : TimelineCursor.decode(cursor);
+        TimelinePage page = timelineQuery.getTimeline(userId, position, limit);
+        List<TweetDTO> response = page.tweets().stream()
                 .map(t -> new TweetDTO(t.getUserId(), t.getContent(), t.getCreatedAt()))
                 .toList();
-        return ResponseEntity.ok(response);
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.nextCursor().encode());
+        }
+        return builder.body(response);
     }
 
     public record TweetDTO(UUID userId, String content, LocalDateTime createdAt) {}
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package com.microblogging.project.adapter.in.web.controller;
+
+import com.microblogging.project.application.usecase.WarmTimelinesUseCase;
+import com.microblogging.project.domain.model.TimelineWarmupProgress;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/timeline-warmup")
+public class TimelineWarmupController {
+
+    private final WarmTimelinesUseCase warmTimelinesUseCase;
+
+    public TimelineWarmupController(WarmTimelinesUseCase warmTimelinesUseCase) {
+        this.warmTimelinesUseCase = warmTimelinesUseCase;
+    }
+
+    // The run continues in the background, poll the GET endpoint for its progress
+    @PostMapping
+    public ResponseEntity<TimelineWarmupProgress> start(@RequestParam(defaultValue = "" + Integer.MAX_VALUE) int maxUsers) {
+        return ResponseEntity.accepted().body(warmTimelinesUseCase.start(maxUsers));
+    }
+
+    @GetMapping
+    public ResponseEntity<TimelineWarmupProgress> progress() {
+        return ResponseEntity.ok(warmTimelinesUseCase.progress());
+    }
+}
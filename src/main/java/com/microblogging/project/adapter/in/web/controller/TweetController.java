@@ -1,10 +1,19 @@
 package com.microblogging.project.adapter.in.web.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microblogging.project.adapter.in.web.TweetImportReader;
+import com.microblogging.project.application.usecase.IngestTweetsUseCase;
 import com.microblogging.project.application.usecase.PostTweetUseCase;
+import com.microblogging.project.domain.model.TweetIngestionReport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.UUID;
 
 @RestController
@@ -12,9 +21,18 @@ import java.util.UUID;
 public class TweetController {
 
     private final PostTweetUseCase postTweetUseCase;
+    private final IngestTweetsUseCase ingestTweetsUseCase;
+    private final ObjectMapper objectMapper;
 
-    public TweetController(PostTweetUseCase postTweetUseCase) {
+    // Rejected items detailed in a bulk import report, the others are only counted
+    @Value("${tweet.ingestion.max-reported-failures:1000}")
+    private int maxReportedFailures = 1000;
+
+    public TweetController(PostTweetUseCase postTweetUseCase, IngestTweetsUseCase ingestTweetsUseCase,
+                           ObjectMapper objectMapper) {
         this.postTweetUseCase = postTweetUseCase;
+        this.ingestTweetsUseCase = ingestTweetsUseCase;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -24,6 +42,18 @@ public class TweetController {
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    // Archive imports: the body (NDJSON or a JSON array of tweets) is read as it arrives and imported batch by batch
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<TweetIngestionReport> ingestTweets(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                             InputStream body) throws IOException {
+        TweetIngestionReport report = new TweetIngestionReport(maxReportedFailures);
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        try (TweetImportReader tweets = new TweetImportReader(body, ndjson, objectMapper, report)) {
+            ingestTweetsUseCase.ingest(tweets, report);
+        }
+        return ResponseEntity.ok(report);
+    }
+
     public record TweetRequest(String content) {}
 }
 
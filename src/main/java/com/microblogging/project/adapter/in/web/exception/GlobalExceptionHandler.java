@@ -2,7 +2,9 @@ package com.microblogging.project.adapter.in.web.exception;
 
 import com.microblogging.project.domain.exception.AlreadyFollowingException;
 import com.microblogging.project.domain.exception.CannotFollowSelfException;
+import com.microblogging.project.domain.exception.InvalidCursorException;
 import com.microblogging.project.domain.exception.UserNotFoundException;
+import com.microblogging.project.domain.exception.WarmupAlreadyRunningException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
@@ -54,6 +56,20 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException ex, WebRequest request) {
+        logger.warn("InvalidCursorException: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse("INVALID_CURSOR", ex.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(WarmupAlreadyRunningException.class)
+    public ResponseEntity<ErrorResponse> handleWarmupAlreadyRunningException(WarmupAlreadyRunningException ex, WebRequest request) {
+        logger.warn("WarmupAlreadyRunningException: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse("WARMUP_ALREADY_RUNNING", ex.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     // --- Handler for @Valid / @Validated validation errors on request body ---
     //@Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
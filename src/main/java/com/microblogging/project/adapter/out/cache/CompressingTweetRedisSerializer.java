@@ -0,0 +1,192 @@
+package com.microblogging.project.adapter.out.cache;
+
+import com.microblogging.project.domain.model.Tweet;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses cached tweets on top of {@link TweetRedisSerializer}, with raw DEFLATE primed with a shared dictionary
+ * of the fragments tweets repeat (URL prefixes, hashtags, mentions, common words).
+ * <pre>
+ * marker:u8 (2) | dictionary id (Adler-32):i32 | uncompressed length:i32 | raw DEFLATE of the TweetRedisSerializer payload
+ * </pre>
+ * Payloads below the threshold, or that would not shrink, are stored exactly as {@link TweetRedisSerializer} writes
+ * them, and those are still read as is. A payload compressed with another dictionary (e.g. written by a node running a
+ * newer one) reads as {@code null}, a tweet cache miss: the body is reloaded from the database and rewritten.
+ */
+public class CompressingTweetRedisSerializer implements RedisSerializer<Tweet> {
+
+    static final byte COMPRESSED = 2;
+
+    private static final int HEADER_SIZE = 1 + 4 + 4;
+    // DEFLATE only looks back 32 KiB, an older dictionary prefix is never referenced
+    private static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+    // Idle codecs kept for reuse, each holds native buffers
+    private static final int POOL_SIZE = 64;
+
+    private final TweetRedisSerializer delegate = new TweetRedisSerializer();
+    private final byte[] dictionary;
+    private final int dictionaryId;
+    private final int threshold;
+    private final int level;
+    private final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private final DistributionSummary compressionRatio;
+    private final Timer compressTime;
+    private final Timer decompressTime;
+    private final Counter belowThreshold;
+    private final Counter incompressible;
+    private final Counter unknownDictionary;
+
+    /**
+     * @param dictionary Shared dictionary, most frequent fragments last; only its last 32 KiB are used.
+     * @param threshold  Serialized size in bytes below which tweets are stored uncompressed.
+     * @param level      DEFLATE level, 1 (fastest) to 9.
+     */
+    public CompressingTweetRedisSerializer(byte[] dictionary, int threshold, int level, MeterRegistry meterRegistry) {
+        this.dictionary = dictionary.length > MAX_DICTIONARY_SIZE
+                ? Arrays.copyOfRange(dictionary, dictionary.length - MAX_DICTIONARY_SIZE, dictionary.length)
+                : dictionary.clone();
+        Adler32 adler32 = new Adler32();
+        adler32.update(this.dictionary);
+        this.dictionaryId = (int) adler32.getValue();
+        this.threshold = threshold;
+        this.level = level;
+
+        this.compressionRatio = DistributionSummary.builder("timeline.cache.compression.ratio")
+                .description("Serialized size divided by stored size of compressed cached tweets")
+                .register(meterRegistry);
+        this.compressTime = Timer.builder("timeline.cache.compression.time")
+                .description("CPU time spent compressing and decompressing cached tweets")
+                .tag("operation", "compress")
+                .register(meterRegistry);
+        this.decompressTime = Timer.builder("timeline.cache.compression.time")
+                .description("CPU time spent compressing and decompressing cached tweets")
+                .tag("operation", "decompress")
+                .register(meterRegistry);
+        this.belowThreshold = skippedCounter(meterRegistry, "below-threshold");
+        this.incompressible = skippedCounter(meterRegistry, "incompressible");
+        this.unknownDictionary = Counter.builder("timeline.cache.compression.unknown-dictionary")
+                .description("Cached tweets compressed with another dictionary, read as cache misses")
+                .register(meterRegistry);
+    }
+
+    private static Counter skippedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("timeline.cache.compression.skipped")
+                .description("Cached tweets stored uncompressed")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public byte[] serialize(Tweet tweet) throws SerializationException {
+        byte[] raw = delegate.serialize(tweet);
+        if (raw.length < threshold || raw.length <= HEADER_SIZE + 1) {
+            belowThreshold.increment();
+            return raw;
+        }
+
+        long start = System.nanoTime();
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+        try {
+            if (dictionary.length > 0) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(raw);
+            deflater.finish();
+            // Room for anything smaller than the raw payload only, a larger output is not worth storing
+            byte[] compressed = new byte[raw.length - 1];
+            int length = HEADER_SIZE + deflater.deflate(compressed, HEADER_SIZE, compressed.length - HEADER_SIZE);
+            if (!deflater.finished()) {
+                incompressible.increment();
+                return raw;
+            }
+            compressed[0] = COMPRESSED;
+            ByteBuffer.wrap(compressed, 1, HEADER_SIZE - 1).putInt(dictionaryId).putInt(raw.length);
+            compressionRatio.record((double) raw.length / length);
+            return Arrays.copyOf(compressed, length);
+        } finally {
+            release(deflater);
+            compressTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Tweet deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != COMPRESSED) {
+            return delegate.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE) {
+            throw new SerializationException("Truncated compressed cached tweet");
+        }
+        ByteBuffer header = ByteBuffer.wrap(bytes, 1, HEADER_SIZE - 1);
+        if (header.getInt() != dictionaryId) {
+            unknownDictionary.increment();
+            return null;
+        }
+        int rawLength = header.getInt();
+
+        long start = System.nanoTime();
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        try {
+            // Raw DEFLATE carries no dictionary marker, the dictionary is set before inflating
+            if (dictionary.length > 0) {
+                inflater.setDictionary(dictionary);
+            }
+            inflater.setInput(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+            byte[] raw = new byte[rawLength];
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                int count = inflater.inflate(raw, inflated, rawLength - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+            if (inflated != rawLength) {
+                throw new SerializationException("Truncated or corrupt compressed cached tweet");
+            }
+            return delegate.deserialize(raw);
+        } catch (DataFormatException | NegativeArraySizeException e) {
+            throw new SerializationException("Corrupt compressed cached tweet", e);
+        } finally {
+            release(inflater);
+            decompressTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void release(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private void release(Inflater inflater) {
+        inflater.reset();
+        if (!inflaters.offer(inflater)) {
+            inflater.end();
+        }
+    }
+}
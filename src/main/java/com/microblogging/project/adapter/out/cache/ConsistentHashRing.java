@@ -0,0 +1,80 @@
+package com.microblogging.project.adapter.out.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Consistent-hash ring mapping user IDs to shards. Every shard is placed on the ring at {@code virtualNodes}
+ * points derived from its name, so keys spread evenly and adding or removing a shard only moves the keys
+ * of the ring segments it takes or gives back (about 1/N of them), all other keys keep their shard.
+ *
+ * @param <S> The shard type.
+ */
+public final class ConsistentHashRing<S> {
+
+    private final NavigableMap<Long, S> ring = new TreeMap<>();
+    private final List<S> shards;
+
+    /**
+     * @param shards       The shards, at least one.
+     * @param shardName    Stable name of a shard (e.g. host:port), its ring positions derive from it.
+     * @param virtualNodes Number of points per shard on the ring.
+     */
+    public ConsistentHashRing(Collection<S> shards, Function<S, String> shardName, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one shard");
+        }
+        this.shards = List.copyOf(shards);
+        for (S shard : shards) {
+            String name = shardName.apply(shard);
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(name + "#" + i), shard);
+            }
+        }
+    }
+
+    public S shardFor(UUID key) {
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+        Map.Entry<Long, S> owner = ring.ceilingEntry(hash(key));
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<S> shards() {
+        return shards;
+    }
+
+    /**
+     * 64-bit hash of a UUID, well spread even for sequential IDs. Also used to pick cluster hash tags.
+     */
+    static long hash(UUID key) {
+        return mix(key.getMostSignificantBits() ^ mix(key.getLeastSignificantBits()));
+    }
+
+    // FNV-1a over the UTF-8 bytes, finalized with the MurmurHash3 mixer
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // MurmurHash3 fmix64
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb1a5de8a6aa3L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,323 @@
+package com.microblogging.project.adapter.out.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microblogging.project.domain.model.CachedTimeline;
+import com.microblogging.project.domain.model.TimelineCursor;
+import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.port.TimelineCachePort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * In-process L1 cache in front of the Redis timeline cache.
+ * Hot timelines are served from a bounded, size-aware Caffeine cache (W-TinyLFU eviction) without any network I/O.
+ * Every change to a timeline is broadcast on a Redis pub/sub channel so the other nodes drop their local copy.
+ * The local copy is only used while this node is subscribed to that channel, otherwise reads go straight to Redis.
+ * Local hits are counted and periodically forwarded to Redis, so its access index still ranks hot timelines
+ * as hot for eviction and warm-up.
+ */
+@Component
+@Profile("!embedded")
+@Primary
+@ConditionalOnProperty(name = "timeline.cache.near.enabled", havingValue = "true")
+public class NearCacheTimelineAdapter implements TimelineCachePort {
+
+    private static final Logger log = LoggerFactory.getLogger(NearCacheTimelineAdapter.class);
+
+    public static final String INVALIDATION_CHANNEL = "timeline:invalidations";
+    private static final String MESSAGE_SEPARATOR = "|";
+    private static final String USER_SEPARATOR = ",";
+    // User IDs per pub/sub message when invalidating in bulk
+    private static final int MESSAGE_BATCH_SIZE = 1000;
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final TimelineCachePort delegate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Cache<UUID, CachedTimeline> localCache;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Duration subscribeRetryInterval;
+    private volatile boolean shuttingDown;
+
+    // Bumped on every invalidation so a read-through that raced with it does not store a stale copy
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    // Reads served locally since the last flush to Redis
+    private final ConcurrentMap<UUID, Integer> localReads = new ConcurrentHashMap<>();
+
+    public NearCacheTimelineAdapter(@Qualifier("timelineRedisCache") TimelineCachePort delegate,
+                                    StringRedisTemplate stringRedisTemplate,
+                                    RedisMessageListenerContainer listenerContainer,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${timeline.cache.near.max-bytes:67108864}") long maxBytes,
+                                    @Value("${timeline.cache.near.ttl:30s}") Duration ttl,
+                                    @Value("${timeline.cache.near.subscribe-retry-interval:5s}") Duration subscribeRetryInterval) {
+        this.delegate = delegate;
+        this.subscribeRetryInterval = subscribeRetryInterval;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.localCache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((UUID userId, CachedTimeline timeline) -> estimateSize(timeline.tweets()))
+                // Safety net in case an invalidation message is lost
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "timeline.near");
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onInvalidationMessage(message), new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        Thread.ofVirtual().name("timeline-invalidation-subscriber").start(() -> {
+            while (!shuttingDown && !listenerContainer.isRunning()) {
+                try {
+                    listenerContainer.start();
+                    log.info("Subscribed to timeline invalidation channel {}", INVALIDATION_CHANNEL);
+                } catch (Exception e) {
+                    log.warn("Cannot subscribe to timeline invalidations, near cache bypassed: {}", e.getMessage());
+                    try {
+                        Thread.sleep(subscribeRetryInterval);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stopListening() {
+        shuttingDown = true;
+        flushLocalReads();
+    }
+
+    /**
+     * Forwards the reads served locally since the previous flush, one batch per access index on the Redis side.
+     */
+    @Scheduled(fixedDelayString = "${timeline.cache.near.read-flush-interval:5s}")
+    public void flushLocalReads() {
+        if (localReads.isEmpty()) {
+            return;
+        }
+        Map<UUID, Integer> reads = new HashMap<>();
+        for (UUID userId : localReads.keySet()) {
+            Integer count = localReads.remove(userId);
+            if (count != null) {
+                reads.put(userId, count);
+            }
+        }
+        delegate.recordTimelineReads(reads);
+    }
+
+    @Override
+    public Optional<List<Tweet>> getTimeline(UUID userId) {
+        return getCachedTimeline(userId).map(CachedTimeline::tweets);
+    }
+
+    @Override
+    public Optional<CachedTimeline> getCachedTimeline(UUID userId) {
+        CachedTimeline local = getLocal(userId);
+        if (local != null) {
+            localReads.merge(userId, 1, Integer::sum);
+            return Optional.of(local);
+        }
+        long generation = generation(userId);
+        Optional<CachedTimeline> remote = delegate.getCachedTimeline(userId);
+        remote.ifPresent(timeline -> putIfUnchanged(userId, timeline, generation));
+        return remote;
+    }
+
+    // Not a read: local copies are not counted and Redis is not asked to record anything
+    @Override
+    public boolean hasTimeline(UUID userId) {
+        return getLocal(userId) != null || delegate.hasTimeline(userId);
+    }
+
+    @Override
+    public Optional<List<Tweet>> getTimelinePage(UUID userId, TimelineCursor cursor, int limit) {
+        CachedTimeline local = getLocal(userId);
+        if (local != null) {
+            return Optional.of(local.tweets().stream().filter(cursor::precedes).limit(limit).toList());
+        }
+        return delegate.getTimelinePage(userId, cursor, limit);
+    }
+
+    @Override
+    public void cacheTimeline(UUID userId, List<Tweet> tweets, Duration duration) {
+        delegate.cacheTimeline(userId, tweets, duration);
+        evictLocally(userId);
+        publishInvalidation(userId);
+        if (listenerContainer.isListening()) {
+            localCache.put(userId, new CachedTimeline(List.copyOf(tweets), Instant.now().plus(duration), duration));
+        }
+    }
+
+    @Override
+    public void cacheEmptyTimeline(UUID userId, Duration duration) {
+        delegate.cacheEmptyTimeline(userId, duration);
+        evictLocally(userId);
+        publishInvalidation(userId);
+        if (listenerContainer.isListening()) {
+            localCache.put(userId, new CachedTimeline(List.of(), Instant.now().plus(duration), duration));
+        }
+    }
+
+    @Override
+    public void invalidateTimeline(UUID userId) {
+        delegate.invalidateTimeline(userId);
+        evictLocally(userId);
+        publishInvalidation(userId);
+    }
+
+    @Override
+    public void invalidateTimelines(Collection<UUID> userIds) {
+        delegate.invalidateTimelines(userIds);
+        userIds.forEach(this::evictLocally);
+        publishInvalidations(userIds);
+    }
+
+    @Override
+    public void prependToTimeline(UUID userId, Tweet tweet, int maxSize) {
+        delegate.prependToTimeline(userId, tweet, maxSize);
+        evictLocally(userId);
+        publishInvalidation(userId);
+    }
+
+    @Override
+    public void prependToTimelines(Collection<UUID> userIds, Tweet tweet, int maxSize) {
+        delegate.prependToTimelines(userIds, tweet, maxSize);
+        userIds.forEach(this::evictLocally);
+        publishInvalidations(userIds);
+    }
+
+    @Override
+    public Optional<String> tryAcquireRebuildLease(UUID userId, Duration ttl) {
+        return delegate.tryAcquireRebuildLease(userId, ttl);
+    }
+
+    @Override
+    public void releaseRebuildLease(UUID userId, String token) {
+        delegate.releaseRebuildLease(userId, token);
+    }
+
+    @Override
+    public List<UUID> findRecentlyReadTimelines(int limit) {
+        return delegate.findRecentlyReadTimelines(limit);
+    }
+
+    @Override
+    public void recordTimelineReads(Map<UUID, Integer> readCounts) {
+        delegate.recordTimelineReads(readCounts);
+    }
+
+    void onInvalidationMessage(Message message) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(MESSAGE_SEPARATOR);
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return; // Malformed, or sent by this node which already evicted its copy
+        }
+        try {
+            for (String userId : body.substring(separator + 1).split(USER_SEPARATOR)) {
+                evictLocally(UUID.fromString(userId));
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed timeline invalidation message: {}", body);
+        }
+    }
+
+    private void evictLocally(UUID userId) {
+        generations.incrementAndGet(stripe(userId));
+        localCache.invalidate(userId);
+    }
+
+    // Without the invalidation subscription a local copy could silently go stale
+    private CachedTimeline getLocal(UUID userId) {
+        return listenerContainer.isListening() ? localCache.getIfPresent(userId) : null;
+    }
+
+    private void putIfUnchanged(UUID userId, CachedTimeline timeline, long generation) {
+        if (!listenerContainer.isListening()) {
+            return;
+        }
+        localCache.asMap().compute(userId, (key, current) ->
+                generation(userId) == generation ? timeline : current);
+    }
+
+    private void publishInvalidation(UUID userId) {
+        publishInvalidation(List.of(userId));
+    }
+
+    // Many owners per message rather than one message per owner
+    private void publishInvalidations(Collection<UUID> userIds) {
+        List<UUID> pending = List.copyOf(userIds);
+        for (int from = 0; from < pending.size(); from += MESSAGE_BATCH_SIZE) {
+            publishInvalidation(pending.subList(from, Math.min(pending.size(), from + MESSAGE_BATCH_SIZE)));
+        }
+    }
+
+    // Message format: "nodeId|userId,userId,..."
+    private void publishInvalidation(List<UUID> userIds) {
+        String message = nodeId + MESSAGE_SEPARATOR
+                + userIds.stream().map(UUID::toString).collect(Collectors.joining(USER_SEPARATOR));
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            log.error("Failed to publish timeline invalidation for {} users: {}", userIds.size(), e.getMessage());
+        }
+    }
+
+    private long generation(UUID userId) {
+        return generations.get(stripe(userId));
+    }
+
+    private static int stripe(UUID userId) {
+        return Math.floorMod(userId.hashCode(), GENERATION_STRIPES);
+    }
+
+    // Rough retained size: object headers and references plus UTF-16 content
+    private static int estimateSize(List<Tweet> tweets) {
+        int size = 64;
+        for (Tweet tweet : tweets) {
+            size += 160 + (tweet.getContent() == null ? 0 : tweet.getContent().length() * 2);
+        }
+        return size;
+    }
+}
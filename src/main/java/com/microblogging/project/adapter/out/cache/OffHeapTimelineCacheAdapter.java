@@ -0,0 +1,521 @@
+package com.microblogging.project.adapter.out.cache;
+
+import com.microblogging.project.domain.model.CachedTimeline;
+import com.microblogging.project.domain.model.TimelineCursor;
+import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.port.TimelineCachePort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process timeline cache for single-node deployments that run without Redis, selected by the {@code embedded} profile.
+ * <p>
+ * A fixed off-heap budget is split into equal slots, one per cached timeline. Each slot starts with a header (owner,
+ * expiry, TTL, LRU links, ring positions) followed by a ring buffer of encoded tweets: new tweets are written at the head,
+ * the oldest are dropped at the tail once the timeline holds 50 tweets or the slot is full. The user to slot index is an
+ * open-addressing table, off-heap as well, so cached timelines are invisible to the garbage collector and only the tweets
+ * decoded for a read are allocated. Expired timelines are dropped on their next access; when every slot is taken the
+ * least recently read timeline is evicted.
+ * <pre>
+ * entry: length:i32 | id:2×i64 | userId:2×i64 | createdAt epoch millis (UTC):i64 | createdAt nanos of milli:i32
+ *                   | content length:i32 (-1 for null) | content:UTF-8
+ * </pre>
+ * A single lock guards the store: there is no network round trip to overlap, and a read only decodes one slot.
+ */
+@Component
+@Profile("embedded")
+public class OffHeapTimelineCacheAdapter implements TimelineCachePort {
+
+    // Tweets kept per timeline, as in Redis
+    private static final int MAX_ENTRIES = 50;
+
+    // Slot header
+    private static final int OWNER_MSB = 0;
+    private static final int OWNER_LSB = 8;
+    private static final int EXPIRES_AT = 16;
+    private static final int LRU_PREV = 24;
+    private static final int LRU_NEXT = 28; // Also links free slots
+    private static final int HEAD = 32;
+    private static final int TAIL = 36;
+    private static final int COUNT = 40;
+    private static final int TTL_MILLIS = 44; // TTL the timeline was cached with
+    private static final int HEADER_BYTES = 48;
+
+    private static final int ENTRY_HEADER_BYTES = 4 + 16 + 16 + 8 + 4 + 4;
+    // Written where an entry did not fit before the end of the ring, the next entry starts at offset 0
+    private static final int WRAP_MARKER = -1;
+    private static final int NONE = -1;
+    private static final int NANOS_PER_MILLI = 1_000_000;
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+
+    private final ByteBuffer[] chunks;
+    private final int slotBytes;
+    private final int ringBytes;
+    private final int slotsPerChunk;
+    private final int slotCount;
+    // Slot + 1 per entry, 0 for an empty bucket
+    private final IntBuffer index;
+    private final int indexMask;
+    private final LongSupplier clock;
+
+    private final Counter ttlEvictions;
+    private final Counter lruEvictions;
+
+    private int freeHead;
+    private int mostRecentlyRead = NONE;
+    private int leastRecentlyRead = NONE;
+    private int usedSlots;
+
+    @Autowired
+    public OffHeapTimelineCacheAdapter(MeterRegistry meterRegistry,
+                                       @Value("${timeline.cache.embedded.max-bytes:268435456}") long maxBytes,
+                                       @Value("${timeline.cache.embedded.slot-bytes:16384}") int slotBytes) {
+        this(meterRegistry, maxBytes, slotBytes, System::currentTimeMillis);
+    }
+
+    public OffHeapTimelineCacheAdapter(MeterRegistry meterRegistry, long maxBytes, int slotBytes, LongSupplier clock) {
+        if (slotBytes < HEADER_BYTES + ENTRY_HEADER_BYTES || slotBytes > MAX_CHUNK_BYTES) {
+            throw new IllegalArgumentException("Invalid timeline.cache.embedded.slot-bytes: " + slotBytes);
+        }
+        long slots = Math.min(maxBytes / slotBytes, 1 << 27);
+        if (slots < 1) {
+            throw new IllegalArgumentException("timeline.cache.embedded.max-bytes is below one slot: " + maxBytes);
+        }
+        this.slotBytes = slotBytes;
+        this.ringBytes = slotBytes - HEADER_BYTES;
+        this.slotCount = (int) slots;
+        this.slotsPerChunk = MAX_CHUNK_BYTES / slotBytes;
+        this.clock = clock;
+
+        int chunkCount = (slotCount + slotsPerChunk - 1) / slotsPerChunk;
+        this.chunks = new ByteBuffer[chunkCount];
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int slotsInChunk = Math.min(slotsPerChunk, slotCount - chunk * slotsPerChunk);
+            chunks[chunk] = ByteBuffer.allocateDirect(slotsInChunk * slotBytes);
+        }
+        // At most half full, so probe sequences stay short
+        int indexSize = Integer.highestOneBit(slotCount) << 2;
+        this.index = ByteBuffer.allocateDirect(indexSize * Integer.BYTES).asIntBuffer();
+        this.indexMask = indexSize - 1;
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            putInt(slot, LRU_NEXT, slot + 1 < slotCount ? slot + 1 : NONE);
+        }
+        this.freeHead = 0;
+
+        Gauge.builder("timeline.cache.embedded.timelines", this, adapter -> adapter.usedSlots)
+                .description("Timelines held by the embedded off-heap cache")
+                .register(meterRegistry);
+        Gauge.builder("timeline.cache.embedded.capacity", () -> slotCount)
+                .description("Timelines the embedded off-heap cache can hold within its byte budget")
+                .register(meterRegistry);
+        this.ttlEvictions = evictionCounter(meterRegistry, "ttl");
+        this.lruEvictions = evictionCounter(meterRegistry, "lru");
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("timeline.cache.embedded.evictions")
+                .description("Timelines dropped by the embedded off-heap cache (expired, or least recently read under the byte budget)")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<List<Tweet>> getTimeline(UUID userId) {
+        return getCachedTimeline(userId).map(CachedTimeline::tweets);
+    }
+
+    @Override
+    public synchronized Optional<CachedTimeline> getCachedTimeline(UUID userId) {
+        int slot = findLive(userId);
+        if (slot == NONE) {
+            return Optional.empty();
+        }
+        moveToFront(slot);
+        long expiresAt = getLong(slot, EXPIRES_AT);
+        return Optional.of(new CachedTimeline(decode(slot),
+                expiresAt == Long.MAX_VALUE ? Instant.MAX : Instant.ofEpochMilli(expiresAt),
+                Duration.ofMillis(getInt(slot, TTL_MILLIS))));
+    }
+
+    // Leaves the LRU order alone
+    @Override
+    public synchronized boolean hasTimeline(UUID userId) {
+        return findLive(userId) != NONE;
+    }
+
+    @Override
+    public synchronized Optional<List<Tweet>> getTimelinePage(UUID userId, TimelineCursor cursor, int limit) {
+        int slot = findLive(userId);
+        if (slot == NONE) {
+            return Optional.empty();
+        }
+        moveToFront(slot);
+        return Optional.of(decode(slot).stream().filter(cursor::precedes).limit(limit).toList());
+    }
+
+    @Override
+    public synchronized void cacheTimeline(UUID userId, List<Tweet> tweets, Duration duration) {
+        int slot = store(userId, duration);
+        // Oldest first so the newest tweet ends up at the head
+        for (int i = Math.min(tweets.size(), MAX_ENTRIES) - 1; i >= 0; i--) {
+            append(slot, tweets.get(i), MAX_ENTRIES);
+        }
+    }
+
+    @Override
+    public synchronized void cacheEmptyTimeline(UUID userId, Duration duration) {
+        store(userId, duration);
+    }
+
+    @Override
+    public synchronized void invalidateTimeline(UUID userId) {
+        int slot = find(userId);
+        if (slot != NONE) {
+            free(slot);
+        }
+    }
+
+    @Override
+    public synchronized void invalidateTimelines(Collection<UUID> userIds) {
+        userIds.forEach(this::invalidateTimeline);
+    }
+
+    @Override
+    public synchronized void prependToTimeline(UUID userId, Tweet tweet, int maxSize) {
+        // Like LPUSHX: a timeline that is not cached is rebuilt with the tweet on the next read
+        int slot = findLive(userId);
+        if (slot != NONE) {
+            append(slot, tweet, Math.min(maxSize, MAX_ENTRIES));
+        }
+    }
+
+    @Override
+    public synchronized void prependToTimelines(Collection<UUID> userIds, Tweet tweet, int maxSize) {
+        userIds.forEach(userId -> prependToTimeline(userId, tweet, maxSize));
+    }
+
+    // A single node has no other node to coordinate rebuilds with, the in-process single-flight is enough
+    @Override
+    public Optional<String> tryAcquireRebuildLease(UUID userId, Duration ttl) {
+        return Optional.of(UUID.randomUUID().toString());
+    }
+
+    @Override
+    public void releaseRebuildLease(UUID userId, String token) {
+    }
+
+    @Override
+    public synchronized List<UUID> findRecentlyReadTimelines(int limit) {
+        List<UUID> userIds = new ArrayList<>(Math.min(limit, usedSlots));
+        long now = clock.getAsLong();
+        for (int slot = mostRecentlyRead; slot != NONE && userIds.size() < limit; slot = getInt(slot, LRU_NEXT)) {
+            if (getLong(slot, EXPIRES_AT) > now) {
+                userIds.add(owner(slot));
+            }
+        }
+        return userIds;
+    }
+
+    // Nothing sits in front of this cache, every read already moves its timeline up the LRU list
+    @Override
+    public void recordTimelineReads(Map<UUID, Integer> readCounts) {
+    }
+
+    // Slot allocation
+
+    private int store(UUID userId, Duration duration) {
+        int slot = find(userId);
+        if (slot == NONE) {
+            slot = allocate(userId);
+        } else {
+            moveToFront(slot);
+        }
+        putInt(slot, HEAD, 0);
+        putInt(slot, TAIL, 0);
+        putInt(slot, COUNT, 0);
+        long now = clock.getAsLong();
+        long ttlMillis = duration.toMillis();
+        putLong(slot, EXPIRES_AT, ttlMillis >= Long.MAX_VALUE - now ? Long.MAX_VALUE : now + ttlMillis);
+        putInt(slot, TTL_MILLIS, (int) Math.min(ttlMillis, Integer.MAX_VALUE));
+        return slot;
+    }
+
+    private int allocate(UUID userId) {
+        if (freeHead == NONE) {
+            int victim = leastRecentlyRead;
+            (getLong(victim, EXPIRES_AT) <= clock.getAsLong() ? ttlEvictions : lruEvictions).increment();
+            free(victim);
+        }
+        int slot = freeHead;
+        freeHead = getInt(slot, LRU_NEXT);
+        putLong(slot, OWNER_MSB, userId.getMostSignificantBits());
+        putLong(slot, OWNER_LSB, userId.getLeastSignificantBits());
+        putInt(slot, LRU_PREV, NONE);
+        putInt(slot, LRU_NEXT, NONE);
+        linkFirst(slot);
+        indexInsert(slot);
+        usedSlots++;
+        return slot;
+    }
+
+    private void free(int slot) {
+        indexRemove(slot);
+        unlink(slot);
+        putInt(slot, LRU_NEXT, freeHead);
+        freeHead = slot;
+        usedSlots--;
+    }
+
+    // Cached and not expired, expired timelines are dropped on the way
+    private int findLive(UUID userId) {
+        int slot = find(userId);
+        if (slot != NONE && getLong(slot, EXPIRES_AT) <= clock.getAsLong()) {
+            ttlEvictions.increment();
+            free(slot);
+            return NONE;
+        }
+        return slot;
+    }
+
+    // LRU list, most recently read first
+
+    private void moveToFront(int slot) {
+        if (slot != mostRecentlyRead) {
+            unlink(slot);
+            linkFirst(slot);
+        }
+    }
+
+    private void linkFirst(int slot) {
+        putInt(slot, LRU_PREV, NONE);
+        putInt(slot, LRU_NEXT, mostRecentlyRead);
+        if (mostRecentlyRead != NONE) {
+            putInt(mostRecentlyRead, LRU_PREV, slot);
+        }
+        mostRecentlyRead = slot;
+        if (leastRecentlyRead == NONE) {
+            leastRecentlyRead = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        int prev = getInt(slot, LRU_PREV);
+        int next = getInt(slot, LRU_NEXT);
+        if (prev == NONE) {
+            mostRecentlyRead = next;
+        } else {
+            putInt(prev, LRU_NEXT, next);
+        }
+        if (next == NONE) {
+            leastRecentlyRead = prev;
+        } else {
+            putInt(next, LRU_PREV, prev);
+        }
+    }
+
+    // Ring buffer
+
+    private void append(int slot, Tweet tweet, int maxEntries) {
+        byte[] content = tweet.getContent() == null ? null : tweet.getContent().getBytes(StandardCharsets.UTF_8);
+        int length = ENTRY_HEADER_BYTES + (content == null ? 0 : content.length);
+        if (length > ringBytes || maxEntries < 1) {
+            return; // Larger than the whole slot, the timeline is cached without it
+        }
+        int position;
+        while ((position = reserve(slot, length)) == NONE) {
+            dropOldest(slot);
+        }
+        ByteBuffer chunk = chunkOf(slot);
+        int offset = ringOffset(slot) + position;
+        Instant createdAt = tweet.getCreatedAt().toInstant(ZoneOffset.UTC);
+        chunk.putInt(offset, length);
+        chunk.putLong(offset + 4, tweet.getId().getMostSignificantBits());
+        chunk.putLong(offset + 12, tweet.getId().getLeastSignificantBits());
+        chunk.putLong(offset + 20, tweet.getUserId().getMostSignificantBits());
+        chunk.putLong(offset + 28, tweet.getUserId().getLeastSignificantBits());
+        chunk.putLong(offset + 36, createdAt.toEpochMilli());
+        chunk.putInt(offset + 44, createdAt.getNano() % NANOS_PER_MILLI);
+        if (content == null) {
+            chunk.putInt(offset + 48, -1);
+        } else {
+            chunk.putInt(offset + 48, content.length);
+            chunk.put(offset + ENTRY_HEADER_BYTES, content);
+        }
+        putInt(slot, HEAD, position + length);
+        putInt(slot, COUNT, getInt(slot, COUNT) + 1);
+        while (getInt(slot, COUNT) > maxEntries) {
+            dropOldest(slot);
+        }
+    }
+
+    // Ring position where an entry of this length fits without overwriting live entries, NONE if it does not
+    private int reserve(int slot, int length) {
+        if (getInt(slot, COUNT) == 0) {
+            putInt(slot, HEAD, 0);
+            putInt(slot, TAIL, 0);
+            return 0;
+        }
+        int head = getInt(slot, HEAD);
+        int tail = getInt(slot, TAIL);
+        if (head < tail) {
+            return tail - head >= length ? head : NONE;
+        }
+        if (head == tail) {
+            return NONE; // Full
+        }
+        if (ringBytes - head >= length) {
+            return head;
+        }
+        if (tail >= length) {
+            if (ringBytes - head >= 4) {
+                chunkOf(slot).putInt(ringOffset(slot) + head, WRAP_MARKER);
+            }
+            return 0;
+        }
+        return NONE;
+    }
+
+    private void dropOldest(int slot) {
+        int tail = entryStart(slot, getInt(slot, TAIL));
+        int count = getInt(slot, COUNT) - 1;
+        putInt(slot, COUNT, count);
+        if (count == 0) {
+            putInt(slot, HEAD, 0);
+            putInt(slot, TAIL, 0);
+        } else {
+            putInt(slot, TAIL, tail + chunkOf(slot).getInt(ringOffset(slot) + tail));
+        }
+    }
+
+    private int entryStart(int slot, int position) {
+        return ringBytes - position < 4 || chunkOf(slot).getInt(ringOffset(slot) + position) == WRAP_MARKER ? 0 : position;
+    }
+
+    // Newest first
+    private List<Tweet> decode(int slot) {
+        ByteBuffer chunk = chunkOf(slot);
+        int ring = ringOffset(slot);
+        Tweet[] tweets = new Tweet[getInt(slot, COUNT)];
+        int position = getInt(slot, TAIL);
+        for (int i = tweets.length - 1; i >= 0; i--) {
+            position = entryStart(slot, position);
+            int offset = ring + position;
+            int contentLength = chunk.getInt(offset + 48);
+            String content = null;
+            if (contentLength >= 0) {
+                byte[] bytes = new byte[contentLength];
+                chunk.get(offset + ENTRY_HEADER_BYTES, bytes);
+                content = new String(bytes, StandardCharsets.UTF_8);
+            }
+            LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(chunk.getLong(offset + 36))
+                    .plusNanos(chunk.getInt(offset + 44)), ZoneOffset.UTC);
+            tweets[i] = new Tweet(new UUID(chunk.getLong(offset + 4), chunk.getLong(offset + 12)),
+                    new UUID(chunk.getLong(offset + 20), chunk.getLong(offset + 28)), content, createdAt);
+            position += chunk.getInt(offset);
+        }
+        return Arrays.asList(tweets);
+    }
+
+    // Index: linear probing, removals shift the following entries back instead of leaving tombstones
+
+    private int find(UUID userId) {
+        for (int bucket = home(userId); ; bucket = (bucket + 1) & indexMask) {
+            int entry = index.get(bucket);
+            if (entry == 0) {
+                return NONE;
+            }
+            int slot = entry - 1;
+            if (getLong(slot, OWNER_MSB) == userId.getMostSignificantBits()
+                    && getLong(slot, OWNER_LSB) == userId.getLeastSignificantBits()) {
+                return slot;
+            }
+        }
+    }
+
+    private void indexInsert(int slot) {
+        int bucket = home(owner(slot));
+        while (index.get(bucket) != 0) {
+            bucket = (bucket + 1) & indexMask;
+        }
+        index.put(bucket, slot + 1);
+    }
+
+    private void indexRemove(int slot) {
+        int hole = home(owner(slot));
+        while (index.get(hole) != slot + 1) {
+            hole = (hole + 1) & indexMask;
+        }
+        index.put(hole, 0);
+        for (int bucket = (hole + 1) & indexMask; index.get(bucket) != 0; bucket = (bucket + 1) & indexMask) {
+            int entry = index.get(bucket);
+            int home = home(owner(entry - 1));
+            // The entry can fill the hole unless its home bucket lies cyclically in (hole, bucket]
+            boolean reachable = hole <= bucket ? hole < home && home <= bucket : hole < home || home <= bucket;
+            if (!reachable) {
+                index.put(hole, entry);
+                index.put(bucket, 0);
+                hole = bucket;
+            }
+        }
+    }
+
+    private int home(UUID userId) {
+        return (int) ConsistentHashRing.hash(userId) & indexMask;
+    }
+
+    // Off-heap access
+
+    private UUID owner(int slot) {
+        return new UUID(getLong(slot, OWNER_MSB), getLong(slot, OWNER_LSB));
+    }
+
+    private ByteBuffer chunkOf(int slot) {
+        return chunks[slot / slotsPerChunk];
+    }
+
+    private int slotOffset(int slot) {
+        return (slot % slotsPerChunk) * slotBytes;
+    }
+
+    private int ringOffset(int slot) {
+        return slotOffset(slot) + HEADER_BYTES;
+    }
+
+    private int getInt(int slot, int field) {
+        return chunkOf(slot).getInt(slotOffset(slot) + field);
+    }
+
+    private void putInt(int slot, int field, int value) {
+        chunkOf(slot).putInt(slotOffset(slot) + field, value);
+    }
+
+    private long getLong(int slot, int field) {
+        return chunkOf(slot).getLong(slotOffset(slot) + field);
+    }
+
+    private void putLong(int slot, int field, long value) {
+        chunkOf(slot).putLong(slotOffset(slot) + field, value);
+    }
+}
@@ -1,32 +1,205 @@
 package com.microblogging.project.adapter.out.cache;
 
 import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.port.TweetRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 @Configuration
+@Profile("!embedded")
 public class RedisConfig {
 
+    @Value("${timeline.cache.redis.mode:standalone}")
+    private TimelineRedisMode mode = TimelineRedisMode.STANDALONE;
+
+    @Value("${timeline.cache.redis.representation:list}")
+    private TimelineRedisRepresentation representation = TimelineRedisRepresentation.LIST;
+
+    @Value("${spring.data.redis.host:localhost}")
+    private String host = "localhost";
+
+    @Value("${spring.data.redis.port:6379}")
+    private int port = 6379;
+
+    @Value("${spring.data.redis.password:}")
+    private String password = "";
+
+    @Value("${spring.data.redis.database:0}")
+    private int database = 0;
+
+    // Seed nodes of the Redis Cluster (host:port,host:port), cluster mode only
+    @Value("${spring.data.redis.cluster.nodes:}")
+    private String clusterNodes = "";
+
+    // Number of hash tags timelines are spread over on Redis Cluster, should be well above the number of masters
+    @Value("${timeline.cache.redis.cluster.hash-tag-buckets:256}")
+    private int hashTagBuckets = 256;
+
+    // Standalone Redis nodes (host:port,host:port) timelines are sharded over, sharded mode only.
+    // The first one also carries the near cache invalidation channel.
+    @Value("${timeline.cache.redis.shards:}")
+    private String shardNodes = "";
+
+    @Value("${timeline.cache.redis.sharding.virtual-nodes:160}")
+    private int virtualNodes = 160;
+
+    // Cached tweet bodies larger than the threshold are DEFLATE-compressed with a shared dictionary
+    @Value("${timeline.cache.compression.enabled:false}")
+    private boolean compressionEnabled = false;
+
+    @Value("${timeline.cache.compression.threshold-bytes:128}")
+    private int compressionThreshold = 128;
+
+    @Value("${timeline.cache.compression.level:1}")
+    private int compressionLevel = 1;
+
+    @Value("${timeline.cache.compression.dictionary:classpath:timeline-compression.dict}")
+    private Resource compressionDictionary;
+
+    // Connection factories of the shards other than the first one, which is the application's connection factory
+    private final List<JedisConnectionFactory> shardConnectionFactories = new ArrayList<>();
+
     @Bean
     public JedisConnectionFactory jedisConnectionFactory() {
-        RedisStandaloneConfiguration redisStandaloneConfiguration = new RedisStandaloneConfiguration("localhost", 6379);
-        return new JedisConnectionFactory(redisStandaloneConfiguration);
+        return switch (mode) {
+            case STANDALONE -> new JedisConnectionFactory(standaloneConfiguration(host + ":" + port));
+            case CLUSTER -> {
+                RedisClusterConfiguration clusterConfiguration = new RedisClusterConfiguration(nodes(clusterNodes, "spring.data.redis.cluster.nodes"));
+                if (!password.isEmpty()) {
+                    clusterConfiguration.setPassword(password);
+                }
+                yield new JedisConnectionFactory(clusterConfiguration);
+            }
+            case SHARDED -> new JedisConnectionFactory(standaloneConfiguration(nodes(shardNodes, "timeline.cache.redis.shards").get(0)));
+        };
     }
 
+    /**
+     * Serializer of cached tweet bodies, compressing when enabled. The compressing one reads uncompressed payloads,
+     * so compression can be switched on without flushing the cache.
+     */
     @Bean
-    public RedisTemplate<String, Tweet> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisSerializer<Tweet> tweetRedisSerializer(MeterRegistry meterRegistry) throws IOException {
+        if (!compressionEnabled) {
+            // Compact binary layout, still reads the JSON entries written by the previous serializer
+            return new TweetRedisSerializer();
+        }
+        byte[] dictionary = compressionDictionary == null ? new byte[0] : compressionDictionary.getContentAsByteArray();
+        return new CompressingTweetRedisSerializer(dictionary, compressionThreshold, compressionLevel, meterRegistry);
+    }
+
+    @Bean
+    public RedisTemplate<String, Tweet> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                      RedisSerializer<Tweet> tweetRedisSerializer) {
+        return tweetTemplate(connectionFactory, tweetRedisSerializer);
+    }
+
+    /**
+     * Redis timeline cache, spread over the shards in sharded mode. The near cache, when enabled, sits in front of it.
+     */
+    @Bean
+    public ShardedTimelineRedisAdapter timelineRedisCache(RedisTemplate<String, Tweet> redisTemplate,
+                                                          RedisSerializer<Tweet> tweetRedisSerializer,
+                                                          StringRedisTemplate stringRedisTemplate,
+                                                          TweetRepository tweetRepository,
+                                                          @Value("${timeline.cache.tweet-ttl:1h}") Duration tweetTtl,
+                                                          @Value("${timeline.cache.adaptive-ttl.half-life:10m}") Duration accessHalfLife) {
+        List<TimelineRedisAdapter> shards = new ArrayList<>();
+        switch (mode) {
+            case STANDALONE -> shards.add(new TimelineRedisAdapter(redisTemplate, stringRedisTemplate, tweetRepository,
+                    tweetTtl, TimelineKeys.untagged(), host + ":" + port, representation, accessHalfLife));
+            case CLUSTER -> shards.add(new TimelineRedisAdapter(redisTemplate, stringRedisTemplate, tweetRepository,
+                    tweetTtl, TimelineKeys.hashTagged(hashTagBuckets), "cluster", representation, accessHalfLife));
+            case SHARDED -> {
+                List<String> nodes = nodes(shardNodes, "timeline.cache.redis.shards");
+                shards.add(new TimelineRedisAdapter(redisTemplate, stringRedisTemplate, tweetRepository,
+                        tweetTtl, TimelineKeys.untagged(), nodes.get(0), representation, accessHalfLife));
+                for (String node : nodes.subList(1, nodes.size())) {
+                    JedisConnectionFactory connectionFactory = new JedisConnectionFactory(standaloneConfiguration(node));
+                    connectionFactory.afterPropertiesSet();
+                    connectionFactory.start();
+                    shardConnectionFactories.add(connectionFactory);
+                    RedisTemplate<String, Tweet> shardTemplate = tweetTemplate(connectionFactory, tweetRedisSerializer);
+                    shardTemplate.afterPropertiesSet();
+                    shards.add(new TimelineRedisAdapter(shardTemplate, new StringRedisTemplate(connectionFactory),
+                            tweetRepository, tweetTtl, TimelineKeys.untagged(), node, representation, accessHalfLife));
+                }
+            }
+        }
+        return new ShardedTimelineRedisAdapter(shards, virtualNodes);
+    }
+
+    @PreDestroy
+    void closeShardConnections() {
+        shardConnectionFactories.forEach(JedisConnectionFactory::destroy);
+    }
+
+    // Receives timeline invalidations broadcast by the other nodes for the near cache.
+    // Started by NearCacheTimelineAdapter so an unreachable Redis does not prevent the application from starting.
+    @Bean
+    @ConditionalOnProperty(name = "timeline.cache.near.enabled", havingValue = "true")
+    public RedisMessageListenerContainer timelineInvalidationListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    private static RedisTemplate<String, Tweet> tweetTemplate(RedisConnectionFactory connectionFactory,
+                                                              RedisSerializer<Tweet> tweetSerializer) {
         RedisTemplate<String, Tweet> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new Jackson2JsonRedisSerializer<>(Tweet.class));
+        template.setValueSerializer(tweetSerializer);
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(new Jackson2JsonRedisSerializer<>(Tweet.class));
+        template.setHashValueSerializer(tweetSerializer);
         return template;
     }
-}
\ No newline at end of file
+
+    private RedisStandaloneConfiguration standaloneConfiguration(String node) {
+        int separator = node.lastIndexOf(':');
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                node.substring(0, separator), Integer.parseInt(node.substring(separator + 1)));
+        configuration.setDatabase(database);
+        if (!password.isEmpty()) {
+            configuration.setPassword(password);
+        }
+        return configuration;
+    }
+
+    private static List<String> nodes(String nodes, String property) {
+        List<String> parsed = Arrays.stream(nodes.split(","))
+                .map(String::trim)
+                .filter(node -> !node.isEmpty())
+                .toList();
+        if (parsed.isEmpty()) {
+            throw new IllegalStateException("No Redis node configured in " + property);
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,146 @@
+package com.microblogging.project.adapter.out.cache;
+
+import com.microblogging.project.domain.model.CachedTimeline;
+import com.microblogging.project.domain.model.TimelineCursor;
+import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.port.TimelineCachePort;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Client-side sharding of the Redis timeline cache over several independent Redis deployments.
+ * Each user is owned by one shard of a {@link ConsistentHashRing}: the timeline, its lease, its access index entry
+ * and the tweet bodies it references all live on that shard, so every script and multi-key command stays
+ * shard-local. Bulk invalidations are split by shard. With a single shard this is a plain pass-through.
+ */
+public class ShardedTimelineRedisAdapter implements TimelineCachePort {
+
+    private final ConsistentHashRing<TimelineRedisAdapter> ring;
+
+    public ShardedTimelineRedisAdapter(List<TimelineRedisAdapter> shards, int virtualNodes) {
+        this.ring = new ConsistentHashRing<>(shards, TimelineRedisAdapter::name, virtualNodes);
+    }
+
+    List<TimelineRedisAdapter> shards() {
+        return ring.shards();
+    }
+
+    private TimelineRedisAdapter shardFor(UUID userId) {
+        return ring.shardFor(userId);
+    }
+
+    @Override
+    public Optional<List<Tweet>> getTimeline(UUID userId) {
+        return shardFor(userId).getTimeline(userId);
+    }
+
+    @Override
+    public Optional<CachedTimeline> getCachedTimeline(UUID userId) {
+        return shardFor(userId).getCachedTimeline(userId);
+    }
+
+    @Override
+    public boolean hasTimeline(UUID userId) {
+        return shardFor(userId).hasTimeline(userId);
+    }
+
+    @Override
+    public Optional<List<Tweet>> getTimelinePage(UUID userId, TimelineCursor cursor, int limit) {
+        return shardFor(userId).getTimelinePage(userId, cursor, limit);
+    }
+
+    @Override
+    public void cacheTimeline(UUID userId, List<Tweet> tweets, Duration duration) {
+        shardFor(userId).cacheTimeline(userId, tweets, duration);
+    }
+
+    @Override
+    public void cacheEmptyTimeline(UUID userId, Duration duration) {
+        shardFor(userId).cacheEmptyTimeline(userId, duration);
+    }
+
+    @Override
+    public void invalidateTimeline(UUID userId) {
+        shardFor(userId).invalidateTimeline(userId);
+    }
+
+    @Override
+    public void invalidateTimelines(Collection<UUID> userIds) {
+        if (ring.shards().size() == 1) {
+            ring.shards().get(0).invalidateTimelines(userIds);
+            return;
+        }
+        // One bulk invalidation per shard, each a single round trip
+        Map<TimelineRedisAdapter, List<UUID>> userIdsByShard = userIds.stream()
+                .collect(Collectors.groupingBy(this::shardFor));
+        userIdsByShard.forEach(TimelineRedisAdapter::invalidateTimelines);
+    }
+
+    @Override
+    public void prependToTimeline(UUID userId, Tweet tweet, int maxSize) {
+        shardFor(userId).prependToTimeline(userId, tweet, maxSize);
+    }
+
+    @Override
+    public void prependToTimelines(Collection<UUID> userIds, Tweet tweet, int maxSize) {
+        if (ring.shards().size() == 1) {
+            ring.shards().get(0).prependToTimelines(userIds, tweet, maxSize);
+            return;
+        }
+        // One bulk prepend per shard, each a single round trip
+        Map<TimelineRedisAdapter, List<UUID>> userIdsByShard = userIds.stream()
+                .collect(Collectors.groupingBy(this::shardFor));
+        userIdsByShard.forEach((shard, shardUserIds) -> shard.prependToTimelines(shardUserIds, tweet, maxSize));
+    }
+
+    @Override
+    public Optional<String> tryAcquireRebuildLease(UUID userId, Duration ttl) {
+        return shardFor(userId).tryAcquireRebuildLease(userId, ttl);
+    }
+
+    @Override
+    public void releaseRebuildLease(UUID userId, String token) {
+        shardFor(userId).releaseRebuildLease(userId, token);
+    }
+
+    // Shards have no shared notion of heat, their hottest timelines are interleaved
+    @Override
+    public List<UUID> findRecentlyReadTimelines(int limit) {
+        List<List<UUID>> perShard = ring.shards().stream()
+                .map(shard -> shard.findRecentlyReadTimelines(limit))
+                .toList();
+        List<UUID> userIds = new ArrayList<>(limit);
+        for (int rank = 0; userIds.size() < limit; rank++) {
+            boolean found = false;
+            for (List<UUID> shardUserIds : perShard) {
+                if (rank < shardUserIds.size() && userIds.size() < limit) {
+                    userIds.add(shardUserIds.get(rank));
+                    found = true;
+                }
+            }
+            if (!found) {
+                break;
+            }
+        }
+        return userIds;
+    }
+
+    @Override
+    public void recordTimelineReads(Map<UUID, Integer> readCounts) {
+        if (ring.shards().size() == 1) {
+            ring.shards().get(0).recordTimelineReads(readCounts);
+            return;
+        }
+        Map<TimelineRedisAdapter, Map<UUID, Integer>> readCountsByShard = readCounts.entrySet().stream()
+                .collect(Collectors.groupingBy(entry -> shardFor(entry.getKey()),
+                        Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+        readCountsByShard.forEach(TimelineRedisAdapter::recordTimelineReads);
+    }
+}
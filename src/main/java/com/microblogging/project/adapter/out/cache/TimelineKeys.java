@@ -0,0 +1,105 @@
+package com.microblogging.project.adapter.out.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Redis key layout of the timeline cache.
+ * <p>
+ * On a single node or client-side shards keys are plain: {@code timeline:<userId>} with the TTL it was cached with
+ * in {@code timeline:ttl:<userId>}, {@code tweet:<tweetId>} and one {@code timeline:access} index. On Redis Cluster every user is assigned one of {@code hashTagBuckets}
+ * hash tags, and the user's timeline, the tweet bodies it references and the access index entry all carry it:
+ * {@code timeline:{b7}:<userId>}, {@code tweet:{b7}:<tweetId>}, {@code timeline:access:{b7}}. Everything a timeline
+ * operation touches then lives in one slot, so the Lua scripts and multi-key commands stay legal and node-local.
+ * The cost is that a tweet body is cached once per bucket referencing it instead of once overall.
+ */
+final class TimelineKeys {
+
+    private static final String TIMELINE_PREFIX = "timeline:";
+    private static final String TWEET_PREFIX = "tweet:";
+    private static final String ACCESS_INDEX = "timeline:access";
+
+    private final int hashTagBuckets;
+
+    private TimelineKeys(int hashTagBuckets) {
+        this.hashTagBuckets = hashTagBuckets;
+    }
+
+    static TimelineKeys untagged() {
+        return new TimelineKeys(0);
+    }
+
+    static TimelineKeys hashTagged(int buckets) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("At least one hash tag bucket is needed, got " + buckets);
+        }
+        return new TimelineKeys(buckets);
+    }
+
+    boolean isHashTagged() {
+        return hashTagBuckets > 0;
+    }
+
+    String timeline(UUID userId) {
+        return TIMELINE_PREFIX + tag(userId) + userId;
+    }
+
+    // Written and read by the timeline scripts, so it carries the timeline's tag
+    String timelineTtl(UUID userId) {
+        return TIMELINE_PREFIX + "ttl:" + tag(userId) + userId;
+    }
+
+    // Single-key operations only, no tag needed
+    String lease(UUID userId) {
+        return "timeline:lease:" + userId;
+    }
+
+    /**
+     * Key of a tweet body as referenced from the timeline of {@code ownerId}.
+     */
+    String tweet(UUID ownerId, UUID tweetId) {
+        return TWEET_PREFIX + tag(ownerId) + tweetId;
+    }
+
+    String accessIndex(UUID userId) {
+        return isHashTagged() ? ACCESS_INDEX + ":" + bucketTag(bucketOf(userId)) : ACCESS_INDEX;
+    }
+
+    List<String> accessIndexes() {
+        if (!isHashTagged()) {
+            return List.of(ACCESS_INDEX);
+        }
+        List<String> indexes = new ArrayList<>(hashTagBuckets);
+        for (int bucket = 0; bucket < hashTagBuckets; bucket++) {
+            indexes.add(ACCESS_INDEX + ":" + bucketTag(bucket));
+        }
+        return indexes;
+    }
+
+    /**
+     * Owner of a timeline key, as found in the access indexes.
+     */
+    static UUID userIdOf(String timelineKey) {
+        return UUID.fromString(timelineKey.substring(timelineKey.lastIndexOf(':') + 1));
+    }
+
+    /**
+     * Hash tag shared by all the keys of a user's timeline, empty when keys are not tagged.
+     */
+    String tagOf(UUID userId) {
+        return isHashTagged() ? bucketTag(bucketOf(userId)) : "";
+    }
+
+    private String tag(UUID userId) {
+        return isHashTagged() ? bucketTag(bucketOf(userId)) + ":" : "";
+    }
+
+    private int bucketOf(UUID userId) {
+        return (int) Math.floorMod(ConsistentHashRing.hash(userId), (long) hashTagBuckets);
+    }
+
+    private static String bucketTag(int bucket) {
+        return "{b" + bucket + "}";
+    }
+}
@@ -0,0 +1,104 @@
+package com.microblogging.project.adapter.out.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps Redis memory under a budget by evicting cached timelines, least valuable first. Their tweet bodies, possibly
+ * shared, expire on their own.
+ * Value is the decaying read frequency kept in the access index by {@link TimelineRedisAdapter}, near cache hits
+ * included. The budget applies to each Redis node: every shard, or the fullest node of a cluster.
+ * A small first batch measures how much memory a timeline frees, later batches are sized from it to close the gap.
+ * Evicted timelines are simply rebuilt on their next read.
+ */
+@Component
+@Profile("!embedded")
+public class TimelineMemoryBudget {
+
+    private static final Logger log = LoggerFactory.getLogger(TimelineMemoryBudget.class);
+
+    // First batch of a check, measures the memory freed per timeline
+    static final int PROBE_BATCH_SIZE = 20;
+    static final int MAX_EVICTION_BATCH_SIZE = 1000;
+    // Upper bound of eviction batches per check, so one run never monopolizes Redis
+    private static final int MAX_EVICTION_ROUNDS = 50;
+
+    private final ShardedTimelineRedisAdapter timelineRedisCache;
+    private final long maxMemoryBytes;
+    private final Duration accessRetention;
+    private final AtomicLong usedMemory = new AtomicLong();
+    private final Counter evictions;
+
+    public TimelineMemoryBudget(ShardedTimelineRedisAdapter timelineRedisCache,
+                                MeterRegistry meterRegistry,
+                                @Value("${timeline.cache.redis.max-memory-bytes:0}") long maxMemoryBytes,
+                                @Value("${timeline.cache.adaptive-ttl.max:30m}") Duration accessRetention) {
+        this.timelineRedisCache = timelineRedisCache;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.accessRetention = accessRetention;
+        this.evictions = Counter.builder("timeline.cache.budget.evictions")
+                .description("Cached timelines evicted to keep Redis under its memory budget")
+                .register(meterRegistry);
+        Gauge.builder("timeline.cache.redis.used-memory", usedMemory, AtomicLong::get)
+                .description("Redis used memory at the last budget check, of the fullest node")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${timeline.cache.redis.budget-check-interval:30s}")
+    public void enforce() {
+        if (maxMemoryBytes <= 0) {
+            return;
+        }
+        long fullest = 0;
+        for (TimelineRedisAdapter shard : timelineRedisCache.shards()) {
+            try {
+                fullest = Math.max(fullest, enforce(shard));
+            } catch (Exception e) {
+                log.warn("Failed to enforce the Redis timeline memory budget on {}: {}", shard.name(), e.getMessage());
+            }
+        }
+        usedMemory.set(fullest);
+    }
+
+    private long enforce(TimelineRedisAdapter shard) {
+        // Entries older than the longest TTL can only point at timelines that already expired
+        shard.pruneAccessIndexes(System.currentTimeMillis() - accessRetention.toMillis());
+
+        long used = shard.usedMemoryBytes();
+        int batchSize = PROBE_BATCH_SIZE;
+        for (int round = 0; round < MAX_EVICTION_ROUNDS && used > maxMemoryBytes; round++) {
+            int evicted = shard.evictLeastValuable(batchSize);
+            if (evicted == 0) {
+                break;
+            }
+            evictions.increment(evicted);
+            long freed = used;
+            used = shard.usedMemoryBytes();
+            freed -= used;
+            if (freed <= 0) {
+                // Nothing measurable was reclaimed (allocator, concurrent writes), look again on the next check
+                // rather than evicting blindly
+                log.debug("Evicting {} timelines freed no memory on Redis {}", evicted, shard.name());
+                break;
+            }
+            long bytesPerTimeline = Math.max(1, freed / evicted);
+            batchSize = (int) Math.min(MAX_EVICTION_BATCH_SIZE, Math.ceilDiv(used - maxMemoryBytes, bytesPerTimeline));
+        }
+        if (used > maxMemoryBytes) {
+            log.warn("Redis {} still uses {} bytes after evicting timelines, over the {} bytes budget",
+                    shard.name(), used, maxMemoryBytes);
+        }
+        return used;
+    }
+}
@@ -1,42 +1,314 @@
 package com.microblogging.project.adapter.out.cache;
 
+import com.microblogging.project.application.service.TimelineService;
+import com.microblogging.project.domain.model.CachedTimeline;
+import com.microblogging.project.domain.model.TimelineCursor;
 import com.microblogging.project.domain.model.Tweet;
 import com.microblogging.project.domain.port.TimelineCachePort; // Import the domain port
+import com.microblogging.project.domain.port.TweetRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ListOperations;
-import org.springframework.stereotype.Component;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Collectors;
 
-@Component
+/**
+ * Redis timeline cache. Timelines are lists of tweet IDs, newest first, while tweet bodies are stored once
+ * in a shared tweet cache and hydrated with a single MGET. Bodies missing from Redis are loaded from the database
+ * and written back. Reads and writes of a timeline are Lua scripts, so each one is atomic and costs a single
+ * round trip, and every key a script touches shares the timeline's hash tag on Redis Cluster (see {@link TimelineKeys}).
+ * One instance serves one Redis deployment, {@link ShardedTimelineRedisAdapter} spreads users over several.
+ * <p>
+ * The IDs are kept either in a list or in a sorted set scored by tweet timestamp, see {@link TimelineRedisRepresentation}.
+ * <p>
+ * Reads are tracked in an access index scored by heat, a read frequency decaying by half every half-life like
+ * the one of {@code TimelineAccessTracker}. It is stored as {@code log2(sum of 2^t)} over the reads, with {@code t}
+ * in half-lives since the epoch, so an entry never needs rescoring as time passes: the lowest score is the least
+ * valuable timeline, and a score below {@code t} means the timeline was not read since {@code t}.
+ */
 public class TimelineRedisAdapter implements TimelineCachePort {
 
     private static final Logger log = LoggerFactory.getLogger(TimelineRedisAdapter.class);
 
-    private final RedisTemplate<String, Tweet> redisTemplate;
-    private final ListOperations<String, Tweet> listOperations;
+    // Deletes the lease only if it still belongs to the caller
+    private static final RedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
 
-    public TimelineRedisAdapter(RedisTemplate<String, Tweet> redisTemplate) {
-        this.redisTemplate = redisTemplate;
-        this.listOperations = redisTemplate.opsForList();
+    /*
+     * Replaces a timeline and stores its tweet bodies atomically, so readers never see a partial list
+     * and the list never exists without a TTL. The TTL is kept next to the list, for readers to judge its staleness.
+     * KEYS[1] timeline, KEYS[2] timeline TTL, KEYS[3..] tweet bodies; ARGV[1] timeline TTL (ms), ARGV[2] tweet TTL (ms),
+     * then the tweet IDs in timeline order, then one body per tweet key.
+     */
+    private static final RedisScript<Long> CACHE_TIMELINE_SCRIPT = new DefaultRedisScript<>("""
+            local ids = #ARGV - #KEYS
+            for i = 3, #KEYS do
+              redis.call('set', KEYS[i], ARGV[ids + i], 'px', ARGV[2])
+            end
+            redis.call('del', KEYS[1])
+            if ids > 0 then
+              redis.call('rpush', KEYS[1], unpack(ARGV, 3, ids + 2))
+              redis.call('pexpire', KEYS[1], ARGV[1])
+              redis.call('set', KEYS[2], ARGV[1], 'px', ARGV[1])
+            end
+            return ids
+            """, Long.class);
+
+    /*
+     * Pushes a tweet ID onto cached timelines, drops the empty-timeline sentinel and trims, in one step.
+     * KEYS[1..] timelines; ARGV[1] tweet ID, ARGV[2] max size, ARGV[3] sentinel.
+     * Timelines that are not cached are skipped. Returns the number of timelines pushed to.
+     */
+    private static final RedisScript<Long> PREPEND_SCRIPT = new DefaultRedisScript<>("""
+            local pushed = 0
+            for i = 1, #KEYS do
+              if redis.call('exists', KEYS[i]) == 1 then
+                local size = redis.call('lpush', KEYS[i], ARGV[1])
+                if size == 2 then
+                  size = size - redis.call('lrem', KEYS[i], -1, ARGV[3])
+                end
+                if size > tonumber(ARGV[2]) then
+                  redis.call('ltrim', KEYS[i], 0, tonumber(ARGV[2]) - 1)
+                end
+                pushed = pushed + 1
+              end
+            end
+            return pushed
+            """, Long.class);
+
+    /*
+     * Adds reads to the heat of an access index entry: log2(2^current + 2^heat), computed without overflowing.
+     * Shared by the scripts recording reads.
+     */
+    private static final String ADD_HEAT_LUA = """
+            local function add_heat(index, member, heat)
+              local current = redis.call('zscore', index, member)
+              if current then
+                current = tonumber(current)
+                local high, low = math.max(current, heat), math.min(current, heat)
+                heat = high + math.log(1 + 2 ^ (low - high)) / math.log(2)
+              end
+              redis.call('zadd', index, heat, member)
+            end
+            """;
+
+    /*
+     * Reads a timeline and records the read in the access index.
+     * KEYS[1] timeline, KEYS[2] access index, KEYS[3] timeline TTL; ARGV[1] now (half-lives since the epoch),
+     * ARGV[2] maximum number of IDs.
+     * Returns the remaining TTL (ms), the TTL the timeline was cached with (ms, -1 if unknown) and the tweet IDs.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> READ_TIMELINE_SCRIPT = new DefaultRedisScript<>(ADD_HEAT_LUA + """
+            add_heat(KEYS[2], KEYS[1], tonumber(ARGV[1]))
+            local ids = redis.call('lrange', KEYS[1], 0, tonumber(ARGV[2]) - 1)
+            return {redis.call('pttl', KEYS[1]), tonumber(redis.call('get', KEYS[3]) or '-1'), unpack(ids)}
+            """, List.class);
+
+    /*
+     * Sorted-set counterpart of CACHE_TIMELINE_SCRIPT.
+     * KEYS[1] timeline, KEYS[2] timeline TTL, KEYS[3..] tweet bodies; ARGV[1] timeline TTL (ms), ARGV[2] tweet TTL (ms),
+     * then one score and ID pair per entry, then one body per tweet key.
+     */
+    private static final RedisScript<Long> CACHE_SORTED_TIMELINE_SCRIPT = new DefaultRedisScript<>("""
+            local pairs_end = #ARGV - (#KEYS - 2)
+            for i = 3, #KEYS do
+              redis.call('set', KEYS[i], ARGV[pairs_end + i - 2], 'px', ARGV[2])
+            end
+            redis.call('del', KEYS[1])
+            if pairs_end > 2 then
+              redis.call('zadd', KEYS[1], unpack(ARGV, 3, pairs_end))
+              redis.call('pexpire', KEYS[1], ARGV[1])
+              redis.call('set', KEYS[2], ARGV[1], 'px', ARGV[1])
+            end
+            return (pairs_end - 2) / 2
+            """, Long.class);
+
+    /*
+     * Inserts a tweet ID into cached sorted-set timelines at its timestamp, drops the empty-timeline sentinel and
+     * trims the oldest entries, in one step. Re-inserting an ID already there is a no-op.
+     * KEYS[1..] timelines; ARGV[1] score, ARGV[2] tweet ID, ARGV[3] max size, ARGV[4] sentinel.
+     * Timelines that are not cached are skipped. Returns the number of timelines inserted into.
+     */
+    private static final RedisScript<Long> ZADD_SCRIPT = new DefaultRedisScript<>("""
+            local pushed = 0
+            for i = 1, #KEYS do
+              if redis.call('exists', KEYS[i]) == 1 then
+                redis.call('zrem', KEYS[i], ARGV[4])
+                redis.call('zadd', KEYS[i], ARGV[1], ARGV[2])
+                local size = redis.call('zcard', KEYS[i])
+                if size > tonumber(ARGV[3]) then
+                  redis.call('zremrangebyrank', KEYS[i], 0, size - tonumber(ARGV[3]) - 1)
+                end
+                pushed = pushed + 1
+              end
+            end
+            return pushed
+            """, Long.class);
+
+    /*
+     * Sorted-set counterpart of READ_TIMELINE_SCRIPT, same keys, arguments and result.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> READ_SORTED_TIMELINE_SCRIPT = new DefaultRedisScript<>(ADD_HEAT_LUA + """
+            add_heat(KEYS[2], KEYS[1], tonumber(ARGV[1]))
+            local ids = redis.call('zrevrange', KEYS[1], 0, tonumber(ARGV[2]) - 1)
+            return {redis.call('pttl', KEYS[1]), tonumber(redis.call('get', KEYS[3]) or '-1'), unpack(ids)}
+            """, List.class);
+
+    /*
+     * Reads the IDs at or below a score, newest first: the page after a cursor plus the entries sharing the cursor's
+     * score, which the caller orders against the cursor by ID.
+     * KEYS[1] timeline; ARGV[1] cursor score, ARGV[2] page size.
+     * Returns whether the timeline is cached (1 or 0) followed by the tweet IDs.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> READ_SORTED_PAGE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('exists', KEYS[1]) == 0 then
+              return {0}
+            end
+            local ties = redis.call('zcount', KEYS[1], ARGV[1], ARGV[1])
+            local ids = redis.call('zrevrangebyscore', KEYS[1], ARGV[1], '-inf', 'LIMIT', 0, tonumber(ARGV[2]) + ties)
+            return {1, unpack(ids)}
+            """, List.class);
+
+    /*
+     * Writes tweet bodies loaded from the database back to the tweet cache.
+     * KEYS tweet bodies; ARGV[1] tweet TTL (ms), then one body per key.
+     */
+    private static final RedisScript<Long> CACHE_TWEETS_SCRIPT = new DefaultRedisScript<>("""
+            for i = 1, #KEYS do
+              redis.call('set', KEYS[i], ARGV[i + 1], 'px', ARGV[1])
+            end
+            return #KEYS
+            """, Long.class);
+
+    /*
+     * Records reads served elsewhere (near cache) in the access index, n reads now weigh log2(n) more than one.
+     * KEYS[1] access index; ARGV[1] now (half-lives since the epoch), then one timeline key and read count pair per entry.
+     */
+    private static final RedisScript<Long> RECORD_READS_SCRIPT = new DefaultRedisScript<>(ADD_HEAT_LUA + """
+            local now = tonumber(ARGV[1])
+            for i = 2, #ARGV, 2 do
+              add_heat(KEYS[1], ARGV[i], now + math.log(tonumber(ARGV[i + 1])) / math.log(2))
+            end
+            return (#ARGV - 1) / 2
+            """, Long.class);
+
+    // Decay of the access index heat when not configured, the default adaptive TTL half-life
+    static final Duration DEFAULT_ACCESS_HALF_LIFE = Duration.ofMinutes(10);
+
+    private static final RedisSerializer<Long> LONG_RESULT_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    // Keys per UNLINK command when invalidating in bulk, keeps each command small on the Redis side
+    static final int UNLINK_BATCH_SIZE = 500;
+
+    // Timelines per prepend script when pushing in bulk, bounds how long each script blocks Redis
+    static final int PREPEND_BATCH_SIZE = 500;
+
+    // Sole entry of a timeline known to be empty (negative cache), never returned to callers
+    static final String EMPTY_TIMELINE_SENTINEL = new UUID(0, 0).toString();
+
+    private final ValueOperations<String, Tweet> tweetOperations;
+    private final RedisSerializer<Tweet> tweetSerializer;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ListOperations<String, String> listOperations;
+    private final TweetRepository tweetRepository;
+    private final Duration tweetTtl;
+    private final TimelineKeys keys;
+    private final String name;
+    private final TimelineRedisRepresentation representation;
+    private final double accessHalfLifeMillis;
+
+    public TimelineRedisAdapter(RedisTemplate<String, Tweet> redisTemplate,
+                                StringRedisTemplate stringRedisTemplate,
+                                TweetRepository tweetRepository,
+                                Duration tweetTtl) {
+        this(redisTemplate, stringRedisTemplate, tweetRepository, tweetTtl, TimelineRedisRepresentation.LIST);
+    }
+
+    public TimelineRedisAdapter(RedisTemplate<String, Tweet> redisTemplate,
+                                StringRedisTemplate stringRedisTemplate,
+                                TweetRepository tweetRepository,
+                                Duration tweetTtl,
+                                TimelineRedisRepresentation representation) {
+        this(redisTemplate, stringRedisTemplate, tweetRepository, tweetTtl, TimelineKeys.untagged(), "redis", representation,
+                DEFAULT_ACCESS_HALF_LIFE);
+    }
+
+    /**
+     * @param keys Key layout, hash-tagged on Redis Cluster.
+     * @param name Stable name of the Redis deployment (e.g. host:port), places it on the shard ring.
+     * @param representation Redis data type of the timelines.
+     * @param accessHalfLife Time after which a read counts half as much in the access index heat.
+     */
+    @SuppressWarnings("unchecked")
+    TimelineRedisAdapter(RedisTemplate<String, Tweet> redisTemplate,
+                         StringRedisTemplate stringRedisTemplate,
+                         TweetRepository tweetRepository,
+                         Duration tweetTtl,
+                         TimelineKeys keys,
+                         String name,
+                         TimelineRedisRepresentation representation,
+                         Duration accessHalfLife) {
+        this.keys = keys;
+        this.name = name;
+        this.representation = representation;
+        this.tweetOperations = redisTemplate.opsForValue();
+        this.tweetSerializer = (RedisSerializer<Tweet>) redisTemplate.getValueSerializer();
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listOperations = stringRedisTemplate.opsForList();
+        this.tweetRepository = tweetRepository;
+        this.tweetTtl = tweetTtl;
+        this.accessHalfLifeMillis = accessHalfLife.toMillis();
     }
 
-    private String getRedisKey(UUID userId) {
-        return "timeline:" + userId;
+    /**
+     * Name of the Redis deployment this adapter stores timelines on.
+     */
+    public String name() {
+        return name;
     }
 
     @Override
     public Optional<List<Tweet>> getTimeline(UUID userId) {
-        String redisKey = getRedisKey(userId);
+        return getCachedTimeline(userId).map(CachedTimeline::tweets);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<CachedTimeline> getCachedTimeline(UUID userId) {
         try {
-            List<Tweet> cachedTweets = listOperations.range(redisKey, 0, 49);
-            if (cachedTweets != null && !cachedTweets.isEmpty()) {
-                return Optional.of(cachedTweets);
+            // The IDs, both TTLs and the access index update travel in the same round trip
+            List<Object> result = stringRedisTemplate.execute(sortedSet() ? READ_SORTED_TIMELINE_SCRIPT : READ_TIMELINE_SCRIPT,
+                    List.of(keys.timeline(userId), keys.accessIndex(userId), keys.timelineTtl(userId)),
+                    heatClock(System.currentTimeMillis()), String.valueOf(TimelineService.TIMELINE_SIZE));
+            if (result != null && result.size() > 2) {
+                Long remainingMillis = (Long) result.get(0);
+                Long ttlMillis = (Long) result.get(1);
+                List<String> tweetIds = (List<String>) (List<?>) result.subList(2, result.size());
+                Instant expiresAt = remainingMillis == null || remainingMillis < 0
+                        ? Instant.MAX
+                        : Instant.now().plusMillis(remainingMillis);
+                Duration ttl = ttlMillis == null || ttlMillis < 0 ? null : Duration.ofMillis(ttlMillis);
+                return Optional.of(new CachedTimeline(hydrate(userId, tweetIds), expiresAt, ttl));
             }
         } catch (Exception e) {
             log.warn("Failed to retrieve timeline from Redis for user {}: {}", userId, e.getMessage());
@@ -44,27 +316,445 @@ public class TimelineRedisAdapter implements TimelineCachePort {
         return Optional.empty();
     }
 
+    @Override
+    public Optional<List<Tweet>> getTimelinePage(UUID userId, TimelineCursor cursor, int limit) {
+        if (sortedSet()) {
+            return getSortedTimelinePage(userId, cursor, limit);
+        }
+        String redisKey = keys.timeline(userId);
+        try {
+            // Cached timelines are capped, so scanning the whole list for the cursor position is bounded
+            List<String> tweetIds = listOperations.range(redisKey, 0, -1);
+            if (tweetIds == null || tweetIds.isEmpty()) {
+                return Optional.empty();
+            }
+            int position = tweetIds.indexOf(cursor.tweetId().toString());
+            if (position >= 0) {
+                // The cursor tweet is still cached, only the IDs right after it need to be hydrated
+                return Optional.of(hydrate(userId, tweetIds.subList(position + 1, Math.min(tweetIds.size(), position + 1 + limit))));
+            }
+            return Optional.of(hydrate(userId, tweetIds).stream()
+                    .filter(cursor::precedes)
+                    .limit(limit)
+                    .toList());
+        } catch (Exception e) {
+            log.warn("Failed to retrieve timeline page from Redis for user {}: {}", userId, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    // Only the entries at or below the cursor's score are read, ties with the cursor are resolved by ID after hydration
+    @SuppressWarnings("unchecked")
+    private Optional<List<Tweet>> getSortedTimelinePage(UUID userId, TimelineCursor cursor, int limit) {
+        try {
+            List<Object> result = stringRedisTemplate.execute(READ_SORTED_PAGE_SCRIPT, List.of(keys.timeline(userId)),
+                    score(cursor.createdAt()), String.valueOf(limit));
+            if (result == null || result.isEmpty() || Long.valueOf(0).equals(result.get(0))) {
+                return Optional.empty();
+            }
+            List<String> tweetIds = (List<String>) (List<?>) result.subList(1, result.size());
+            return Optional.of(hydrate(userId, tweetIds).stream()
+                    .filter(cursor::precedes)
+                    .limit(limit)
+                    .toList());
+        } catch (Exception e) {
+            log.warn("Failed to retrieve timeline page from Redis for user {}: {}", userId, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
     @Override
     public void cacheTimeline(UUID userId, List<Tweet> tweets, Duration duration) {
-        String redisKey = getRedisKey(userId);
+        List<String> scriptKeys = new ArrayList<>(tweets.size() + 2);
+        List<byte[]> args = new ArrayList<>(tweets.size() * 2 + 2);
+        scriptKeys.add(keys.timeline(userId));
+        scriptKeys.add(keys.timelineTtl(userId));
+        args.add(toBytes(duration.toMillis()));
+        args.add(toBytes(tweetTtl.toMillis()));
+        for (Tweet tweet : tweets) {
+            scriptKeys.add(keys.tweet(userId, tweet.getId()));
+            if (sortedSet()) {
+                args.add(score(tweet.getCreatedAt()).getBytes(StandardCharsets.UTF_8));
+            }
+            args.add(tweet.getId().toString().getBytes(StandardCharsets.UTF_8));
+        }
+        tweets.forEach(tweet -> args.add(tweetSerializer.serialize(tweet)));
         try {
-            redisTemplate.delete(redisKey);
-            listOperations.rightPushAll(redisKey, tweets);
-            redisTemplate.expire(redisKey, duration);
+            stringRedisTemplate.execute(sortedSet() ? CACHE_SORTED_TIMELINE_SCRIPT : CACHE_TIMELINE_SCRIPT,
+                    RedisSerializer.byteArray(), LONG_RESULT_SERIALIZER, scriptKeys, args.toArray());
             log.debug("Timeline cached in Redis for user {}", userId);
         } catch (Exception e) {
             log.error("Failed to push timeline to Redis for user {}: {}", userId, e.getMessage());
         }
     }
 
+    @Override
+    public void cacheEmptyTimeline(UUID userId, Duration duration) {
+        try {
+            if (sortedSet()) {
+                stringRedisTemplate.execute(CACHE_SORTED_TIMELINE_SCRIPT, List.of(keys.timeline(userId), keys.timelineTtl(userId)),
+                        String.valueOf(duration.toMillis()), String.valueOf(tweetTtl.toMillis()), "0", EMPTY_TIMELINE_SENTINEL);
+            } else {
+                stringRedisTemplate.execute(CACHE_TIMELINE_SCRIPT, List.of(keys.timeline(userId), keys.timelineTtl(userId)),
+                        String.valueOf(duration.toMillis()), String.valueOf(tweetTtl.toMillis()), EMPTY_TIMELINE_SENTINEL);
+            }
+            log.debug("Empty timeline cached in Redis for user {}", userId);
+        } catch (Exception e) {
+            log.error("Failed to push empty timeline to Redis for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    // A plain EXISTS, unlike the read scripts it leaves the access index alone
+    @Override
+    public boolean hasTimeline(UUID userId) {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(keys.timeline(userId)));
+        } catch (Exception e) {
+            log.warn("Failed to check the timeline in Redis for user {}: {}", userId, e.getMessage());
+            return false;
+        }
+    }
+
     @Override
     public void invalidateTimeline(UUID userId) {
-        String redisKey = getRedisKey(userId);
         try {
-            redisTemplate.delete(redisKey);
+            stringRedisTemplate.delete(keys.timeline(userId));
             log.debug("Timeline invalidated in Redis for user {}", userId);
         } catch (Exception e) {
             log.error("Failed to invalidate timeline in Redis for user {}: {}", userId, e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public void invalidateTimelines(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        try {
+            if (keys.isHashTagged()) {
+                unlinkPerHashTag(userIds);
+            } else {
+                unlinkPipelined(userIds);
+            }
+            log.debug("{} timelines invalidated in Redis", userIds.size());
+        } catch (Exception e) {
+            log.error("Failed to invalidate {} timelines in Redis: {}", userIds.size(), e.getMessage());
+        }
+    }
+
+    // UNLINK frees the lists in the background, and all chunks travel in a single pipeline
+    private void unlinkPipelined(Collection<UUID> userIds) {
+        byte[][] timelineKeys = userIds.stream()
+                .map(userId -> keys.timeline(userId).getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int from = 0; from < timelineKeys.length; from += UNLINK_BATCH_SIZE) {
+                connection.keyCommands().unlink(Arrays.copyOfRange(timelineKeys, from, Math.min(timelineKeys.length, from + UNLINK_BATCH_SIZE)));
+            }
+            return null;
+        });
+    }
+
+    // Redis Cluster connections cannot pipeline, but keys sharing a hash tag share a slot:
+    // each group is a single-node UNLINK instead of one command per key
+    private void unlinkPerHashTag(Collection<UUID> userIds) {
+        Map<String, List<String>> keysByTag = userIds.stream()
+                .collect(Collectors.groupingBy(keys::tagOf, Collectors.mapping(keys::timeline, Collectors.toList())));
+        for (List<String> group : keysByTag.values()) {
+            for (int from = 0; from < group.size(); from += UNLINK_BATCH_SIZE) {
+                stringRedisTemplate.unlink(group.subList(from, Math.min(group.size(), from + UNLINK_BATCH_SIZE)));
+            }
+        }
+    }
+
+    @Override
+    public void prependToTimeline(UUID userId, Tweet tweet, int maxSize) {
+        String redisKey = keys.timeline(userId);
+        try {
+            // Only the ID is pushed, the body is cached once on the first hydration that misses it.
+            // If the timeline was cached as empty, the first real tweet replaces the sentinel.
+            if (sortedSet()) {
+                // Lands at its timestamp even if it arrives out of order, and a redelivered tweet is not duplicated
+                stringRedisTemplate.execute(ZADD_SCRIPT, List.of(redisKey), score(tweet.getCreatedAt()),
+                        tweet.getId().toString(), String.valueOf(maxSize), EMPTY_TIMELINE_SENTINEL);
+            } else {
+                stringRedisTemplate.execute(PREPEND_SCRIPT, List.of(redisKey),
+                        tweet.getId().toString(), String.valueOf(maxSize), EMPTY_TIMELINE_SENTINEL);
+            }
+            log.debug("Tweet {} pushed to cached timeline of user {}", tweet.getId(), userId);
+        } catch (Exception e) {
+            log.error("Failed to push tweet to Redis timeline for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void prependToTimelines(Collection<UUID> userIds, Tweet tweet, int maxSize) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        RedisScript<Long> script = sortedSet() ? ZADD_SCRIPT : PREPEND_SCRIPT;
+        List<String> args = sortedSet()
+                ? List.of(score(tweet.getCreatedAt()), tweet.getId().toString(), String.valueOf(maxSize), EMPTY_TIMELINE_SENTINEL)
+                : List.of(tweet.getId().toString(), String.valueOf(maxSize), EMPTY_TIMELINE_SENTINEL);
+        try {
+            if (keys.isHashTagged()) {
+                prependPerHashTag(userIds, script, args);
+            } else {
+                prependPipelined(userIds, script, args);
+            }
+            log.debug("Tweet {} pushed to {} cached timelines", tweet.getId(), userIds.size());
+        } catch (Exception e) {
+            log.error("Failed to push tweet {} to {} Redis timelines: {}", tweet.getId(), userIds.size(), e.getMessage());
+        }
+    }
+
+    // Each chunk of timelines is one script run, and all chunks travel in a single pipeline. EVAL rather than EVALSHA:
+    // a pipeline cannot fall back when the script is not loaded yet
+    private void prependPipelined(Collection<UUID> userIds, RedisScript<Long> script, List<String> args) {
+        byte[] body = script.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        List<byte[]> timelineKeys = userIds.stream()
+                .map(userId -> keys.timeline(userId).getBytes(StandardCharsets.UTF_8))
+                .toList();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int from = 0; from < timelineKeys.size(); from += PREPEND_BATCH_SIZE) {
+                List<byte[]> chunk = timelineKeys.subList(from, Math.min(timelineKeys.size(), from + PREPEND_BATCH_SIZE));
+                List<byte[]> keysAndArgs = new ArrayList<>(chunk);
+                args.forEach(arg -> keysAndArgs.add(arg.getBytes(StandardCharsets.UTF_8)));
+                connection.scriptingCommands().eval(body, ReturnType.INTEGER, chunk.size(), keysAndArgs.toArray(byte[][]::new));
+            }
+            return null;
+        });
+    }
+
+    // Redis Cluster connections cannot pipeline, but keys sharing a hash tag share a slot:
+    // each group is a single-node script run instead of one per timeline
+    private void prependPerHashTag(Collection<UUID> userIds, RedisScript<Long> script, List<String> args) {
+        Map<String, List<String>> keysByTag = userIds.stream()
+                .collect(Collectors.groupingBy(keys::tagOf, Collectors.mapping(keys::timeline, Collectors.toList())));
+        Object[] scriptArgs = args.toArray();
+        for (List<String> group : keysByTag.values()) {
+            for (int from = 0; from < group.size(); from += PREPEND_BATCH_SIZE) {
+                stringRedisTemplate.execute(script, group.subList(from, Math.min(group.size(), from + PREPEND_BATCH_SIZE)), scriptArgs);
+            }
+        }
+    }
+
+    /**
+     * Resolves tweet IDs to tweets, keeping their order. Bodies are fetched with one MGET,
+     * the misses with one database query. Tweets that no longer exist are skipped.
+     */
+    private List<Tweet> hydrate(UUID ownerId, List<String> tweetIds) {
+        List<UUID> ids = tweetIds.stream()
+                .filter(tweetId -> !EMPTY_TIMELINE_SENTINEL.equals(tweetId))
+                .map(UUID::fromString)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<Tweet> cachedTweets = tweetOperations.multiGet(ids.stream().map(id -> keys.tweet(ownerId, id)).toList());
+        Map<UUID, Tweet> tweetsById = new HashMap<>(ids.size() * 2);
+        List<UUID> missingIds = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Tweet cachedTweet = cachedTweets == null ? null : cachedTweets.get(i);
+            if (cachedTweet != null) {
+                tweetsById.put(ids.get(i), cachedTweet);
+            } else {
+                missingIds.add(ids.get(i));
+            }
+        }
+
+        if (!missingIds.isEmpty()) {
+            List<Tweet> loadedTweets = tweetRepository.findByIds(missingIds);
+            loadedTweets.forEach(tweet -> tweetsById.put(tweet.getId(), tweet));
+            cacheTweets(ownerId, loadedTweets);
+            log.debug("Hydrated {} tweets missing from the Redis tweet cache from the database", loadedTweets.size());
+        }
+
+        return ids.stream()
+                .map(tweetsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Writes tweet bodies with a single script call, a failure only costs a later database lookup
+    private void cacheTweets(UUID ownerId, List<Tweet> tweets) {
+        if (tweets.isEmpty()) {
+            return;
+        }
+        List<String> tweetKeys = tweets.stream().map(tweet -> keys.tweet(ownerId, tweet.getId())).toList();
+        List<byte[]> args = new ArrayList<>(tweets.size() + 1);
+        args.add(toBytes(tweetTtl.toMillis()));
+        tweets.forEach(tweet -> args.add(tweetSerializer.serialize(tweet)));
+        try {
+            stringRedisTemplate.execute(CACHE_TWEETS_SCRIPT, RedisSerializer.byteArray(), LONG_RESULT_SERIALIZER,
+                    tweetKeys, args.toArray());
+        } catch (Exception e) {
+            log.warn("Failed to cache {} tweet bodies in Redis: {}", tweets.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public List<UUID> findRecentlyReadTimelines(int limit) {
+        List<String> indexes = keys.accessIndexes();
+        // Users are spread evenly over the indexes, twice the fair share of each is plenty to find the top ones
+        long perIndex = indexes.size() == 1 ? limit : Math.min(limit, 2L * Math.ceilDiv(limit, indexes.size()));
+        try {
+            List<TypedTuple<String>> entries = new ArrayList<>();
+            for (String index : indexes) {
+                Set<TypedTuple<String>> newest = stringRedisTemplate.opsForZSet().reverseRangeWithScores(index, 0, perIndex - 1);
+                if (newest != null) {
+                    entries.addAll(newest);
+                }
+            }
+            entries.sort(Comparator.comparing(TypedTuple<String>::getScore, Comparator.nullsLast(Comparator.reverseOrder())));
+
+            List<UUID> userIds = new ArrayList<>(Math.min(limit, entries.size()));
+            for (TypedTuple<String> entry : entries) {
+                if (userIds.size() >= limit) {
+                    break;
+                }
+                try {
+                    userIds.add(TimelineKeys.userIdOf(entry.getValue()));
+                } catch (IllegalArgumentException | NullPointerException e) {
+                    log.debug("Skipping unexpected member {} of the timeline access index", entry.getValue());
+                }
+            }
+            return userIds;
+        } catch (Exception e) {
+            log.warn("Failed to read the timeline access index from Redis: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    @Override
+    public void recordTimelineReads(Map<UUID, Integer> readCounts) {
+        String now = heatClock(System.currentTimeMillis());
+        Map<String, List<String>> argsByIndex = new HashMap<>();
+        readCounts.forEach((userId, reads) -> {
+            if (reads > 0) {
+                List<String> args = argsByIndex.computeIfAbsent(keys.accessIndex(userId), index -> new ArrayList<>(List.of(now)));
+                args.add(keys.timeline(userId));
+                args.add(String.valueOf(reads));
+            }
+        });
+        argsByIndex.forEach((index, args) -> {
+            try {
+                stringRedisTemplate.execute(RECORD_READS_SCRIPT, List.of(index), args.toArray());
+            } catch (Exception e) {
+                log.warn("Failed to record {} timeline reads in Redis: {}", args.size() / 2, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Drops access index entries of timelines not read since the given time, they can only point at timelines
+     * that already expired.
+     */
+    void pruneAccessIndexes(long olderThanEpochMillis) {
+        double cutoff = olderThanEpochMillis / accessHalfLifeMillis;
+        for (String index : keys.accessIndexes()) {
+            stringRedisTemplate.opsForZSet().removeRangeByScore(index, Double.NEGATIVE_INFINITY, cutoff);
+        }
+    }
+
+    /**
+     * Evicts about {@code count} timelines, least valuable (lowest heat) first, and returns how many were evicted.
+     * With several access indexes each gives up its share of its own coldest entries. The tweet bodies an evicted
+     * timeline references stay: other timelines may share them, and unshared ones expire after the tweet TTL.
+     * Keys are deleted synchronously, not unlinked, so their memory is already reclaimed when the caller measures it again.
+     */
+    int evictLeastValuable(int count) {
+        List<String> indexes = keys.accessIndexes();
+        long perIndex = Math.max(1, Math.ceilDiv(count, indexes.size()));
+        int evicted = 0;
+        for (String index : indexes) {
+            Set<TypedTuple<String>> coldest = stringRedisTemplate.opsForZSet().popMin(index, perIndex);
+            if (coldest == null || coldest.isEmpty()) {
+                continue;
+            }
+            // Every key of an index shares its hash tag on Redis Cluster, so the delete stays single-slot
+            List<String> evictedKeys = new ArrayList<>();
+            for (TypedTuple<String> entry : coldest) {
+                String timelineKey = entry.getValue();
+                if (timelineKey != null) {
+                    evictedKeys.add(timelineKey);
+                    ttlKeyOf(timelineKey).ifPresent(evictedKeys::add);
+                    evicted++;
+                }
+            }
+            stringRedisTemplate.delete(evictedKeys);
+        }
+        return evicted;
+    }
+
+    private Optional<String> ttlKeyOf(String timelineKey) {
+        try {
+            return Optional.of(keys.timelineTtl(TimelineKeys.userIdOf(timelineKey)));
+        } catch (IllegalArgumentException e) {
+            log.debug("Skipping the TTL key of unexpected timeline key {}", timelineKey);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Memory used by Redis, from INFO memory. On Redis Cluster, that of the fullest node.
+     */
+    long usedMemoryBytes() {
+        Properties info = stringRedisTemplate.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().info("memory"));
+        if (info == null) {
+            return 0;
+        }
+        // Cluster connections prefix every entry with the node it comes from
+        return info.stringPropertyNames().stream()
+                .filter(property -> property.equals("used_memory") || property.endsWith(".used_memory"))
+                .mapToLong(property -> Long.parseLong(info.getProperty(property).trim()))
+                .max()
+                .orElse(0);
+    }
+
+    // Time in half-lives since the epoch, the unit of the access index heat
+    private String heatClock(long epochMillis) {
+        return String.valueOf(epochMillis / accessHalfLifeMillis);
+    }
+
+    private boolean sortedSet() {
+        return representation == TimelineRedisRepresentation.SORTED_SET;
+    }
+
+    /**
+     * Sorted-set score of a tweet: microseconds since the epoch (UTC), exact in a double for centuries. Entries with
+     * the same score are ordered by member, and UUID strings sort like {@link Tweet#NEWEST_FIRST} breaks ties.
+     */
+    static String score(LocalDateTime createdAt) {
+        Instant instant = createdAt.toInstant(ZoneOffset.UTC);
+        return String.valueOf(Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000));
+    }
+
+    private static byte[] toBytes(long value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Optional<String> tryAcquireRebuildLease(UUID userId, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(keys.lease(userId), token, ttl);
+            return Boolean.TRUE.equals(acquired) ? Optional.of(token) : Optional.empty();
+        } catch (Exception e) {
+            // Fail open: without Redis every node rebuilds on its own, as before the lease existed
+            log.warn("Failed to acquire timeline rebuild lease in Redis for user {}: {}", userId, e.getMessage());
+            return Optional.of(token);
+        }
+    }
+
+    @Override
+    public void releaseRebuildLease(UUID userId, String token) {
+        try {
+            stringRedisTemplate.execute(RELEASE_LEASE_SCRIPT, List.of(keys.lease(userId)), token);
+        } catch (Exception e) {
+            log.warn("Failed to release timeline rebuild lease in Redis for user {}: {}", userId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.microblogging.project.adapter.out.cache;
+
+/**
+ * How the timeline cache is laid out over Redis.
+ */
+public enum TimelineRedisMode {
+    /** A single Redis node. */
+    STANDALONE,
+    /** Redis Cluster: slots are spread by the server, timeline keys are hash-tagged so scripts stay in one slot. */
+    CLUSTER,
+    /** Several standalone Redis nodes, users are spread over them by a client-side consistent-hash ring. */
+    SHARDED
+}
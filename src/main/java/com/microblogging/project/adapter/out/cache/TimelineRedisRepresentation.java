@@ -0,0 +1,14 @@
+package com.microblogging.project.adapter.out.cache;
+
+/**
+ * Redis data type holding each cached timeline's tweet IDs.
+ */
+public enum TimelineRedisRepresentation {
+    /** A list, newest first. Every rebuild rewrites it and pages are found by scanning for the cursor tweet. */
+    LIST,
+    /**
+     * A sorted set scored by tweet timestamp. Inserts are idempotent ZADDs that land in timestamp order, the set is
+     * trimmed by rank, and pages are score-range reads.
+     */
+    SORTED_SET
+}
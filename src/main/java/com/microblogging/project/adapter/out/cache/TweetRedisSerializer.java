@@ -0,0 +1,114 @@
+package com.microblogging.project.adapter.out.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.microblogging.project.domain.model.Tweet;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Compact binary layout for cached tweets, replacing the JSON serializer.
+ * <pre>
+ * version:u8 | id:2×i64 | userId:2×i64 | createdAt epoch millis (UTC):i64 | createdAt nanos of milli:i32
+ *            | content length:i32 (-1 for null) | content:UTF-8
+ * </pre>
+ * The nanos are kept so timestamps round-trip exactly and keyset cursors built from cached tweets stay valid.
+ * Payloads starting with {@code '{'} are legacy JSON entries written before this format and are still readable.
+ */
+public class TweetRedisSerializer implements RedisSerializer<Tweet> {
+
+    static final byte VERSION = 1;
+
+    private static final int HEADER_SIZE = 1 + 16 + 16 + 8 + 4 + 4;
+    private static final int NANOS_PER_MILLI = 1_000_000;
+
+    private final ObjectMapper legacyMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Override
+    public byte[] serialize(Tweet tweet) throws SerializationException {
+        if (tweet == null) {
+            return new byte[0];
+        }
+        byte[] content = tweet.getContent() == null ? null : tweet.getContent().getBytes(StandardCharsets.UTF_8);
+        Instant createdAt = tweet.getCreatedAt().toInstant(ZoneOffset.UTC);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + (content == null ? 0 : content.length));
+        buffer.put(VERSION);
+        putUuid(buffer, tweet.getId());
+        putUuid(buffer, tweet.getUserId());
+        buffer.putLong(createdAt.toEpochMilli());
+        buffer.putInt(createdAt.getNano() % NANOS_PER_MILLI);
+        if (content == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(content.length);
+            buffer.put(content);
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public Tweet deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == '{') {
+            return deserializeLegacyJson(bytes);
+        }
+        if (bytes[0] != VERSION) {
+            throw new SerializationException("Unsupported cached tweet format version " + bytes[0]);
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            UUID id = getUuid(buffer);
+            UUID userId = getUuid(buffer);
+            long epochMillis = buffer.getLong();
+            int nanosOfMilli = buffer.getInt();
+            int contentLength = buffer.getInt();
+            String content = null;
+            if (contentLength >= 0) {
+                content = new String(bytes, buffer.position(), contentLength, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + contentLength);
+            }
+            LocalDateTime createdAt = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(epochMillis).plusNanos(nanosOfMilli), ZoneOffset.UTC);
+            return new Tweet(id, userId, content, createdAt);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new SerializationException("Truncated or corrupt cached tweet", e);
+        }
+    }
+
+    // Entries written by the former Jackson2JsonRedisSerializer, kept readable until they expire
+    private Tweet deserializeLegacyJson(byte[] bytes) {
+        try {
+            JsonNode node = legacyMapper.readTree(bytes);
+            return new Tweet(
+                    UUID.fromString(node.get("id").asText()),
+                    UUID.fromString(node.get("userId").asText()),
+                    node.hasNonNull("content") ? node.get("content").asText() : null,
+                    legacyMapper.treeToValue(node.get("createdAt"), LocalDateTime.class));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not read legacy JSON cached tweet", e);
+        }
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
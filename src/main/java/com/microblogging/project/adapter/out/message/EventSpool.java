@@ -0,0 +1,233 @@
+package com.microblogging.project.adapter.out.message;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of event payloads in memory-mapped segment files, read back in append order.
+ * <pre>
+ * spool-{sequence}.log: record* (zero filled after the last one)
+ * record:               length:i32 (> 0) | crc32c:i32 | payload
+ * spool.offset:         sequence:i64 | position:i32 of the first unconsumed record
+ * </pre>
+ * A record's length is written last, after a zero length following it, so a record torn by a crash reads as the end of
+ * the journal and stale bytes past the end are never read as records. Appends are in the page cache as soon as they
+ * return and survive a crash of the process. They are forced to disk when a segment fills up and on close, so a power
+ * loss can lose the latest ones. Segments are deleted once fully consumed.
+ */
+public class EventSpool implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventSpool.class);
+
+    private static final int HEADER_SIZE = 4 + 4;
+    private static final String SEGMENT_PREFIX = "spool-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /** Position in the journal: a segment and an offset in it. */
+    public record Position(long segment, int offset) {
+    }
+
+    /** Payloads read from the journal, and the position following the last one. */
+    public record Batch(List<byte[]> payloads, Position end) {
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private final MappedByteBuffer offsetFile;
+
+    private Position read;
+    private long writeSegment;
+    private int writeOffset;
+
+    /**
+     * Opens the journal in the directory, creating it if needed, and recovers what was appended but not consumed.
+     *
+     * @param segmentBytes Size of each segment file, the largest payload is slightly smaller.
+     * @param maxBytes     Size of all segment files above which appends are refused.
+     */
+    public EventSpool(Path directory, int segmentBytes, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = (int) Math.max(2, maxBytes / segmentBytes);
+        Files.createDirectories(directory);
+
+        offsetFile = map(directory.resolve("spool.offset"), 8 + 4);
+        read = new Position(offsetFile.getLong(0), offsetFile.getInt(8));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    long sequence = Long.parseLong(name, SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length(), 10);
+                    if (sequence < read.segment()) {
+                        Files.delete(file);
+                    } else {
+                        segments.put(sequence, map(file, segmentBytes));
+                    }
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.put(read.segment(), map(segmentPath(read.segment()), segmentBytes));
+        }
+
+        // The write position is after the last intact record of the last segment
+        writeSegment = segments.lastKey();
+        writeOffset = writeSegment == read.segment() ? read.offset() : 0;
+        MappedByteBuffer last = segments.get(writeSegment);
+        int length;
+        while ((length = recordLength(last, writeOffset)) > 0) {
+            if (!intact(last, writeOffset, length)) {
+                log.warn("Discarding torn event spool record at {}:{}", writeSegment, writeOffset);
+                last.putInt(writeOffset, 0);
+                break;
+            }
+            writeOffset += HEADER_SIZE + length;
+        }
+    }
+
+    /**
+     * Appends a payload.
+     *
+     * @return {@code false} when the journal is full.
+     */
+    public synchronized boolean append(byte[] payload) {
+        if (payload.length == 0 || payload.length > segmentBytes - HEADER_SIZE) {
+            throw new IllegalArgumentException("Cannot spool a payload of " + payload.length + " bytes");
+        }
+        if (writeOffset + HEADER_SIZE + payload.length > segmentBytes) {
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            segments.get(writeSegment).force();
+            writeSegment++;
+            writeOffset = 0;
+            segments.put(writeSegment, mapUnchecked(segmentPath(writeSegment)));
+        }
+        MappedByteBuffer segment = segments.get(writeSegment);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        int next = writeOffset + HEADER_SIZE + payload.length;
+        segment.put(writeOffset + HEADER_SIZE, payload);
+        segment.putInt(writeOffset + 4, (int) crc.getValue());
+        if (next + 4 <= segmentBytes) {
+            segment.putInt(next, 0);
+        }
+        segment.putInt(writeOffset, payload.length);
+        writeOffset = next;
+        return true;
+    }
+
+    /**
+     * Reads up to {@code max} payloads from the first unconsumed one, without consuming them.
+     */
+    public synchronized Batch peek(int max) {
+        List<byte[]> payloads = new ArrayList<>();
+        long segment = read.segment();
+        int offset = read.offset();
+        while (payloads.size() < max) {
+            MappedByteBuffer buffer = segments.get(segment);
+            int length = buffer == null ? 0 : recordLength(buffer, offset);
+            if (length <= 0) {
+                if (segment >= writeSegment) {
+                    break;
+                }
+                segment++;
+                offset = 0;
+                continue;
+            }
+            if (intact(buffer, offset, length)) {
+                byte[] payload = new byte[length];
+                buffer.get(offset + HEADER_SIZE, payload);
+                payloads.add(payload);
+            } else {
+                log.warn("Skipping corrupt event spool record at {}:{}", segment, offset);
+            }
+            offset += HEADER_SIZE + length;
+        }
+        return new Batch(payloads, new Position(segment, offset));
+    }
+
+    /**
+     * Consumes everything before the position, deleting the segments left behind.
+     */
+    public synchronized void commit(Position position) {
+        read = position;
+        offsetFile.putLong(0, position.segment());
+        offsetFile.putInt(8, position.offset());
+        for (Map.Entry<Long, MappedByteBuffer> consumed : segments.headMap(position.segment()).entrySet()) {
+            try {
+                Files.deleteIfExists(segmentPath(consumed.getKey()));
+            } catch (IOException e) {
+                log.warn("Failed to delete consumed event spool segment {}: {}", consumed.getKey(), e.getMessage());
+            }
+        }
+        segments.headMap(position.segment()).clear();
+    }
+
+    public synchronized boolean isEmpty() {
+        return read.segment() == writeSegment && read.offset() == writeOffset;
+    }
+
+    /** Bytes between the first unconsumed record and the end of the journal. */
+    public synchronized long pendingBytes() {
+        return (writeSegment - read.segment()) * segmentBytes + writeOffset - read.offset();
+    }
+
+    @Override
+    public synchronized void close() {
+        segments.values().forEach(MappedByteBuffer::force);
+        offsetFile.force();
+    }
+
+    private static int recordLength(MappedByteBuffer segment, int offset) {
+        if (offset + HEADER_SIZE > segment.capacity()) {
+            return 0;
+        }
+        int length = segment.getInt(offset);
+        return length > 0 && offset + HEADER_SIZE + length <= segment.capacity() ? length : 0;
+    }
+
+    private static boolean intact(MappedByteBuffer segment, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(segment.slice(offset + HEADER_SIZE, length));
+        return (int) crc.getValue() == segment.getInt(offset + 4);
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%020d", sequence) + SEGMENT_SUFFIX);
+    }
+
+    private MappedByteBuffer mapUnchecked(Path file) {
+        try {
+            return map(file, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create event spool segment " + file, e);
+        }
+    }
+
+    // The mapping outlives the channel, and new files are zero filled up to the size
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
@@ -1,34 +1,247 @@
 package com.microblogging.project.adapter.out.message;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.microblogging.project.domain.event.TweetPostedEvent;
 import com.microblogging.project.domain.port.MessagePublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends TweetPostedEvents to Kafka. With an {@link EventSpool}, events Kafka fails to take are appended to it instead
+ * of being lost, and so are all the following ones until the spool is drained, so they reach Kafka in order. The spool
+ * is replayed in the background once the broker is back, then events are sent directly again.
+ */
 @Component
 public class KafkaMessagePublisher implements MessagePublisher {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaMessagePublisher.class);
     private final KafkaTemplate<String, TweetPostedEvent> kafkaTemplate;
-    private static final String TWEET_EVENTS_TOPIC = "tweet-posted-events";
+    static final String TWEET_EVENTS_TOPIC = "tweet-posted-events";
+
+    // Same representation as the Kafka value serializer
+    private static final ObjectMapper SPOOL_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final EventSpool spool;
+    // Set while events go to the spool, guarded by the spool lock
+    private boolean spooling;
+
+    private final Counter spooled;
+    private final Counter replayed;
+    private final Counter lost;
 
-    public KafkaMessagePublisher(KafkaTemplate<String, TweetPostedEvent> kafkaTemplate) {
+    // Events replayed from the spool per Kafka round trip
+    @Value("${messaging.spool.drain-batch-size:500}")
+    private int drainBatchSize = 500;
+
+    // Time to wait for Kafka to acknowledge a replayed batch
+    @Value("${messaging.spool.send-timeout:10s}")
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    @Autowired
+    public KafkaMessagePublisher(KafkaTemplate<String, TweetPostedEvent> kafkaTemplate, MeterRegistry meterRegistry,
+                                 @Value("${messaging.spool.enabled:false}") boolean spoolEnabled,
+                                 @Value("${messaging.spool.directory:data/event-spool}") String spoolDirectory,
+                                 @Value("${messaging.spool.segment-bytes:67108864}") int segmentBytes,
+                                 @Value("${messaging.spool.max-bytes:1073741824}") long maxBytes) throws IOException {
+        this(kafkaTemplate, spoolEnabled ? new EventSpool(Path.of(spoolDirectory), segmentBytes, maxBytes) : null,
+                meterRegistry);
+    }
+
+    /**
+     * @param spool Where events go while Kafka is unavailable, {@code null} to only log failed sends.
+     */
+    public KafkaMessagePublisher(KafkaTemplate<String, TweetPostedEvent> kafkaTemplate, EventSpool spool,
+                                 MeterRegistry meterRegistry) {
         this.kafkaTemplate = kafkaTemplate;
+        this.spool = spool;
+        // Events spooled before a restart are still ahead of new ones
+        this.spooling = spool != null && !spool.isEmpty();
+
+        this.spooled = Counter.builder("messaging.spool.appended")
+                .description("Events appended to the local spool because Kafka was unavailable")
+                .register(meterRegistry);
+        this.replayed = Counter.builder("messaging.spool.replayed")
+                .description("Spooled events replayed to Kafka")
+                .register(meterRegistry);
+        this.lost = Counter.builder("messaging.spool.lost")
+                .description("Events lost because Kafka was unavailable and the spool was full or disabled")
+                .register(meterRegistry);
+        if (spool != null) {
+            Gauge.builder("messaging.spool.pending.bytes", spool, EventSpool::pendingBytes)
+                    .description("Bytes of spooled events waiting to be replayed to Kafka")
+                    .register(meterRegistry);
+        }
     }
 
     @Override
     public void publishTweetPostedEvent(TweetPostedEvent event) {
-        kafkaTemplate.send(TWEET_EVENTS_TOPIC, event.tweetId().toString(), event)
-                .whenComplete((result, ex) -> {
-                    if (ex == null) {
-                        log.info("Published TweetPostedEvent for tweet {} to topic {}. Offset: {}",
-                                event.tweetId(), TWEET_EVENTS_TOPIC, result.getRecordMetadata().offset());
-                    } else {
-                        log.error("Failed to publish TweetPostedEvent for tweet {}. Error: {}",
-                                event.tweetId(), ex.getMessage(), ex);
-                    }
-                });
-    }
-}
\ No newline at end of file
+        // Sent once the publishing transaction commits, never for a rolled back one
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(event);
+                }
+            });
+        } else {
+            send(event);
+        }
+    }
+
+    @Override
+    public void publishTweetPostedEvents(List<TweetPostedEvent> events) {
+        // One synchronization for the whole batch, the producer batches the sends itself
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    events.forEach(KafkaMessagePublisher.this::send);
+                }
+            });
+        } else {
+            events.forEach(this::send);
+        }
+    }
+
+    private void send(TweetPostedEvent event) {
+        if (spool != null) {
+            synchronized (spool) {
+                if (spooling) {
+                    append(event);
+                    return;
+                }
+            }
+        }
+        CompletableFuture<SendResult<String, TweetPostedEvent>> future;
+        try {
+            future = kafkaTemplate.send(TWEET_EVENTS_TOPIC, event.tweetId().toString(), event);
+        } catch (RuntimeException e) {
+            // No metadata or a full buffer for longer than the producer's max block time
+            sendFailed(event, e);
+            return;
+        }
+        future.whenComplete((result, ex) -> {
+            if (ex == null) {
+                log.info("Published TweetPostedEvent for tweet {} to topic {}. Offset: {}",
+                        event.tweetId(), TWEET_EVENTS_TOPIC, result.getRecordMetadata().offset());
+            } else {
+                sendFailed(event, ex);
+            }
+        });
+    }
+
+    private void sendFailed(TweetPostedEvent event, Throwable ex) {
+        if (spool == null) {
+            lost.increment();
+            log.error("Failed to publish TweetPostedEvent for tweet {}. Error: {}",
+                    event.tweetId(), ex.getMessage(), ex);
+            return;
+        }
+        synchronized (spool) {
+            if (!spooling) {
+                log.warn("Kafka unavailable, spooling TweetPostedEvents locally until it recovers: {}", ex.getMessage());
+                spooling = true;
+            }
+            append(event);
+        }
+    }
+
+    private void append(TweetPostedEvent event) {
+        try {
+            if (spool.append(SPOOL_MAPPER.writeValueAsBytes(event))) {
+                spooled.increment();
+                return;
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize TweetPostedEvent for tweet " + event.tweetId(), e);
+        }
+        lost.increment();
+        log.error("Event spool full, TweetPostedEvent for tweet {} lost", event.tweetId());
+    }
+
+    /**
+     * Replays the spool to Kafka in order, batch by batch, until it is empty or Kafka fails again.
+     */
+    @Scheduled(fixedDelayString = "${messaging.spool.drain-interval:1s}")
+    public void drainSpool() {
+        if (spool == null) {
+            return;
+        }
+        while (!spool.isEmpty()) {
+            EventSpool.Batch batch = spool.peek(drainBatchSize);
+            try {
+                replay(batch.payloads());
+            } catch (RuntimeException e) {
+                log.debug("Kafka still unavailable, {} spooled bytes left: {}", spool.pendingBytes(), e.getMessage());
+                return;
+            }
+            synchronized (spool) {
+                spool.commit(batch.end());
+                if (spool.isEmpty()) {
+                    spooling = false;
+                    log.info("Event spool drained, publishing TweetPostedEvents to Kafka directly again");
+                }
+            }
+        }
+    }
+
+    private void replay(List<byte[]> payloads) {
+        // All sends first so the producer batches them, then wait for every acknowledgement
+        List<CompletableFuture<?>> acks = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            TweetPostedEvent event;
+            try {
+                event = SPOOL_MAPPER.readValue(payload, TweetPostedEvent.class);
+            } catch (IOException e) {
+                lost.increment();
+                log.error("Dropping unreadable spooled TweetPostedEvent: {}", e.getMessage());
+                continue;
+            }
+            acks.add(kafkaTemplate.send(TWEET_EVENTS_TOPIC, event.tweetId().toString(), event));
+        }
+        try {
+            CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying spooled events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge " + acks.size() + " spooled events", e);
+        }
+        replayed.increment(acks.size());
+    }
+
+    @PreDestroy
+    void closeSpool() {
+        if (spool != null) {
+            spool.close();
+        }
+    }
+}
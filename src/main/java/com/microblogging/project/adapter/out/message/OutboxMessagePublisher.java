@@ -0,0 +1,60 @@
+package com.microblogging.project.adapter.out.message;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.microblogging.project.adapter.out.persistence.entity.OutboxEventEntity;
+import com.microblogging.project.adapter.out.persistence.repository.OutboxEventJpaRepository;
+import com.microblogging.project.domain.event.TweetPostedEvent;
+import com.microblogging.project.domain.port.MessagePublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Transactional outbox: events are written to the outbox table in the transaction of the change they describe, so an
+ * event exists if and only if its change committed. {@link OutboxRelay} sends them to Kafka.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "messaging.outbox.enabled", havingValue = "true")
+public class OutboxMessagePublisher implements MessagePublisher {
+
+    static final String TWEET_POSTED = "TweetPostedEvent";
+
+    // Same representation as the Kafka value serializer
+    static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final OutboxEventJpaRepository outbox;
+
+    public OutboxMessagePublisher(OutboxEventJpaRepository outbox) {
+        this.outbox = outbox;
+    }
+
+    @Override
+    public void publishTweetPostedEvent(TweetPostedEvent event) {
+        outbox.append(TWEET_POSTED, event.tweetId().toString(), serialize(event));
+    }
+
+    @Override
+    public void publishTweetPostedEvents(List<TweetPostedEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        outbox.appendAll(events.stream()
+                .map(event -> new OutboxEventEntity(TWEET_POSTED, event.tweetId().toString(), serialize(event), now))
+                .toList());
+    }
+
+    private static String serialize(TweetPostedEvent event) {
+        try {
+            return MAPPER.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize TweetPostedEvent for tweet " + event.tweetId(), e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.microblogging.project.adapter.out.message;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.microblogging.project.adapter.out.persistence.entity.OutboxEventEntity;
+import com.microblogging.project.adapter.out.persistence.repository.OutboxEventJpaRepository;
+import com.microblogging.project.domain.event.TweetPostedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the outbox to Kafka: every poll interval, batches of the oldest events are sent in id order, and each batch
+ * is deleted once Kafka acknowledged all of it. A batch that is not fully acknowledged stays in the outbox and is sent
+ * again as a whole, so consumers can see an event twice but never miss one. An event that cannot be decoded is moved to
+ * the dead letters rather than failing its batch, so it never blocks the events behind it.
+ */
+@Component
+@ConditionalOnProperty(name = "messaging.outbox.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventJpaRepository outbox;
+    private final KafkaTemplate<String, TweetPostedEvent> kafkaTemplate;
+
+    private final DistributionSummary batchSize;
+    private final Counter relayed;
+    private final Counter failures;
+    private final Counter deadLettered;
+    private final Timer lag;
+
+    @Value("${messaging.outbox.batch-size:500}")
+    private int maxBatchSize = 500;
+
+    // Time to wait for Kafka to acknowledge a whole batch
+    @Value("${messaging.outbox.send-timeout:30s}")
+    private Duration sendTimeout = Duration.ofSeconds(30);
+
+    public OutboxRelay(OutboxEventJpaRepository outbox, KafkaTemplate<String, TweetPostedEvent> kafkaTemplate,
+                       MeterRegistry meterRegistry) {
+        this.outbox = outbox;
+        this.kafkaTemplate = kafkaTemplate;
+        this.batchSize = DistributionSummary.builder("outbox.relay.batch.size")
+                .description("Events per batch relayed from the outbox to Kafka")
+                .register(meterRegistry);
+        this.relayed = Counter.builder("outbox.relay.events")
+                .description("Events relayed from the outbox to Kafka")
+                .register(meterRegistry);
+        this.failures = Counter.builder("outbox.relay.failures")
+                .description("Outbox batches that were not fully acknowledged by Kafka and will be sent again")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("outbox.relay.dead-lettered")
+                .description("Outbox events that could not be decoded, moved to the dead letters instead of relayed")
+                .register(meterRegistry);
+        this.lag = Timer.builder("outbox.relay.lag")
+                .description("Time from writing the oldest event of a batch to the outbox to relaying it")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Relays batches until the outbox is drained or a batch fails.
+     */
+    @Scheduled(fixedDelayString = "${messaging.outbox.poll-interval:200ms}")
+    public void drain() {
+        try {
+            int count;
+            do {
+                count = outbox.relayOldest(maxBatchSize, this::send);
+            } while (count == maxBatchSize);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Failed to relay outbox events to Kafka, retrying on the next poll: {}", e.getMessage());
+        }
+    }
+
+    private void send(List<OutboxEventEntity> events) {
+        List<OutboxEventEntity> relayable = new ArrayList<>(events.size());
+        List<TweetPostedEvent> messages = new ArrayList<>(events.size());
+        for (OutboxEventEntity event : events) {
+            try {
+                messages.add(decode(event));
+                relayable.add(event);
+            } catch (IllegalStateException e) {
+                // Sending it again would fail the same way, and fail every batch it is part of
+                log.error("Moving outbox event {} to the dead letters: {}", event.getId(), e.getMessage());
+                outbox.deadLetter(event, e.getMessage());
+                deadLettered.increment();
+            }
+        }
+        if (relayable.isEmpty()) {
+            return;
+        }
+
+        // All sends first so the producer batches them, then wait for every acknowledgement
+        CompletableFuture<?>[] acks = new CompletableFuture<?>[relayable.size()];
+        for (int i = 0; i < acks.length; i++) {
+            acks[i] = kafkaTemplate.send(KafkaMessagePublisher.TWEET_EVENTS_TOPIC, relayable.get(i).getKey(), messages.get(i));
+        }
+        try {
+            CompletableFuture.allOf(acks).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while relaying outbox events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge " + relayable.size() + " outbox events", e);
+        }
+
+        batchSize.record(relayable.size());
+        relayed.increment(relayable.size());
+        lag.record(Duration.between(relayable.get(0).getCreatedAt(), LocalDateTime.now()));
+        log.debug("Relayed {} outbox events to Kafka", relayable.size());
+    }
+
+    private static TweetPostedEvent decode(OutboxEventEntity event) {
+        if (!OutboxMessagePublisher.TWEET_POSTED.equals(event.getEventType())) {
+            throw new IllegalStateException("Unknown outbox event type " + event.getEventType() + " of event " + event.getId());
+        }
+        try {
+            return OutboxMessagePublisher.MAPPER.readValue(event.getPayload(), TweetPostedEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox event " + event.getId() + ": " + e.getOriginalMessage(), e);
+        }
+    }
+}
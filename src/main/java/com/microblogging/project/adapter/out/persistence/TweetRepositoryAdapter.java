@@ -2,10 +2,15 @@ package com.microblogging.project.adapter.out.persistence;
 
 import com.microblogging.project.adapter.out.persistence.entity.TweetEntity;
 import com.microblogging.project.adapter.out.persistence.repository.TweetJpaRepository;
+import com.microblogging.project.domain.model.TimelineCursor;
 import com.microblogging.project.domain.model.Tweet;
 import com.microblogging.project.domain.port.TweetRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -13,10 +18,15 @@ import java.util.UUID;
 @Repository
 public class TweetRepositoryAdapter implements TweetRepository {
 
+    // Plain INSERTs: saving entities with assigned IDs through JPA selects each one first to tell new from existing
+    private static final String INSERT_SQL = "INSERT INTO tweets (id, user_id, content, created_at) VALUES (?, ?, ?, ?)";
+
     private final TweetJpaRepository jpaRepository;
+    private final JdbcTemplate jdbcTemplate;
 
-    public TweetRepositoryAdapter(TweetJpaRepository jpaRepository) {
+    public TweetRepositoryAdapter(TweetJpaRepository jpaRepository, JdbcTemplate jdbcTemplate) {
         this.jpaRepository = jpaRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     @Override
@@ -31,14 +41,36 @@ public class TweetRepositoryAdapter implements TweetRepository {
     }
 
     @Override
-    public List<Tweet> findAllByUserIds(Set<UUID> userIds) {
-        return jpaRepository.findByUserIdIn(userIds).stream()
-                .map(entity -> new Tweet(
-                        entity.getId(),
-                        entity.getUserId(),
-                        entity.getContent(),
-                        entity.getCreatedAt()
-                ))
+    public void insertAll(List<Tweet> tweets) {
+        // Joins the surrounding JPA transaction, on its connection
+        jdbcTemplate.batchUpdate(INSERT_SQL, tweets.stream()
+                .map(tweet -> new Object[]{tweet.getId(), tweet.getUserId(), tweet.getContent(), tweet.getCreatedAt()})
+                .toList());
+    }
+
+    @Override
+    public List<Tweet> findLatestByUserIds(Set<UUID> userIds, int limit) {
+        return jpaRepository.findByUserIdInOrderByCreatedAtDescIdDesc(userIds, Limit.of(limit)).stream()
+                .map(TweetEntity::toDomain)
+                .toList();
+    }
+
+    @Override
+    public List<Tweet> findByUserIdsBefore(Set<UUID> userIds, TimelineCursor cursor, int limit) {
+        return jpaRepository.findByUserIdInBefore(userIds, cursor.createdAt(), cursor.tweetId(), Limit.of(limit)).stream()
+                .map(TweetEntity::toDomain)
                 .toList();
     }
+
+    @Override
+    public List<Tweet> findByIds(Collection<UUID> tweetIds) {
+        return jpaRepository.findAllById(tweetIds).stream()
+                .map(TweetEntity::toDomain)
+                .toList();
+    }
+
+    @Override
+    public List<UUID> findRecentAuthors(LocalDateTime since, int limit) {
+        return jpaRepository.findRecentAuthors(since, Limit.of(limit));
+    }
 }
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
@@ -19,7 +20,8 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "follows", uniqueConstraints = {
-        @UniqueConstraint(columnNames = {"follower_id", "followee_id"})})
+        @UniqueConstraint(columnNames = {"follower_id", "followee_id"})},
+        indexes = {@Index(name = "idx_follows_followee_id", columnList = "followee_id")})
 @Getter
 @Setter
 @NoArgsConstructor
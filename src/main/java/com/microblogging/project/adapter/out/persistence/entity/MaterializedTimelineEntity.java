@@ -0,0 +1,45 @@
+package com.microblogging.project.adapter.out.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Marks the timeline of an owner as materialized in timeline_entries, and so complete up to the trimming depth once its
+ * build completed. Tweets are appended to owners with a marker from the start of their build, the build ID tells a
+ * completing build whether the timeline was dropped or rebuilt meanwhile.
+ */
+@Entity
+@Table(name = "materialized_timelines")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class MaterializedTimelineEntity {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @Column(name = "owner_id")
+    private UUID ownerId;
+
+    @Column(name = "build_id", nullable = false)
+    private UUID buildId;
+
+    @Column(name = "complete", nullable = false)
+    private boolean complete;
+
+    @Column(name = "materialized_at", nullable = false)
+    private LocalDateTime materializedAt;
+}
@@ -0,0 +1,59 @@
+package com.microblogging.project.adapter.out.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox event the relay could not turn into a message, kept with the reason for inspection instead of blocking the
+ * events written after it. Keeps the id it had in the outbox.
+ */
+@Entity
+@Table(name = "outbox_dead_letters")
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class OutboxDeadLetterEntity {
+
+    @Id
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+
+    @Column(name = "event_key", nullable = false, length = 100)
+    private String key;
+
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "failed_at", nullable = false)
+    private LocalDateTime failedAt;
+
+    @Column(nullable = false, length = 1000)
+    private String reason;
+
+    public OutboxDeadLetterEntity(OutboxEventEntity event, String reason, LocalDateTime failedAt) {
+        this.id = event.getId();
+        this.eventType = event.getEventType();
+        this.key = event.getKey();
+        this.payload = event.getPayload();
+        this.createdAt = event.getCreatedAt();
+        this.failedAt = failedAt;
+        this.reason = reason.length() > 1000 ? reason.substring(0, 1000) : reason;
+    }
+}
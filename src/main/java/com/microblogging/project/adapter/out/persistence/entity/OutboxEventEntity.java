@@ -0,0 +1,54 @@
+package com.microblogging.project.adapter.out.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event written in the transaction of the change it describes, waiting to be relayed to the message broker.
+ * Events are relayed in id order.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class OutboxEventEntity {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+
+    // Message key, events with the same key are relayed in the order they were written
+    @Column(name = "event_key", nullable = false, length = 100)
+    private String key;
+
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public OutboxEventEntity(String eventType, String key, String payload, LocalDateTime createdAt) {
+        this.eventType = eventType;
+        this.key = key;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+}
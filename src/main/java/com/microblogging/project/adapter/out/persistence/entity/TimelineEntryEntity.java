@@ -0,0 +1,58 @@
+package com.microblogging.project.adapter.out.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A tweet in the materialized timeline of its owner. The (owner, createdAt, tweetId) index makes reading the newest
+ * entries of a timeline a single range scan.
+ */
+@Entity
+@Table(name = "timeline_entries", indexes = {
+        @Index(name = "idx_timeline_entries_owner_created", columnList = "owner_id, created_at, tweet_id")})
+@IdClass(TimelineEntryEntity.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class TimelineEntryEntity {
+
+    @Id
+    @Column(name = "owner_id", nullable = false)
+    private UUID ownerId;
+
+    @Id
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Id
+    @Column(name = "tweet_id", nullable = false)
+    private UUID tweetId;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private UUID ownerId;
+        private LocalDateTime createdAt;
+        private UUID tweetId;
+    }
+}
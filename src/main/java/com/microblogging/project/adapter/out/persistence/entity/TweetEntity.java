@@ -4,6 +4,7 @@ import com.microblogging.project.domain.model.Tweet; // Keep this import for con
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id; // Only @Id needed for pre-generated UUIDs
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -16,7 +17,11 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "tweets")
+@Table(name = "tweets", indexes = {
+        // Serves the per-author "newest tweets" and keyset timeline queries without sorting the whole history
+        @Index(name = "idx_tweets_user_created", columnList = "user_id, created_at"),
+        // Serves the recent authors query of the warm-up, which only reads a window of recent tweets
+        @Index(name = "idx_tweets_created", columnList = "created_at")})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,6 +21,13 @@ interface SpringDataFollowJpaRepository extends JpaRepository<FollowEntity, Long
 
     @Query("SELECT fe.followeeId FROM FollowEntity fe WHERE fe.followerId = :followerId")
     Set<UUID> findFolloweeIdsByFollowerId(@Param("followerId") UUID followerId);
+
+    long countByFolloweeId(UUID followeeId);
+
+    @Query("SELECT fe.followeeId FROM FollowEntity fe WHERE fe.followerId = :followerId " +
+            "AND (SELECT COUNT(f2) FROM FollowEntity f2 WHERE f2.followeeId = fe.followeeId) > :followerCount")
+    Set<UUID> findFolloweeIdsWithMoreFollowersThan(@Param("followerId") UUID followerId,
+                                                   @Param("followerCount") long followerCount);
 }
 
 
@@ -58,4 +65,14 @@ public class FollowJpaRepository implements FollowRepository {
     public Set<UUID> findFollowees(UUID followerId) {
         return springDataFollowJpaRepository.findFolloweeIdsByFollowerId(followerId);
     }
+
+    @Override
+    public long countFollowers(UUID followeeId) {
+        return springDataFollowJpaRepository.countByFolloweeId(followeeId);
+    }
+
+    @Override
+    public Set<UUID> findFolloweesWithMoreFollowersThan(UUID followerId, long followerCount) {
+        return springDataFollowJpaRepository.findFolloweeIdsWithMoreFollowersThan(followerId, followerCount);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.microblogging.project.adapter.out.persistence.repository;
+
+import com.microblogging.project.adapter.out.persistence.entity.OutboxDeadLetterEntity;
+import com.microblogging.project.adapter.out.persistence.entity.OutboxEventEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+interface SpringDataOutboxEventJpaRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    // Rows claimed by another relay are skipped (lock timeout -2 is SKIP LOCKED) instead of waited for
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEventEntity e ORDER BY e.id")
+    List<OutboxEventEntity> findOldestForUpdate(Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEventEntity e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
+
+interface SpringDataOutboxDeadLetterJpaRepository extends JpaRepository<OutboxDeadLetterEntity, Long> {
+}
+
+@Repository
+public class OutboxEventJpaRepository {
+
+    // Plain batched INSERTs: JPA inserts IDENTITY entities one statement at a time to read each generated id
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (event_type, event_key, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    private final SpringDataOutboxEventJpaRepository repository;
+    private final SpringDataOutboxDeadLetterJpaRepository deadLetterRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxEventJpaRepository(SpringDataOutboxEventJpaRepository repository,
+                                    SpringDataOutboxDeadLetterJpaRepository deadLetterRepository,
+                                    JdbcTemplate jdbcTemplate) {
+        this.repository = repository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds an event to the outbox, in the caller's transaction.
+     */
+    @Transactional
+    public void append(String eventType, String key, String payload) {
+        repository.save(new OutboxEventEntity(eventType, key, payload, LocalDateTime.now()));
+    }
+
+    /**
+     * Adds events to the outbox in one batch, in the caller's transaction. Their ids follow the list order.
+     */
+    @Transactional
+    public void appendAll(List<OutboxEventEntity> events) {
+        // Joins the surrounding JPA transaction, on its connection
+        jdbcTemplate.batchUpdate(INSERT_SQL, events.stream()
+                .map(event -> new Object[]{event.getEventType(), event.getKey(), event.getPayload(), event.getCreatedAt()})
+                .toList());
+    }
+
+    /**
+     * Copies an event that cannot be relayed to the dead letters, in the caller's transaction. Called by a relay, the
+     * event then leaves the outbox with the rest of its batch.
+     */
+    @Transactional
+    public void deadLetter(OutboxEventEntity event, String reason) {
+        deadLetterRepository.save(new OutboxDeadLetterEntity(event, reason, LocalDateTime.now()));
+    }
+
+    /**
+     * Claims the oldest events, hands them to the relay and deletes them once it returns, in one transaction.
+     * When the relay throws, the events stay in the outbox and are claimed again by the next call.
+     *
+     * @return The number of relayed events, below {@code limit} once the outbox is drained.
+     */
+    @Transactional
+    public int relayOldest(int limit, Consumer<List<OutboxEventEntity>> relay) {
+        List<OutboxEventEntity> events = repository.findOldestForUpdate(Limit.of(limit));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        relay.accept(events);
+        repository.deleteByIds(events.stream().map(OutboxEventEntity::getId).toList());
+        return events.size();
+    }
+}
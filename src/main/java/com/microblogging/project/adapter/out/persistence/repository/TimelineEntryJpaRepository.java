@@ -0,0 +1,255 @@
+package com.microblogging.project.adapter.out.persistence.repository;
+
+import com.microblogging.project.adapter.out.persistence.entity.MaterializedTimelineEntity;
+import com.microblogging.project.adapter.out.persistence.entity.TimelineEntryEntity;
+import com.microblogging.project.adapter.out.persistence.entity.TweetEntity;
+import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.port.TimelineEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+interface SpringDataTimelineEntryJpaRepository extends JpaRepository<TimelineEntryEntity, TimelineEntryEntity.Key> {
+
+    // Range scan of idx_timeline_entries_owner_created, bodies joined by primary key
+    @Query("SELECT t FROM TimelineEntryEntity e JOIN TweetEntity t ON t.id = e.tweetId " +
+            "WHERE e.ownerId = :ownerId ORDER BY e.createdAt DESC, e.tweetId DESC")
+    List<TweetEntity> findTweetsByOwnerId(@Param("ownerId") UUID ownerId, Limit limit);
+
+    // One statement for all the owners, skipping the ones whose timeline is neither materialized nor being built
+    @Modifying
+    @Query("INSERT INTO TimelineEntryEntity (ownerId, createdAt, tweetId) " +
+            "SELECT m.ownerId, :createdAt, :tweetId FROM MaterializedTimelineEntity m " +
+            "WHERE m.ownerId IN :ownerIds AND NOT EXISTS (SELECT 1 FROM TimelineEntryEntity e " +
+            "WHERE e.ownerId = m.ownerId AND e.createdAt = :createdAt AND e.tweetId = :tweetId)")
+    int insertForMaterializedOwners(@Param("ownerIds") Collection<UUID> ownerIds,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("tweetId") UUID tweetId);
+
+    // Every tweet for every owner in one statement, tweets saved earlier in the transaction are flushed first.
+    // Native because Hibernate drops the correlation to the cross joined tweet in the JPQL version of the NOT EXISTS
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO timeline_entries (owner_id, created_at, tweet_id) " +
+            "SELECT m.owner_id, t.created_at, t.id FROM materialized_timelines m CROSS JOIN tweets t " +
+            "WHERE m.owner_id IN (:ownerIds) AND t.id IN (:tweetIds) AND NOT EXISTS (SELECT 1 FROM timeline_entries e " +
+            "WHERE e.owner_id = m.owner_id AND e.created_at = t.created_at AND e.tweet_id = t.id)", nativeQuery = true)
+    int insertTweetsForMaterializedOwners(@Param("ownerIds") Collection<UUID> ownerIds,
+                                          @Param("tweetIds") Collection<UUID> tweetIds);
+
+    // Entries loaded earlier in the transaction would otherwise shadow the ones saved next
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM TimelineEntryEntity e WHERE e.ownerId = :ownerId")
+    int deleteByOwnerId(@Param("ownerId") UUID ownerId);
+
+    // Paged by the trimming depth, the first entry past it in timeline order
+    List<TimelineEntryEntity> findByOwnerId(UUID ownerId, Pageable pageable);
+
+    // Range delete on the primary key of the owner, from the given entry down
+    @Modifying
+    @Query("DELETE FROM TimelineEntryEntity e WHERE e.ownerId = :ownerId AND (e.createdAt < :createdAt " +
+            "OR (e.createdAt = :createdAt AND e.tweetId <= :tweetId))")
+    int deleteFrom(@Param("ownerId") UUID ownerId,
+                   @Param("createdAt") LocalDateTime createdAt,
+                   @Param("tweetId") UUID tweetId);
+}
+
+interface SpringDataMaterializedTimelineJpaRepository extends JpaRepository<MaterializedTimelineEntity, UUID> {
+
+    boolean existsByOwnerIdAndCompleteTrue(UUID ownerId);
+
+    // Matches nothing once the timeline was dropped or a newer build began
+    @Modifying
+    @Query("UPDATE MaterializedTimelineEntity m SET m.complete = true, m.materializedAt = :materializedAt " +
+            "WHERE m.ownerId = :ownerId AND m.buildId = :buildId")
+    int completeBuild(@Param("ownerId") UUID ownerId,
+                      @Param("buildId") UUID buildId,
+                      @Param("materializedAt") LocalDateTime materializedAt);
+}
+
+@Repository
+public class TimelineEntryJpaRepository implements TimelineEntryRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(TimelineEntryJpaRepository.class);
+
+    // Owners per INSERT ... SELECT, keeps the IN list of large fan-outs bounded
+    private static final int APPEND_BATCH_SIZE = 1000;
+    // Entries a batch append inserts per statement at most, owners per statement shrink as tweets grow
+    private static final int MAX_APPEND_ROWS = 10_000;
+    // Owners trimmed per transaction
+    private static final int TRIM_BATCH_SIZE = 500;
+    // Skips the entries the fan-out already appended since the build began
+    private static final String INSERT_ENTRY_SQL = "INSERT INTO timeline_entries (owner_id, created_at, tweet_id) " +
+            "SELECT ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM timeline_entries " +
+            "WHERE owner_id = ? AND created_at = ? AND tweet_id = ?)";
+
+    private final SpringDataTimelineEntryJpaRepository entryRepository;
+    private final SpringDataMaterializedTimelineJpaRepository materializedRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    // Owners appended to on this node since the last trim, the only timelines that can exceed the depth
+    private final Set<UUID> untrimmed = ConcurrentHashMap.newKeySet();
+
+    @Value("${timeline.materialized.enabled:false}")
+    private boolean enabled = false;
+
+    // Entries kept per owner, the trimming runs in the background so timelines briefly exceed it
+    @Value("${timeline.materialized.depth:50}")
+    private int depth = 50;
+
+    public TimelineEntryJpaRepository(SpringDataTimelineEntryJpaRepository entryRepository,
+                                      SpringDataMaterializedTimelineJpaRepository materializedRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      JdbcTemplate jdbcTemplate) {
+        this.entryRepository = entryRepository;
+        this.materializedRepository = materializedRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<List<Tweet>> findTimeline(UUID ownerId, int limit) {
+        if (!materializedRepository.existsByOwnerIdAndCompleteTrue(ownerId)) {
+            return Optional.empty();
+        }
+        return Optional.of(entryRepository.findTweetsByOwnerId(ownerId, Limit.of(limit)).stream()
+                .map(TweetEntity::toDomain)
+                .toList());
+    }
+
+    /**
+     * Committed on its own before the caller reads the follow graph: a tweet whose fan-out misses the marker was
+     * committed before it, so the caller reads it.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public UUID beginTimeline(UUID ownerId) {
+        UUID buildId = UUID.randomUUID();
+        materializedRepository.save(new MaterializedTimelineEntity(ownerId, buildId, false, LocalDateTime.now()));
+        return buildId;
+    }
+
+    /**
+     * Adds the computed tweets to the entries appended since the begin, rather than replacing them, in one JDBC batch.
+     */
+    @Override
+    @Transactional
+    public boolean completeTimeline(UUID ownerId, UUID buildId, List<Tweet> tweets) {
+        if (materializedRepository.completeBuild(ownerId, buildId, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        // Joins the surrounding JPA transaction, on its connection
+        jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, tweets.stream()
+                .limit(depth)
+                .map(tweet -> new Object[]{ownerId, tweet.getCreatedAt(), tweet.getId(),
+                        ownerId, tweet.getCreatedAt(), tweet.getId()})
+                .toList());
+        untrimmed.add(ownerId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public void appendToTimelines(Collection<UUID> ownerIds, Tweet tweet) {
+        List<UUID> pending = new ArrayList<>(ownerIds);
+        for (int from = 0; from < pending.size(); from += APPEND_BATCH_SIZE) {
+            entryRepository.insertForMaterializedOwners(
+                    pending.subList(from, Math.min(pending.size(), from + APPEND_BATCH_SIZE)),
+                    tweet.getCreatedAt(), tweet.getId());
+        }
+        untrimmed.addAll(ownerIds);
+    }
+
+    @Override
+    @Transactional
+    public void appendToTimelines(Collection<UUID> ownerIds, List<Tweet> tweets) {
+        List<UUID> pending = new ArrayList<>(ownerIds);
+        List<UUID> tweetIds = tweets.stream().map(Tweet::getId).toList();
+        for (int tweetFrom = 0; tweetFrom < tweetIds.size(); tweetFrom += APPEND_BATCH_SIZE) {
+            List<UUID> tweetBatch = tweetIds.subList(tweetFrom, Math.min(tweetIds.size(), tweetFrom + APPEND_BATCH_SIZE));
+            int ownerBatchSize = Math.clamp(MAX_APPEND_ROWS / tweetBatch.size(), 1, APPEND_BATCH_SIZE);
+            for (int from = 0; from < pending.size(); from += ownerBatchSize) {
+                entryRepository.insertTweetsForMaterializedOwners(
+                        pending.subList(from, Math.min(pending.size(), from + ownerBatchSize)), tweetBatch);
+            }
+        }
+        untrimmed.addAll(ownerIds);
+    }
+
+    // Runs once the follow change has committed, its own transaction is needed to write anything
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void dropTimeline(UUID ownerId) {
+        materializedRepository.deleteById(ownerId);
+        entryRepository.deleteByOwnerId(ownerId);
+    }
+
+    /**
+     * Trims the timelines appended to since the last run to the configured depth, one index range per owner and one
+     * transaction per batch of owners. Owners left untrimmed by a restart are trimmed on their next append.
+     */
+    @Scheduled(fixedDelayString = "${timeline.materialized.trim-interval:1m}")
+    public void trim() {
+        if (!enabled) {
+            return;
+        }
+        int deleted = 0;
+        // Bounded by the owners pending when the run starts, appends meanwhile wait for the next one
+        for (int pending = untrimmed.size(); pending > 0; pending -= TRIM_BATCH_SIZE) {
+            List<UUID> batch = new ArrayList<>(TRIM_BATCH_SIZE);
+            Iterator<UUID> owners = untrimmed.iterator();
+            while (owners.hasNext() && batch.size() < TRIM_BATCH_SIZE) {
+                batch.add(owners.next());
+                owners.remove();
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                deleted += transactionTemplate.execute(status -> batch.stream().mapToInt(this::trimOwner).sum());
+            } catch (RuntimeException e) {
+                untrimmed.addAll(batch);
+                log.warn("Failed to trim {} materialized timelines: {}", batch.size(), e.getMessage());
+                break;
+            }
+        }
+        if (deleted > 0) {
+            log.debug("Trimmed {} materialized timeline entries beyond depth {}", deleted, depth);
+        }
+    }
+
+    private int trimOwner(UUID ownerId) {
+        List<TimelineEntryEntity> beyondDepth = entryRepository.findByOwnerId(ownerId, PageRequest.of(depth, 1,
+                Sort.by(Sort.Direction.DESC, "createdAt", "tweetId")));
+        if (beyondDepth.isEmpty()) {
+            return 0;
+        }
+        TimelineEntryEntity newest = beyondDepth.get(0);
+        return entryRepository.deleteFrom(ownerId, newest.getCreatedAt(), newest.getTweetId());
+    }
+}
@@ -1,12 +1,32 @@
 package com.microblogging.project.adapter.out.persistence.repository;
 
 import com.microblogging.project.adapter.out.persistence.entity.TweetEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
 public interface TweetJpaRepository extends JpaRepository<TweetEntity, UUID> {
     List<TweetEntity> findByUserIdIn(Set<UUID> userIds);
-}
\ No newline at end of file
+
+    // Top-K across authors: ordering and limit are applied by the database using idx_tweets_user_created
+    List<TweetEntity> findByUserIdInOrderByCreatedAtDescIdDesc(Set<UUID> userIds, Limit limit);
+
+    // Keyset pagination: only rows strictly older than (createdAt, id) are read, whatever the scroll depth
+    @Query("SELECT t FROM TweetEntity t WHERE t.userId IN :userIds " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TweetEntity> findByUserIdInBefore(@Param("userIds") Set<UUID> userIds,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") UUID id,
+                                           Limit limit);
+
+    // Only the tweets of the window are aggregated, found through idx_tweets_created
+    @Query("SELECT t.userId FROM TweetEntity t WHERE t.createdAt > :since GROUP BY t.userId ORDER BY MAX(t.createdAt) DESC")
+    List<UUID> findRecentAuthors(@Param("since") LocalDateTime since, Limit limit);
+}
@@ -4,12 +4,20 @@ import com.microblogging.project.adapter.out.persistence.entity.UserEntity; // I
 import com.microblogging.project.domain.model.User; // Import your domain model
 import com.microblogging.project.domain.port.UserRepository; // Import the domain port
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 interface SpringDataUserJpaRepository extends JpaRepository<UserEntity, UUID> {
+
+    // IDs only, without loading the users
+    @Query("SELECT u.id FROM UserEntity u WHERE u.id IN :ids")
+    Set<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
 }
 
 @Repository
@@ -39,4 +47,9 @@ public class UserJpaRepository implements UserRepository {
     public boolean existsById(UUID id) {
         return springDataUserJpaRepository.existsById(id);
     }
+
+    @Override
+    public Set<UUID> findExistingIds(Collection<UUID> ids) {
+        return ids.isEmpty() ? Set.of() : springDataUserJpaRepository.findExistingIds(ids);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.microblogging.project.application.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation for timeline fan-out and assembly.
+ * Exposed through the actuator {@code /actuator/metrics} endpoint.
+ */
+@Component
+public class TimelineMetrics {
+
+    private final Counter celebrityFanoutSkipped;
+    private final DistributionSummary fanoutSize;
+    private final Timer celebrityMerge;
+    private final DistributionSummary celebrityMergeTweets;
+    private final Timer bulkInvalidation;
+    private final DistributionSummary bulkInvalidationSize;
+    private final Counter refreshesScheduled;
+    private final Counter refreshesRejected;
+    private final Counter rebuilds;
+    private final Counter materializedReads;
+    private final Counter rebuildsCoalescedLocal;
+    private final Counter rebuildsCoalescedRemote;
+    private final Counter warmupWarmed;
+    private final Counter warmupSkipped;
+    private final Counter warmupFailed;
+
+    public TimelineMetrics(MeterRegistry meterRegistry,
+                           @Value("${timeline.fanout.celebrity-threshold:0}") long celebrityThreshold) {
+        Gauge.builder("timeline.fanout.celebrity.threshold", () -> celebrityThreshold)
+                .description("Follower count above which an author's tweets are pulled at read time instead of fanned out")
+                .register(meterRegistry);
+        this.celebrityFanoutSkipped = Counter.builder("timeline.fanout.celebrity.skipped")
+                .description("Posts whose follower fan-out was skipped because the author is above the celebrity threshold")
+                .register(meterRegistry);
+        this.fanoutSize = DistributionSummary.builder("timeline.fanout.size")
+                .description("Number of follower timelines touched per post")
+                .register(meterRegistry);
+        this.celebrityMerge = Timer.builder("timeline.celebrity.merge")
+                .description("Time spent pulling and merging celebrity tweets into a timeline at read time")
+                .register(meterRegistry);
+        this.celebrityMergeTweets = DistributionSummary.builder("timeline.celebrity.merge.tweets")
+                .description("Number of celebrity tweets pulled per timeline read")
+                .register(meterRegistry);
+        this.bulkInvalidation = Timer.builder("timeline.invalidation.bulk")
+                .description("Time spent dropping follower timelines from the cache per post")
+                .register(meterRegistry);
+        this.bulkInvalidationSize = DistributionSummary.builder("timeline.invalidation.bulk.size")
+                .description("Number of cached timelines dropped per bulk invalidation")
+                .register(meterRegistry);
+        this.refreshesScheduled = Counter.builder("timeline.refresh")
+                .description("Stale timelines served from cache and refreshed in the background")
+                .tag("result", "scheduled")
+                .register(meterRegistry);
+        this.refreshesRejected = Counter.builder("timeline.refresh")
+                .description("Stale timelines served from cache and refreshed in the background")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        this.rebuilds = Counter.builder("timeline.rebuild")
+                .description("Timelines rebuilt from the database after a cache miss")
+                .register(meterRegistry);
+        this.materializedReads = Counter.builder("timeline.materialized.read")
+                .description("Cache misses served from the materialized timeline table instead of the follow graph")
+                .register(meterRegistry);
+        this.rebuildsCoalescedLocal = Counter.builder("timeline.rebuild.coalesced")
+                .description("Cache misses served by a rebuild already running for the same timeline")
+                .tag("scope", "local")
+                .register(meterRegistry);
+        this.rebuildsCoalescedRemote = Counter.builder("timeline.rebuild.coalesced")
+                .description("Cache misses served by a rebuild already running for the same timeline")
+                .tag("scope", "remote")
+                .register(meterRegistry);
+        this.warmupWarmed = warmupCounter(meterRegistry, "warmed");
+        this.warmupSkipped = warmupCounter(meterRegistry, "skipped");
+        this.warmupFailed = warmupCounter(meterRegistry, "failed");
+    }
+
+    private static Counter warmupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("timeline.warmup")
+                .description("Timelines processed by the cache warm-up (warmed, skipped because already cached, failed)")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public void recordFanout(int followerTimelines) {
+        fanoutSize.record(followerTimelines);
+    }
+
+    public void recordCelebrityFanoutSkipped() {
+        celebrityFanoutSkipped.increment();
+    }
+
+    public void recordCelebrityMerge(int pulledTweets, long elapsedNanos) {
+        celebrityMerge.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        celebrityMergeTweets.record(pulledTweets);
+    }
+
+    public void recordBulkInvalidation(int timelines, long elapsedNanos) {
+        bulkInvalidation.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        bulkInvalidationSize.record(timelines);
+    }
+
+    public void recordRefreshScheduled() {
+        refreshesScheduled.increment();
+    }
+
+    public void recordRefreshRejected() {
+        refreshesRejected.increment();
+    }
+
+    public void recordRebuild() {
+        rebuilds.increment();
+    }
+
+    public void recordMaterializedRead() {
+        materializedReads.increment();
+    }
+
+    public void recordRebuildCoalesced() {
+        rebuildsCoalescedLocal.increment();
+    }
+
+    public void recordRebuildCoalescedRemotely() {
+        rebuildsCoalescedRemote.increment();
+    }
+
+    public void recordWarmupWarmed() {
+        warmupWarmed.increment();
+    }
+
+    public void recordWarmupSkipped() {
+        warmupSkipped.increment();
+    }
+
+    public void recordWarmupFailed() {
+        warmupFailed.increment();
+    }
+}
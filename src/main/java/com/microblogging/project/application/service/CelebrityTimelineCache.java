@@ -0,0 +1,115 @@
+package com.microblogging.project.application.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microblogging.project.domain.model.TimelineCursor;
+import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.port.FollowRepository;
+import com.microblogging.project.domain.port.TweetRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the hybrid timelines off the database: which celebrities each reader follows, the newest tweets of each
+ * celebrity, and whether an author is a celebrity when they post are all cached in-process for a short time.
+ * Celebrities are few and followed by many, so their tweets are loaded once per TTL and shared by every reader on the node.
+ * <p>
+ * A reader's followed celebrities are dropped when they follow or unfollow someone, and a celebrity's tweets when
+ * they post, on this node. Other nodes catch up within the TTLs, as do the posts and readers of an author who just
+ * crossed the celebrity threshold.
+ */
+@Component
+public class CelebrityTimelineCache {
+
+    private final FollowRepository followRepo;
+    private final TweetRepository tweetRepo;
+    private final long celebrityThreshold;
+    private final Cache<UUID, Set<UUID>> followedCelebrities;
+    private final Cache<UUID, List<Tweet>> newestTweets;
+    private final Cache<UUID, Boolean> celebrityAuthors;
+
+    public CelebrityTimelineCache(FollowRepository followRepo,
+                                  TweetRepository tweetRepo,
+                                  @Value("${timeline.fanout.celebrity-threshold:0}") long celebrityThreshold,
+                                  @Value("${timeline.fanout.celebrity-cache.followees-ttl:1m}") Duration followeesTtl,
+                                  @Value("${timeline.fanout.celebrity-cache.tweets-ttl:10s}") Duration tweetsTtl,
+                                  @Value("${timeline.fanout.celebrity-cache.authors-ttl:1m}") Duration authorsTtl,
+                                  @Value("${timeline.fanout.celebrity-cache.max-users:100000}") long maxUsers,
+                                  @Value("${timeline.fanout.celebrity-cache.max-celebrities:10000}") long maxCelebrities) {
+        this.followRepo = followRepo;
+        this.tweetRepo = tweetRepo;
+        this.celebrityThreshold = celebrityThreshold;
+        this.followedCelebrities = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(followeesTtl)
+                .build();
+        this.newestTweets = Caffeine.newBuilder()
+                .maximumSize(maxCelebrities)
+                .expireAfterWrite(tweetsTtl)
+                .build();
+        this.celebrityAuthors = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(authorsTtl)
+                .build();
+    }
+
+    /**
+     * Whether the author has more followers than the celebrity threshold, false when the hybrid model is disabled.
+     * Followers are counted at most once per TTL, not on every post.
+     */
+    public boolean isCelebrity(UUID authorId) {
+        if (celebrityThreshold <= 0) {
+            return false;
+        }
+        return celebrityAuthors.get(authorId, key -> followRepo.countFollowers(key) > celebrityThreshold);
+    }
+
+    /**
+     * Followees of the user above the celebrity threshold, empty when the hybrid model is disabled.
+     */
+    public Set<UUID> followedCelebrities(UUID userId) {
+        if (celebrityThreshold <= 0) {
+            return Set.of();
+        }
+        return followedCelebrities.get(userId,
+                key -> Set.copyOf(followRepo.findFolloweesWithMoreFollowersThan(key, celebrityThreshold)));
+    }
+
+    /**
+     * Newest tweets of the given celebrities after the cursor (from the top when null), newest first.
+     * Pages deeper than the cached window of a celebrity are read from the database.
+     */
+    public List<Tweet> latestTweets(Set<UUID> celebrities, TimelineCursor cursor, int limit) {
+        List<List<Tweet>> slices = new ArrayList<>(celebrities.size());
+        for (UUID celebrity : celebrities) {
+            List<Tweet> newest = newestTweets.get(celebrity,
+                    key -> List.copyOf(tweetRepo.findLatestByUserIds(Set.of(key), TimelineService.TIMELINE_SIZE)));
+            if (cursor == null) {
+                slices.add(newest);
+                continue;
+            }
+            List<Tweet> page = newest.stream().filter(cursor::precedes).limit(limit).toList();
+            if (page.size() < limit && newest.size() >= TimelineService.TIMELINE_SIZE) {
+                page = tweetRepo.findByUserIdsBefore(Set.of(celebrity), cursor, limit);
+            }
+            slices.add(page);
+        }
+        return TimelineMerger.mergeNewestFirst(slices, limit);
+    }
+
+    // The user's followees changed, a new or former celebrity followee must show up on the next read
+    public void followeesChanged(UUID userId) {
+        followedCelebrities.invalidate(userId);
+    }
+
+    // The celebrity just posted, readers on this node see the tweet on their next read
+    public void tweetPosted(UUID celebrityId) {
+        newestTweets.invalidate(celebrityId);
+    }
+}
@@ -0,0 +1,11 @@
+package com.microblogging.project.application.service;
+
+/**
+ * Strategy used to propagate a new tweet to the cached timelines of the author's followers.
+ */
+public enum FanoutMode {
+    /** Drop the cached timelines so they are rebuilt from the database on the next read (fan-out-on-read). */
+    INVALIDATE,
+    /** Prepend the tweet into the cached timelines so reads stay hot (fan-out-on-write). */
+    PUSH
+}
@@ -5,9 +5,14 @@ import com.microblogging.project.domain.exception.AlreadyFollowingException;
 import com.microblogging.project.domain.exception.CannotFollowSelfException;
 import com.microblogging.project.domain.exception.UserNotFoundException;
 import com.microblogging.project.domain.port.FollowRepository;
+import com.microblogging.project.domain.port.TimelineCachePort;
+import com.microblogging.project.domain.port.TimelineEntryRepository;
 import com.microblogging.project.domain.port.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.UUID;
 
@@ -16,10 +21,22 @@ public class FollowService implements FollowUserUseCase {
 
     private final UserRepository userRepository;
     private final FollowRepository followRepository;
+    private final TimelineCachePort timelineCachePort;
+    private final TimelineEntryRepository timelineEntries;
+    private final CelebrityTimelineCache celebrityCache;
 
-    public FollowService(UserRepository userRepository, FollowRepository followRepository) {
+    // The materialized timeline no longer matches the followees either, it is rebuilt on the next cache miss
+    @Value("${timeline.materialized.enabled:false}")
+    private boolean materializedTimelines = false;
+
+    public FollowService(UserRepository userRepository, FollowRepository followRepository,
+                         TimelineCachePort timelineCachePort, TimelineEntryRepository timelineEntries,
+                         CelebrityTimelineCache celebrityCache) {
         this.userRepository = userRepository;
         this.followRepository = followRepository;
+        this.timelineCachePort = timelineCachePort;
+        this.timelineEntries = timelineEntries;
+        this.celebrityCache = celebrityCache;
     }
 
     @Override
@@ -45,6 +62,8 @@ public class FollowService implements FollowUserUseCase {
 
         // 4. Perform the follow operation (uses the domain port)
         followRepository.save(followerId, followeeId);
+        // The follower's cached timeline (possibly cached as empty) no longer reflects who they follow
+        afterCommit(() -> followeesChanged(followerId));
         // Additional logic could include:
         // - Publishing an event: UserFollowedEvent (for notification, activity feed, etc.)
     }
@@ -75,7 +94,30 @@ public class FollowService implements FollowUserUseCase {
 
         // 4. Perform the unfollow operation
         followRepository.delete(followerId, followeeId);
+        afterCommit(() -> followeesChanged(followerId));
         // Additional logic could include:
         // - Publishing an event: UserUnfollowedEvent
     }
+
+    private void followeesChanged(UUID followerId) {
+        timelineCachePort.invalidateTimeline(followerId);
+        celebrityCache.followeesChanged(followerId);
+        if (materializedTimelines) {
+            timelineEntries.dropTimeline(followerId);
+        }
+    }
+
+    // Not before: a read between the invalidation and the commit would cache the old followees' timeline again
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
 }
@@ -0,0 +1,211 @@
+package com.microblogging.project.application.service;
+
+import com.microblogging.project.application.usecase.PostTweetUseCase;
+import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.port.TweetRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit of posts: posts arriving together share one transaction instead of committing one by one. The first
+ * post of a batch waits at most {@code max-wait} for others, up to {@code max-batch-size} in all, then a single writer
+ * thread inserts their tweets in one JDBC batch, publishes their events, commits once and releases every post.
+ * Authors are checked on the posting thread before queuing, outside any transaction, so waiting posts hold no database
+ * connection. When a batch fails, its posts are committed one by one so only the failing ones fail. When the queue is
+ * full or the node is stopping, a post is committed on its own.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "tweet.group-commit.enabled", havingValue = "true")
+public class GroupCommitPostTweetService implements PostTweetUseCase {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitPostTweetService.class);
+
+    // How often an idle writer checks whether the node is stopping
+    private static final long IDLE_POLL_MILLIS = 100;
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private record PendingPost(Tweet tweet, long submittedAt, CompletableFuture<Void> committed) {
+    }
+
+    private final PostTweetService posts;
+    private final TweetRepository tweetRepo;
+    private final TransactionOperations transactions;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingPost> queue;
+    private final Thread writer;
+    private volatile boolean stopped;
+
+    private final DistributionSummary batchSize;
+    private final Timer latency;
+    private final Timer commitTime;
+    private final Counter split;
+    private final Counter bypassed;
+
+    public GroupCommitPostTweetService(PostTweetService posts, TweetRepository tweetRepo,
+                                       TransactionOperations transactions, MeterRegistry meterRegistry,
+                                       @Value("${tweet.group-commit.max-batch-size:64}") int maxBatchSize,
+                                       @Value("${tweet.group-commit.max-wait:5ms}") Duration maxWait,
+                                       @Value("${tweet.group-commit.queue-capacity:10000}") int queueCapacity) {
+        this.posts = posts;
+        this.tweetRepo = tweetRepo;
+        this.transactions = transactions;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("tweet.group-commit.queue.depth", queue::size)
+                .description("Posts waiting for their group commit")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("tweet.group-commit.batch.size")
+                .description("Posts committed per group commit transaction")
+                .register(meterRegistry);
+        this.latency = Timer.builder("tweet.group-commit.latency")
+                .description("Time from the submission of a post to the commit of its batch")
+                .register(meterRegistry);
+        this.commitTime = Timer.builder("tweet.group-commit.commit")
+                .description("Time spent inserting and committing a batch of posts")
+                .register(meterRegistry);
+        this.split = Counter.builder("tweet.group-commit.split")
+                .description("Failed batches whose posts were committed one by one")
+                .register(meterRegistry);
+        this.bypassed = Counter.builder("tweet.group-commit.bypassed")
+                .description("Posts committed on their own because the queue was full or the node was stopping")
+                .register(meterRegistry);
+
+        this.writer = Thread.ofPlatform().name("tweet-group-commit").daemon().start(this::writeBatches);
+    }
+
+    @Override
+    public Tweet post(UUID userId, String content) {
+        Tweet tweet = posts.newTweet(userId, content);
+        PendingPost pending = new PendingPost(tweet, System.nanoTime(), new CompletableFuture<>());
+        // Checked again after queuing: the writer may have taken its last batch in between
+        if (stopped || !queue.offer(pending) || (stopped && queue.remove(pending))) {
+            bypassed.increment();
+            commitAlone(tweet);
+            return tweet;
+        }
+        try {
+            pending.committed().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return tweet;
+    }
+
+    private void writeBatches() {
+        List<PendingPost> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped = true;
+            }
+            if (batch.isEmpty()) {
+                if (stopped) {
+                    return;
+                }
+                continue;
+            }
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    // The batch closes when it is full or max-wait after its first post was submitted, whichever comes first
+    private void collect(List<PendingPost> batch) throws InterruptedException {
+        PendingPost first = stopped ? queue.poll() : queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = first.submittedAt() + maxWaitNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            PendingPost next = remaining > 0 && !stopped ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingPost> batch) {
+        List<Tweet> tweets = batch.stream().map(PendingPost::tweet).toList();
+        long start = System.nanoTime();
+        try {
+            // All the tweets first, so they go out as one JDBC batch
+            transactions.executeWithoutResult(status -> {
+                tweetRepo.insertAll(tweets);
+                tweets.forEach(posts::tweetSaved);
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).committed().completeExceptionally(e);
+                return;
+            }
+            split.increment();
+            log.warn("Group commit of {} tweets failed, committing them one by one: {}", batch.size(), e.getMessage());
+            for (PendingPost pending : batch) {
+                try {
+                    commitAlone(pending.tweet());
+                    pending.committed().complete(null);
+                } catch (RuntimeException single) {
+                    pending.committed().completeExceptionally(single);
+                }
+            }
+            return;
+        }
+        long committedAt = System.nanoTime();
+        commitTime.record(committedAt - start, TimeUnit.NANOSECONDS);
+        batchSize.record(batch.size());
+        log.debug("Group committed {} tweets", batch.size());
+        for (PendingPost pending : batch) {
+            latency.record(committedAt - pending.submittedAt(), TimeUnit.NANOSECONDS);
+            pending.committed().complete(null);
+        }
+    }
+
+    private void commitAlone(Tweet tweet) {
+        transactions.executeWithoutResult(status -> {
+            tweetRepo.insertAll(List.of(tweet));
+            posts.tweetSaved(tweet);
+        });
+    }
+
+    /**
+     * Commits the posts still queued and stops the writer.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        stopped = true;
+        writer.join(SHUTDOWN_TIMEOUT.toMillis());
+        if (writer.isAlive()) {
+            log.warn("{} posts still waiting for their group commit after {}", queue.size(), SHUTDOWN_TIMEOUT);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.microblogging.project.application.service;
 
+import com.microblogging.project.application.metrics.TimelineMetrics;
 import com.microblogging.project.application.usecase.PostTweetUseCase;
 import com.microblogging.project.domain.event.TweetPostedEvent;
 import com.microblogging.project.domain.exception.UserNotFoundException;
@@ -8,12 +9,18 @@ import com.microblogging.project.domain.port.*;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class PostTweetService implements PostTweetUseCase {
@@ -25,23 +32,59 @@ public class PostTweetService implements PostTweetUseCase {
     private final FollowRepository followRepo;
     private final MessagePublisher messagePublisher;
     private final TimelineCachePort timelineCachePort;
+    private final TimelineEntryRepository timelineEntries;
+    private final TimelineFanoutExecutor fanoutExecutor;
+    private final CelebrityTimelineCache celebrityCache;
+
+    private final TimelineMetrics timelineMetrics;
+
+    @Value("${timeline.fanout.mode:invalidate}")
+    private FanoutMode fanoutMode = FanoutMode.INVALIDATE;
+
+    // New tweets are appended to the materialized timelines of the followers during the fan-out
+    @Value("${timeline.materialized.enabled:false}")
+    private boolean materializedTimelines = false;
 
     public PostTweetService(
         TweetRepository tweetRepo,
         UserRepository userRepo,
         FollowRepository followRepo,
         MessagePublisher messagePublisher,
-        TimelineCachePort timelineCachePort) {
+        TimelineCachePort timelineCachePort,
+        TimelineEntryRepository timelineEntries,
+        TimelineFanoutExecutor fanoutExecutor,
+        CelebrityTimelineCache celebrityCache,
+        TimelineMetrics timelineMetrics) {
             this.tweetRepo = tweetRepo;
             this.userRepo = userRepo;
             this.followRepo = followRepo;
             this.messagePublisher = messagePublisher;
             this.timelineCachePort = timelineCachePort;
+            this.timelineEntries = timelineEntries;
+            this.fanoutExecutor = fanoutExecutor;
+            this.celebrityCache = celebrityCache;
+            this.timelineMetrics = timelineMetrics;
         }
 
     @Override
     @Transactional
     public Tweet post(UUID userId, String content) {
+        Tweet tweet = newTweet(userId, content);
+
+        // 4. Persist the Tweet (using the domain port)
+        tweetRepo.save(tweet);
+        log.info("Tweet {} posted by user {}", tweet.getId(), tweet.getUserId());
+
+        tweetSaved(tweet);
+
+        // Return the created Tweet domain object
+        return tweet;
+    }
+
+    /**
+     * Checks the author and creates the tweet to save.
+     */
+    public Tweet newTweet(UUID userId, String content) {
 
         // 1. Business Rule: Check if userId exists
         if (!userRepo.existsById(userId)) {
@@ -59,43 +102,114 @@ public class PostTweetService implements PostTweetUseCase {
 
 
         // 3. Create a new Tweet domain object
-        Tweet tweet = new Tweet(
+        return new Tweet(
                 UUID.randomUUID(), // Generate a new ID for the tweet
                 userId,
                 content,
                 LocalDateTime.now() // Set the current timestamp
         );
+    }
 
-        // 4. Persist the Tweet (using the domain port)
-        tweetRepo.save(tweet);
-        log.info("Tweet {} posted by user {}", tweet.getId(), tweet.getUserId());
-
+    /**
+     * Publishes the event of a saved tweet and schedules its fan-out, in the transaction that saved it.
+     */
+    public void tweetSaved(Tweet tweet) {
+        // 5. Publish a Domain Event for asynchronous processing, in the post transaction
+        // (written to the outbox with the tweet, or sent to Kafka once it commits)
+        publishTweetPostedEvent(tweet);
+        log.info("TweetPostedEvent published for tweet {}.", tweet.getId());
 
-        // 5. Invalidate timelines of followers (and potentially the user's own timeline)
-        // Retrieve followers of the user who just tweeted
-        Set<UUID> followers = followRepo.findFollowersByFolloweeId(userId);
+        // 6. Fan out once the tweet is committed, off the request thread when the fan-out runs asynchronously
+        fanoutExecutor.executeAfterCommit(() -> fanOut(tweet));
+    }
 
-        // Invalidate timeline for each follower
-        for (UUID followerId : followers) {
-            timelineCachePort.invalidateTimeline(followerId); // Use the cache port
-            log.debug("Invalidated timeline cache for follower: {}", followerId);
-        }
-        // Also invalidate the tweeter's own timeline so they see their new tweet immediately
-        timelineCachePort.invalidateTimeline(userId);
-        log.debug("Invalidated own timeline cache for user: {}", userId);
+    /**
+     * Publishes the events of imported tweets and schedules a single fan-out for all of them, in the transaction that
+     * saved them.
+     */
+    public void tweetsImported(List<Tweet> tweets) {
+        messagePublisher.publishTweetPostedEvents(tweets.stream().map(PostTweetService::toEvent).toList());
+        log.info("{} TweetPostedEvents published for imported tweets.", tweets.size());
+        fanoutExecutor.executeAfterCommit(() -> fanOutImported(tweets));
+    }
 
+    private void publishTweetPostedEvent(Tweet tweet) {
+        messagePublisher.publishTweetPostedEvent(toEvent(tweet));
+    }
 
-        // 6. Publish a Domain Event for asynchronous processing
-        TweetPostedEvent event = new TweetPostedEvent(
+    private static TweetPostedEvent toEvent(Tweet tweet) {
+        return new TweetPostedEvent(
                 tweet.getId(),
                 tweet.getUserId(),
                 tweet.getContent(),
                 tweet.getCreatedAt()
         );
-        messagePublisher.publishTweetPostedEvent(event);
-        log.info("TweetPostedEvent published for tweet {}.", tweet.getId());
+    }
 
-        // Return the created Tweet domain object
-        return tweet;
+    private void fanOut(Tweet tweet) {
+        UUID userId = tweet.getUserId();
+
+        // Propagate the tweet to the cached timelines of followers (and the user's own timeline)
+        Set<UUID> followers = followersToFanOut(userId);
+
+        if (materializedTimelines) {
+            Set<UUID> owners = new HashSet<>(followers);
+            owners.add(userId);
+            timelineEntries.appendToTimelines(owners, tweet);
+        }
+
+        if (fanoutMode == FanoutMode.PUSH) {
+            // Fan-out-on-write: keep cached timelines hot by prepending the new tweet, to the followers' and the
+            // tweeter's own timelines in one bulk call
+            Set<UUID> timelines = new HashSet<>(followers);
+            timelines.add(userId);
+            timelineCachePort.prependToTimelines(timelines, tweet, TimelineService.TIMELINE_SIZE);
+            log.debug("Pushed tweet {} to {} timeline caches", tweet.getId(), timelines.size());
+        } else {
+            // Invalidate the timeline of each follower, and also the tweeter's own timeline so they see
+            // their new tweet immediately, in one bulk call rather than one cache round trip per follower
+            Set<UUID> timelines = new HashSet<>(followers);
+            timelines.add(userId);
+            long start = System.nanoTime();
+            timelineCachePort.invalidateTimelines(timelines);
+            timelineMetrics.recordBulkInvalidation(timelines.size(), System.nanoTime() - start);
+            log.debug("Invalidated {} timeline caches for tweet {}", timelines.size(), tweet.getId());
+        }
+    }
+
+    // Imported tweets are usually older than the newest ones cached timelines hold: they are inserted in timestamp order
+    // into materialized timelines, and the cached timelines they belong to are invalidated rather than prepended to
+    private void fanOutImported(List<Tweet> tweets) {
+        Set<UUID> timelines = new HashSet<>();
+        Map<UUID, List<Tweet>> byAuthor = tweets.stream().collect(Collectors.groupingBy(Tweet::getUserId));
+        byAuthor.forEach((userId, authored) -> {
+            Set<UUID> owners = new HashSet<>(followersToFanOut(userId));
+            owners.add(userId);
+            if (materializedTimelines) {
+                timelineEntries.appendToTimelines(owners, authored);
+            }
+            timelines.addAll(owners);
+        });
+        long start = System.nanoTime();
+        timelineCachePort.invalidateTimelines(timelines);
+        timelineMetrics.recordBulkInvalidation(timelines.size(), System.nanoTime() - start);
+        log.debug("Invalidated {} timeline caches for {} imported tweets", timelines.size(), tweets.size());
+    }
+
+    // Authors above the celebrity threshold are not fanned out: their tweets are pulled
+    // and merged into their followers' timelines at read time by TimelineService.
+    private Set<UUID> followersToFanOut(UUID userId) {
+        Set<UUID> followers;
+        if (celebrityCache.isCelebrity(userId)) {
+            followers = Collections.emptySet();
+            celebrityCache.tweetPosted(userId);
+            timelineMetrics.recordCelebrityFanoutSkipped();
+            log.debug("Skipped follower fan-out for celebrity user: {}", userId);
+        } else {
+            // Retrieve followers of the user who just tweeted
+            followers = followRepo.findFollowersByFolloweeId(userId);
+        }
+        timelineMetrics.recordFanout(followers.size());
+        return followers;
     }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.microblogging.project.application.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks how often each user reads their timeline and turns it into a cache TTL.
+ * Every read adds one to an exponentially decaying access score (recency and frequency in a single number),
+ * and the TTL grows from {@code min} for idle users towards {@code max} for users who keep coming back.
+ */
+@Component
+public class TimelineAccessTracker {
+
+    private final boolean enabled;
+    private final Duration minTtl;
+    private final Duration maxTtl;
+    private final double hotAccesses;
+    private final double halfLifeNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<UUID, AccessStats> stats;
+
+    @Autowired
+    public TimelineAccessTracker(@Value("${timeline.cache.adaptive-ttl.enabled:false}") boolean enabled,
+                                 @Value("${timeline.cache.adaptive-ttl.min:1m}") Duration minTtl,
+                                 @Value("${timeline.cache.adaptive-ttl.max:30m}") Duration maxTtl,
+                                 @Value("${timeline.cache.adaptive-ttl.hot-accesses:10}") double hotAccesses,
+                                 @Value("${timeline.cache.adaptive-ttl.half-life:10m}") Duration halfLife,
+                                 @Value("${timeline.cache.adaptive-ttl.max-tracked-users:100000}") long maxTrackedUsers) {
+        this(enabled, minTtl, maxTtl, hotAccesses, halfLife, maxTrackedUsers, System::nanoTime);
+    }
+
+    public TimelineAccessTracker(boolean enabled, Duration minTtl, Duration maxTtl, double hotAccesses,
+                                 Duration halfLife, long maxTrackedUsers, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.minTtl = minTtl;
+        this.maxTtl = maxTtl;
+        this.hotAccesses = hotAccesses;
+        this.halfLifeNanos = halfLife.toNanos();
+        this.nanoClock = nanoClock;
+        this.stats = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                // Past a few half-lives the score is negligible, the user is as cold as an unknown one
+                .expireAfterAccess(halfLife.multipliedBy(8))
+                .build();
+    }
+
+    /**
+     * A tracker that never adapts, {@link #ttlFor} always returns the default TTL.
+     */
+    public static TimelineAccessTracker disabled() {
+        return new TimelineAccessTracker(false, Duration.ZERO, Duration.ZERO, 1, Duration.ofMinutes(1), 1, System::nanoTime);
+    }
+
+    public void recordAccess(UUID userId) {
+        if (!enabled) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        stats.asMap().compute(userId, (key, current) ->
+                new AccessStats(current == null ? 1 : current.scoreAt(now, halfLifeNanos) + 1, now));
+    }
+
+    /**
+     * Decayed number of recent timeline reads of the user, 0 if unknown.
+     */
+    public double accessScore(UUID userId) {
+        AccessStats current = stats.getIfPresent(userId);
+        return current == null ? 0 : current.scoreAt(nanoClock.getAsLong(), halfLifeNanos);
+    }
+
+    /**
+     * TTL for the user's cached timeline: {@code min + (max - min) * score / (score + hotAccesses)}.
+     *
+     * @param userId     The owner of the timeline.
+     * @param defaultTtl Returned as is when adaptive TTLs are disabled.
+     */
+    public Duration ttlFor(UUID userId, Duration defaultTtl) {
+        if (!enabled) {
+            return defaultTtl;
+        }
+        double score = accessScore(userId);
+        double heat = score / (score + hotAccesses);
+        long rangeMillis = maxTtl.minus(minTtl).toMillis();
+        return minTtl.plusMillis(Math.round(rangeMillis * heat));
+    }
+
+    private record AccessStats(double score, long lastAccessNanos) {
+
+        double scoreAt(long nowNanos, double halfLifeNanos) {
+            return score * Math.pow(0.5, (nowNanos - lastAccessNanos) / halfLifeNanos);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.microblogging.project.application.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the fan-out of posted tweets once the transaction that saved them has committed, on virtual threads, so a post
+ * returns as soon as its tweet is durable and holds its database connection for the insert only.
+ * At most {@code max-concurrency} fan-outs run at once and at most {@code queue-capacity} wait for their turn. When the
+ * queue is full the posting thread waits for its own fan-out, which slows posting down to the rate fan-outs complete at.
+ * Fan-outs still queued when the node stops are lost: followers see the tweet once their cached timelines expire.
+ * When disabled, fan-outs still wait for the commit and then run synchronously, before the post returns.
+ */
+@Component
+public class TimelineFanoutExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(TimelineFanoutExecutor.class);
+
+    private final boolean async;
+    private final Duration shutdownTimeout;
+    // Fan-outs queued or running, and fan-outs running
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ExecutorService executor;
+
+    private final Timer lag;
+    private final Timer duration;
+    private final Counter saturated;
+    private final Counter failed;
+
+    @Autowired
+    public TimelineFanoutExecutor(MeterRegistry meterRegistry,
+                                  @Value("${timeline.fanout.async.enabled:false}") boolean async,
+                                  @Value("${timeline.fanout.async.max-concurrency:16}") int maxConcurrency,
+                                  @Value("${timeline.fanout.async.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${timeline.fanout.async.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.async = async;
+        this.shutdownTimeout = shutdownTimeout;
+        this.admitted = new Semaphore(maxConcurrency + queueCapacity);
+        this.running = new Semaphore(maxConcurrency);
+        this.executor = async
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("timeline-fanout-", 0).factory())
+                : null;
+
+        Gauge.builder("timeline.fanout.queue.depth", queued::get)
+                .description("Committed posts waiting for their fan-out to start")
+                .register(meterRegistry);
+        Gauge.builder("timeline.fanout.active", () -> maxConcurrency - running.availablePermits())
+                .description("Fan-outs running")
+                .register(meterRegistry);
+        this.lag = Timer.builder("timeline.fanout.lag")
+                .description("Time from the commit of a post to the start of its fan-out")
+                .register(meterRegistry);
+        this.duration = Timer.builder("timeline.fanout.duration")
+                .description("Time spent fanning out a post to its followers' timelines")
+                .register(meterRegistry);
+        this.saturated = Counter.builder("timeline.fanout.saturated")
+                .description("Posts that waited for their own fan-out because the fan-out queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("timeline.fanout.failed")
+                .description("Asynchronous fan-outs that failed, their followers catch up when cached timelines expire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * An executor running every fan-out synchronously once the caller's transaction commits.
+     */
+    public static TimelineFanoutExecutor direct() {
+        return new TimelineFanoutExecutor(new SimpleMeterRegistry(), false, 1, 0, Duration.ZERO);
+    }
+
+    /**
+     * Runs the fan-out after the current transaction commits, never if it rolls back, so cached timelines never
+     * show a tweet that was not saved. Outside a transaction it is dispatched right away.
+     */
+    public void executeAfterCommit(Runnable fanout) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(fanout);
+                }
+            });
+        } else {
+            dispatch(fanout);
+        }
+    }
+
+    private void dispatch(Runnable fanout) {
+        long committedAt = System.nanoTime();
+        if (!async) {
+            runAndWait(fanout, committedAt);
+            return;
+        }
+        if (!admitted.tryAcquire()) {
+            saturated.increment();
+            runAndWait(fanout, committedAt);
+            return;
+        }
+        queued.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    running.acquireUninterruptibly();
+                    queued.decrementAndGet();
+                    try {
+                        run(fanout, committedAt);
+                    } finally {
+                        running.release();
+                    }
+                } finally {
+                    admitted.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            queued.decrementAndGet();
+            admitted.release();
+            runAndWait(fanout, committedAt);
+        }
+    }
+
+    // Not on the calling thread: it still holds the committed transaction's resources, writes would join it and be lost
+    private void runAndWait(Runnable fanout, long committedAt) {
+        Thread thread = Thread.ofVirtual().name("timeline-fanout-caller").start(() -> run(fanout, committedAt));
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run(Runnable fanout, long committedAt) {
+        long start = System.nanoTime();
+        lag.record(start - committedAt, TimeUnit.NANOSECONDS);
+        try {
+            fanout.run();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Timeline fan-out failed: {}", e.getMessage(), e);
+        } finally {
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("{} timeline fan-outs still queued after {}, dropping them", queued.get(), shutdownTimeout);
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.microblogging.project.application.service;
+
+import com.microblogging.project.domain.model.Tweet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of timeline slices that are each already sorted newest first.
+ * Only the heads of the slices are kept in the heap, and merging stops as soon as the page is full,
+ * so the cost is O(limit * log k) instead of sorting every fetched tweet.
+ */
+final class TimelineMerger {
+
+    private TimelineMerger() {
+    }
+
+    static List<Tweet> mergeNewestFirst(List<List<Tweet>> slices, int limit) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, slices.size()),
+                Comparator.comparing(Head::tweet, Tweet.NEWEST_FIRST));
+        for (List<Tweet> slice : slices) {
+            Iterator<Tweet> iterator = slice.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head(iterator.next(), iterator));
+            }
+        }
+
+        List<Tweet> merged = new ArrayList<>(limit);
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            merged.add(head.tweet());
+            if (head.rest().hasNext()) {
+                heads.add(new Head(head.rest().next(), head.rest()));
+            }
+        }
+        return merged;
+    }
+
+    private record Head(Tweet tweet, Iterator<Tweet> rest) {
+    }
+}
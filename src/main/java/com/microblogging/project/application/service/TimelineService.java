@@ -1,66 +1,437 @@
 package com.microblogging.project.application.service;
 
+import com.microblogging.project.application.metrics.TimelineMetrics;
 import com.microblogging.project.application.usecase.TimelineQuery;
 import com.microblogging.project.domain.exception.UserNotFoundException;
+import com.microblogging.project.domain.model.CachedTimeline;
+import com.microblogging.project.domain.model.TimelineCursor;
+import com.microblogging.project.domain.model.TimelinePage;
 import com.microblogging.project.domain.model.Tweet;
 import com.microblogging.project.domain.port.FollowRepository;
 import com.microblogging.project.domain.port.TimelineCachePort;
+import com.microblogging.project.domain.port.TimelineEntryRepository;
 import com.microblogging.project.domain.port.TweetRepository;
 import com.microblogging.project.domain.port.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TimelineService implements TimelineQuery {
 
     private static final Logger log = LoggerFactory.getLogger(TimelineService.class);
 
+    public static final int TIMELINE_SIZE = 50;
+
+    private static final Duration REBUILD_POLL_INTERVAL = Duration.ofMillis(20);
+
     private final TweetRepository tweetRepo;
     private final FollowRepository followRepo;
     private final UserRepository userRepo;
     private final TimelineCachePort timelineCachePort;
+    private final TimelineMetrics timelineMetrics;
+    private final TimelineAccessTracker accessTracker;
+    private final TimelineEntryRepository timelineEntries;
+    private final CelebrityTimelineCache celebrityCache;
+
+    // Followee count from which the timeline is assembled from concurrent per-followee queries (0 disables it)
+    @Value("${timeline.assembly.parallel-threshold:0}")
+    private int parallelThreshold = 0;
+
+    // Maximum number of per-followee queries in flight across all the timeline assemblies of this node, each holds
+    // a pooled connection so it must stay below spring.datasource.hikari.maximum-pool-size
+    @Value("${timeline.assembly.max-concurrency:8}")
+    private int maxConcurrency = 8;
+
+    // Cached timelines older than this are served as is while being refreshed in the background (0 disables it)
+    @Value("${timeline.cache.soft-ttl:0s}")
+    private Duration softTtl = Duration.ZERO;
+
+    // Cached timelines expire after this, the next read rebuilds them synchronously.
+    // With adaptive TTLs it is only the reference the soft TTL is scaled against.
+    @Value("${timeline.cache.hard-ttl:5m}")
+    private Duration hardTtl = Duration.ofMinutes(5);
+
+    // Bounds of the background refresh pool, refreshes beyond its queue are dropped
+    @Value("${timeline.cache.refresh.threads:4}")
+    private int refreshThreads = 4;
+
+    @Value("${timeline.cache.refresh.queue-capacity:1000}")
+    private int refreshQueueCapacity = 1000;
+
+    // Empty timelines are cached for less time, they fill up as soon as a followee posts
+    @Value("${timeline.cache.empty-ttl:30s}")
+    private Duration emptyTimelineTtl = Duration.ofSeconds(30);
+
+    // Redis lease electing one node to rebuild a missed timeline, the others wait for it (0 disables it)
+    @Value("${timeline.rebuild.lease-ttl:0s}")
+    private Duration rebuildLeaseTtl = Duration.ZERO;
+
+    // Cache misses are served from the materialized timeline table when the owner's timeline is materialized,
+    // otherwise the timeline is computed from the follow graph and materialized
+    @Value("${timeline.materialized.enabled:false}")
+    private boolean materializedTimelines = false;
+
+    // Rebuilds running on this node, concurrent misses for the same user share the result
+    private final ConcurrentMap<UUID, CompletableFuture<List<Tweet>>> inFlightRebuilds = new ConcurrentHashMap<>();
+
+    // Users with a background refresh queued or running, so a hot stale timeline is refreshed only once
+    private final Set<UUID> pendingRefreshes = ConcurrentHashMap.newKeySet();
+    private ExecutorService refreshExecutor;
+
+    // Shared by every parallel assembly, created once the configuration is injected
+    private Semaphore assemblyPermits;
 
     public TimelineService(
             TweetRepository tweetRepo,
             FollowRepository followRepo,
             UserRepository userRepo,
-            TimelineCachePort timelineCachePort
+            TimelineCachePort timelineCachePort,
+            TimelineMetrics timelineMetrics,
+            TimelineAccessTracker accessTracker,
+            TimelineEntryRepository timelineEntries,
+            CelebrityTimelineCache celebrityCache
     ) {
         this.tweetRepo = tweetRepo;
         this.followRepo = followRepo;
         this.userRepo = userRepo;
         this.timelineCachePort = timelineCachePort;
+        this.timelineMetrics = timelineMetrics;
+        this.accessTracker = accessTracker;
+        this.timelineEntries = timelineEntries;
+        this.celebrityCache = celebrityCache;
+    }
+
+    @PostConstruct
+    void start() {
+        assemblyPermits = new Semaphore(maxConcurrency);
+        refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refreshQueueCapacity),
+                Thread.ofPlatform().name("timeline-refresh-", 0).daemon().factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        refreshExecutor.shutdownNow();
     }
 
     @Override
     public List<Tweet> getTimeline(UUID userId) {
+        return getTimeline(userId, null, TIMELINE_SIZE).tweets();
+    }
+
+    @Override
+    public TimelinePage getTimeline(UUID userId, TimelineCursor cursor, int limit) {
         if (!userRepo.existsById(userId)) {
             throw new UserNotFoundException("User with ID " + userId + " not found.");
         }
 
-        Optional<List<Tweet>> cachedTweets = timelineCachePort.getTimeline(userId);
-        if (cachedTweets.isPresent() && !cachedTweets.get().isEmpty()) {
+        int pageSize = Math.clamp(limit, 1, TIMELINE_SIZE);
+        List<Tweet> tweets = cursor == null ? getFirstPage(userId) : getPageAfter(userId, cursor, pageSize);
+        if (tweets.size() > pageSize) {
+            tweets = tweets.subList(0, pageSize);
+        }
+
+        TimelineCursor nextCursor = tweets.size() == pageSize ? TimelineCursor.of(tweets.get(tweets.size() - 1)) : null;
+        return new TimelinePage(tweets, nextCursor);
+    }
+
+    private List<Tweet> getFirstPage(UUID userId) {
+        accessTracker.recordAccess(userId);
+        Optional<CachedTimeline> cachedTimeline = timelineCachePort.getCachedTimeline(userId);
+        if (cachedTimeline.isPresent()) {
             log.debug("Timeline retrieved from cache for user {}", userId);
-            return cachedTweets.get();
+            if (isStale(userId, cachedTimeline.get())) {
+                scheduleRefresh(userId);
+            }
+            // Celebrity tweets are never pushed into cached timelines, so pull them in now
+            return mergeCelebrityTweets(userId, cachedTimeline.get().tweets(), null, TIMELINE_SIZE);
+        }
+        return rebuildTimeline(userId);
+    }
+
+    /**
+     * Precomputes and caches the user's timeline unless it is already cached, without counting as a read.
+     * Goes through the same single-flight rebuild and lease as a cache miss, so warming up never races a real read.
+     *
+     * @param userId The owner of the timeline.
+     * @return true if the timeline was rebuilt, false if it was already cached.
+     */
+    public boolean warmTimeline(UUID userId) {
+        if (timelineCachePort.hasTimeline(userId)) {
+            return false;
+        }
+        rebuildTimeline(userId);
+        return true;
+    }
+
+    // Past its soft TTL when less than (TTL - soft TTL) is left before the cache drops it.
+    // The soft TTL keeps the same proportion of the TTL the entry was cached with as of the configured hard TTL:
+    // the user's current adaptive TTL grows with every read, and would make a hot timeline look stale right away.
+    private boolean isStale(UUID userId, CachedTimeline cachedTimeline) {
+        if (!softTtl.isPositive() || cachedTimeline.tweets().isEmpty()) {
+            return false;
+        }
+        // Caches that do not keep the TTL of their entries fall back to the user's current one
+        Duration ttl = cachedTimeline.ttl() != null ? cachedTimeline.ttl() : accessTracker.ttlFor(userId, hardTtl);
+        Duration userSoftTtl = ttl.multipliedBy(softTtl.toMillis()).dividedBy(Math.max(1, hardTtl.toMillis()));
+        return cachedTimeline.remainingTtl(Instant.now()).compareTo(ttl.minus(userSoftTtl)) < 0;
+    }
+
+    /**
+     * Stale-while-revalidate: the stale copy has already been served, rebuild it on the bounded refresh pool.
+     * Refreshes are skipped when one is already pending for the user or when the pool is saturated.
+     */
+    private void scheduleRefresh(UUID userId) {
+        if (!pendingRefreshes.add(userId)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    rebuildTimeline(userId);
+                    log.debug("Stale timeline refreshed in background for user {}", userId);
+                } catch (RuntimeException e) {
+                    log.warn("Background refresh of timeline failed for user {}: {}", userId, e.getMessage());
+                } finally {
+                    pendingRefreshes.remove(userId);
+                }
+            });
+            timelineMetrics.recordRefreshScheduled();
+        } catch (RejectedExecutionException e) {
+            pendingRefreshes.remove(userId);
+            timelineMetrics.recordRefreshRejected();
+            log.debug("Timeline refresh pool saturated, stale timeline of user {} left as is", userId);
+        }
+    }
+
+    /**
+     * Single-flight rebuild: only the first miss for a user queries the database, concurrent misses
+     * for the same user wait for that rebuild and share its result.
+     */
+    private List<Tweet> rebuildTimeline(UUID userId) {
+        CompletableFuture<List<Tweet>> rebuild = new CompletableFuture<>();
+        CompletableFuture<List<Tweet>> inFlight = inFlightRebuilds.putIfAbsent(userId, rebuild);
+        if (inFlight != null) {
+            timelineMetrics.recordRebuildCoalesced();
+            log.debug("Joined in-flight timeline rebuild for user {}", userId);
+            return awaitRebuild(inFlight);
+        }
+
+        try {
+            List<Tweet> tweets = rebuildWithLease(userId);
+            rebuild.complete(tweets);
+            return tweets;
+        } catch (RuntimeException e) {
+            rebuild.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightRebuilds.remove(userId, rebuild);
+        }
+    }
+
+    private static List<Tweet> awaitRebuild(CompletableFuture<List<Tweet>> rebuild) {
+        try {
+            return rebuild.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private List<Tweet> rebuildWithLease(UUID userId) {
+        if (rebuildLeaseTtl.isZero()) {
+            return loadAndCacheTimeline(userId);
+        }
+
+        Optional<String> lease = timelineCachePort.tryAcquireRebuildLease(userId, rebuildLeaseTtl);
+        if (lease.isEmpty()) {
+            // Another node is rebuilding this timeline, pick its result up from the cache
+            Optional<List<Tweet>> rebuilt = awaitRebuildOnOtherNode(userId);
+            if (rebuilt.isPresent()) {
+                timelineMetrics.recordRebuildCoalescedRemotely();
+                log.debug("Timeline rebuilt by another node retrieved from cache for user {}", userId);
+                return mergeCelebrityTweets(userId, rebuilt.get(), null, TIMELINE_SIZE);
+            }
+            // The lease holder is slow or gone, do not keep the client waiting any longer
+            return loadAndCacheTimeline(userId);
+        }
+
+        try {
+            return loadAndCacheTimeline(userId);
+        } finally {
+            timelineCachePort.releaseRebuildLease(userId, lease.get());
+        }
+    }
+
+    private Optional<List<Tweet>> awaitRebuildOnOtherNode(UUID userId) {
+        long deadline = System.nanoTime() + rebuildLeaseTtl.toNanos();
+        try {
+            while (System.nanoTime() < deadline) {
+                Thread.sleep(REBUILD_POLL_INTERVAL);
+                Optional<CachedTimeline> cachedTimeline = timelineCachePort.getCachedTimeline(userId);
+                if (cachedTimeline.isPresent()) {
+                    return cachedTimeline.map(CachedTimeline::tweets);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Optional.empty();
+    }
+
+    private List<Tweet> loadAndCacheTimeline(UUID userId) {
+        Optional<List<Tweet>> materialized = materializedTimelines
+                ? timelineEntries.findTimeline(userId, TIMELINE_SIZE)
+                : Optional.empty();
+        List<Tweet> tweets;
+        if (materialized.isPresent()) {
+            tweets = materialized.get();
+            timelineMetrics.recordMaterializedRead();
+            log.debug("Timeline retrieved from materialized timeline table for user {}", userId);
+        } else {
+            // Begun before the follow graph is read, so tweets posted while it is computed are not lost
+            Optional<UUID> build = materializedTimelines ? beginMaterialization(userId) : Optional.empty();
+            Set<UUID> followees = new HashSet<>(followRepo.findFollowees(userId));
+            followees.add(userId);
+
+            tweets = loadFromDatabase(followees, null, TIMELINE_SIZE);
+            timelineMetrics.recordRebuild();
+            if (build.isPresent()) {
+                materialize(userId, build.get(), tweets);
+            }
+            log.debug("Timeline retrieved from database for user {}", userId);
+        }
+
+        if (tweets.isEmpty()) {
+            timelineCachePort.cacheEmptyTimeline(userId, emptyTimelineTtl);
+        } else {
+            timelineCachePort.cacheTimeline(userId, tweets, accessTracker.ttlFor(userId, hardTtl));
+        }
+
+        // Tweets of celebrity followees are never appended to materialized timelines, like in cached ones
+        return materialized.isPresent() ? mergeCelebrityTweets(userId, tweets, null, TIMELINE_SIZE) : tweets;
+    }
+
+    // A failure only means the next miss computes the timeline from the follow graph again
+    private Optional<UUID> beginMaterialization(UUID userId) {
+        try {
+            return Optional.of(timelineEntries.beginTimeline(userId));
+        } catch (RuntimeException e) {
+            log.warn("Failed to begin materializing timeline of user {}: {}", userId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void materialize(UUID userId, UUID buildId, List<Tweet> tweets) {
+        try {
+            if (!timelineEntries.completeTimeline(userId, buildId, tweets)) {
+                log.debug("Timeline of user {} was dropped or rebuilt while materializing it", userId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to materialize timeline of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private List<Tweet> getPageAfter(UUID userId, TimelineCursor cursor, int pageSize) {
+        // The cached window only holds the newest tweets, deeper pages go straight to the keyset query
+        Optional<List<Tweet>> cachedPage = timelineCachePort.getTimelinePage(userId, cursor, pageSize);
+        if (cachedPage.isPresent() && cachedPage.get().size() == pageSize) {
+            log.debug("Timeline page retrieved from cache for user {}", userId);
+            return mergeCelebrityTweets(userId, cachedPage.get(), cursor, pageSize);
         }
 
         Set<UUID> followees = new HashSet<>(followRepo.findFollowees(userId));
         followees.add(userId);
 
-        List<Tweet> tweets = tweetRepo.findAllByUserIds(followees).stream()
-                .sorted(Comparator.comparing(Tweet::getCreatedAt).reversed())
-                .limit(50)
-                .toList();
+        log.debug("Timeline page retrieved from database for user {}", userId);
+        return loadFromDatabase(followees, cursor, pageSize);
+    }
+
+    private List<Tweet> loadFromDatabase(Set<UUID> authors, TimelineCursor cursor, int limit) {
+        if (parallelThreshold > 0 && authors.size() >= parallelThreshold) {
+            return loadInParallel(authors, cursor, limit);
+        }
+        return loadSlice(authors, cursor, limit);
+    }
+
+    private List<Tweet> loadSlice(Set<UUID> authors, TimelineCursor cursor, int limit) {
+        return cursor == null
+                ? tweetRepo.findLatestByUserIds(authors, limit)
+                : tweetRepo.findByUserIdsBefore(authors, cursor, limit);
+    }
+
+    /**
+     * Fetches the newest slice of every author concurrently on virtual threads and k-way merges them.
+     * A semaphore shared by all assemblies bounds how many of their queries hit the database at the same time,
+     * so concurrent misses queue for permits instead of draining the connection pool.
+     */
+    private List<Tweet> loadInParallel(Set<UUID> authors, TimelineCursor cursor, int limit) {
+        Semaphore permits = assemblyPermits;
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            List<StructuredTaskScope.Subtask<List<Tweet>>> slices = authors.stream()
+                    .map(author -> scope.fork(() -> {
+                        permits.acquire();
+                        try {
+                            return loadSlice(Set.of(author), cursor, limit);
+                        } finally {
+                            permits.release();
+                        }
+                    }))
+                    .toList();
+            scope.join().throwIfFailed();
 
-        if (!tweets.isEmpty()) {
-            timelineCachePort.cacheTimeline(userId, tweets, Duration.ofMinutes(5));
+            return TimelineMerger.mergeNewestFirst(
+                    slices.stream().map(StructuredTaskScope.Subtask::get).toList(), limit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while assembling timeline", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to assemble timeline", e.getCause());
         }
+    }
+
+    private List<Tweet> mergeCelebrityTweets(UUID userId, List<Tweet> cachedTweets, TimelineCursor cursor, int limit) {
+        // Both the followed celebrities and their tweets come from an in-process cache, not from the database
+        Set<UUID> celebrities = celebrityCache.followedCelebrities(userId);
+        if (celebrities.isEmpty()) {
+            return cachedTweets;
+        }
+        long start = System.nanoTime();
+        List<Tweet> celebrityTweets = celebrityCache.latestTweets(celebrities, cursor, limit);
+
+        // Merge both sources, de-duplicating tweets that were already cached when the timeline was built
+        Map<UUID, Tweet> merged = new LinkedHashMap<>();
+        cachedTweets.forEach(tweet -> merged.put(tweet.getId(), tweet));
+        celebrityTweets.forEach(tweet -> merged.putIfAbsent(tweet.getId(), tweet));
+        List<Tweet> timeline = merged.values().stream()
+                .sorted(Tweet.NEWEST_FIRST)
+                .limit(limit)
+                .toList();
 
-        log.debug("Timeline retrieved from database for user {}", userId);
-        return tweets;
+        timelineMetrics.recordCelebrityMerge(celebrityTweets.size(), System.nanoTime() - start);
+        log.debug("Merged tweets from {} celebrity followees into timeline of user {}", celebrities.size(), userId);
+        return timeline;
     }
 }
@@ -0,0 +1,225 @@
+package com.microblogging.project.application.service;
+
+import com.microblogging.project.application.metrics.TimelineMetrics;
+import com.microblogging.project.application.usecase.WarmTimelinesUseCase;
+import com.microblogging.project.domain.exception.WarmupAlreadyRunningException;
+import com.microblogging.project.domain.model.TimelineWarmupProgress;
+import com.microblogging.project.domain.model.TimelineWarmupProgress.State;
+import com.microblogging.project.domain.port.TimelineCachePort;
+import com.microblogging.project.domain.port.TweetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Precomputes the cached timelines of the most recently active users, so a deploy or a cache flush does not send
+ * every reader down the cold path at once. Runs once the node is ready and on demand, one run at a time.
+ */
+@Service
+public class TimelineWarmupService implements WarmTimelinesUseCase {
+
+    private static final Logger log = LoggerFactory.getLogger(TimelineWarmupService.class);
+
+    // Progress is logged every this many processed timelines
+    private static final int PROGRESS_LOG_INTERVAL = 1000;
+
+    private final TimelineService timelineService;
+    private final TimelineCachePort timelineCachePort;
+    private final TweetRepository tweetRepo;
+    private final TimelineMetrics timelineMetrics;
+
+    // Warm up once the application is ready to take traffic
+    @Value("${timeline.warmup.on-startup:false}")
+    private boolean onStartup = false;
+
+    // Maximum number of timelines warmed up per run
+    @Value("${timeline.warmup.max-users:10000}")
+    private int maxUsers = 10000;
+
+    // Budget of the run on the database: rebuilds started per second (0 for no pacing) and rebuilds in flight
+    @Value("${timeline.warmup.rate-per-second:200}")
+    private double ratePerSecond = 200;
+
+    @Value("${timeline.warmup.concurrency:4}")
+    private int concurrency = 4;
+
+    // Recent authors are looked for among the tweets of this window only
+    @Value("${timeline.warmup.author-window:1d}")
+    private Duration authorWindow = Duration.ofDays(1);
+
+    private final AtomicReference<WarmupRun> currentRun = new AtomicReference<>();
+
+    public TimelineWarmupService(TimelineService timelineService,
+                                 TimelineCachePort timelineCachePort,
+                                 TweetRepository tweetRepo,
+                                 TimelineMetrics timelineMetrics) {
+        this.timelineService = timelineService;
+        this.timelineCachePort = timelineCachePort;
+        this.tweetRepo = tweetRepo;
+        this.timelineMetrics = timelineMetrics;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUpOnStartup() {
+        if (onStartup) {
+            start(maxUsers);
+        }
+    }
+
+    @Override
+    public TimelineWarmupProgress start(int requestedUsers) {
+        WarmupRun run = new WarmupRun(Math.clamp(requestedUsers, 1, Math.max(1, maxUsers)));
+        WarmupRun previous = currentRun.get();
+        if ((previous != null && previous.state == State.RUNNING) || !currentRun.compareAndSet(previous, run)) {
+            throw new WarmupAlreadyRunningException("A timeline warm-up is already running.");
+        }
+        Thread.ofPlatform().name("timeline-warmup").daemon().start(() -> execute(run));
+        return run.snapshot();
+    }
+
+    @Override
+    public TimelineWarmupProgress progress() {
+        WarmupRun run = currentRun.get();
+        return run == null ? TimelineWarmupProgress.idle() : run.snapshot();
+    }
+
+    private void execute(WarmupRun run) {
+        try {
+            List<UUID> candidates = selectCandidates(run.limit);
+            run.candidates = candidates.size();
+            log.info("Timeline warm-up started for {} users", candidates.size());
+
+            warm(run, candidates);
+
+            run.finish(State.COMPLETED);
+            TimelineWarmupProgress progress = run.snapshot();
+            log.info("Timeline warm-up completed: {} warmed, {} already cached, {} failed in {} ms ({} timelines/s)",
+                    progress.warmed(), progress.skipped(), progress.failed(), progress.elapsed().toMillis(),
+                    Math.round(progress.timelinesPerSecond()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.finish(State.FAILED);
+            log.warn("Timeline warm-up interrupted after {} timelines", run.processed());
+        } catch (RuntimeException e) {
+            run.finish(State.FAILED);
+            log.warn("Timeline warm-up failed after {} timelines: {}", run.processed(), e.getMessage());
+        }
+    }
+
+    // Recent readers first (still known to the cache after a deploy), then recent authors (which survive a cache flush)
+    private List<UUID> selectCandidates(int limit) {
+        Set<UUID> candidates = new LinkedHashSet<>(timelineCachePort.findRecentlyReadTimelines(limit));
+        if (candidates.size() < limit) {
+            for (UUID author : tweetRepo.findRecentAuthors(LocalDateTime.now().minus(authorWindow), limit)) {
+                if (candidates.size() >= limit) {
+                    break;
+                }
+                candidates.add(author);
+            }
+        }
+        return List.copyOf(candidates);
+    }
+
+    /**
+     * Rebuilds are started at most {@code rate-per-second} times per second, and at most {@code concurrency} of them
+     * run at once on virtual threads. A slow database holds permits longer, which slows the run down instead of
+     * letting rebuilds pile up.
+     */
+    private void warm(WarmupRun run, List<UUID> candidates) throws InterruptedException {
+        Semaphore permits = new Semaphore(concurrency);
+        long intervalNanos = ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond) : 0;
+        long nextStart = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (UUID userId : candidates) {
+                long wait = nextStart - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                // Falling behind does not earn a burst later on
+                nextStart = Math.max(nextStart, System.nanoTime()) + intervalNanos;
+
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        warmTimeline(run, userId);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void warmTimeline(WarmupRun run, UUID userId) {
+        try {
+            if (timelineService.warmTimeline(userId)) {
+                run.warmed.incrementAndGet();
+                timelineMetrics.recordWarmupWarmed();
+            } else {
+                run.skipped.incrementAndGet();
+                timelineMetrics.recordWarmupSkipped();
+            }
+        } catch (RuntimeException e) {
+            run.failed.incrementAndGet();
+            timelineMetrics.recordWarmupFailed();
+            log.debug("Timeline warm-up failed for user {}: {}", userId, e.getMessage());
+        }
+
+        long processed = run.processed();
+        if (processed % PROGRESS_LOG_INTERVAL == 0) {
+            log.info("Timeline warm-up progress: {}/{} timelines ({} timelines/s)",
+                    processed, run.candidates, Math.round(run.snapshot().timelinesPerSecond()));
+        }
+    }
+
+    private static final class WarmupRun {
+
+        final int limit;
+        final Instant startedAt = Instant.now();
+        final long startNanos = System.nanoTime();
+        final AtomicLong warmed = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        volatile int candidates;
+        volatile State state = State.RUNNING;
+        volatile long endNanos;
+
+        WarmupRun(int limit) {
+            this.limit = limit;
+        }
+
+        long processed() {
+            return warmed.get() + skipped.get() + failed.get();
+        }
+
+        void finish(State finalState) {
+            endNanos = System.nanoTime();
+            state = finalState;
+        }
+
+        TimelineWarmupProgress snapshot() {
+            State currentState = state;
+            long elapsedNanos = (currentState == State.RUNNING ? System.nanoTime() : endNanos) - startNanos;
+            double throughput = elapsedNanos > 0 ? processed() * 1e9 / elapsedNanos : 0;
+            return new TimelineWarmupProgress(currentState, candidates, warmed.get(), skipped.get(), failed.get(),
+                    startedAt, Duration.ofNanos(elapsedNanos), throughput);
+        }
+    }
+}
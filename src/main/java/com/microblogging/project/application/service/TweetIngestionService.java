@@ -0,0 +1,165 @@
+package com.microblogging.project.application.service;
+
+import com.microblogging.project.application.usecase.IngestTweetsUseCase;
+import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.model.TweetImport;
+import com.microblogging.project.domain.model.TweetIngestionReport;
+import com.microblogging.project.domain.port.TweetRepository;
+import com.microblogging.project.domain.port.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Imports tweet archives in batches of {@code batch-size}: one query checks the authors of a batch, another the tweet
+ * IDs already taken, then the valid tweets are inserted in one JDBC batch and their events published in one transaction.
+ * When that transaction fails, the batch is imported again one tweet at a time so only the failing ones are rejected.
+ */
+@Service
+public class TweetIngestionService implements IngestTweetsUseCase {
+
+    private static final Logger log = LoggerFactory.getLogger(TweetIngestionService.class);
+
+    static final int MAX_CONTENT_LENGTH = 280;
+
+    private final UserRepository userRepo;
+    private final TweetRepository tweetRepo;
+    private final PostTweetService posts;
+    private final TransactionOperations transactions;
+
+    private final Counter imported;
+    private final Counter rejected;
+
+    // Tweets read, checked and saved together, bounds the memory an import holds
+    @Value("${tweet.ingestion.batch-size:500}")
+    private int batchSize = 500;
+
+    public TweetIngestionService(UserRepository userRepo, TweetRepository tweetRepo, PostTweetService posts,
+                                 TransactionOperations transactions, MeterRegistry meterRegistry) {
+        this.userRepo = userRepo;
+        this.tweetRepo = tweetRepo;
+        this.posts = posts;
+        this.transactions = transactions;
+
+        this.imported = Counter.builder("tweet.ingestion.imported")
+                .description("Tweets imported in bulk")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("tweet.ingestion.rejected")
+                .description("Items of bulk imports rejected as invalid or failing to save")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void ingest(Iterator<TweetImport> tweets, TweetIngestionReport report) {
+        List<TweetImport> batch = new ArrayList<>(batchSize);
+        while (tweets.hasNext()) {
+            batch.add(tweets.next());
+            if (batch.size() == batchSize) {
+                importBatch(batch, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, report);
+        }
+    }
+
+    private void importBatch(List<TweetImport> batch, TweetIngestionReport report) {
+        Set<UUID> authors = userRepo.findExistingIds(batch.stream()
+                .map(TweetImport::userId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        // Also filled with the IDs of the batch, a tweet appearing twice is imported once
+        Set<UUID> takenIds = tweetRepo.findByIds(batch.stream().map(TweetImport::id).filter(Objects::nonNull).toList())
+                .stream()
+                .map(Tweet::getId)
+                .collect(Collectors.toCollection(HashSet::new));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TweetImport> accepted = new ArrayList<>(batch.size());
+        List<Tweet> tweets = new ArrayList<>(batch.size());
+        for (TweetImport item : batch) {
+            String invalid = validate(item, authors, takenIds);
+            if (invalid != null) {
+                reject(report, item.index(), invalid);
+                continue;
+            }
+            Tweet tweet = new Tweet(
+                    item.id() != null ? item.id() : UUID.randomUUID(),
+                    item.userId(),
+                    item.content(),
+                    item.createdAt() != null ? item.createdAt() : now);
+            takenIds.add(tweet.getId());
+            accepted.add(item);
+            tweets.add(tweet);
+        }
+        if (tweets.isEmpty()) {
+            return;
+        }
+
+        try {
+            save(tweets);
+            report.imported(tweets.size());
+            imported.increment(tweets.size());
+            log.debug("Imported a batch of {} tweets", tweets.size());
+        } catch (RuntimeException e) {
+            log.warn("Import of a batch of {} tweets failed, importing them one by one: {}", tweets.size(), e.getMessage());
+            for (int i = 0; i < tweets.size(); i++) {
+                try {
+                    save(List.of(tweets.get(i)));
+                    report.imported(1);
+                    imported.increment();
+                } catch (RuntimeException single) {
+                    reject(report, accepted.get(i).index(),
+                            "Failed to save: " + NestedExceptionUtils.getMostSpecificCause(single).getMessage());
+                }
+            }
+        }
+    }
+
+    private static String validate(TweetImport item, Set<UUID> authors, Set<UUID> takenIds) {
+        if (item.userId() == null) {
+            return "Missing userId";
+        }
+        if (item.content() == null || item.content().isBlank()) {
+            return "Tweet content cannot be empty";
+        }
+        if (item.content().length() > MAX_CONTENT_LENGTH) {
+            return "Tweet content cannot exceed " + MAX_CONTENT_LENGTH + " characters";
+        }
+        if (!authors.contains(item.userId())) {
+            return "User with ID " + item.userId() + " not found.";
+        }
+        if (item.id() != null && takenIds.contains(item.id())) {
+            return "Tweet " + item.id() + " already exists";
+        }
+        return null;
+    }
+
+    private void save(List<Tweet> tweets) {
+        transactions.executeWithoutResult(status -> {
+            tweetRepo.insertAll(tweets);
+            posts.tweetsImported(tweets);
+        });
+    }
+
+    private void reject(TweetIngestionReport report, long index, String reason) {
+        report.reject(index, reason);
+        rejected.increment();
+    }
+}
@@ -0,0 +1,17 @@
+package com.microblogging.project.application.usecase;
+
+import com.microblogging.project.domain.model.TweetImport;
+import com.microblogging.project.domain.model.TweetIngestionReport;
+
+import java.util.Iterator;
+
+public interface IngestTweetsUseCase {
+    /**
+     * Imports tweets batch by batch: the authors of a batch are checked together, then its tweets are inserted and
+     * their events published in one transaction. Invalid items are rejected one by one, the others are still imported.
+     *
+     * @param tweets The tweets to import, read as the import goes so at most one batch is held in memory.
+     * @param report Counts the imported tweets and records the rejected ones.
+     */
+    void ingest(Iterator<TweetImport> tweets, TweetIngestionReport report);
+}
@@ -1,5 +1,7 @@
 package com.microblogging.project.application.usecase;
 
+import com.microblogging.project.domain.model.TimelineCursor;
+import com.microblogging.project.domain.model.TimelinePage;
 import com.microblogging.project.domain.model.Tweet;
 
 import java.util.List;
@@ -7,4 +9,14 @@ import java.util.UUID;
 
 public interface TimelineQuery {
     List<Tweet> getTimeline(UUID userId);
+
+    /**
+     * Returns one page of the user's timeline using keyset pagination.
+     *
+     * @param userId The ID of the user whose timeline is requested.
+     * @param cursor The position to resume from, or null for the first page.
+     * @param limit  The maximum number of tweets in the page.
+     * @return The page, with the cursor to request the following one.
+     */
+    TimelinePage getTimeline(UUID userId, TimelineCursor cursor, int limit);
 }
@@ -0,0 +1,19 @@
+package com.microblogging.project.application.usecase;
+
+import com.microblogging.project.domain.model.TimelineWarmupProgress;
+
+public interface WarmTimelinesUseCase {
+    /**
+     * Starts precomputing the cached timelines of the most recently active users, in the background.
+     *
+     * @param maxUsers The maximum number of timelines to warm up, capped by the configured maximum.
+     * @return The progress of the run that was just started.
+     * @throws com.microblogging.project.domain.exception.WarmupAlreadyRunningException if a run is in progress.
+     */
+    TimelineWarmupProgress start(int maxUsers);
+
+    /**
+     * @return The progress of the current or last warm-up run.
+     */
+    TimelineWarmupProgress progress();
+}
@@ -14,6 +14,7 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,12 +24,17 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // Longest a send blocks the calling thread on missing metadata or a full buffer before failing
+    @Value("${messaging.kafka.max-block:60s}")
+    private Duration maxBlock = Duration.ofSeconds(60);
+
     @Bean
     public ProducerFactory<String, TweetPostedEvent> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlock.toMillis());
 
         JsonSerializer<TweetPostedEvent> jsonSerializer = new JsonSerializer<>(new ObjectMapper()
                 .registerModule(new JavaTimeModule())
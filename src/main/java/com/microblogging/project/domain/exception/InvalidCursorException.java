@@ -0,0 +1,17 @@
+package com.microblogging.project.domain.exception;
+
+/**
+ * Exception thrown when a timeline pagination cursor cannot be decoded.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidCursorException with the specified detail message and cause.
+     *
+     * @param message the detail message.
+     * @param cause   the cause (which is saved for later retrieval by the Throwable.getCause() method).
+     */
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,16 @@
+package com.microblogging.project.domain.exception;
+
+/**
+ * Exception thrown when a timeline cache warm-up is requested while another one is still running.
+ */
+public class WarmupAlreadyRunningException extends RuntimeException {
+
+    /**
+     * Constructs a new WarmupAlreadyRunningException with the specified detail message.
+     *
+     * @param message the detail message.
+     */
+    public WarmupAlreadyRunningException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,23 @@
+package com.microblogging.project.domain.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A timeline read from the cache together with the moment the cache drops it and the TTL it was cached with.
+ *
+ * @param tweets    The cached tweets, newest first.
+ * @param expiresAt When the entry expires, {@link Instant#MAX} if it never does.
+ * @param ttl       The TTL the entry was cached with, {@code null} if the cache does not know it.
+ */
+public record CachedTimeline(List<Tweet> tweets, Instant expiresAt, Duration ttl) {
+
+    public CachedTimeline(List<Tweet> tweets, Instant expiresAt) {
+        this(tweets, expiresAt, null);
+    }
+
+    public Duration remainingTtl(Instant now) {
+        return expiresAt.equals(Instant.MAX) ? Duration.ofSeconds(Long.MAX_VALUE) : Duration.between(now, expiresAt);
+    }
+}
@@ -0,0 +1,57 @@
+package com.microblogging.project.domain.model;
+
+import com.microblogging.project.domain.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position inside a timeline: the {@code (createdAt, id)} of the last tweet a client has seen.
+ * The next page contains the tweets strictly older than this position in {@link Tweet#NEWEST_FIRST} order,
+ * so every page costs the same regardless of how deep the client has scrolled.
+ *
+ * @param createdAt The creation timestamp of the last tweet returned.
+ * @param tweetId   The ID of the last tweet returned, used to break ties between equal timestamps.
+ */
+public record TimelineCursor(LocalDateTime createdAt, UUID tweetId) {
+
+    private static final String SEPARATOR = "|";
+
+    public static TimelineCursor of(Tweet tweet) {
+        return new TimelineCursor(tweet.getCreatedAt(), tweet.getId());
+    }
+
+    /**
+     * Returns true if the given tweet comes after this cursor, i.e. it belongs to the following pages.
+     */
+    public boolean precedes(Tweet tweet) {
+        return Tweet.NEWEST_FIRST.compare(new Tweet(tweetId, null, null, createdAt), tweet) < 0;
+    }
+
+    /**
+     * Encodes the cursor as an opaque, URL-safe token.
+     */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + tweetId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @throws InvalidCursorException if the token is malformed.
+     */
+    public static TimelineCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new TimelineCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid timeline cursor: " + token, e);
+        }
+    }
+}
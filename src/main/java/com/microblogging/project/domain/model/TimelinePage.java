@@ -0,0 +1,12 @@
+package com.microblogging.project.domain.model;
+
+import java.util.List;
+
+/**
+ * A page of a user's timeline.
+ *
+ * @param tweets     The tweets of the page, newest first.
+ * @param nextCursor The position to resume from to get the next page, or null if this is the last page.
+ */
+public record TimelinePage(List<Tweet> tweets, TimelineCursor nextCursor) {
+}
@@ -0,0 +1,30 @@
+package com.microblogging.project.domain.model;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Snapshot of a timeline cache warm-up run.
+ *
+ * @param state               Where the run is at.
+ * @param candidates          Number of users selected for warm-up, known once the run has started.
+ * @param warmed              Timelines rebuilt and cached.
+ * @param skipped             Timelines that were already cached.
+ * @param failed              Timelines that could not be rebuilt.
+ * @param startedAt           When the run started, or null if no run ever started.
+ * @param elapsed             Time spent so far, or in total once the run is over.
+ * @param timelinesPerSecond  Processed timelines (warmed, skipped or failed) per second of elapsed time.
+ */
+public record TimelineWarmupProgress(State state, int candidates, long warmed, long skipped, long failed,
+                                     Instant startedAt, Duration elapsed, double timelinesPerSecond) {
+
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    public static TimelineWarmupProgress idle() {
+        return new TimelineWarmupProgress(State.IDLE, 0, 0, 0, 0, null, Duration.ZERO, 0);
+    }
+
+    public long processed() {
+        return warmed + skipped + failed;
+    }
+}
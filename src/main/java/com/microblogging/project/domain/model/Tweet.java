@@ -4,14 +4,27 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.UUID;
 
 @AllArgsConstructor
 @Getter
 // Domain Layer - Tweet.java
 public class Tweet {
+
+    // Timeline order: newest first, ties broken by ID compared as unsigned bytes (the way SQL databases order UUIDs)
+    public static final Comparator<Tweet> NEWEST_FIRST = Comparator
+            .comparing(Tweet::getCreatedAt)
+            .thenComparing(Tweet::getId, Tweet::compareUnsigned)
+            .reversed();
+
     private final UUID id;
     private final UUID userId;
     private final String content;
     private final LocalDateTime createdAt;
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
 }
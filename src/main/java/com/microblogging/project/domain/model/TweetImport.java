@@ -0,0 +1,16 @@
+package com.microblogging.project.domain.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A tweet to import, as read from an archive.
+ *
+ * @param index     Position of the item in the import, from 0, to report it back.
+ * @param id        ID of the tweet, or null to generate one.
+ * @param userId    Author of the tweet.
+ * @param content   Text of the tweet.
+ * @param createdAt When the tweet was posted, or null for now.
+ */
+public record TweetImport(long index, UUID id, UUID userId, String content, LocalDateTime createdAt) {
+}
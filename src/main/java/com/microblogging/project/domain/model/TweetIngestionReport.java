@@ -0,0 +1,50 @@
+package com.microblogging.project.domain.model;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Outcome of a bulk tweet import: how many items were imported and rejected, and why items were rejected. Only the
+ * first {@code maxFailures} rejections are detailed, so the report stays small whatever the size of the import.
+ */
+public class TweetIngestionReport {
+
+    /**
+     * @param index  Position of the rejected item in the import, from 0.
+     * @param reason Why it was rejected.
+     */
+    public record Failure(long index, String reason) {
+    }
+
+    private final int maxFailures;
+    private final List<Failure> failures = new ArrayList<>();
+    @Getter
+    private long imported;
+    @Getter
+    private long rejected;
+
+    public TweetIngestionReport(int maxFailures) {
+        this.maxFailures = maxFailures;
+    }
+
+    public void imported(int count) {
+        imported += count;
+    }
+
+    public void reject(long index, String reason) {
+        rejected++;
+        if (failures.size() < maxFailures) {
+            failures.add(new Failure(index, reason));
+        }
+    }
+
+    /**
+     * @return The detailed rejections, in import order.
+     */
+    public List<Failure> getFailures() {
+        return failures.stream().sorted(Comparator.comparingLong(Failure::index)).toList();
+    }
+}
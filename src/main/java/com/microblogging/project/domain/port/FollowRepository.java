@@ -12,4 +12,6 @@ public interface FollowRepository {
     boolean exists(UUID followerId, UUID followeeId);
     Set<UUID> findFollowersByFolloweeId(UUID followeeId);
     Set<UUID> findFollowees(UUID followerId); // To get who a user follows
+    long countFollowers(UUID followeeId);
+    Set<UUID> findFolloweesWithMoreFollowersThan(UUID followerId, long followerCount); // Celebrities a user follows
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.microblogging.project.domain.port;
 
 import com.microblogging.project.domain.event.TweetPostedEvent; // Import your domain event
 
+import java.util.List;
+
 public interface MessagePublisher {
 
     /**
@@ -10,4 +12,11 @@ public interface MessagePublisher {
      * @param event The TweetPostedEvent to publish.
      */
     void publishTweetPostedEvent(TweetPostedEvent event);
+
+    /**
+     * Publishes the events of tweets saved together, e.g. by an import, in one round trip where the transport allows it.
+     *
+     * @param events The TweetPostedEvents to publish, in order.
+     */
+    void publishTweetPostedEvents(List<TweetPostedEvent> events);
 }
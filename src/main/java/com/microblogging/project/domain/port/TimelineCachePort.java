@@ -1,13 +1,119 @@
 package com.microblogging.project.domain.port;
 
+import com.microblogging.project.domain.model.CachedTimeline;
+import com.microblogging.project.domain.model.TimelineCursor;
 import com.microblogging.project.domain.model.Tweet;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface TimelineCachePort {
     Optional<List<Tweet>> getTimeline(UUID userId);
+
+    /**
+     * Same as {@link #getTimeline} but also tells when the cached entry expires, so callers can refresh it early.
+     *
+     * @param userId The owner of the timeline.
+     * @return The cached timeline and its expiry, or empty if the timeline is not cached.
+     */
+    Optional<CachedTimeline> getCachedTimeline(UUID userId);
+
+    /**
+     * Tells whether the user's timeline is cached, without reading it: the read is not recorded for eviction
+     * or adaptive TTLs. Used by warm-up, which must not make the timelines it checks look hot.
+     *
+     * @param userId The owner of the timeline.
+     * @return true if the timeline is cached, possibly as empty.
+     */
+    boolean hasTimeline(UUID userId);
+
+    /**
+     * Returns up to {@code limit} cached tweets that come after the given cursor, newest first.
+     *
+     * @param userId The owner of the timeline.
+     * @param cursor The position of the last tweet the client has seen.
+     * @param limit  The maximum number of tweets to return.
+     * @return The cached tweets after the cursor, or empty if the timeline is not cached.
+     */
+    Optional<List<Tweet>> getTimelinePage(UUID userId, TimelineCursor cursor, int limit);
+
     void cacheTimeline(UUID userId, List<Tweet> tweets, Duration duration);
+
+    /**
+     * Remembers that a timeline has no tweets, so reads return an empty list instead of hitting the database.
+     * The marker is dropped by {@link #invalidateTimeline} and replaced by {@link #prependToTimeline}.
+     *
+     * @param userId   The owner of the timeline.
+     * @param duration How long the empty timeline is cached, usually shorter than for regular timelines.
+     */
+    void cacheEmptyTimeline(UUID userId, Duration duration);
+
     void invalidateTimeline(UUID userId);
-}
\ No newline at end of file
+
+    /**
+     * Drops many cached timelines at once, in as few round trips as the cache allows.
+     * Used by fan-out, where issuing one {@link #invalidateTimeline} per follower would make posting scale
+     * with the number of followers times the cache latency.
+     *
+     * @param userIds The owners of the timelines to drop.
+     */
+    void invalidateTimelines(Collection<UUID> userIds);
+
+    /**
+     * Pushes a new tweet to the head of an already cached timeline, trimming it to {@code maxSize} entries.
+     * Timelines that are not cached are left untouched so they get fully rebuilt on the next read.
+     *
+     * @param userId  The owner of the timeline.
+     * @param tweet   The tweet to prepend.
+     * @param maxSize The maximum number of tweets kept in the cached timeline.
+     */
+    void prependToTimeline(UUID userId, Tweet tweet, int maxSize);
+
+    /**
+     * Pushes a new tweet to the head of many already cached timelines, in as few round trips as the cache allows.
+     * Used by push fan-out, like {@link #invalidateTimelines} is by invalidating fan-out.
+     *
+     * @param userIds The owners of the timelines.
+     * @param tweet   The tweet to prepend.
+     * @param maxSize The maximum number of tweets kept in each cached timeline.
+     */
+    void prependToTimelines(Collection<UUID> userIds, Tweet tweet, int maxSize);
+
+    /**
+     * Tries to take the short-lived lease that elects a single node to rebuild a timeline after a cache miss.
+     * The lease expires on its own, so a node that dies while rebuilding does not block the others for long.
+     *
+     * @param userId The owner of the timeline.
+     * @param ttl    How long the lease is held at most.
+     * @return A token identifying the granted lease, or empty if another node currently holds it.
+     */
+    Optional<String> tryAcquireRebuildLease(UUID userId, Duration ttl);
+
+    /**
+     * Releases a lease granted by {@link #tryAcquireRebuildLease}, unless it already expired and was taken over.
+     *
+     * @param userId The owner of the timeline.
+     * @param token  The token returned when the lease was granted.
+     */
+    void releaseRebuildLease(UUID userId, String token);
+
+    /**
+     * Returns the owners of the hottest cached timelines, those read the most lately, hottest first.
+     * Used to prioritize cache warm-up; caches that do not track reads return an empty list.
+     *
+     * @param limit The maximum number of users to return.
+     * @return The user IDs, possibly including timelines that have since expired.
+     */
+    List<UUID> findRecentlyReadTimelines(int limit);
+
+    /**
+     * Records reads that were served without reaching this cache, e.g. from a node-local copy in front of it,
+     * so that its read tracking (eviction order, warm-up) still counts them. Caches that do not track reads ignore it.
+     *
+     * @param readCounts The number of reads per timeline owner since the previous call.
+     */
+    void recordTimelineReads(Map<UUID, Integer> readCounts);
+}
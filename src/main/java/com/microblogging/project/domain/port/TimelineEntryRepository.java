@@ -0,0 +1,21 @@
+package com.microblogging.project.domain.port;
+
+import com.microblogging.project.domain.model.Tweet;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Materialized timelines persisted next to the tweets: one entry per (owner, tweet), maintained when tweets are posted.
+ * Only timelines that were materialized from the follow graph are complete, the others are never returned.
+ */
+public interface TimelineEntryRepository {
+    Optional<List<Tweet>> findTimeline(UUID ownerId, int limit); // Newest first, empty if not materialized
+    UUID beginTimeline(UUID ownerId); // Before reading the follow graph, appends reach the owner from then on
+    boolean completeTimeline(UUID ownerId, UUID buildId, List<Tweet> tweets); // False if dropped or rebuilt meanwhile
+    void appendToTimelines(Collection<UUID> ownerIds, Tweet tweet); // Only the owners materialized or being materialized
+    void appendToTimelines(Collection<UUID> ownerIds, List<Tweet> tweets); // Same, for tweets saved together
+    void dropTimeline(UUID ownerId); // Back to unmaterialized, e.g. when the owner's followees change
+}
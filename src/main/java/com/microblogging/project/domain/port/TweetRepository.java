@@ -1,12 +1,19 @@
 package com.microblogging.project.domain.port;
 
+import com.microblogging.project.domain.model.TimelineCursor;
 import com.microblogging.project.domain.model.Tweet;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
 public interface TweetRepository {
     void save(Tweet tweet);
-    List<Tweet> findAllByUserIds(Set<UUID> userIds);
+    void insertAll(List<Tweet> tweets); // New tweets only, in one JDBC batch
+    List<Tweet> findLatestByUserIds(Set<UUID> userIds, int limit); // Newest first, limited in the database
+    List<Tweet> findByUserIdsBefore(Set<UUID> userIds, TimelineCursor cursor, int limit); // Keyset page, newest first
+    List<Tweet> findByIds(Collection<UUID> tweetIds); // Unordered, unknown IDs are skipped
+    List<UUID> findRecentAuthors(LocalDateTime since, int limit); // Users who tweeted since, most recently first
 }
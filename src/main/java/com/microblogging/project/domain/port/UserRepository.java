@@ -1,11 +1,14 @@
 package com.microblogging.project.domain.port;
 
 import com.microblogging.project.domain.model.User; // Import domain model
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public interface UserRepository {
     Optional<User> findById(UUID id);
     User save(User user);
     boolean existsById(UUID id);
+    Set<UUID> findExistingIds(Collection<UUID> ids); // The IDs that belong to a user, in one query
 }
\ No newline at end of file
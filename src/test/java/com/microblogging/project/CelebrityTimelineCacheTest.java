@@ -0,0 +1,136 @@
+package com.microblogging.project;
+
+import com.microblogging.project.application.service.CelebrityTimelineCache;
+import com.microblogging.project.application.service.TimelineService;
+import com.microblogging.project.domain.model.TimelineCursor;
+import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.port.FollowRepository;
+import com.microblogging.project.domain.port.TweetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CelebrityTimelineCacheTest {
+
+    @Mock
+    private FollowRepository followRepo;
+    @Mock
+    private TweetRepository tweetRepo;
+
+    private CelebrityTimelineCache celebrityCache;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID celebrityId = UUID.randomUUID();
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        celebrityCache = new CelebrityTimelineCache(followRepo, tweetRepo, 1000L,
+                Duration.ofMinutes(1), Duration.ofSeconds(10), Duration.ofMinutes(1), 100, 100);
+    }
+
+    @Test
+    @DisplayName("Should query the followed celebrities once, until the user's followees change")
+    void followedCelebrities_Cached() {
+        // Arrange
+        when(followRepo.findFolloweesWithMoreFollowersThan(userId, 1000L)).thenReturn(Set.of(celebrityId));
+
+        // Act
+        celebrityCache.followedCelebrities(userId);
+        Set<UUID> celebrities = celebrityCache.followedCelebrities(userId);
+        celebrityCache.followeesChanged(userId);
+        celebrityCache.followedCelebrities(userId);
+
+        // Assert
+        assertEquals(Set.of(celebrityId), celebrities);
+        verify(followRepo, times(2)).findFolloweesWithMoreFollowersThan(userId, 1000L);
+    }
+
+    @Test
+    @DisplayName("Should never query the follow graph when the hybrid model is disabled")
+    void followedCelebrities_Disabled_Empty() {
+        // Arrange
+        CelebrityTimelineCache disabled = new CelebrityTimelineCache(followRepo, tweetRepo, 0L,
+                Duration.ofMinutes(1), Duration.ofSeconds(10), Duration.ofMinutes(1), 100, 100);
+
+        // Act
+        Set<UUID> celebrities = disabled.followedCelebrities(userId);
+
+        // Assert
+        assertTrue(celebrities.isEmpty());
+        verifyNoInteractions(followRepo);
+    }
+
+    @Test
+    @DisplayName("Should count an author's followers once per TTL rather than on every post")
+    void isCelebrity_CountedOnce() {
+        // Arrange
+        when(followRepo.countFollowers(celebrityId)).thenReturn(250_000L);
+        when(followRepo.countFollowers(userId)).thenReturn(10L);
+
+        // Act
+        boolean celebrity = celebrityCache.isCelebrity(celebrityId);
+        celebrityCache.isCelebrity(celebrityId);
+        boolean regular = celebrityCache.isCelebrity(userId);
+
+        // Assert
+        assertTrue(celebrity);
+        assertFalse(regular);
+        verify(followRepo, times(1)).countFollowers(celebrityId);
+    }
+
+    @Test
+    @DisplayName("Should share a celebrity's newest tweets between readers until the celebrity posts")
+    void latestTweets_SharedUntilPosted() {
+        // Arrange
+        Tweet tweet = new Tweet(UUID.randomUUID(), celebrityId, "Celebrity tweet", now);
+        when(tweetRepo.findLatestByUserIds(Set.of(celebrityId), TimelineService.TIMELINE_SIZE)).thenReturn(List.of(tweet));
+
+        // Act
+        celebrityCache.latestTweets(Set.of(celebrityId), null, TimelineService.TIMELINE_SIZE);
+        List<Tweet> result = celebrityCache.latestTweets(Set.of(celebrityId), null, TimelineService.TIMELINE_SIZE);
+        celebrityCache.tweetPosted(celebrityId);
+        celebrityCache.latestTweets(Set.of(celebrityId), null, TimelineService.TIMELINE_SIZE);
+
+        // Assert
+        assertEquals(List.of(tweet), result);
+        verify(tweetRepo, times(2)).findLatestByUserIds(Set.of(celebrityId), TimelineService.TIMELINE_SIZE);
+    }
+
+    @Test
+    @DisplayName("Should page within the cached tweets, and read the database past them")
+    void latestTweets_Cursor() {
+        // Arrange
+        List<Tweet> newest = IntStream.range(0, TimelineService.TIMELINE_SIZE)
+                .mapToObj(i -> new Tweet(UUID.randomUUID(), celebrityId, "Tweet " + i, now.minusMinutes(i)))
+                .toList();
+        when(tweetRepo.findLatestByUserIds(Set.of(celebrityId), TimelineService.TIMELINE_SIZE)).thenReturn(newest);
+        TimelineCursor inWindow = TimelineCursor.of(newest.get(9));
+        TimelineCursor pastWindow = TimelineCursor.of(newest.get(TimelineService.TIMELINE_SIZE - 1));
+        List<Tweet> older = List.of(new Tweet(UUID.randomUUID(), celebrityId, "Old tweet", now.minusDays(1)));
+        when(tweetRepo.findByUserIdsBefore(Set.of(celebrityId), pastWindow, 10)).thenReturn(older);
+
+        // Act
+        List<Tweet> page = celebrityCache.latestTweets(Set.of(celebrityId), inWindow, 10);
+        List<Tweet> deepPage = celebrityCache.latestTweets(Set.of(celebrityId), pastWindow, 10);
+
+        // Assert
+        assertEquals(newest.subList(10, 20), page);
+        assertEquals(older, deepPage);
+        verify(tweetRepo, times(1)).findByUserIdsBefore(Set.of(celebrityId), pastWindow, 10);
+    }
+}
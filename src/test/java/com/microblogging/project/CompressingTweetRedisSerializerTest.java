@@ -0,0 +1,106 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.cache.CompressingTweetRedisSerializer;
+import com.microblogging.project.adapter.out.cache.TweetRedisSerializer;
+import com.microblogging.project.domain.model.Tweet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressingTweetRedisSerializerTest {
+
+    private static final byte[] DICTIONARY = "Check out the new release notes https://github.com/ #java #springboot https://t.co/"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CompressingTweetRedisSerializer serializer =
+            new CompressingTweetRedisSerializer(DICTIONARY, 100, 1, meterRegistry);
+    private final TweetRedisSerializer plainSerializer = new TweetRedisSerializer();
+
+    @Test
+    @DisplayName("Should compress tweets above the threshold and read them back exactly")
+    void serialize_AboveThreshold_CompressedRoundTrip() {
+        // Arrange
+        Tweet tweet = tweet("Check out the new release notes https://github.com/ #java #springboot, "
+                + "check out the new release notes https://t.co/abc #java #springboot ñandú");
+
+        // Act
+        byte[] bytes = serializer.serialize(tweet);
+        Tweet copy = serializer.deserialize(bytes);
+
+        // Assert
+        assertTrue(bytes.length < plainSerializer.serialize(tweet).length);
+        assertEquals(tweet.getId(), copy.getId());
+        assertEquals(tweet.getUserId(), copy.getUserId());
+        assertEquals(tweet.getContent(), copy.getContent());
+        assertEquals(tweet.getCreatedAt(), copy.getCreatedAt());
+        assertEquals(1, meterRegistry.summary("timeline.cache.compression.ratio").count());
+        assertTrue(meterRegistry.summary("timeline.cache.compression.ratio").mean() > 1.0);
+        assertEquals(1, meterRegistry.timer("timeline.cache.compression.time", "operation", "decompress").count());
+    }
+
+    @Test
+    @DisplayName("Should store short tweets exactly as the plain serializer does")
+    void serialize_BelowThreshold_Raw() {
+        // Arrange
+        Tweet tweet = tweet("Short tweet");
+
+        // Act
+        byte[] bytes = serializer.serialize(tweet);
+
+        // Assert
+        assertArrayEquals(plainSerializer.serialize(tweet), bytes);
+        assertEquals(1.0, meterRegistry.counter("timeline.cache.compression.skipped", "reason", "below-threshold").count());
+    }
+
+    @Test
+    @DisplayName("Should store tweets that would not shrink raw")
+    void serialize_Incompressible_Raw() {
+        // Arrange: without a threshold, a tweet without content is little more than two random UUIDs
+        CompressingTweetRedisSerializer eagerSerializer = new CompressingTweetRedisSerializer(DICTIONARY, 0, 1, meterRegistry);
+        Tweet tweet = tweet(null);
+
+        // Act
+        byte[] bytes = eagerSerializer.serialize(tweet);
+
+        // Assert
+        assertArrayEquals(plainSerializer.serialize(tweet), bytes);
+        assertEquals(tweet.getId(), eagerSerializer.deserialize(bytes).getId());
+        assertEquals(1.0, meterRegistry.counter("timeline.cache.compression.skipped", "reason", "incompressible").count());
+    }
+
+    @Test
+    @DisplayName("Should read tweets compressed with another dictionary as cache misses")
+    void deserialize_OtherDictionary_Null() {
+        // Arrange
+        CompressingTweetRedisSerializer otherSerializer = new CompressingTweetRedisSerializer(
+                "another dictionary".getBytes(StandardCharsets.UTF_8), 100, 1, new SimpleMeterRegistry());
+        byte[] bytes = otherSerializer.serialize(tweet("Check out the new release notes https://github.com/ #java #springboot ".repeat(2)));
+
+        // Act & Assert
+        assertNull(serializer.deserialize(bytes));
+        assertEquals(1.0, meterRegistry.counter("timeline.cache.compression.unknown-dictionary").count());
+    }
+
+    @Test
+    @DisplayName("Should reject a truncated compressed payload")
+    void deserialize_Truncated_Throws() {
+        // Arrange
+        byte[] bytes = serializer.serialize(tweet("Check out the new release notes https://github.com/ #java #springboot ".repeat(3)));
+
+        // Act & Assert
+        assertThrows(SerializationException.class, () -> serializer.deserialize(Arrays.copyOf(bytes, bytes.length - 5)));
+    }
+
+    private static Tweet tweet(String content) {
+        return new Tweet(UUID.randomUUID(), UUID.randomUUID(), content, LocalDateTime.of(2024, 5, 17, 10, 30, 15, 123_456_789));
+    }
+}
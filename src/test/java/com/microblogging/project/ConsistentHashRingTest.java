@@ -0,0 +1,70 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.cache.ConsistentHashRing;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final List<UUID> KEYS = IntStream.range(0, 100_000).mapToObj(i -> UUID.randomUUID()).toList();
+
+    @Test
+    @DisplayName("Should spread keys evenly over the shards")
+    void shardFor_SpreadsEvenly() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(
+                List.of("redis-1:6379", "redis-2:6379", "redis-3:6379", "redis-4:6379"), Function.identity(), 160);
+
+        Map<String, Long> keysPerShard = KEYS.stream().collect(Collectors.groupingBy(ring::shardFor, Collectors.counting()));
+
+        assertEquals(4, keysPerShard.size());
+        keysPerShard.values().forEach(count ->
+                assertEquals(25_000, count, 4_000, "Keys per shard " + keysPerShard));
+    }
+
+    @Test
+    @DisplayName("Should only move keys to the new shard when a shard is added")
+    void shardFor_AddingShard_MovesAboutOneNth() {
+        List<String> shards = List.of("redis-1:6379", "redis-2:6379", "redis-3:6379", "redis-4:6379");
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(shards, Function.identity(), 160);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(
+                List.of("redis-1:6379", "redis-2:6379", "redis-3:6379", "redis-4:6379", "redis-5:6379"), Function.identity(), 160);
+
+        long moved = 0;
+        for (UUID key : KEYS) {
+            String previousShard = before.shardFor(key);
+            String currentShard = after.shardFor(key);
+            if (!previousShard.equals(currentShard)) {
+                assertEquals("redis-5:6379", currentShard);
+                moved++;
+            }
+        }
+
+        // A fifth of the keys should move, a modulo-based scheme would move four fifths of them
+        assertEquals(KEYS.size() / 5.0, moved, KEYS.size() * 0.05);
+    }
+
+    @Test
+    @DisplayName("Should always map a key to the same shard")
+    void shardFor_Deterministic() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of("a:1", "b:2", "c:3"), Function.identity(), 160);
+        ConsistentHashRing<String> sameRing = new ConsistentHashRing<>(List.of("c:3", "a:1", "b:2"), Function.identity(), 160);
+
+        KEYS.subList(0, 1000).forEach(key -> assertEquals(ring.shardFor(key), sameRing.shardFor(key)));
+    }
+
+    @Test
+    @DisplayName("Should refuse a ring without shards")
+    void constructor_NoShards_Throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConsistentHashRing<String>(List.of(), Function.identity(), 160));
+    }
+}
@@ -0,0 +1,124 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.message.EventSpool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSpoolTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Should read payloads back in append order, and only consume them on commit")
+    void peekAndCommit_InOrder() throws IOException {
+        // Arrange
+        EventSpool spool = new EventSpool(directory, 4096, 1 << 20);
+        List.of("first", "second", "third").forEach(payload -> assertTrue(spool.append(bytes(payload))));
+
+        // Act
+        EventSpool.Batch first = spool.peek(2);
+        EventSpool.Batch again = spool.peek(2);
+        spool.commit(first.end());
+        EventSpool.Batch rest = spool.peek(10);
+
+        // Assert
+        assertEquals(List.of("first", "second"), strings(first));
+        assertEquals(List.of("first", "second"), strings(again));
+        assertEquals(List.of("third"), strings(rest));
+        assertFalse(spool.isEmpty());
+        spool.commit(rest.end());
+        assertTrue(spool.isEmpty());
+        assertEquals(0, spool.pendingBytes());
+    }
+
+    @Test
+    @DisplayName("Should roll over to new segments, delete consumed ones and refuse appends when full")
+    void append_RollsOverSegments() throws IOException {
+        // Arrange: 100 byte payloads, 9 per segment, at most 4 segments
+        EventSpool spool = new EventSpool(directory, 1024, 4 * 1024);
+        List<String> payloads = IntStream.range(0, 36).mapToObj(i -> String.format("%-100d", i)).toList();
+
+        // Act
+        payloads.forEach(payload -> assertTrue(spool.append(bytes(payload))));
+        boolean appendedWhenFull = spool.append(bytes(payloads.get(0)));
+        EventSpool.Batch batch = spool.peek(20);
+        spool.commit(batch.end());
+
+        // Assert
+        assertFalse(appendedWhenFull);
+        assertEquals(payloads.subList(0, 20), strings(batch));
+        assertEquals(2, segmentFiles());
+        assertEquals(payloads.subList(20, 36), strings(spool.peek(100)));
+        assertTrue(spool.append(bytes(payloads.get(0))));
+    }
+
+    @Test
+    @DisplayName("Should recover unconsumed payloads after a restart and keep appending after them")
+    void reopen_RecoversPendingPayloads() throws IOException {
+        // Arrange
+        EventSpool spool = new EventSpool(directory, 4096, 1 << 20);
+        List.of("first", "second", "third").forEach(payload -> spool.append(bytes(payload)));
+        spool.commit(spool.peek(1).end());
+        spool.close();
+
+        // Act
+        EventSpool reopened = new EventSpool(directory, 4096, 1 << 20);
+        reopened.append(bytes("fourth"));
+
+        // Assert
+        assertEquals(List.of("second", "third", "fourth"), strings(reopened.peek(10)));
+    }
+
+    @Test
+    @DisplayName("Should discard a record torn by a crash and overwrite it")
+    void reopen_TornRecord_Discarded() throws IOException {
+        // Arrange: the last record's payload does not match its checksum
+        EventSpool spool = new EventSpool(directory, 4096, 1 << 20);
+        spool.append(bytes("first"));
+        spool.append(bytes("second"));
+        spool.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes("X")), 4 + 4 + 5 + 4 + 4);
+        }
+
+        // Act
+        EventSpool reopened = new EventSpool(directory, 4096, 1 << 20);
+        reopened.append(bytes("third"));
+
+        // Assert
+        assertEquals(List.of("first", "third"), strings(reopened.peek(10)));
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).count();
+        }
+    }
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(EventSpool.Batch batch) {
+        return batch.payloads().stream().map(payload -> new String(payload, StandardCharsets.UTF_8)).toList();
+    }
+}
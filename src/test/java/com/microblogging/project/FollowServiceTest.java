@@ -1,10 +1,13 @@
 package com.microblogging.project;
 
+import com.microblogging.project.application.service.CelebrityTimelineCache;
 import com.microblogging.project.application.service.FollowService;
 import com.microblogging.project.domain.exception.AlreadyFollowingException;
 import com.microblogging.project.domain.exception.CannotFollowSelfException;
 import com.microblogging.project.domain.exception.UserNotFoundException;
 import com.microblogging.project.domain.port.FollowRepository;
+import com.microblogging.project.domain.port.TimelineCachePort;
+import com.microblogging.project.domain.port.TimelineEntryRepository;
 import com.microblogging.project.domain.port.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,6 +16,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 import org.mockito.Mockito; // Import Mockito class for reset()
 
 import java.util.UUID;
@@ -29,6 +35,15 @@ class FollowServiceTest {
     @Mock // Creates a mock instance of FollowRepository
     private FollowRepository followRepository;
 
+    @Mock
+    private TimelineCachePort timelineCachePort;
+
+    @Mock
+    private TimelineEntryRepository timelineEntries;
+
+    @Mock
+    private CelebrityTimelineCache celebrityCache;
+
     @InjectMocks // Injects the mocks into a new instance of FollowService
     private FollowService followService;
 
@@ -51,6 +66,30 @@ class FollowServiceTest {
 
     // --- Tests for 'follow' method ---
 
+    @Test
+    @DisplayName("Should invalidate the follower's timelines only once the follow has committed")
+    void follow_InTransaction_InvalidatesAfterCommit() {
+        // Arrange
+        ReflectionTestUtils.setField(followService, "materializedTimelines", true);
+        when(followRepository.exists(followerId, followeeId)).thenReturn(false);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            followService.follow(followerId, followeeId);
+
+            // Assert: nothing a concurrent read could undo before the commit
+            verify(followRepository, times(1)).save(followerId, followeeId);
+            verifyNoInteractions(timelineCachePort, celebrityCache, timelineEntries);
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            verify(timelineCachePort, times(1)).invalidateTimeline(followerId);
+            verify(celebrityCache, times(1)).followeesChanged(followerId);
+            verify(timelineEntries, times(1)).dropTimeline(followerId);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     @DisplayName("Should successfully follow a user when all conditions are met")
     void follow_Success() {
@@ -65,6 +104,9 @@ class FollowServiceTest {
         // Assert
         // Verify that save was called exactly once with the correct IDs
         verify(followRepository, times(1)).save(followerId, followeeId);
+        // Verify that the follower's cached timeline is dropped so the new followee shows up
+        verify(timelineCachePort, times(1)).invalidateTimeline(followerId);
+        verify(celebrityCache, times(1)).followeesChanged(followerId);
         // Verify that exists was called for both users
         verify(userRepository, times(1)).existsById(followerId);
         verify(userRepository, times(1)).existsById(followeeId);
@@ -165,11 +207,27 @@ class FollowServiceTest {
 
         // Assert
         verify(followRepository, times(1)).delete(followerId, followeeId);
+        verify(timelineCachePort, times(1)).invalidateTimeline(followerId);
+        verify(celebrityCache, times(1)).followeesChanged(followerId);
         verify(userRepository, times(1)).existsById(followerId);
         verify(userRepository, times(1)).existsById(followeeId);
         verify(followRepository, times(1)).exists(followerId, followeeId);
     }
 
+    @Test
+    @DisplayName("Should drop the follower's materialized timeline on unfollow")
+    void unfollow_MaterializedTimelines_DropsTimeline() {
+        // Arrange
+        ReflectionTestUtils.setField(followService, "materializedTimelines", true);
+        when(followRepository.exists(followerId, followeeId)).thenReturn(true);
+
+        // Act
+        followService.unfollow(followerId, followeeId);
+
+        // Assert: the next cache miss rebuilds it without the unfollowed user's tweets
+        verify(timelineEntries, times(1)).dropTimeline(followerId);
+    }
+
     @Test
     @DisplayName("Should throw IllegalArgumentException if followerId equals followeeId in unfollow()")
     void unfollow_CannotUnfollowSelf() {
@@ -0,0 +1,146 @@
+package com.microblogging.project;
+
+import com.microblogging.project.application.service.GroupCommitPostTweetService;
+import com.microblogging.project.application.service.PostTweetService;
+import com.microblogging.project.domain.exception.UserNotFoundException;
+import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.port.TweetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GroupCommitPostTweetServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PostTweetService posts = mock(PostTweetService.class);
+    private final TweetRepository tweetRepo = mock(TweetRepository.class);
+    private GroupCommitPostTweetService service;
+
+    @BeforeEach
+    void setUp() {
+        when(posts.newTweet(any(UUID.class), anyString())).thenAnswer(invocation -> new Tweet(UUID.randomUUID(),
+                invocation.getArgument(0), invocation.getArgument(1), LocalDateTime.now()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "stop");
+    }
+
+    @Test
+    @DisplayName("Should insert concurrent posts in one batch and return once it is committed")
+    void post_Concurrent_OneBatch() throws Exception {
+        // Arrange: the batch only closes when full
+        service = service(3, Duration.ofSeconds(30));
+
+        // Act
+        List<CompletableFuture<Tweet>> posted = List.of(postAsync("First"), postAsync("Second"), postAsync("Third"));
+
+        // Assert
+        for (CompletableFuture<Tweet> post : posted) {
+            assertNotNull(post.get(5, TimeUnit.SECONDS));
+        }
+        verify(tweetRepo, times(1)).insertAll(argThat(tweets -> tweets.size() == 3));
+        verify(posts, times(3)).tweetSaved(any(Tweet.class));
+        assertEquals(1, meterRegistry.summary("tweet.group-commit.batch.size").count());
+        assertEquals(3.0, meterRegistry.summary("tweet.group-commit.batch.size").totalAmount());
+        assertEquals(3, meterRegistry.timer("tweet.group-commit.latency").count());
+    }
+
+    @Test
+    @DisplayName("Should commit a partial batch once the first post waited max-wait")
+    void post_Alone_CommittedAfterMaxWait() throws Exception {
+        // Arrange
+        service = service(64, Duration.ofMillis(20));
+
+        // Act
+        Tweet tweet = postAsync("Alone").get(5, TimeUnit.SECONDS);
+
+        // Assert
+        verify(tweetRepo).insertAll(List.of(tweet));
+        verify(posts).tweetSaved(tweet);
+    }
+
+    @Test
+    @DisplayName("Should commit the posts of a failed batch one by one, failing only the faulty one")
+    void post_FailedBatch_SplitsIt() throws Exception {
+        // Arrange
+        service = service(2, Duration.ofSeconds(30));
+        doThrow(new IllegalStateException("Value too long"))
+                .when(tweetRepo).insertAll(argThat(tweets -> tweets.stream().anyMatch(t -> t.getContent().equals("Faulty"))));
+
+        // Act
+        CompletableFuture<Tweet> valid = postAsync("Valid");
+        CompletableFuture<Tweet> faulty = postAsync("Faulty");
+
+        // Assert
+        assertEquals("Valid", valid.get(5, TimeUnit.SECONDS).getContent());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> faulty.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        verify(posts, times(1)).tweetSaved(argThat(tweet -> tweet.getContent().equals("Valid")));
+        verify(posts, never()).tweetSaved(argThat(tweet -> tweet.getContent().equals("Faulty")));
+        assertEquals(1.0, meterRegistry.counter("tweet.group-commit.split").count());
+    }
+
+    @Test
+    @DisplayName("Should reject a post of an unknown author before queuing it")
+    void post_UnknownAuthor_Throws() {
+        // Arrange
+        service = service(64, Duration.ofMillis(5));
+        UUID unknownUserId = UUID.randomUUID();
+        when(posts.newTweet(unknownUserId, "Hello")).thenThrow(new UserNotFoundException("User not found"));
+
+        // Act & Assert
+        assertThrows(UserNotFoundException.class, () -> service.post(unknownUserId, "Hello"));
+        verifyNoInteractions(tweetRepo);
+    }
+
+    @Test
+    @DisplayName("Should commit posts on their own once stopped")
+    void post_Stopped_CommittedAlone() {
+        // Arrange
+        service = service(64, Duration.ofSeconds(30));
+        ReflectionTestUtils.invokeMethod(service, "stop");
+
+        // Act
+        Tweet tweet = service.post(UUID.randomUUID(), "Late");
+
+        // Assert
+        verify(tweetRepo).insertAll(List.of(tweet));
+        verify(posts).tweetSaved(tweet);
+        assertEquals(1.0, meterRegistry.counter("tweet.group-commit.bypassed").count());
+    }
+
+    private GroupCommitPostTweetService service(int maxBatchSize, Duration maxWait) {
+        return new GroupCommitPostTweetService(posts, tweetRepo, TransactionOperations.withoutTransaction(),
+                meterRegistry, maxBatchSize, maxWait, 100);
+    }
+
+    private CompletableFuture<Tweet> postAsync(String content) {
+        CompletableFuture<Tweet> posted = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                posted.complete(service.post(UUID.randomUUID(), content));
+            } catch (RuntimeException e) {
+                posted.completeExceptionally(e);
+            }
+        });
+        return posted;
+    }
+}
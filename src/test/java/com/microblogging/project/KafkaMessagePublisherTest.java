@@ -0,0 +1,183 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.message.EventSpool;
+import com.microblogging.project.adapter.out.message.KafkaMessagePublisher;
+import com.microblogging.project.domain.event.TweetPostedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.TimeoutException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaMessagePublisherTest {
+
+    @Mock
+    private KafkaTemplate<String, TweetPostedEvent> kafkaTemplate;
+
+    @TempDir
+    private Path spoolDirectory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private KafkaMessagePublisher publisher;
+    private TweetPostedEvent event;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new KafkaMessagePublisher(kafkaTemplate, null, meterRegistry);
+        event = new TweetPostedEvent(UUID.randomUUID(), UUID.randomUUID(), "Tweet", LocalDateTime.now());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should send the event only once the publishing transaction commits")
+    void publish_InTransaction_SentAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        when(kafkaTemplate.send("tweet-posted-events", event.tweetId().toString(), event))
+                .thenReturn(new CompletableFuture<>());
+
+        // Act
+        publisher.publishTweetPostedEvent(event);
+        verifyNoInteractions(kafkaTemplate);
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        // Assert
+        verify(kafkaTemplate, times(1)).send("tweet-posted-events", event.tweetId().toString(), event);
+    }
+
+    @Test
+    @DisplayName("Should send a batch of events in order once the publishing transaction commits")
+    void publishAll_InTransaction_SentInOrderAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        TweetPostedEvent second = new TweetPostedEvent(UUID.randomUUID(), UUID.randomUUID(), "Second", LocalDateTime.now());
+        ArgumentCaptor<TweetPostedEvent> sent = ArgumentCaptor.forClass(TweetPostedEvent.class);
+        when(kafkaTemplate.send(eq("tweet-posted-events"), anyString(), sent.capture()))
+                .thenReturn(new CompletableFuture<>());
+
+        // Act
+        publisher.publishTweetPostedEvents(List.of(event, second));
+        verifyNoInteractions(kafkaTemplate);
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        // Assert
+        assertEquals(List.of(event, second), sent.getAllValues());
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+    }
+
+    @Test
+    @DisplayName("Should never send the event of a rolled back transaction")
+    void publish_RolledBack_NeverSent() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        publisher.publishTweetPostedEvent(event);
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    @DisplayName("Should send right away outside a transaction")
+    void publish_NoTransaction_SentImmediately() {
+        // Arrange
+        when(kafkaTemplate.send("tweet-posted-events", event.tweetId().toString(), event))
+                .thenReturn(new CompletableFuture<>());
+
+        // Act
+        publisher.publishTweetPostedEvent(event);
+
+        // Assert
+        verify(kafkaTemplate, times(1)).send("tweet-posted-events", event.tweetId().toString(), event);
+    }
+
+    @Test
+    @DisplayName("Should spool events while Kafka is unavailable and replay them in order once it recovers")
+    void publish_KafkaUnavailable_SpooledAndReplayed() throws IOException {
+        // Arrange
+        publisher = new KafkaMessagePublisher(kafkaTemplate, spool(), meterRegistry);
+        TweetPostedEvent second = new TweetPostedEvent(UUID.randomUUID(), UUID.randomUUID(), "Second", LocalDateTime.now());
+        TweetPostedEvent third = new TweetPostedEvent(UUID.randomUUID(), UUID.randomUUID(), "Third", LocalDateTime.now());
+        when(kafkaTemplate.send(anyString(), anyString(), any(TweetPostedEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("Broker unavailable")))
+                .thenThrow(new TimeoutException("Topic not present in metadata after 500 ms"));
+
+        // Act: the first send fails, the second is spooled without trying Kafka, the replay fails
+        publisher.publishTweetPostedEvent(event);
+        publisher.publishTweetPostedEvent(second);
+        publisher.drainSpool();
+
+        // Assert
+        verify(kafkaTemplate, times(2)).send(anyString(), anyString(), any(TweetPostedEvent.class));
+        assertEquals(2.0, meterRegistry.counter("messaging.spool.appended").count());
+
+        // Act: Kafka is back
+        reset(kafkaTemplate);
+        ArgumentCaptor<TweetPostedEvent> sent = ArgumentCaptor.forClass(TweetPostedEvent.class);
+        when(kafkaTemplate.send(eq("tweet-posted-events"), anyString(), sent.capture()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        publisher.drainSpool();
+        publisher.publishTweetPostedEvent(third);
+
+        // Assert: in order, and sent directly again once drained
+        assertEquals(List.of(event, second, third), sent.getAllValues());
+        assertEquals(2.0, meterRegistry.counter("messaging.spool.replayed").count());
+        assertEquals(0.0, meterRegistry.get("messaging.spool.pending.bytes").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should keep spooled events ahead of new ones across a restart")
+    void publish_SpoolNotEmptyOnStart_Spooled() throws IOException {
+        // Arrange: spooled by a previous run
+        EventSpool spool = spool();
+        publisher = new KafkaMessagePublisher(kafkaTemplate, spool, meterRegistry);
+        when(kafkaTemplate.send(anyString(), anyString(), any(TweetPostedEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("Broker unavailable")));
+        publisher.publishTweetPostedEvent(event);
+        spool.close();
+        reset(kafkaTemplate);
+
+        // Act
+        publisher = new KafkaMessagePublisher(kafkaTemplate, spool(), new SimpleMeterRegistry());
+        publisher.publishTweetPostedEvent(event);
+
+        // Assert
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    private EventSpool spool() throws IOException {
+        return new EventSpool(spoolDirectory, 4096, 1 << 20);
+    }
+}
@@ -0,0 +1,174 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.cache.NearCacheTimelineAdapter;
+import com.microblogging.project.adapter.out.cache.TimelineRedisAdapter;
+import com.microblogging.project.domain.model.CachedTimeline;
+import com.microblogging.project.domain.model.Tweet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NearCacheTimelineAdapterTest {
+
+    @Mock
+    private TimelineRedisAdapter redisAdapter;
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private NearCacheTimelineAdapter nearCache;
+    private MessageListener invalidationListener;
+
+    private UUID userId;
+    private List<Tweet> tweets;
+
+    @BeforeEach
+    void setUp() {
+        nearCache = new NearCacheTimelineAdapter(redisAdapter, stringRedisTemplate, listenerContainer,
+                new SimpleMeterRegistry(), 1024 * 1024, Duration.ofMinutes(1), Duration.ofSeconds(5));
+        lenient().when(listenerContainer.isListening()).thenReturn(true);
+
+        // Trigger the subscription and grab the listener registered on the invalidation channel
+        nearCache.subscribe();
+        ArgumentCaptor<MessageListener> listenerCaptor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listenerCaptor.capture(), any(Topic.class));
+        invalidationListener = listenerCaptor.getValue();
+
+        userId = UUID.randomUUID();
+        tweets = List.of(new Tweet(UUID.randomUUID(), UUID.randomUUID(), "Hot tweet", LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated reads of a hot timeline from the local cache")
+    void getTimeline_SecondReadIsLocal() {
+        when(redisAdapter.getCachedTimeline(userId)).thenReturn(Optional.of(new CachedTimeline(tweets, Instant.now().plusSeconds(300))));
+
+        assertEquals(Optional.of(tweets), nearCache.getTimeline(userId));
+        assertEquals(Optional.of(tweets), nearCache.getTimeline(userId));
+
+        verify(redisAdapter, times(1)).getCachedTimeline(userId);
+    }
+
+    @Test
+    @DisplayName("Should forward the reads served locally to Redis in one batch")
+    void flushLocalReads_ForwardsLocalHits() {
+        // Arrange
+        when(redisAdapter.getCachedTimeline(userId)).thenReturn(Optional.of(new CachedTimeline(tweets, Instant.now().plusSeconds(300))));
+        nearCache.getTimeline(userId); // Read through, recorded by Redis itself
+        nearCache.getTimeline(userId);
+        nearCache.getTimeline(userId);
+
+        // Act
+        nearCache.flushLocalReads();
+        nearCache.flushLocalReads(); // Nothing new to forward
+
+        // Assert
+        verify(redisAdapter, times(1)).recordTimelineReads(Map.of(userId, 2));
+    }
+
+    @Test
+    @DisplayName("Should check for a timeline without counting the check as a read")
+    void hasTimeline_NotARead() {
+        // Arrange
+        when(redisAdapter.getCachedTimeline(userId)).thenReturn(Optional.of(new CachedTimeline(tweets, Instant.now().plusSeconds(300))));
+        nearCache.getTimeline(userId);
+
+        // Act
+        boolean cached = nearCache.hasTimeline(userId);
+        nearCache.flushLocalReads();
+
+        // Assert
+        assertTrue(cached);
+        verify(redisAdapter, never()).hasTimeline(userId);
+        verify(redisAdapter, never()).recordTimelineReads(anyMap());
+    }
+
+    @Test
+    @DisplayName("Should evict the local copy when another node broadcasts an invalidation")
+    void invalidationFromOtherNode_EvictsLocalCopy() {
+        when(redisAdapter.getCachedTimeline(userId)).thenReturn(Optional.of(new CachedTimeline(tweets, Instant.now().plusSeconds(300))));
+        nearCache.getTimeline(userId);
+
+        invalidationListener.onMessage(message("other-node|" + userId), null);
+        nearCache.getTimeline(userId);
+
+        verify(redisAdapter, times(2)).getCachedTimeline(userId);
+    }
+
+    @Test
+    @DisplayName("Should evict locally and broadcast when a tweet is prepended")
+    void prependToTimeline_EvictsAndPublishes() {
+        when(redisAdapter.getCachedTimeline(userId)).thenReturn(Optional.of(new CachedTimeline(tweets, Instant.now().plusSeconds(300))));
+        nearCache.getTimeline(userId);
+
+        Tweet newTweet = new Tweet(UUID.randomUUID(), UUID.randomUUID(), "New tweet", LocalDateTime.now());
+        nearCache.prependToTimeline(userId, newTweet, 50);
+        nearCache.getTimeline(userId);
+
+        verify(redisAdapter).prependToTimeline(userId, newTweet, 50);
+        verify(stringRedisTemplate).convertAndSend(eq(NearCacheTimelineAdapter.INVALIDATION_CHANNEL), endsWith("|" + userId));
+        verify(redisAdapter, times(2)).getCachedTimeline(userId);
+    }
+
+    @Test
+    @DisplayName("Should push a tweet to many timelines in one bulk call and broadcast batched invalidations")
+    void prependToTimelines_BulkAndBatchedMessages() {
+        when(redisAdapter.getCachedTimeline(userId)).thenReturn(Optional.of(new CachedTimeline(tweets, Instant.now().plusSeconds(300))));
+        nearCache.getTimeline(userId);
+        List<UUID> userIds = new ArrayList<>(IntStream.range(0, 1499).mapToObj(i -> UUID.randomUUID()).toList());
+        userIds.add(userId);
+
+        Tweet newTweet = new Tweet(UUID.randomUUID(), UUID.randomUUID(), "New tweet", LocalDateTime.now());
+        nearCache.prependToTimelines(userIds, newTweet, 50);
+        nearCache.getTimeline(userId);
+
+        verify(redisAdapter).prependToTimelines(userIds, newTweet, 50);
+        verify(redisAdapter, never()).prependToTimeline(any(UUID.class), any(Tweet.class), anyInt());
+        // 1500 owners, at most 1000 per message
+        verify(stringRedisTemplate, times(2)).convertAndSend(eq(NearCacheTimelineAdapter.INVALIDATION_CHANNEL), anyString());
+        verify(redisAdapter, times(2)).getCachedTimeline(userId);
+    }
+
+    @Test
+    @DisplayName("Should bypass the local cache while not subscribed to invalidations")
+    void getTimeline_NotListening_AlwaysRemote() {
+        when(listenerContainer.isListening()).thenReturn(false);
+        when(redisAdapter.getCachedTimeline(userId)).thenReturn(Optional.of(new CachedTimeline(tweets, Instant.now().plusSeconds(300))));
+
+        nearCache.getTimeline(userId);
+        nearCache.getTimeline(userId);
+
+        verify(redisAdapter, times(2)).getCachedTimeline(userId);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(NearCacheTimelineAdapter.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,171 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.cache.OffHeapTimelineCacheAdapter;
+import com.microblogging.project.domain.model.CachedTimeline;
+import com.microblogging.project.domain.model.TimelineCursor;
+import com.microblogging.project.domain.model.Tweet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTimelineCacheAdapterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_456_789);
+
+    @Test
+    @DisplayName("Should return cached tweets newest first with exact timestamps, the expiry and the TTL")
+    void cacheTimeline_RoundTrip() {
+        // Arrange
+        OffHeapTimelineCacheAdapter cache = cache(1 << 20, 16384);
+        UUID userId = UUID.randomUUID();
+        List<Tweet> tweets = tweets(3);
+        tweets.add(new Tweet(UUID.randomUUID(), UUID.randomUUID(), null, now.minusHours(1)));
+
+        // Act
+        cache.cacheTimeline(userId, tweets, Duration.ofMinutes(5));
+        CachedTimeline timeline = cache.getCachedTimeline(userId).orElseThrow();
+
+        // Assert
+        assertEquals(ids(tweets), ids(timeline.tweets()));
+        assertEquals(tweets.get(0).getCreatedAt(), timeline.tweets().get(0).getCreatedAt());
+        assertEquals("Tweet 0 ✓", timeline.tweets().get(0).getContent());
+        assertNull(timeline.tweets().get(3).getContent());
+        assertEquals(Instant.ofEpochMilli(clock.get() + 300_000), timeline.expiresAt());
+        assertEquals(Duration.ofMinutes(5), timeline.ttl());
+        assertEquals(Optional.of(List.of()), cacheEmpty(cache));
+    }
+
+    @Test
+    @DisplayName("Should keep the newest tweets when prepends wrap around a small ring")
+    void prependToTimeline_WrapsAroundAndTrims() {
+        // Arrange: a slot with room for only a few entries
+        OffHeapTimelineCacheAdapter cache = cache(1 << 16, 512);
+        UUID userId = UUID.randomUUID();
+        cache.cacheEmptyTimeline(userId, Duration.ofMinutes(5));
+        List<Tweet> tweets = tweets(100);
+
+        // Act: oldest first, as they would be posted
+        for (int i = tweets.size() - 1; i >= 0; i--) {
+            cache.prependToTimeline(userId, tweets.get(i), 50);
+        }
+
+        // Assert: the newest tweets that fit, in order
+        List<Tweet> cached = cache.getTimeline(userId).orElseThrow();
+        assertFalse(cached.isEmpty());
+        assertEquals(ids(tweets.subList(0, cached.size())), ids(cached));
+    }
+
+    @Test
+    @DisplayName("Should not create a timeline on prepend and cap it at the requested size")
+    void prependToTimeline_OnlyCachedTimelines() {
+        // Arrange
+        OffHeapTimelineCacheAdapter cache = cache(1 << 20, 16384);
+        UUID cachedUser = UUID.randomUUID();
+        UUID uncachedUser = UUID.randomUUID();
+        List<Tweet> tweets = tweets(5);
+        cache.cacheTimeline(cachedUser, tweets.subList(1, 5), Duration.ofMinutes(5));
+
+        // Act
+        cache.prependToTimeline(cachedUser, tweets.get(0), 3);
+        cache.prependToTimeline(uncachedUser, tweets.get(0), 3);
+
+        // Assert
+        assertEquals(ids(tweets.subList(0, 3)), ids(cache.getTimeline(cachedUser).orElseThrow()));
+        assertTrue(cache.getTimeline(uncachedUser).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should drop expired timelines and evict the least recently read one when the budget is full")
+    void eviction_TtlAndLeastRecentlyRead() {
+        // Arrange: room for three timelines
+        OffHeapTimelineCacheAdapter cache = cache(3 * 1024, 1024);
+        List<UUID> users = IntStream.range(0, 4).mapToObj(i -> UUID.randomUUID()).toList();
+        users.subList(0, 3).forEach(userId -> cache.cacheTimeline(userId, tweets(2), Duration.ofMinutes(5)));
+        cache.getTimeline(users.get(0));
+
+        // Act
+        cache.cacheTimeline(users.get(3), tweets(2), Duration.ofSeconds(10));
+
+        // Assert: the second user was read least recently
+        assertTrue(cache.getTimeline(users.get(1)).isEmpty());
+        assertTrue(cache.getTimeline(users.get(0)).isPresent());
+        assertEquals(List.of(users.get(0), users.get(3), users.get(2)), cache.findRecentlyReadTimelines(10));
+        assertEquals(1.0, meterRegistry.counter("timeline.cache.embedded.evictions", "reason", "lru").count());
+
+        clock.addAndGet(Duration.ofSeconds(11).toMillis());
+        assertTrue(cache.getTimeline(users.get(3)).isEmpty());
+        assertTrue(cache.getTimeline(users.get(2)).isPresent());
+        assertEquals(1.0, meterRegistry.counter("timeline.cache.embedded.evictions", "reason", "ttl").count());
+    }
+
+    @Test
+    @DisplayName("Should invalidate timelines and keep the index consistent across many users")
+    void invalidateTimelines_IndexStaysConsistent() {
+        // Arrange
+        OffHeapTimelineCacheAdapter cache = cache(512 * 512, 512);
+        List<UUID> users = IntStream.range(0, 500).mapToObj(i -> UUID.randomUUID()).toList();
+        users.forEach(userId -> cache.cacheTimeline(userId, tweets(1), Duration.ofMinutes(5)));
+
+        // Act
+        cache.invalidateTimelines(users.subList(0, 250));
+        cache.invalidateTimeline(users.get(499));
+
+        // Assert
+        users.subList(0, 250).forEach(userId -> assertTrue(cache.getTimeline(userId).isEmpty()));
+        users.subList(250, 499).forEach(userId -> assertTrue(cache.getTimeline(userId).isPresent()));
+        assertTrue(cache.getTimeline(users.get(499)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should page after the cursor")
+    void getTimelinePage_AfterCursor() {
+        // Arrange
+        OffHeapTimelineCacheAdapter cache = cache(1 << 20, 16384);
+        UUID userId = UUID.randomUUID();
+        List<Tweet> tweets = tweets(5);
+        cache.cacheTimeline(userId, tweets, Duration.ofMinutes(5));
+
+        // Act
+        List<Tweet> page = cache.getTimelinePage(userId, TimelineCursor.of(tweets.get(1)), 2).orElseThrow();
+
+        // Assert
+        assertEquals(ids(tweets.subList(2, 4)), ids(page));
+    }
+
+    private Optional<List<Tweet>> cacheEmpty(OffHeapTimelineCacheAdapter cache) {
+        UUID userId = UUID.randomUUID();
+        cache.cacheEmptyTimeline(userId, Duration.ofSeconds(30));
+        return cache.getTimeline(userId);
+    }
+
+    private OffHeapTimelineCacheAdapter cache(long maxBytes, int slotBytes) {
+        return new OffHeapTimelineCacheAdapter(meterRegistry, maxBytes, slotBytes, clock::get);
+    }
+
+    // Newest first
+    private List<Tweet> tweets(int count) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tweets.add(new Tweet(UUID.randomUUID(), UUID.randomUUID(), "Tweet " + i + " ✓", now.minusMinutes(i)));
+        }
+        return tweets;
+    }
+
+    private static List<UUID> ids(List<Tweet> tweets) {
+        return tweets.stream().map(Tweet::getId).toList();
+    }
+}
@@ -0,0 +1,114 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.persistence.entity.OutboxDeadLetterEntity;
+import com.microblogging.project.adapter.out.persistence.entity.OutboxEventEntity;
+import com.microblogging.project.adapter.out.persistence.repository.OutboxEventJpaRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(OutboxEventJpaRepository.class)
+class OutboxEventJpaRepositoryTest {
+
+    @Autowired
+    private OutboxEventJpaRepository outbox;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Should relay the oldest events in batches, in the order they were written, and delete them")
+    void relayOldest_BatchesInOrder() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            outbox.append("TestEvent", "key-" + i, "payload-" + i);
+        }
+        List<List<String>> batches = new ArrayList<>();
+
+        // Act
+        int first = outbox.relayOldest(3, events -> batches.add(keys(events)));
+        int second = outbox.relayOldest(3, events -> batches.add(keys(events)));
+        int third = outbox.relayOldest(3, events -> batches.add(keys(events)));
+
+        // Assert
+        assertEquals(List.of(3, 2, 0), List.of(first, second, third));
+        assertEquals(List.of(List.of("key-0", "key-1", "key-2"), List.of("key-3", "key-4")), batches);
+    }
+
+    @Test
+    @DisplayName("Should append a batch of events in one go, relayed in list order after earlier events")
+    void appendAll_RelayedInOrder() {
+        // Arrange
+        outbox.append("TestEvent", "key-0", "payload-0");
+        LocalDateTime now = LocalDateTime.now();
+        outbox.appendAll(List.of(new OutboxEventEntity("TestEvent", "key-1", "payload-1", now),
+                new OutboxEventEntity("TestEvent", "key-2", "payload-2", now)));
+        List<OutboxEventEntity> relayed = new ArrayList<>();
+
+        // Act
+        int count = outbox.relayOldest(10, relayed::addAll);
+
+        // Assert
+        assertEquals(3, count);
+        assertEquals(List.of("key-0", "key-1", "key-2"), keys(relayed));
+        assertEquals("payload-2", relayed.get(2).getPayload());
+        assertNotNull(relayed.get(2).getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Should keep a batch whose relay failed for the next attempt")
+    void relayOldest_Failure_KeepsEvents() {
+        // Arrange
+        outbox.append("TestEvent", "key-0", "payload-0");
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> outbox.relayOldest(10, events -> {
+            throw new IllegalStateException("Kafka unavailable");
+        }));
+
+        // Assert
+        List<OutboxEventEntity> retried = new ArrayList<>();
+        assertEquals(1, outbox.relayOldest(10, retried::addAll));
+        assertEquals("payload-0", retried.get(0).getPayload());
+        assertEquals("TestEvent", retried.get(0).getEventType());
+        assertNotNull(retried.get(0).getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Should move a dead letter out of the outbox with the rest of its batch")
+    void deadLetter_LeavesOutboxWithBatch() {
+        // Arrange
+        outbox.append("UnknownEvent", "key-0", "payload-0");
+        outbox.append("TestEvent", "key-1", "payload-1");
+        List<OutboxEventEntity> claimed = new ArrayList<>();
+
+        // Act
+        outbox.relayOldest(10, events -> {
+            claimed.addAll(events);
+            outbox.deadLetter(events.get(0), "Unknown outbox event type UnknownEvent");
+        });
+
+        // Assert
+        assertEquals(0, outbox.relayOldest(10, events -> fail("Outbox should be empty")));
+        OutboxDeadLetterEntity deadLetter = entityManager.find(OutboxDeadLetterEntity.class, claimed.get(0).getId());
+        assertEquals("UnknownEvent", deadLetter.getEventType());
+        assertEquals("key-0", deadLetter.getKey());
+        assertEquals("payload-0", deadLetter.getPayload());
+        assertEquals("Unknown outbox event type UnknownEvent", deadLetter.getReason());
+        assertNotNull(deadLetter.getFailedAt());
+        assertNull(entityManager.find(OutboxDeadLetterEntity.class, claimed.get(1).getId()));
+    }
+
+    private static List<String> keys(List<OutboxEventEntity> events) {
+        return events.stream().map(OutboxEventEntity::getKey).toList();
+    }
+}
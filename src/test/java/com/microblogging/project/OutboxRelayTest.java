@@ -0,0 +1,160 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.message.OutboxMessagePublisher;
+import com.microblogging.project.adapter.out.message.OutboxRelay;
+import com.microblogging.project.adapter.out.persistence.entity.OutboxEventEntity;
+import com.microblogging.project.adapter.out.persistence.repository.OutboxEventJpaRepository;
+import com.microblogging.project.domain.event.TweetPostedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventJpaRepository outbox;
+    @Mock
+    private KafkaTemplate<String, TweetPostedEvent> kafkaTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxRelay relay;
+    private final List<OutboxEventEntity> written = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outbox, kafkaTemplate, meterRegistry);
+        ReflectionTestUtils.setField(relay, "maxBatchSize", 2);
+
+        // Events as the outbox publisher writes them
+        doAnswer(invocation -> {
+            OutboxEventEntity event = new OutboxEventEntity(invocation.getArgument(0), invocation.getArgument(1),
+                    invocation.getArgument(2), LocalDateTime.now());
+            event.setId((long) written.size() + 1);
+            return written.add(event);
+        }).when(outbox).append(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should send batches in outbox order with the tweet ID as key until the outbox is drained")
+    void drain_SendsBatchesUntilDrained() {
+        // Arrange
+        List<TweetPostedEvent> events = publish(3);
+        stubOutbox(written.subList(0, 2), written.subList(2, 3));
+        when(kafkaTemplate.send(anyString(), anyString(), any(TweetPostedEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        relay.drain();
+
+        // Assert
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<TweetPostedEvent> sent = ArgumentCaptor.forClass(TweetPostedEvent.class);
+        verify(kafkaTemplate, times(3)).send(eq("tweet-posted-events"), keys.capture(), sent.capture());
+        assertEquals(events, sent.getAllValues());
+        assertEquals(events.stream().map(event -> event.tweetId().toString()).toList(), keys.getAllValues());
+        verify(outbox, times(2)).relayOldest(eq(2), any());
+        assertEquals(3.0, meterRegistry.counter("outbox.relay.events").count());
+        assertEquals(2, meterRegistry.summary("outbox.relay.batch.size").count());
+    }
+
+    @Test
+    @DisplayName("Should fail a batch that Kafka did not fully acknowledge, so it stays in the outbox")
+    void drain_UnacknowledgedBatch_Fails() {
+        // Arrange
+        publish(2);
+        stubOutbox(written);
+        when(kafkaTemplate.send(anyString(), anyString(), any(TweetPostedEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker unavailable")));
+
+        // Act
+        assertDoesNotThrow(() -> relay.drain());
+
+        // Assert: the failure reached the outbox, which keeps the batch
+        verify(outbox, times(1)).relayOldest(eq(2), any());
+        assertEquals(1.0, meterRegistry.counter("outbox.relay.failures").count());
+        assertEquals(0.0, meterRegistry.counter("outbox.relay.events").count());
+    }
+
+    @Test
+    @DisplayName("Should move undecodable events to the dead letters and relay the rest of their batch")
+    void drain_PoisonEvents_DeadLetteredAndRestRelayed() {
+        // Arrange: an unknown event type and an unreadable payload around a valid event
+        outbox.append("UnknownEvent", "key-0", "{}");
+        List<TweetPostedEvent> events = publish(1);
+        outbox.append("TweetPostedEvent", "key-2", "not json");
+        stubOutbox(written);
+        when(kafkaTemplate.send(anyString(), anyString(), any(TweetPostedEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        relay.drain();
+
+        // Assert
+        verify(outbox).deadLetter(eq(written.get(0)), contains("Unknown outbox event type"));
+        verify(outbox).deadLetter(eq(written.get(2)), contains("Unreadable outbox event"));
+        verify(kafkaTemplate, times(1)).send("tweet-posted-events", events.get(0).tweetId().toString(), events.get(0));
+        assertEquals(2.0, meterRegistry.counter("outbox.relay.dead-lettered").count());
+        assertEquals(1.0, meterRegistry.counter("outbox.relay.events").count());
+        assertEquals(0.0, meterRegistry.counter("outbox.relay.failures").count());
+    }
+
+    @Test
+    @DisplayName("Should not call Kafka for a batch of dead letters only")
+    void drain_OnlyPoisonEvents_NothingSent() {
+        // Arrange
+        outbox.append("UnknownEvent", "key-0", "{}");
+        stubOutbox(written);
+
+        // Act
+        relay.drain();
+
+        // Assert
+        verify(outbox).deadLetter(eq(written.get(0)), anyString());
+        verifyNoInteractions(kafkaTemplate);
+        assertEquals(0.0, meterRegistry.counter("outbox.relay.events").count());
+    }
+
+    private List<TweetPostedEvent> publish(int count) {
+        OutboxMessagePublisher publisher = new OutboxMessagePublisher(outbox);
+        List<TweetPostedEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TweetPostedEvent event = new TweetPostedEvent(UUID.randomUUID(), UUID.randomUUID(), "Tweet " + i,
+                    LocalDateTime.of(2024, 5, 17, 10, 30, i, 123_456_789));
+            publisher.publishTweetPostedEvent(event);
+            events.add(event);
+        }
+        return events;
+    }
+
+    @SafeVarargs
+    private void stubOutbox(List<OutboxEventEntity>... batches) {
+        var stubbing = when(outbox.relayOldest(anyInt(), any()));
+        for (List<OutboxEventEntity> batch : batches) {
+            stubbing = stubbing.thenAnswer(invocation -> {
+                Consumer<List<OutboxEventEntity>> send = invocation.getArgument(1);
+                send.accept(batch);
+                return batch.size();
+            });
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.microblogging.project;
 
+import com.microblogging.project.application.metrics.TimelineMetrics;
+import com.microblogging.project.application.service.CelebrityTimelineCache;
+import com.microblogging.project.application.service.FanoutMode;
 import com.microblogging.project.application.service.PostTweetService;
+import com.microblogging.project.application.service.TimelineFanoutExecutor;
+import com.microblogging.project.application.service.TimelineService;
 import com.microblogging.project.application.usecase.PostTweetUseCase;
 import com.microblogging.project.domain.event.TweetPostedEvent;
 import com.microblogging.project.domain.exception.UserNotFoundException;
@@ -12,10 +17,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*; // Import for ArgumentCaptor and other Mockito features
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Collections; // For empty sets
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -35,6 +43,14 @@ class PostTweetServiceTest {
     private MessagePublisher messagePublisher;
     @Mock
     private TimelineCachePort timelineCachePort;
+    @Mock
+    private TimelineMetrics timelineMetrics;
+    @Mock
+    private TimelineEntryRepository timelineEntries;
+    @Mock
+    private CelebrityTimelineCache celebrityCache;
+    @Spy
+    private TimelineFanoutExecutor fanoutExecutor = TimelineFanoutExecutor.direct();
 
     @InjectMocks
     private PostTweetService postTweetService;
@@ -45,7 +61,9 @@ class PostTweetServiceTest {
     @Captor
     private ArgumentCaptor<TweetPostedEvent> eventCaptor;
     @Captor
-    private ArgumentCaptor<UUID> uuidCaptor;
+    private ArgumentCaptor<List<TweetPostedEvent>> eventsCaptor;
+    @Captor
+    private ArgumentCaptor<Collection<UUID>> uuidsCaptor;
 
     // Test data
     private UUID userId;
@@ -56,8 +74,8 @@ class PostTweetServiceTest {
         userId = UUID.randomUUID();
         content = "This is a test tweet content.";
 
-        // Default mock behavior for user existence
-        when(userRepo.existsById(userId)).thenReturn(true);
+        // Default mock behavior for user existence (lenient: imports do not check authors one by one)
+        lenient().when(userRepo.existsById(userId)).thenReturn(true);
     }
 
     @Test
@@ -97,15 +115,15 @@ class PostTweetServiceTest {
         // 2. Verify cache invalidation for followers and tweeter
         verify(followRepo, times(1)).findFollowersByFolloweeId(userId);
 
-        // Verify invalidateTimeline called for each follower + the user themselves
-        // It's called for each follower in the loop + one for the user
-        verify(timelineCachePort, times(followers.size() + 1)).invalidateTimeline(uuidCaptor.capture());
+        // Verify a single bulk invalidation covering each follower + the user themselves
+        verify(timelineCachePort, times(1)).invalidateTimelines(uuidsCaptor.capture());
 
-        // Ensure all expected UUIDs were passed to invalidateTimeline
-        Set<UUID> invalidatedUuids = new HashSet<>(uuidCaptor.getAllValues());
+        // Ensure all expected UUIDs were passed to invalidateTimelines
+        Set<UUID> invalidatedUuids = new HashSet<>(uuidsCaptor.getValue());
         assertTrue(invalidatedUuids.contains(userId)); // Tweeter's own timeline
         assertTrue(invalidatedUuids.containsAll(followers)); // All followers' timelines
-        assertEquals(followers.size() + 1, invalidatedUuids.size()); // Total unique calls
+        assertEquals(followers.size() + 1, invalidatedUuids.size()); // Total unique timelines
+        verify(timelineMetrics, times(1)).recordBulkInvalidation(eq(followers.size() + 1), anyLong());
 
 
         // 3. Verify event publishing
@@ -156,13 +174,154 @@ class PostTweetServiceTest {
         verify(userRepo, times(1)).existsById(userId); // User existence checked
 
         // Only own timeline should be invalidated
-        verify(timelineCachePort, times(1)).invalidateTimeline(userId);
+        verify(timelineCachePort, times(1)).invalidateTimelines(Set.of(userId));
+        verify(followRepo, times(1)).findFollowersByFolloweeId(userId);
+        verify(messagePublisher, times(1)).publishTweetPostedEvent(any(TweetPostedEvent.class));
+
+        verifyNoMoreInteractions(tweetRepo, userRepo, followRepo, messagePublisher, timelineCachePort);
+    }
+
+    @Test
+    @DisplayName("Should prepend the tweet into cached timelines instead of invalidating them in push mode")
+    void post_PushMode() {
+        // Arrange
+        ReflectionTestUtils.setField(postTweetService, "fanoutMode", FanoutMode.PUSH);
+        Set<UUID> followers = new HashSet<>();
+        followers.add(UUID.randomUUID());
+        followers.add(UUID.randomUUID());
+        when(followRepo.findFollowersByFolloweeId(userId)).thenReturn(followers);
+
+        // Act
+        Tweet resultTweet = assertDoesNotThrow(() -> postTweetService.post(userId, content));
+
+        // Assert
+        verify(tweetRepo, times(1)).save(any(Tweet.class));
+        verify(userRepo, times(1)).existsById(userId);
         verify(followRepo, times(1)).findFollowersByFolloweeId(userId);
+
+        // The tweet is pushed to every follower + the user themselves in one bulk call, capped at the timeline size
+        verify(timelineCachePort, times(1))
+                .prependToTimelines(uuidsCaptor.capture(), eq(resultTweet), eq(TimelineService.TIMELINE_SIZE));
+        Set<UUID> pushedUuids = new HashSet<>(uuidsCaptor.getValue());
+        assertEquals(followers.size() + 1, pushedUuids.size());
+        assertTrue(pushedUuids.contains(userId));
+        assertTrue(pushedUuids.containsAll(followers));
+        verify(timelineCachePort, never()).prependToTimeline(any(UUID.class), any(Tweet.class), anyInt());
+        verify(timelineCachePort, never()).invalidateTimelines(anyCollection());
+
+        verify(messagePublisher, times(1)).publishTweetPostedEvent(any(TweetPostedEvent.class));
+        verifyNoMoreInteractions(tweetRepo, userRepo, followRepo, messagePublisher, timelineCachePort);
+    }
+
+    @Test
+    @DisplayName("Should skip follower fan-out for authors above the celebrity threshold")
+    void post_CelebrityAuthor_SkipsFanout() {
+        // Arrange
+        when(celebrityCache.isCelebrity(userId)).thenReturn(true);
+
+        // Act
+        assertDoesNotThrow(() -> postTweetService.post(userId, content));
+
+        // Assert
+        verify(tweetRepo, times(1)).save(any(Tweet.class));
+        verify(userRepo, times(1)).existsById(userId);
+        // Followers are never counted nor loaded, only the author's own timeline is touched
+        verify(followRepo, never()).findFollowersByFolloweeId(any(UUID.class));
+        verify(timelineCachePort, times(1)).invalidateTimelines(Set.of(userId));
+        verify(timelineMetrics, times(1)).recordCelebrityFanoutSkipped();
+        // Readers pulling the author's tweets see the new one on their next read
+        verify(celebrityCache, times(1)).tweetPosted(userId);
         verify(messagePublisher, times(1)).publishTweetPostedEvent(any(TweetPostedEvent.class));
 
         verifyNoMoreInteractions(tweetRepo, userRepo, followRepo, messagePublisher, timelineCachePort);
     }
 
+    @Test
+    @DisplayName("Should fan out normally for authors below the celebrity threshold")
+    void post_BelowCelebrityThreshold_FansOut() {
+        // Arrange
+        UUID followerId = UUID.randomUUID();
+        when(celebrityCache.isCelebrity(userId)).thenReturn(false);
+        when(followRepo.findFollowersByFolloweeId(userId)).thenReturn(Set.of(followerId));
+
+        // Act
+        assertDoesNotThrow(() -> postTweetService.post(userId, content));
+
+        // Assert
+        verify(timelineCachePort, times(1)).invalidateTimelines(Set.of(followerId, userId));
+        verify(timelineMetrics, never()).recordCelebrityFanoutSkipped();
+        verify(timelineMetrics, times(1)).recordFanout(1);
+        verify(celebrityCache, never()).tweetPosted(any(UUID.class));
+    }
+
+    @Test
+    @DisplayName("Should append the tweet to the materialized timelines of the followers and the author")
+    void post_MaterializedTimelines_AppendsEntries() {
+        // Arrange
+        ReflectionTestUtils.setField(postTweetService, "materializedTimelines", true);
+        UUID followerId = UUID.randomUUID();
+        when(followRepo.findFollowersByFolloweeId(userId)).thenReturn(Set.of(followerId));
+
+        // Act
+        Tweet resultTweet = assertDoesNotThrow(() -> postTweetService.post(userId, content));
+
+        // Assert
+        verify(timelineEntries, times(1)).appendToTimelines(Set.of(followerId, userId), resultTweet);
+        verify(timelineCachePort, times(1)).invalidateTimelines(Set.of(followerId, userId));
+    }
+
+    @Test
+    @DisplayName("Should publish the event with the tweet and hand the fan-out to the fan-out executor")
+    void post_FanoutAfterSave() {
+        // Arrange
+        when(followRepo.findFollowersByFolloweeId(userId)).thenReturn(Collections.emptySet());
+
+        // Act
+        assertDoesNotThrow(() -> postTweetService.post(userId, content));
+
+        // Assert
+        InOrder inOrder = inOrder(tweetRepo, messagePublisher, fanoutExecutor, followRepo);
+        inOrder.verify(tweetRepo).save(any(Tweet.class));
+        inOrder.verify(messagePublisher).publishTweetPostedEvent(any(TweetPostedEvent.class));
+        inOrder.verify(fanoutExecutor).executeAfterCommit(any(Runnable.class));
+        inOrder.verify(followRepo).findFollowersByFolloweeId(userId);
+    }
+
+    @Test
+    @DisplayName("Should publish the events of imported tweets and fan the batch out once, invalidating even in push mode")
+    void tweetsImported_OneFanoutPerBatch() {
+        // Arrange
+        ReflectionTestUtils.setField(postTweetService, "fanoutMode", FanoutMode.PUSH);
+        ReflectionTestUtils.setField(postTweetService, "materializedTimelines", true);
+        UUID otherAuthorId = UUID.randomUUID();
+        UUID followerId = UUID.randomUUID();
+        when(followRepo.findFollowersByFolloweeId(userId)).thenReturn(Set.of(followerId));
+        when(followRepo.findFollowersByFolloweeId(otherAuthorId)).thenReturn(Collections.emptySet());
+        LocalDateTime postedAt = LocalDateTime.of(2019, 3, 1, 8, 0);
+        List<Tweet> imported = List.of(
+                new Tweet(UUID.randomUUID(), userId, "Archived 1", postedAt),
+                new Tweet(UUID.randomUUID(), userId, "Archived 2", postedAt.plusHours(1)),
+                new Tweet(UUID.randomUUID(), otherAuthorId, "Archived 3", postedAt));
+
+        // Act
+        postTweetService.tweetsImported(imported);
+
+        // Assert
+        verify(messagePublisher, times(1)).publishTweetPostedEvents(eventsCaptor.capture());
+        verify(messagePublisher, never()).publishTweetPostedEvent(any(TweetPostedEvent.class));
+        assertEquals(imported.stream().map(Tweet::getId).toList(),
+                eventsCaptor.getValue().stream().map(TweetPostedEvent::tweetId).toList());
+        verify(fanoutExecutor, times(1)).executeAfterCommit(any(Runnable.class));
+        verify(followRepo, times(1)).findFollowersByFolloweeId(userId);
+        // One append per author, with all of their tweets
+        verify(timelineEntries).appendToTimelines(Set.of(followerId, userId), imported.subList(0, 2));
+        verify(timelineEntries).appendToTimelines(Set.of(otherAuthorId), imported.subList(2, 3));
+        verify(timelineEntries, never()).appendToTimelines(anyCollection(), any(Tweet.class));
+        verify(timelineCachePort, times(1)).invalidateTimelines(Set.of(followerId, userId, otherAuthorId));
+        verify(timelineCachePort, never()).prependToTimeline(any(), any(), anyInt());
+        verifyNoInteractions(tweetRepo, userRepo);
+    }
+
     // Optional: Add a test for content length if you decide to implement that business rule in the service layer
     // @Test
     // @DisplayName("Should throw TweetContentTooLongException if content exceeds 280 characters")
@@ -0,0 +1,102 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.cache.ShardedTimelineRedisAdapter;
+import com.microblogging.project.adapter.out.cache.TimelineRedisAdapter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedTimelineRedisAdapterTest {
+
+    @Mock
+    private TimelineRedisAdapter shardA;
+    @Mock
+    private TimelineRedisAdapter shardB;
+
+    private ShardedTimelineRedisAdapter sharded;
+
+    @BeforeEach
+    void setUp() {
+        when(shardA.name()).thenReturn("redis-a:6379");
+        when(shardB.name()).thenReturn("redis-b:6379");
+        sharded = new ShardedTimelineRedisAdapter(List.of(shardA, shardB), 160);
+    }
+
+    @Test
+    @DisplayName("Should send all the operations on a timeline to the shard owning it")
+    void operations_RoutedToOwningShard() {
+        // Arrange: find a user owned by shard B
+        UUID userId = IntStream.range(0, 1000).mapToObj(i -> UUID.randomUUID())
+                .filter(candidate -> {
+                    sharded.getCachedTimeline(candidate);
+                    return mockingDetails(shardB).getInvocations().stream()
+                            .anyMatch(invocation -> invocation.getArguments().length > 0 && candidate.equals(invocation.getArgument(0)));
+                })
+                .findFirst().orElseThrow();
+        clearInvocations(shardA, shardB);
+
+        // Act
+        sharded.getCachedTimeline(userId);
+        sharded.cacheEmptyTimeline(userId, Duration.ofSeconds(30));
+        sharded.tryAcquireRebuildLease(userId, Duration.ofSeconds(1));
+
+        // Assert
+        verify(shardB).getCachedTimeline(userId);
+        verify(shardB).cacheEmptyTimeline(userId, Duration.ofSeconds(30));
+        verify(shardB).tryAcquireRebuildLease(userId, Duration.ofSeconds(1));
+        verifyNoInteractions(shardA);
+    }
+
+    @Test
+    @DisplayName("Should split a bulk invalidation into one call per shard")
+    @SuppressWarnings("unchecked")
+    void invalidateTimelines_OneCallPerShard() {
+        // Arrange
+        List<UUID> userIds = IntStream.range(0, 1000).mapToObj(i -> UUID.randomUUID()).toList();
+
+        // Act
+        sharded.invalidateTimelines(userIds);
+
+        // Assert: every user is invalidated exactly once, on the shard its reads go to
+        ArgumentCaptor<Collection<UUID>> shardAUsers = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection<UUID>> shardBUsers = ArgumentCaptor.forClass(Collection.class);
+        verify(shardA, times(1)).invalidateTimelines(shardAUsers.capture());
+        verify(shardB, times(1)).invalidateTimelines(shardBUsers.capture());
+        Set<UUID> invalidated = new HashSet<>(shardAUsers.getValue());
+        invalidated.addAll(shardBUsers.getValue());
+        assertEquals(Set.copyOf(userIds), invalidated);
+        assertEquals(userIds.size(), shardAUsers.getValue().size() + shardBUsers.getValue().size());
+
+        UUID onShardA = shardAUsers.getValue().iterator().next();
+        when(shardA.getCachedTimeline(onShardA)).thenReturn(Optional.empty());
+        sharded.getCachedTimeline(onShardA);
+        verify(shardA).getCachedTimeline(onShardA);
+    }
+
+    @Test
+    @DisplayName("Should interleave the most recent readers of every shard")
+    void findRecentlyReadTimelines_Interleaved() {
+        UUID a1 = UUID.randomUUID(), a2 = UUID.randomUUID(), b1 = UUID.randomUUID();
+        when(shardA.findRecentlyReadTimelines(3)).thenReturn(List.of(a1, a2));
+        when(shardB.findRecentlyReadTimelines(3)).thenReturn(List.of(b1));
+
+        assertEquals(List.of(a1, b1, a2), sharded.findRecentlyReadTimelines(3));
+    }
+}
@@ -0,0 +1,65 @@
+package com.microblogging.project;
+
+import com.microblogging.project.application.service.TimelineAccessTracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineAccessTrackerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final TimelineAccessTracker tracker = new TimelineAccessTracker(true, Duration.ofMinutes(1),
+            Duration.ofMinutes(30), 10, Duration.ofMinutes(10), 1000, clock::get);
+
+    @Test
+    @DisplayName("Should give unknown users the minimum TTL")
+    void ttlFor_UnknownUser_Minimum() {
+        assertEquals(Duration.ofMinutes(1), tracker.ttlFor(UUID.randomUUID(), Duration.ofMinutes(5)));
+    }
+
+    @Test
+    @DisplayName("Should lengthen the TTL of frequently read timelines, bounded by the maximum")
+    void ttlFor_GrowsWithAccesses() {
+        UUID hotUser = UUID.randomUUID();
+        UUID warmUser = UUID.randomUUID();
+        for (int i = 0; i < 1000; i++) {
+            tracker.recordAccess(hotUser);
+        }
+        tracker.recordAccess(warmUser);
+
+        Duration hotTtl = tracker.ttlFor(hotUser, Duration.ofMinutes(5));
+        Duration warmTtl = tracker.ttlFor(warmUser, Duration.ofMinutes(5));
+
+        assertTrue(hotTtl.compareTo(warmTtl) > 0);
+        assertTrue(warmTtl.compareTo(Duration.ofMinutes(1)) > 0);
+        assertTrue(hotTtl.compareTo(Duration.ofMinutes(30)) <= 0);
+    }
+
+    @Test
+    @DisplayName("Should halve the access score every half-life")
+    void accessScore_Decays() {
+        UUID userId = UUID.randomUUID();
+        for (int i = 0; i < 8; i++) {
+            tracker.recordAccess(userId);
+        }
+
+        clock.addAndGet(Duration.ofMinutes(20).toNanos());
+
+        assertEquals(2.0, tracker.accessScore(userId), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should return the default TTL when adaptive TTLs are disabled")
+    void ttlFor_Disabled_Default() {
+        TimelineAccessTracker disabled = TimelineAccessTracker.disabled();
+        UUID userId = UUID.randomUUID();
+        disabled.recordAccess(userId);
+
+        assertEquals(Duration.ofMinutes(5), disabled.ttlFor(userId, Duration.ofMinutes(5)));
+    }
+}
@@ -0,0 +1,151 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.cache.OffHeapTimelineCacheAdapter;
+import com.microblogging.project.adapter.out.cache.TimelineRedisAdapter;
+import com.microblogging.project.adapter.out.cache.TweetRedisSerializer;
+import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.port.TimelineCachePort;
+import com.microblogging.project.domain.port.TweetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Read and prepend throughput of the embedded off-heap cache against the Redis adapter. Not part of the regular build:
+ * <pre>
+ * mvn test -Dtest=TimelineCacheBenchmarkTest -Dtimeline.benchmark=true [-Dtimeline.benchmark.redis=localhost:6379]
+ * </pre>
+ * The Redis half is skipped when no Redis answers at that address.
+ */
+@EnabledIfSystemProperty(named = "timeline.benchmark", matches = "true")
+class TimelineCacheBenchmarkTest {
+
+    private static final int USERS = 2_000;
+    private static final int TWEETS_PER_TIMELINE = 50;
+    private static final int WARMUP_OPERATIONS = 20_000;
+    private static final int MEASURED_OPERATIONS = 100_000;
+
+    private final List<UUID> users = IntStream.range(0, USERS).mapToObj(i -> UUID.randomUUID()).toList();
+    private final List<List<Tweet>> timelines = users.stream().map(userId -> timeline()).toList();
+
+    @Test
+    @DisplayName("Benchmark: embedded off-heap timeline cache")
+    void offHeap() {
+        run("off-heap", new OffHeapTimelineCacheAdapter(new SimpleMeterRegistry(), 256L << 20, 16384));
+    }
+
+    @Test
+    @DisplayName("Benchmark: Redis timeline cache")
+    void redis() {
+        String node = System.getProperty("timeline.benchmark.redis", "localhost:6379");
+        int separator = node.lastIndexOf(':');
+        JedisConnectionFactory connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration(
+                node.substring(0, separator), Integer.parseInt(node.substring(separator + 1))));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        try {
+            StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+            assumeTrue(isReachable(stringRedisTemplate), "No Redis at " + node);
+            RedisTemplate<String, Tweet> tweetTemplate = new RedisTemplate<>();
+            tweetTemplate.setConnectionFactory(connectionFactory);
+            tweetTemplate.setKeySerializer(new StringRedisSerializer());
+            tweetTemplate.setValueSerializer(new TweetRedisSerializer());
+            tweetTemplate.afterPropertiesSet();
+
+            run("redis " + node, new TimelineRedisAdapter(tweetTemplate, stringRedisTemplate,
+                    mock(TweetRepository.class), Duration.ofHours(1)));
+        } finally {
+            connectionFactory.destroy();
+        }
+    }
+
+    private void run(String name, TimelineCachePort cache) {
+        for (int i = 0; i < USERS; i++) {
+            cache.cacheTimeline(users.get(i), timelines.get(i), Duration.ofMinutes(30));
+        }
+        measure(name, cache, WARMUP_OPERATIONS, true);
+        measure(name, cache, WARMUP_OPERATIONS, false);
+        System.gc();
+
+        long gcBefore = gcCount();
+        long[] reads = measure(name, cache, MEASURED_OPERATIONS, true);
+        long[] prepends = measure(name, cache, MEASURED_OPERATIONS, false);
+        report(name, "read", reads);
+        report(name, "prepend", prepends);
+        System.out.printf("%-24s %d GC cycles during the measured operations%n", name, gcCount() - gcBefore);
+
+        cache.invalidateTimelines(users);
+    }
+
+    private long[] measure(String name, TimelineCachePort cache, int operations, boolean read) {
+        long[] latencies = new long[operations];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < operations; i++) {
+            int user = random.nextInt(USERS);
+            long start = System.nanoTime();
+            if (read) {
+                assertEquals(TWEETS_PER_TIMELINE, cache.getTimeline(users.get(user)).orElseThrow().size(), name);
+            } else {
+                cache.prependToTimeline(users.get(user), timelines.get(user).get(0), TWEETS_PER_TIMELINE);
+            }
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    private static void report(String name, String operation, long[] latencies) {
+        long total = Arrays.stream(latencies).sum();
+        Arrays.sort(latencies);
+        System.out.printf("%-24s %-8s %,10.0f ops/s  p50 %,8d ns  p99 %,8d ns  p99.9 %,9d ns%n", name, operation,
+                latencies.length / (total / 1e9), latencies[latencies.length / 2],
+                latencies[(int) (latencies.length * 0.99)], latencies[(int) (latencies.length * 0.999)]);
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .filter(count -> count > 0)
+                .sum();
+    }
+
+    private static boolean isReachable(StringRedisTemplate stringRedisTemplate) {
+        try {
+            stringRedisTemplate.hasKey("timeline:benchmark");
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static List<Tweet> timeline() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < TWEETS_PER_TIMELINE; i++) {
+            tweets.add(new Tweet(UUID.randomUUID(), UUID.randomUUID(),
+                    "Benchmark tweet " + i + " with a realistic amount of text in it, around a hundred characters long.",
+                    now.minusMinutes(i)));
+        }
+        return tweets;
+    }
+}
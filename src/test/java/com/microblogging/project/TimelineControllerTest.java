@@ -0,0 +1,97 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.in.web.controller.TimelineController;
+import com.microblogging.project.application.service.TimelineService;
+import com.microblogging.project.application.usecase.TimelineQuery;
+import com.microblogging.project.domain.model.TimelineCursor;
+import com.microblogging.project.domain.model.TimelinePage;
+import com.microblogging.project.domain.model.Tweet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TimelineController.class)
+class TimelineControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TimelineQuery timelineQuery;
+
+    private UUID userId;
+    private List<Tweet> tweets; // Newest first
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        tweets = List.of(
+                new Tweet(UUID.randomUUID(), UUID.randomUUID(), "Newest", now),
+                new Tweet(UUID.randomUUID(), UUID.randomUUID(), "Middle", now.minusMinutes(1)),
+                new Tweet(UUID.randomUUID(), UUID.randomUUID(), "Oldest", now.minusMinutes(2)));
+    }
+
+    @Test
+    @DisplayName("Should return the first page with the default limit and the cursor of the next one in X-Next-Cursor")
+    void timeline_FirstPage_ReturnsNextCursorHeader() throws Exception {
+        // Arrange
+        TimelineCursor next = TimelineCursor.of(tweets.get(1));
+        when(timelineQuery.getTimeline(userId, null, TimelineService.TIMELINE_SIZE))
+                .thenReturn(new TimelinePage(tweets.subList(0, 2), next));
+
+        // Act & Assert
+        mockMvc.perform(get("/timeline").header("X-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TimelineController.NEXT_CURSOR_HEADER, next.encode()))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].content", is("Newest")))
+                .andExpect(jsonPath("$[1].content", is("Middle")));
+    }
+
+    @Test
+    @DisplayName("Should resume after the cursor passed back, with the requested limit, and omit the header on the last page")
+    void timeline_CursorAndLimit_ReturnsFollowingPage() throws Exception {
+        // Arrange
+        TimelineCursor cursor = TimelineCursor.of(tweets.get(1));
+        when(timelineQuery.getTimeline(userId, cursor, 2)).thenReturn(new TimelinePage(tweets.subList(2, 3), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/timeline").header("X-User-Id", userId)
+                        .param("cursor", cursor.encode())
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(TimelineController.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].content", is("Oldest")));
+        verify(timelineQuery).getTimeline(userId, cursor, 2);
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor with 400 INVALID_CURSOR without reading the timeline")
+    void timeline_MalformedCursor_BadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/timeline").header("X-User-Id", userId).param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code", is("INVALID_CURSOR")));
+        verify(timelineQuery, never()).getTimeline(any(UUID.class), any(), anyInt());
+    }
+}
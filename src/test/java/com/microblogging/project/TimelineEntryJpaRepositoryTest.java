@@ -0,0 +1,234 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.persistence.TweetRepositoryAdapter;
+import com.microblogging.project.adapter.out.persistence.repository.TimelineEntryJpaRepository;
+import com.microblogging.project.domain.model.Tweet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({TimelineEntryJpaRepository.class, TweetRepositoryAdapter.class})
+class TimelineEntryJpaRepositoryTest {
+
+    @Autowired
+    private TimelineEntryJpaRepository timelineEntries;
+    @Autowired
+    private TweetRepositoryAdapter tweetRepository;
+
+    private UUID ownerId;
+    private List<Tweet> tweets; // Newest first
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(timelineEntries, "enabled", true);
+        ReflectionTestUtils.setField(timelineEntries, "depth", 5);
+        ownerId = UUID.randomUUID();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        tweets = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            // Pairs of tweets share the same timestamp to exercise the ID tie-break
+            Tweet tweet = new Tweet(UUID.randomUUID(), UUID.randomUUID(), "Tweet " + i, base.minusMinutes(i / 2));
+            tweetRepository.save(tweet);
+            tweets.add(tweet);
+        }
+        tweets.sort(Tweet.NEWEST_FIRST);
+    }
+
+    @Test
+    @DisplayName("Should only read timelines that were materialized, newest first and up to the depth")
+    void findTimeline_AfterComplete() {
+        // Arrange
+        assertEquals(Optional.empty(), timelineEntries.findTimeline(ownerId, 50));
+        UUID buildId = timelineEntries.beginTimeline(ownerId);
+        assertEquals(Optional.empty(), timelineEntries.findTimeline(ownerId, 50));
+
+        // Act
+        assertTrue(timelineEntries.completeTimeline(ownerId, buildId, tweets));
+
+        // Assert
+        assertEquals(ids(tweets.subList(0, 5)), ids(timelineEntries.findTimeline(ownerId, 50).orElseThrow()));
+        assertEquals(ids(tweets.subList(0, 2)), ids(timelineEntries.findTimeline(ownerId, 2).orElseThrow()));
+    }
+
+    @Test
+    @DisplayName("Should materialize an empty timeline as empty rather than missing")
+    void findTimeline_EmptyTimeline() {
+        // Act
+        materialize(ownerId, List.of());
+
+        // Assert
+        assertEquals(Optional.of(List.of()), timelineEntries.findTimeline(ownerId, 50));
+    }
+
+    @Test
+    @DisplayName("Should append only to materialized timelines, once per tweet")
+    void appendToTimelines_OnlyMaterializedOwners() {
+        // Arrange
+        UUID unmaterializedOwnerId = UUID.randomUUID();
+        materialize(ownerId, tweets.subList(1, 3));
+
+        // Act
+        timelineEntries.appendToTimelines(Set.of(ownerId, unmaterializedOwnerId), tweets.get(0));
+        timelineEntries.appendToTimelines(Set.of(ownerId), tweets.get(0));
+
+        // Assert
+        assertEquals(ids(tweets.subList(0, 3)), ids(timelineEntries.findTimeline(ownerId, 50).orElseThrow()));
+        assertEquals(Optional.empty(), timelineEntries.findTimeline(unmaterializedOwnerId, 50));
+    }
+
+    @Test
+    @DisplayName("Should append tweets saved together to materialized timelines only, in timeline order and once each")
+    void appendToTimelines_Batch_OnlyMaterializedOwners() {
+        // Arrange
+        UUID otherOwnerId = UUID.randomUUID();
+        UUID unmaterializedOwnerId = UUID.randomUUID();
+        materialize(ownerId, tweets.subList(2, 3));
+        materialize(otherOwnerId, List.of());
+
+        // Act
+        timelineEntries.appendToTimelines(Set.of(ownerId, otherOwnerId, unmaterializedOwnerId), tweets.subList(0, 3));
+
+        // Assert
+        assertEquals(ids(tweets.subList(0, 3)), ids(timelineEntries.findTimeline(ownerId, 50).orElseThrow()));
+        assertEquals(ids(tweets.subList(0, 3)), ids(timelineEntries.findTimeline(otherOwnerId, 50).orElseThrow()));
+        assertEquals(Optional.empty(), timelineEntries.findTimeline(unmaterializedOwnerId, 50));
+    }
+
+    @Test
+    @DisplayName("Should keep the tweets appended while a timeline is being built")
+    void completeTimeline_KeepsTweetsAppendedDuringBuild() {
+        // Arrange: a tweet posted after the follow graph was read is missing from the computed timeline
+        UUID buildId = timelineEntries.beginTimeline(ownerId);
+        timelineEntries.appendToTimelines(Set.of(ownerId), tweets.get(0));
+
+        // Act
+        boolean completed = timelineEntries.completeTimeline(ownerId, buildId, tweets.subList(1, 3));
+
+        // Assert
+        assertTrue(completed);
+        assertEquals(ids(tweets.subList(0, 3)), ids(timelineEntries.findTimeline(ownerId, 50).orElseThrow()));
+    }
+
+    @Test
+    @DisplayName("Should keep a tweet both appended during the build and computed by it once")
+    void completeTimeline_SkipsEntriesAlreadyAppended() {
+        // Arrange: posted after the begin, but committed before the follow graph was read
+        UUID buildId = timelineEntries.beginTimeline(ownerId);
+        timelineEntries.appendToTimelines(Set.of(ownerId), tweets.get(0));
+
+        // Act
+        boolean completed = timelineEntries.completeTimeline(ownerId, buildId, tweets.subList(0, 3));
+
+        // Assert
+        assertTrue(completed);
+        assertEquals(ids(tweets.subList(0, 3)), ids(timelineEntries.findTimeline(ownerId, 50).orElseThrow()));
+    }
+
+    @Test
+    @DisplayName("Should not complete a build once a newer one began")
+    void completeTimeline_RebuiltMeanwhile_NotCompleted() {
+        // Arrange
+        UUID staleBuildId = timelineEntries.beginTimeline(ownerId);
+        UUID buildId = timelineEntries.beginTimeline(ownerId);
+
+        // Act
+        boolean staleCompleted = timelineEntries.completeTimeline(ownerId, staleBuildId, tweets);
+
+        // Assert
+        assertFalse(staleCompleted);
+        assertEquals(Optional.empty(), timelineEntries.findTimeline(ownerId, 50));
+        assertTrue(timelineEntries.completeTimeline(ownerId, buildId, tweets.subList(0, 2)));
+        assertEquals(ids(tweets.subList(0, 2)), ids(timelineEntries.findTimeline(ownerId, 50).orElseThrow()));
+    }
+
+    @Test
+    @DisplayName("Should not complete a build of a timeline dropped meanwhile, e.g. by a follow change")
+    void completeTimeline_DroppedMeanwhile_NotCompleted() {
+        // Arrange
+        UUID buildId = timelineEntries.beginTimeline(ownerId);
+        timelineEntries.dropTimeline(ownerId);
+
+        // Act
+        boolean completed = timelineEntries.completeTimeline(ownerId, buildId, tweets);
+
+        // Assert
+        assertFalse(completed);
+        assertEquals(Optional.empty(), timelineEntries.findTimeline(ownerId, 50));
+    }
+
+    @Test
+    @DisplayName("Should trim every timeline to the newest entries up to the depth")
+    void trim_KeepsNewestEntries() {
+        // Arrange: appends grow the timeline beyond the depth until the next trim
+        UUID otherOwnerId = UUID.randomUUID();
+        materialize(ownerId, tweets.subList(4, 8));
+        materialize(otherOwnerId, tweets.subList(6, 8));
+        for (int i = 3; i >= 0; i--) {
+            timelineEntries.appendToTimelines(Set.of(ownerId, otherOwnerId), tweets.get(i));
+        }
+
+        // Act
+        timelineEntries.trim();
+
+        // Assert
+        assertEquals(ids(tweets.subList(0, 5)), ids(timelineEntries.findTimeline(ownerId, 50).orElseThrow()));
+        List<Tweet> expected = new ArrayList<>(tweets.subList(0, 4));
+        expected.add(tweets.get(6));
+        assertEquals(ids(expected), ids(timelineEntries.findTimeline(otherOwnerId, 50).orElseThrow()));
+    }
+
+    @Test
+    @DisplayName("Should forget a dropped timeline until it is materialized again")
+    void dropTimeline_NotMaterialized() {
+        // Arrange: committed, the drop runs in its own transaction once the follow change has committed
+        materialize(ownerId, tweets);
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        // Act
+        timelineEntries.dropTimeline(ownerId);
+        timelineEntries.appendToTimelines(Set.of(ownerId), tweets.get(0));
+
+        // Assert
+        assertEquals(Optional.empty(), timelineEntries.findTimeline(ownerId, 50));
+    }
+
+    @Test
+    @DisplayName("Should only trim the timelines appended to since the last trim")
+    void trim_OnlyAppendedTimelines() {
+        // Arrange: the first trim clears the owners queued by materializing, then the depth shrinks
+        materialize(ownerId, tweets.subList(3, 8));
+        timelineEntries.trim();
+        ReflectionTestUtils.setField(timelineEntries, "depth", 2);
+
+        // Act
+        timelineEntries.trim();
+
+        // Assert
+        assertEquals(5, timelineEntries.findTimeline(ownerId, 50).orElseThrow().size());
+    }
+
+    private void materialize(UUID owner, List<Tweet> timeline) {
+        assertTrue(timelineEntries.completeTimeline(owner, timelineEntries.beginTimeline(owner), timeline));
+    }
+
+    private static List<UUID> ids(List<Tweet> tweets) {
+        return tweets.stream().map(Tweet::getId).toList();
+    }
+}
@@ -0,0 +1,174 @@
+package com.microblogging.project;
+
+import com.microblogging.project.application.service.TimelineFanoutExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineFanoutExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TimelineFanoutExecutor fanoutExecutor;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ReflectionTestUtils.invokeMethod(fanoutExecutor, "stop");
+    }
+
+    @Test
+    @DisplayName("Should run the fan-out synchronously once the transaction commits when disabled")
+    void executeAfterCommit_Disabled_RunsSynchronouslyAfterCommit() {
+        // Arrange
+        fanoutExecutor = new TimelineFanoutExecutor(meterRegistry, false, 1, 0, Duration.ZERO);
+        TransactionSynchronizationManager.initSynchronization();
+        CompletableFuture<Void> ran = new CompletableFuture<>();
+
+        // Act
+        fanoutExecutor.executeAfterCommit(() -> ran.complete(null));
+        assertFalse(ran.isDone());
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        // Assert: done by the time the commit returns
+        assertTrue(ran.isDone());
+        assertEquals(1, meterRegistry.timer("timeline.fanout.duration").count());
+    }
+
+    @Test
+    @DisplayName("Should never run the fan-out of a rolled back transaction when disabled")
+    void executeAfterCommit_Disabled_RolledBack_NeverRuns() {
+        // Arrange
+        fanoutExecutor = TimelineFanoutExecutor.direct();
+        TransactionSynchronizationManager.initSynchronization();
+        CompletableFuture<Void> ran = new CompletableFuture<>();
+
+        // Act
+        fanoutExecutor.executeAfterCommit(() -> ran.complete(null));
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertFalse(ran.isDone());
+    }
+
+    @Test
+    @DisplayName("Should run the fan-out on a virtual thread only once the transaction commits")
+    void executeAfterCommit_RunsAfterCommit() throws Exception {
+        // Arrange
+        fanoutExecutor = executor(4, 10);
+        TransactionSynchronizationManager.initSynchronization();
+        CompletableFuture<Thread> ranOn = new CompletableFuture<>();
+
+        // Act
+        fanoutExecutor.executeAfterCommit(() -> ranOn.complete(Thread.currentThread()));
+        assertFalse(ranOn.isDone());
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        // Assert
+        Thread thread = ranOn.get(5, TimeUnit.SECONDS);
+        assertTrue(thread.isVirtual());
+        assertNotSame(Thread.currentThread(), thread);
+        awaitCount("timeline.fanout.duration", 1);
+        assertEquals(1, meterRegistry.timer("timeline.fanout.lag").count());
+    }
+
+    @Test
+    @DisplayName("Should never run the fan-out of a rolled back transaction")
+    void executeAfterCommit_RolledBack_NeverRuns() {
+        // Arrange
+        fanoutExecutor = executor(4, 10);
+        TransactionSynchronizationManager.initSynchronization();
+        CompletableFuture<Void> ran = new CompletableFuture<>();
+
+        // Act
+        fanoutExecutor.executeAfterCommit(() -> ran.complete(null));
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertFalse(ran.isDone());
+        assertEquals(0, meterRegistry.timer("timeline.fanout.lag").count());
+    }
+
+    @Test
+    @DisplayName("Should queue fan-outs beyond the concurrency and make the caller wait when the queue is full")
+    void executeAfterCommit_Saturated_CallerWaits() throws Exception {
+        // Arrange: one fan-out running, blocked, and one queued behind it
+        fanoutExecutor = executor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        fanoutExecutor.executeAfterCommit(() -> {
+            started.countDown();
+            awaitUninterruptibly(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> queued = new CompletableFuture<>();
+        fanoutExecutor.executeAfterCommit(() -> queued.complete(null));
+        assertEquals(1.0, meterRegistry.get("timeline.fanout.queue.depth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("timeline.fanout.active").gauge().value());
+
+        // Act
+        CompletableFuture<Thread> saturatedRanOn = new CompletableFuture<>();
+        fanoutExecutor.executeAfterCommit(() -> saturatedRanOn.complete(Thread.currentThread()));
+
+        // Assert: returned only once its own fan-out ran, on a thread of its own
+        assertTrue(saturatedRanOn.getNow(null).isVirtual());
+        assertEquals(1.0, meterRegistry.counter("timeline.fanout.saturated").count());
+        assertFalse(queued.isDone());
+
+        release.countDown();
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should count a failed fan-out without affecting the next ones")
+    void executeAfterCommit_Failure_Counted() throws Exception {
+        // Arrange
+        fanoutExecutor = executor(1, 10);
+        CompletableFuture<Void> next = new CompletableFuture<>();
+
+        // Act
+        fanoutExecutor.executeAfterCommit(() -> {
+            throw new IllegalStateException("Redis unavailable");
+        });
+        fanoutExecutor.executeAfterCommit(() -> next.complete(null));
+
+        // Assert
+        next.get(5, TimeUnit.SECONDS);
+        assertEquals(1.0, meterRegistry.counter("timeline.fanout.failed").count());
+    }
+
+    private TimelineFanoutExecutor executor(int maxConcurrency, int queueCapacity) {
+        return new TimelineFanoutExecutor(meterRegistry, true, maxConcurrency, queueCapacity, Duration.ofSeconds(5));
+    }
+
+    private void awaitCount(String timer, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.timer(timer).count() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, meterRegistry.timer(timer).count());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.cache.ShardedTimelineRedisAdapter;
+import com.microblogging.project.adapter.out.cache.TimelineMemoryBudget;
+import com.microblogging.project.adapter.out.cache.TimelineRedisAdapter;
+import com.microblogging.project.adapter.out.cache.TweetRedisSerializer;
+import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.port.TweetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimelineMemoryBudgetTest {
+
+    @Mock
+    private RedisTemplate<String, Tweet> redisTemplate;
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+    @Mock
+    private ListOperations<String, String> listOperations;
+    @Mock
+    private TweetRepository tweetRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TimelineMemoryBudget budget;
+
+    @BeforeEach
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(redisTemplate.getValueSerializer()).thenReturn((RedisSerializer) new TweetRedisSerializer());
+        lenient().when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().when(stringRedisTemplate.opsForList()).thenReturn(listOperations);
+        TimelineRedisAdapter redisAdapter = new TimelineRedisAdapter(redisTemplate, stringRedisTemplate, tweetRepository, Duration.ofHours(1));
+        budget = new TimelineMemoryBudget(new ShardedTimelineRedisAdapter(List.of(redisAdapter), 160),
+                meterRegistry, 1000, Duration.ofMinutes(30));
+    }
+
+    @Test
+    @DisplayName("Should evict the least valuable timelines, not their shared tweet bodies, until Redis is back under budget")
+    void enforce_OverBudget_EvictsColdestFirst() {
+        // Arrange: over budget on the first check, under it after one eviction batch
+        when(stringRedisTemplate.execute(any(RedisCallback.class))).thenReturn(usedMemory(5000), usedMemory(800));
+        UUID coldUser = UUID.randomUUID();
+        UUID coolUser = UUID.randomUUID();
+        when(zSetOperations.popMin(eq("timeline:access"), anyLong())).thenReturn(new LinkedHashSet<>(List.of(
+                new DefaultTypedTuple<>("timeline:" + coldUser, 1.0), new DefaultTypedTuple<>("timeline:" + coolUser, 2.0))));
+
+        // Act
+        budget.enforce();
+
+        // Assert: a small probe batch deleted synchronously, with the TTLs kept next to the timelines
+        verify(zSetOperations, times(1)).popMin("timeline:access", 20L);
+        verify(stringRedisTemplate).delete(List.of("timeline:" + coldUser, "timeline:ttl:" + coldUser,
+                "timeline:" + coolUser, "timeline:ttl:" + coolUser));
+        verifyNoInteractions(listOperations);
+        verify(stringRedisTemplate, never()).unlink(anyCollection());
+        verify(zSetOperations).removeRangeByScore(eq("timeline:access"), eq(Double.NEGATIVE_INFINITY), anyDouble());
+        assertEquals(2.0, meterRegistry.get("timeline.cache.budget.evictions").counter().count());
+        assertEquals(800.0, meterRegistry.get("timeline.cache.redis.used-memory").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should size the next eviction batch from the memory the previous one freed")
+    void enforce_SizesBatchesFromFreedMemory() {
+        // Arrange: 2 timelines free 200 bytes, 100 each, and 1000 bytes remain over budget
+        when(stringRedisTemplate.execute(any(RedisCallback.class)))
+                .thenReturn(usedMemory(2200), usedMemory(2000), usedMemory(900));
+        when(zSetOperations.popMin(eq("timeline:access"), anyLong())).thenReturn(
+                new LinkedHashSet<>(List.of(new DefaultTypedTuple<>("timeline:" + UUID.randomUUID(), 1.0),
+                        new DefaultTypedTuple<>("timeline:" + UUID.randomUUID(), 1.0))));
+
+        // Act
+        budget.enforce();
+
+        // Assert
+        InOrder inOrder = inOrder(zSetOperations);
+        inOrder.verify(zSetOperations).popMin("timeline:access", 20L);
+        inOrder.verify(zSetOperations).popMin("timeline:access", 10L);
+        assertEquals(900.0, meterRegistry.get("timeline.cache.redis.used-memory").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should stop evicting when a batch frees no memory, and measure again on the next check")
+    void enforce_NothingFreed_Stops() {
+        // Arrange
+        when(stringRedisTemplate.execute(any(RedisCallback.class))).thenReturn(usedMemory(5000), usedMemory(5000));
+        when(zSetOperations.popMin(eq("timeline:access"), anyLong())).thenReturn(
+                new LinkedHashSet<>(List.of(new DefaultTypedTuple<>("timeline:" + UUID.randomUUID(), 1.0))));
+
+        // Act
+        budget.enforce();
+
+        // Assert
+        verify(zSetOperations, times(1)).popMin(anyString(), anyLong());
+        assertEquals(1.0, meterRegistry.get("timeline.cache.budget.evictions").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not evict anything while Redis is under budget")
+    void enforce_UnderBudget_NoEviction() {
+        when(stringRedisTemplate.execute(any(RedisCallback.class))).thenReturn(usedMemory(500));
+
+        budget.enforce();
+
+        verify(zSetOperations, never()).popMin(anyString(), anyLong());
+        verify(stringRedisTemplate, never()).delete(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should read the fullest node when INFO comes from a cluster connection")
+    void enforce_ClusterInfo_UsesFullestNode() {
+        // Arrange: cluster connections prefix INFO entries with the node address
+        Properties info = new Properties();
+        info.setProperty("10.0.0.1:7000.used_memory", "400");
+        info.setProperty("10.0.0.2:7000.used_memory", "900");
+        when(stringRedisTemplate.execute(any(RedisCallback.class))).thenReturn(info);
+
+        // Act
+        budget.enforce();
+
+        // Assert
+        assertEquals(900.0, meterRegistry.get("timeline.cache.redis.used-memory").gauge().value());
+        verify(zSetOperations, never()).popMin(anyString(), anyLong());
+    }
+
+    private static Properties usedMemory(long bytes) {
+        Properties info = new Properties();
+        info.setProperty("used_memory", String.valueOf(bytes));
+        return info;
+    }
+}
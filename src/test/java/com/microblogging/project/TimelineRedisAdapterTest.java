@@ -0,0 +1,325 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.cache.TimelineRedisAdapter;
+import com.microblogging.project.adapter.out.cache.TimelineRedisRepresentation;
+import com.microblogging.project.adapter.out.cache.TweetRedisSerializer;
+import com.microblogging.project.domain.model.CachedTimeline;
+import com.microblogging.project.domain.model.TimelineCursor;
+import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.port.TweetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimelineRedisAdapterTest {
+
+    @Mock
+    private RedisTemplate<String, Tweet> redisTemplate;
+    @Mock
+    private ValueOperations<String, Tweet> tweetOperations;
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+    @Mock
+    private ListOperations<String, String> listOperations;
+    @Mock
+    private TweetRepository tweetRepository;
+
+    private TimelineRedisAdapter adapter;
+
+    private UUID userId;
+    private List<Tweet> tweets;
+
+    @BeforeEach
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(tweetOperations);
+        when(redisTemplate.getValueSerializer()).thenReturn((RedisSerializer) new TweetRedisSerializer());
+        when(stringRedisTemplate.opsForList()).thenReturn(listOperations);
+        adapter = new TimelineRedisAdapter(redisTemplate, stringRedisTemplate, tweetRepository, Duration.ofHours(1));
+
+        userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        tweets = List.of(
+                new Tweet(UUID.randomUUID(), UUID.randomUUID(), "Newest", now),
+                new Tweet(UUID.randomUUID(), UUID.randomUUID(), "Middle", now.minusMinutes(1)),
+                new Tweet(UUID.randomUUID(), UUID.randomUUID(), "Oldest", now.minusMinutes(2)));
+    }
+
+    @Test
+    @DisplayName("Should hydrate cached tweet IDs with one multi-get and load only the misses from the database")
+    void getTimeline_HydratesFromSharedTweetCache() {
+        // Arrange: the middle tweet body is no longer cached
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of("timeline:" + userId, "timeline:access", "timeline:ttl:" + userId)),
+                any(), any())).thenReturn(readResult(300_000L, 600_000L, ids(tweets)));
+        when(tweetOperations.multiGet(tweets.stream().map(tweet -> "tweet:" + tweet.getId()).toList()))
+                .thenReturn(Arrays.asList(tweets.get(0), null, tweets.get(2)));
+        when(tweetRepository.findByIds(List.of(tweets.get(1).getId()))).thenReturn(List.of(tweets.get(1)));
+
+        // Act
+        CachedTimeline timeline = adapter.getCachedTimeline(userId).orElseThrow();
+
+        // Assert: order of the ID list is kept, the expiry comes from the key TTL, the TTL it was cached with
+        // is kept and the loaded body is written back
+        assertEquals(tweets, timeline.tweets());
+        assertTrue(timeline.expiresAt().isAfter(Instant.now().plusSeconds(290)));
+        assertEquals(Duration.ofMinutes(10), timeline.ttl());
+        verify(stringRedisTemplate).execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(List.of("tweet:" + tweets.get(1).getId())), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should hydrate only the IDs after the cursor when the cursor tweet is cached")
+    void getTimelinePage_CursorInList_HydratesFollowingIds() {
+        // Arrange
+        when(listOperations.range("timeline:" + userId, 0, -1)).thenReturn(ids(tweets));
+        when(tweetOperations.multiGet(List.of("tweet:" + tweets.get(1).getId())))
+                .thenReturn(List.of(tweets.get(1)));
+
+        // Act
+        Optional<List<Tweet>> page = adapter.getTimelinePage(userId, TimelineCursor.of(tweets.get(0)), 1);
+
+        // Assert
+        assertEquals(Optional.of(List.of(tweets.get(1))), page);
+        verifyNoInteractions(tweetRepository);
+    }
+
+    @Test
+    @DisplayName("Should return an empty timeline for the negative-cache sentinel without any lookups")
+    void getTimeline_EmptySentinel_ReturnsEmptyList() {
+        // Arrange
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+                .thenReturn(readResult(30_000L, -1L, List.of(new UUID(0, 0).toString())));
+
+        // Act
+        Optional<List<Tweet>> timeline = adapter.getTimeline(userId);
+
+        // Assert
+        assertEquals(Optional.of(List.of()), timeline);
+        verifyNoInteractions(tweetOperations, tweetRepository);
+    }
+
+    @Test
+    @DisplayName("Should invalidate many timelines with chunked UNLINKs sent in a single pipeline")
+    void invalidateTimelines_PipelinedChunkedUnlink() {
+        // Arrange
+        List<UUID> userIds = IntStream.range(0, 1200).mapToObj(i -> UUID.randomUUID()).toList();
+
+        // Act
+        adapter.invalidateTimelines(userIds);
+
+        // Assert: one pipeline, whose callback issues ceil(1200 / 500) UNLINK commands
+        ArgumentCaptor<RedisCallback<Object>> callbackCaptor = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(stringRedisTemplate, times(1)).executePipelined(callbackCaptor.capture());
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        callbackCaptor.getValue().doInRedis(connection);
+
+        ArgumentCaptor<byte[][]> keysCaptor = ArgumentCaptor.forClass(byte[][].class);
+        verify(keyCommands, times(3)).unlink(keysCaptor.capture());
+        assertEquals(List.of(500, 500, 200), keysCaptor.getAllValues().stream().map(keys -> keys.length).toList());
+        verify(stringRedisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    @DisplayName("Should push a tweet to many timelines with chunked script runs sent in a single pipeline")
+    void prependToTimelines_PipelinedChunkedScripts() {
+        // Arrange
+        List<UUID> userIds = IntStream.range(0, 1200).mapToObj(i -> UUID.randomUUID()).toList();
+        Tweet tweet = tweets.get(0);
+
+        // Act
+        adapter.prependToTimelines(userIds, tweet, 50);
+
+        // Assert: one pipeline, whose callback runs the prepend script on ceil(1200 / 500) chunks of timelines
+        ArgumentCaptor<RedisCallback<Object>> callbackCaptor = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(stringRedisTemplate, times(1)).executePipelined(callbackCaptor.capture());
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisScriptingCommands scriptingCommands = mock(RedisScriptingCommands.class);
+        when(connection.scriptingCommands()).thenReturn(scriptingCommands);
+        callbackCaptor.getValue().doInRedis(connection);
+
+        ArgumentCaptor<Integer> numKeysCaptor = ArgumentCaptor.forClass(Integer.class);
+        ArgumentCaptor<byte[][]> keysAndArgsCaptor = ArgumentCaptor.forClass(byte[][].class);
+        verify(scriptingCommands, times(3)).eval(any(byte[].class), eq(ReturnType.INTEGER), numKeysCaptor.capture(),
+                keysAndArgsCaptor.capture());
+        assertEquals(List.of(500, 500, 200), numKeysCaptor.getAllValues());
+        byte[][] lastChunk = keysAndArgsCaptor.getAllValues().get(2);
+        assertEquals(203, lastChunk.length);
+        assertEquals("timeline:" + userIds.get(1000), new String(lastChunk[0]));
+        assertEquals(tweet.getId().toString(), new String(lastChunk[200]));
+        assertEquals("50", new String(lastChunk[201]));
+        verify(stringRedisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should write the ID list, its TTL and the tweet bodies with a single script call")
+    void cacheTimeline_SingleAtomicScript() {
+        // Act
+        adapter.cacheTimeline(userId, tweets, Duration.ofMinutes(5));
+
+        // Assert
+        ArgumentCaptor<List<String>> keysCaptor = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> argsCaptor = ArgumentCaptor.forClass(Object[].class);
+        verify(stringRedisTemplate, times(1)).execute(any(RedisScript.class), any(RedisSerializer.class),
+                any(RedisSerializer.class), keysCaptor.capture(), argsCaptor.capture());
+        List<String> expectedKeys = new ArrayList<>(List.of("timeline:" + userId, "timeline:ttl:" + userId));
+        tweets.forEach(tweet -> expectedKeys.add("tweet:" + tweet.getId()));
+        assertEquals(expectedKeys, keysCaptor.getValue());
+
+        // Both TTLs, one ID per tweet, then one body per tweet
+        List<Object> args = List.of(argsCaptor.getValue());
+        assertEquals(2 + tweets.size() * 2, args.size());
+        assertEquals("300000", new String((byte[]) args.get(0)));
+        assertEquals(tweets.get(0).getId().toString(), new String((byte[]) args.get(2)));
+        verify(stringRedisTemplate, never()).delete(anyString());
+        verify(stringRedisTemplate, never()).expire(anyString(), any(Duration.class));
+        verifyNoInteractions(listOperations);
+    }
+
+    @Test
+    @DisplayName("Should store a sorted-set timeline as score and ID pairs scored by microseconds since the epoch")
+    void cacheTimeline_SortedSet_ScoresByTimestamp() {
+        // Arrange
+        TimelineRedisAdapter sortedAdapter = sortedSetAdapter();
+
+        // Act
+        sortedAdapter.cacheTimeline(userId, tweets, Duration.ofMinutes(5));
+
+        // Assert
+        ArgumentCaptor<RedisScript<Long>> scriptCaptor = ArgumentCaptor.forClass(RedisScript.class);
+        ArgumentCaptor<Object[]> argsCaptor = ArgumentCaptor.forClass(Object[].class);
+        verify(stringRedisTemplate).execute(scriptCaptor.capture(), any(RedisSerializer.class), any(RedisSerializer.class),
+                anyList(), argsCaptor.capture());
+        assertTrue(scriptCaptor.getValue().getScriptAsString().contains("zadd"));
+        List<Object> args = List.of(argsCaptor.getValue());
+        assertEquals(2 + tweets.size() * 3, args.size());
+        assertEquals(score(tweets.get(0)), new String((byte[]) args.get(2)));
+        assertEquals(tweets.get(0).getId().toString(), new String((byte[]) args.get(3)));
+    }
+
+    @Test
+    @DisplayName("Should insert a fanned-out tweet into a sorted-set timeline at its timestamp and trim it")
+    void prependToTimeline_SortedSet_ZaddAndTrim() {
+        // Arrange
+        TimelineRedisAdapter sortedAdapter = sortedSetAdapter();
+        Tweet tweet = tweets.get(1);
+
+        // Act
+        sortedAdapter.prependToTimeline(userId, tweet, 50);
+
+        // Assert
+        ArgumentCaptor<RedisScript<Long>> scriptCaptor = ArgumentCaptor.forClass(RedisScript.class);
+        verify(stringRedisTemplate).execute(scriptCaptor.capture(), eq(List.of("timeline:" + userId)),
+                eq(score(tweet)), eq(tweet.getId().toString()), eq("50"), eq(new UUID(0, 0).toString()));
+        assertTrue(scriptCaptor.getValue().getScriptAsString().contains("zremrangebyrank"));
+        verifyNoInteractions(listOperations);
+    }
+
+    @Test
+    @DisplayName("Should read a sorted-set page by score range and drop the cursor's own ties")
+    void getTimelinePage_SortedSet_ScoreRange() {
+        // Arrange: another tweet shares the cursor's timestamp but orders before it
+        TimelineRedisAdapter sortedAdapter = sortedSetAdapter();
+        Tweet cursorTweet = tweets.get(0);
+        Tweet tie = new Tweet(new UUID(-1, -1), UUID.randomUUID(), "Tie", cursorTweet.getCreatedAt());
+        List<Tweet> returned = List.of(tie, cursorTweet, tweets.get(1), tweets.get(2));
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of("timeline:" + userId)),
+                eq(score(cursorTweet)), eq("2"))).thenReturn(pageResult(1L, ids(returned)));
+        when(tweetOperations.multiGet(anyList())).thenReturn(returned);
+
+        // Act
+        Optional<List<Tweet>> page = sortedAdapter.getTimelinePage(userId, TimelineCursor.of(cursorTweet), 2);
+
+        // Assert
+        assertEquals(Optional.of(List.of(tweets.get(1), tweets.get(2))), page);
+        verifyNoInteractions(listOperations, tweetRepository);
+    }
+
+    @Test
+    @DisplayName("Should report a miss for a sorted-set page when the timeline is not cached")
+    void getTimelinePage_SortedSet_NotCached() {
+        // Arrange
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+                .thenReturn(List.of(0L));
+
+        // Act
+        Optional<List<Tweet>> page = sortedSetAdapter().getTimelinePage(userId, TimelineCursor.of(tweets.get(0)), 2);
+
+        // Assert
+        assertTrue(page.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should record reads served elsewhere with their counts in one script call per access index")
+    void recordTimelineReads_OneCallPerIndex() {
+        // Act
+        adapter.recordTimelineReads(Map.of(userId, 3, UUID.randomUUID(), 0));
+
+        // Assert: timelines without reads are left out
+        verify(stringRedisTemplate, times(1)).execute(any(RedisScript.class), eq(List.of("timeline:access")),
+                anyString(), eq("timeline:" + userId), eq("3"));
+    }
+
+    private TimelineRedisAdapter sortedSetAdapter() {
+        return new TimelineRedisAdapter(redisTemplate, stringRedisTemplate, tweetRepository, Duration.ofHours(1),
+                TimelineRedisRepresentation.SORTED_SET);
+    }
+
+    private static String score(Tweet tweet) {
+        Instant createdAt = tweet.getCreatedAt().toInstant(ZoneOffset.UTC);
+        return String.valueOf(createdAt.getEpochSecond() * 1_000_000 + createdAt.getNano() / 1_000);
+    }
+
+    // Remaining TTL, the TTL the timeline was cached with and the IDs, as returned by the read script
+    private static List<Object> readResult(long remainingMillis, long ttlMillis, List<String> tweetIds) {
+        List<Object> result = new ArrayList<>();
+        result.add(remainingMillis);
+        result.add(ttlMillis);
+        result.addAll(tweetIds);
+        return result;
+    }
+
+    // Whether the cursor was found followed by the IDs, as returned by the page scripts
+    private static List<Object> pageResult(long found, List<String> tweetIds) {
+        List<Object> result = new ArrayList<>();
+        result.add(found);
+        result.addAll(tweetIds);
+        return result;
+    }
+
+    private static List<String> ids(List<Tweet> tweets) {
+        return tweets.stream().map(tweet -> tweet.getId().toString()).toList();
+    }
+}
@@ -1,10 +1,17 @@
 package com.microblogging.project;
 
+import com.microblogging.project.application.metrics.TimelineMetrics;
+import com.microblogging.project.application.service.CelebrityTimelineCache;
+import com.microblogging.project.application.service.TimelineAccessTracker;
 import com.microblogging.project.application.service.TimelineService;
 import com.microblogging.project.domain.exception.UserNotFoundException;
+import com.microblogging.project.domain.model.CachedTimeline;
+import com.microblogging.project.domain.model.TimelineCursor;
+import com.microblogging.project.domain.model.TimelinePage;
 import com.microblogging.project.domain.model.Tweet;
 import com.microblogging.project.domain.port.FollowRepository;
 import com.microblogging.project.domain.port.TimelineCachePort;
+import com.microblogging.project.domain.port.TimelineEntryRepository;
 import com.microblogging.project.domain.port.TweetRepository;
 import com.microblogging.project.domain.port.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,13 +20,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +53,14 @@ class TimelineServiceTest {
     private UserRepository userRepo;
     @Mock
     private TimelineCachePort timelineCachePort;
+    @Mock
+    private TimelineMetrics timelineMetrics;
+    @Mock
+    private TimelineEntryRepository timelineEntries;
+    @Mock
+    private CelebrityTimelineCache celebrityCache;
+    @Spy
+    private TimelineAccessTracker accessTracker = TimelineAccessTracker.disabled();
 
     @InjectMocks
     private TimelineService timelineService;
@@ -51,8 +76,8 @@ class TimelineServiceTest {
         followee1Id = UUID.randomUUID();
         followee2Id = UUID.randomUUID();
 
-        // Default: User exists
-        when(userRepo.existsById(userId)).thenReturn(true);
+        // Default: User exists (lenient, warm-up does not go through the read path)
+        lenient().when(userRepo.existsById(userId)).thenReturn(true);
     }
 
     @Test
@@ -80,7 +105,7 @@ class TimelineServiceTest {
                 new Tweet(UUID.randomUUID(), userId, "Cached tweet 1", LocalDateTime.now()),
                 new Tweet(UUID.randomUUID(), followee1Id, "Cached tweet 2", LocalDateTime.now().minusMinutes(5))
         );
-        when(timelineCachePort.getTimeline(userId)).thenReturn(Optional.of(cachedTweets));
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(cached(cachedTweets));
 
         // Act
         List<Tweet> result = timelineService.getTimeline(userId);
@@ -91,18 +116,18 @@ class TimelineServiceTest {
         assertEquals(cachedTweets, result); // Ensure the exact cached list is returned
 
         verify(userRepo, times(1)).existsById(userId); // User existence check
-        verify(timelineCachePort, times(1)).getTimeline(userId); // Cache lookup
+        verify(timelineCachePort, times(1)).getCachedTimeline(userId); // Cache lookup
         // Crucial: Verify no calls to repositories if cache hit
         verifyNoInteractions(tweetRepo, followRepo);
         verify(timelineCachePort, never()).cacheTimeline(any(UUID.class), anyList(), any(Duration.class)); // Should not cache on hit
     }
 
     @Test
-    @DisplayName("Should fetch from DB, sort, limit, and cache if timeline is not in cache (cache miss)")
+    @DisplayName("Should fetch the newest tweets from DB and cache them if timeline is not in cache (cache miss)")
     void getTimeline_CacheMiss_Success() {
         // Arrange
         // Simulate cache miss
-        when(timelineCachePort.getTimeline(userId)).thenReturn(Optional.empty());
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(Optional.empty());
 
         // Simulate followers
         Set<UUID> followees = new HashSet<>(Arrays.asList(followee1Id, followee2Id));
@@ -117,11 +142,9 @@ class TimelineServiceTest {
         // 20 tweets from followee2 (recent and old)
         IntStream.range(0, 20).forEach(i -> allRelevantTweets.add(new Tweet(UUID.randomUUID(), followee2Id, "Followee2 Tweet " + i, LocalDateTime.now().minusMinutes(i + 60))));
 
-        // Shuffle to ensure sorting is tested
-        Collections.shuffle(allRelevantTweets, new Random(1));
-
-        // When `findAllByUserIds` is called, return the shuffled list
-        when(tweetRepo.findAllByUserIds(anySet())).thenReturn(allRelevantTweets);
+        // The repository applies ordering and limit in the database: it returns the newest 50
+        List<Tweet> newestTweets = allRelevantTweets.stream().sorted(Tweet.NEWEST_FIRST).limit(50).toList();
+        when(tweetRepo.findLatestByUserIds(anySet(), eq(TimelineService.TIMELINE_SIZE))).thenReturn(newestTweets);
 
 
         // Act
@@ -140,12 +163,12 @@ class TimelineServiceTest {
 
         // Verify repository calls
         verify(userRepo, times(1)).existsById(userId);
-        verify(timelineCachePort, times(1)).getTimeline(userId); // Initial cache miss check
+        verify(timelineCachePort, times(1)).getCachedTimeline(userId); // Initial cache miss check
         verify(followRepo, times(1)).findFollowees(userId); // Get followees
 
-        // Capture the set of IDs passed to findAllByUserIds
+        // Capture the set of IDs passed to findLatestByUserIds, only a page worth of tweets is requested
         ArgumentCaptor<Set<UUID>> userIdsCaptor = ArgumentCaptor.forClass(Set.class);
-        verify(tweetRepo, times(1)).findAllByUserIds(userIdsCaptor.capture());
+        verify(tweetRepo, times(1)).findLatestByUserIds(userIdsCaptor.capture(), eq(TimelineService.TIMELINE_SIZE));
         Set<UUID> capturedUserIds = userIdsCaptor.getValue();
         // Ensure the set includes the user and their followees
         assertTrue(capturedUserIds.contains(userId));
@@ -161,14 +184,14 @@ class TimelineServiceTest {
     @DisplayName("Should handle empty followees list and return only user's own tweets")
     void getTimeline_EmptyFollowees() {
         // Arrange
-        when(timelineCachePort.getTimeline(userId)).thenReturn(Optional.empty()); // Cache miss
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(Optional.empty()); // Cache miss
         when(followRepo.findFollowees(userId)).thenReturn(Collections.emptySet()); // No followees
 
         List<Tweet> userTweets = List.of(
                 new Tweet(UUID.randomUUID(), userId, "My tweet 1", LocalDateTime.now()),
                 new Tweet(UUID.randomUUID(), userId, "My tweet 2", LocalDateTime.now().minusHours(1))
         );
-        when(tweetRepo.findAllByUserIds(anySet())).thenReturn(userTweets);
+        when(tweetRepo.findLatestByUserIds(anySet(), anyInt())).thenReturn(userTweets);
 
         // Act
         List<Tweet> result = timelineService.getTimeline(userId);
@@ -180,11 +203,11 @@ class TimelineServiceTest {
         assertEquals(userTweets.get(1).getId(), result.get(1).getId());
 
         verify(userRepo, times(1)).existsById(userId);
-        verify(timelineCachePort, times(1)).getTimeline(userId);
+        verify(timelineCachePort, times(1)).getCachedTimeline(userId);
         verify(followRepo, times(1)).findFollowees(userId);
 
         ArgumentCaptor<Set<UUID>> userIdsCaptor = ArgumentCaptor.forClass(Set.class);
-        verify(tweetRepo, times(1)).findAllByUserIds(userIdsCaptor.capture());
+        verify(tweetRepo, times(1)).findLatestByUserIds(userIdsCaptor.capture(), anyInt());
         Set<UUID> capturedUserIds = userIdsCaptor.getValue();
         // Only the user's ID should be in the set
         assertTrue(capturedUserIds.contains(userId));
@@ -194,12 +217,12 @@ class TimelineServiceTest {
     }
 
     @Test
-    @DisplayName("Should return empty list and not cache if no tweets are found for user or followees")
+    @DisplayName("Should cache an empty timeline with its own TTL if no tweets are found for user or followees")
     void getTimeline_NoTweetsFound() {
         // Arrange
-        when(timelineCachePort.getTimeline(userId)).thenReturn(Optional.empty()); // Cache miss
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(Optional.empty()); // Cache miss
         when(followRepo.findFollowees(userId)).thenReturn(new HashSet<>(Arrays.asList(followee1Id))); // Has followee
-        when(tweetRepo.findAllByUserIds(anySet())).thenReturn(Collections.emptyList()); // No tweets found
+        when(tweetRepo.findLatestByUserIds(anySet(), anyInt())).thenReturn(Collections.emptyList()); // No tweets found
 
         // Act
         List<Tweet> result = timelineService.getTimeline(userId);
@@ -209,17 +232,18 @@ class TimelineServiceTest {
         assertTrue(result.isEmpty()); // Result should be empty
 
         verify(userRepo, times(1)).existsById(userId);
-        verify(timelineCachePort, times(1)).getTimeline(userId);
+        verify(timelineCachePort, times(1)).getCachedTimeline(userId);
         verify(followRepo, times(1)).findFollowees(userId);
-        verify(tweetRepo, times(1)).findAllByUserIds(anySet());
-        verify(timelineCachePort, never()).cacheTimeline(any(UUID.class), anyList(), any(Duration.class)); // Should not cache empty list
+        verify(tweetRepo, times(1)).findLatestByUserIds(anySet(), anyInt());
+        verify(timelineCachePort, never()).cacheTimeline(any(UUID.class), anyList(), any(Duration.class));
+        verify(timelineCachePort, times(1)).cacheEmptyTimeline(userId, Duration.ofSeconds(30)); // Negative cache entry
     }
 
     @Test
     @DisplayName("Should return empty list if cached timeline is present but empty")
     void getTimeline_CacheHit_EmptyList() {
         // Arrange
-        when(timelineCachePort.getTimeline(userId)).thenReturn(Optional.of(Collections.emptyList()));
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(cached(Collections.emptyList()));
 
         // Act
         List<Tweet> result = timelineService.getTimeline(userId);
@@ -229,8 +253,407 @@ class TimelineServiceTest {
         assertTrue(result.isEmpty());
 
         verify(userRepo, times(1)).existsById(userId);
-        verify(timelineCachePort, times(1)).getTimeline(userId);
+        verify(timelineCachePort, times(1)).getCachedTimeline(userId);
         verifyNoInteractions(tweetRepo, followRepo); // No repository calls
         verify(timelineCachePort, never()).cacheTimeline(any(UUID.class), anyList(), any(Duration.class)); // No caching if already empty
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should merge recent celebrity tweets into a cached timeline at read time")
+    void getTimeline_CacheHit_MergesCelebrityTweets() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        Tweet cachedTweet = new Tweet(UUID.randomUUID(), followee1Id, "Cached tweet", now.minusMinutes(10));
+        Tweet celebrityTweet = new Tweet(UUID.randomUUID(), followee2Id, "Celebrity tweet", now.minusMinutes(1));
+        Tweet olderCelebrityTweet = new Tweet(UUID.randomUUID(), followee2Id, "Old celebrity tweet", now.minusMinutes(20));
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(cached(List.of(cachedTweet, olderCelebrityTweet)));
+        when(celebrityCache.followedCelebrities(userId)).thenReturn(Set.of(followee2Id));
+        when(celebrityCache.latestTweets(Set.of(followee2Id), null, TimelineService.TIMELINE_SIZE))
+                .thenReturn(List.of(celebrityTweet, olderCelebrityTweet));
+
+        // Act
+        List<Tweet> result = timelineService.getTimeline(userId);
+
+        // Assert: newest first, and the celebrity tweet already in the cache is not duplicated
+        assertEquals(List.of(celebrityTweet, cachedTweet, olderCelebrityTweet), result);
+        verify(timelineMetrics, times(1)).recordCelebrityMerge(eq(2), anyLong());
+        verify(timelineCachePort, never()).cacheTimeline(any(UUID.class), anyList(), any(Duration.class));
+        verifyNoInteractions(tweetRepo, followRepo); // Served from the celebrity cache, not the database
+    }
+
+    @Test
+    @DisplayName("Should return the cached timeline untouched when the user follows no celebrities")
+    void getTimeline_CacheHit_NoCelebrities() {
+        // Arrange
+        List<Tweet> cachedTweets = List.of(new Tweet(UUID.randomUUID(), followee1Id, "Cached tweet", LocalDateTime.now()));
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(cached(cachedTweets));
+        when(celebrityCache.followedCelebrities(userId)).thenReturn(Collections.emptySet());
+
+        // Act
+        List<Tweet> result = timelineService.getTimeline(userId);
+
+        // Assert
+        assertEquals(cachedTweets, result);
+        verifyNoInteractions(tweetRepo, timelineMetrics);
+        verify(celebrityCache, never()).latestTweets(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should return a page with a next cursor pointing at its last tweet")
+    void getTimelinePage_FirstPage_ReturnsNextCursor() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        List<Tweet> cachedTweets = IntStream.range(0, 5)
+                .mapToObj(i -> new Tweet(UUID.randomUUID(), followee1Id, "Tweet " + i, now.minusMinutes(i)))
+                .toList();
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(cached(cachedTweets));
+
+        // Act
+        TimelinePage page = timelineService.getTimeline(userId, null, 2);
+
+        // Assert
+        assertEquals(cachedTweets.subList(0, 2), page.tweets());
+        assertEquals(TimelineCursor.of(cachedTweets.get(1)), page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Should serve a cursor page from the cached window when it holds a full page")
+    void getTimelinePage_CursorWithinCachedWindow() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        TimelineCursor cursor = new TimelineCursor(now, UUID.randomUUID());
+        List<Tweet> cachedPage = List.of(
+                new Tweet(UUID.randomUUID(), followee1Id, "Older 1", now.minusMinutes(1)),
+                new Tweet(UUID.randomUUID(), followee1Id, "Older 2", now.minusMinutes(2)));
+        when(timelineCachePort.getTimelinePage(userId, cursor, 2)).thenReturn(Optional.of(cachedPage));
+
+        // Act
+        TimelinePage page = timelineService.getTimeline(userId, cursor, 2);
+
+        // Assert
+        assertEquals(cachedPage, page.tweets());
+        assertEquals(TimelineCursor.of(cachedPage.get(1)), page.nextCursor());
+        verifyNoInteractions(tweetRepo, followRepo);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the keyset query when the cursor is past the cached window")
+    void getTimelinePage_CursorPastCachedWindow() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        TimelineCursor cursor = new TimelineCursor(now.minusDays(30), UUID.randomUUID());
+        when(timelineCachePort.getTimelinePage(userId, cursor, 2)).thenReturn(Optional.of(Collections.emptyList()));
+        when(followRepo.findFollowees(userId)).thenReturn(Set.of(followee1Id));
+        List<Tweet> dbPage = List.of(new Tweet(UUID.randomUUID(), followee1Id, "Very old", now.minusDays(31)));
+        when(tweetRepo.findByUserIdsBefore(Set.of(userId, followee1Id), cursor, 2)).thenReturn(dbPage);
+
+        // Act
+        TimelinePage page = timelineService.getTimeline(userId, cursor, 2);
+
+        // Assert: short page, so there is nothing after it
+        assertEquals(dbPage, page.tweets());
+        assertNull(page.nextCursor());
+        verify(tweetRepo, never()).findLatestByUserIds(anySet(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should fetch each followee concurrently and k-way merge the slices above the parallel threshold")
+    void getTimeline_CacheMiss_ParallelAssembly() {
+        // Arrange
+        ReflectionTestUtils.setField(timelineService, "parallelThreshold", 2);
+        ReflectionTestUtils.setField(timelineService, "maxConcurrency", 2);
+        ReflectionTestUtils.invokeMethod(timelineService, "start");
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(Optional.empty());
+        when(followRepo.findFollowees(userId)).thenReturn(Set.of(followee1Id, followee2Id));
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, List<Tweet>> slices = new HashMap<>();
+        for (UUID author : List.of(userId, followee1Id, followee2Id)) {
+            // Interleaved timestamps so the merge has to alternate between slices
+            int offset = slices.size();
+            slices.put(author, IntStream.range(0, 30)
+                    .mapToObj(i -> new Tweet(UUID.randomUUID(), author, "Tweet " + i, now.minusMinutes(i * 3L + offset)))
+                    .toList());
+        }
+        slices.forEach((author, slice) ->
+                when(tweetRepo.findLatestByUserIds(Set.of(author), TimelineService.TIMELINE_SIZE)).thenReturn(slice));
+
+        // Act
+        List<Tweet> result = timelineService.getTimeline(userId);
+
+        // Assert
+        List<Tweet> expected = slices.values().stream().flatMap(List::stream)
+                .sorted(Tweet.NEWEST_FIRST).limit(TimelineService.TIMELINE_SIZE).toList();
+        assertEquals(expected, result);
+        verify(tweetRepo, times(3)).findLatestByUserIds(anySet(), eq(TimelineService.TIMELINE_SIZE));
+        verify(timelineCachePort, times(1)).cacheTimeline(eq(userId), eq(result), eq(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    @DisplayName("Should bound the followee queries in flight across concurrent parallel assemblies")
+    void getTimeline_ConcurrentParallelAssemblies_SharePermits() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(timelineService, "parallelThreshold", 2);
+        ReflectionTestUtils.setField(timelineService, "maxConcurrency", 2);
+        ReflectionTestUtils.invokeMethod(timelineService, "start");
+        List<UUID> readers = List.of(userId, UUID.randomUUID(), UUID.randomUUID());
+        for (UUID reader : readers) {
+            lenient().when(userRepo.existsById(reader)).thenReturn(true);
+            when(timelineCachePort.getCachedTimeline(reader)).thenReturn(Optional.empty());
+            when(followRepo.findFollowees(reader)).thenReturn(Set.of(UUID.randomUUID(), UUID.randomUUID()));
+        }
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(tweetRepo.findLatestByUserIds(anySet(), anyInt())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return List.of();
+        });
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(readers.size());
+        try {
+            List<CompletableFuture<List<Tweet>>> reads = readers.stream()
+                    .map(reader -> CompletableFuture.supplyAsync(() -> timelineService.getTimeline(reader), executor))
+                    .toList();
+            CompletableFuture.allOf(reads.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert: 9 queries in total, never more than max-concurrency at once
+        verify(tweetRepo, times(9)).findLatestByUserIds(anySet(), anyInt());
+        assertTrue(maxInFlight.get() <= 2);
+    }
+
+    @Test
+    @DisplayName("Should run a single database rebuild for concurrent cache misses on the same timeline")
+    void getTimeline_ConcurrentCacheMisses_Coalesced() throws Exception {
+        // Arrange
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(Optional.empty());
+        CountDownLatch rebuildStarted = new CountDownLatch(1);
+        CountDownLatch releaseRebuild = new CountDownLatch(1);
+        when(followRepo.findFollowees(userId)).thenAnswer(invocation -> {
+            rebuildStarted.countDown();
+            assertTrue(releaseRebuild.await(5, TimeUnit.SECONDS));
+            return Set.of(followee1Id);
+        });
+        List<Tweet> tweets = List.of(new Tweet(UUID.randomUUID(), followee1Id, "Tweet", LocalDateTime.now()));
+        when(tweetRepo.findLatestByUserIds(anySet(), anyInt())).thenReturn(tweets);
+
+        // Act: the second miss arrives while the first one is still rebuilding
+        CompletableFuture<List<Tweet>> first = CompletableFuture.supplyAsync(() -> timelineService.getTimeline(userId));
+        assertTrue(rebuildStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<List<Tweet>> second = CompletableFuture.supplyAsync(() -> timelineService.getTimeline(userId));
+        verify(timelineMetrics, timeout(5000)).recordRebuildCoalesced();
+        releaseRebuild.countDown();
+
+        // Assert
+        assertEquals(tweets, first.get(5, TimeUnit.SECONDS));
+        assertEquals(tweets, second.get(5, TimeUnit.SECONDS));
+        verify(followRepo, times(1)).findFollowees(userId);
+        verify(tweetRepo, times(1)).findLatestByUserIds(anySet(), anyInt());
+        verify(timelineCachePort, times(1)).cacheTimeline(userId, tweets, Duration.ofMinutes(5));
+    }
+
+    @Test
+    @DisplayName("Should wait for the timeline rebuilt by the node holding the rebuild lease")
+    void getTimeline_CacheMiss_LeaseHeldElsewhere_ServedFromCache() {
+        // Arrange
+        ReflectionTestUtils.setField(timelineService, "rebuildLeaseTtl", Duration.ofSeconds(1));
+        List<Tweet> rebuiltTweets = List.of(new Tweet(UUID.randomUUID(), followee1Id, "Tweet", LocalDateTime.now()));
+        when(timelineCachePort.getCachedTimeline(userId))
+                .thenReturn(Optional.empty(), Optional.empty(), cached(rebuiltTweets));
+        when(timelineCachePort.tryAcquireRebuildLease(userId, Duration.ofSeconds(1))).thenReturn(Optional.empty());
+
+        // Act
+        List<Tweet> result = timelineService.getTimeline(userId);
+
+        // Assert
+        assertEquals(rebuiltTweets, result);
+        verifyNoInteractions(tweetRepo, followRepo);
+        verify(timelineMetrics).recordRebuildCoalescedRemotely();
+        verify(timelineCachePort, never()).releaseRebuildLease(any(UUID.class), anyString());
+    }
+
+    @Test
+    @DisplayName("Should rebuild and then release the rebuild lease when it is granted")
+    void getTimeline_CacheMiss_LeaseGranted_RebuildsAndReleases() {
+        // Arrange
+        ReflectionTestUtils.setField(timelineService, "rebuildLeaseTtl", Duration.ofSeconds(1));
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(Optional.empty());
+        when(timelineCachePort.tryAcquireRebuildLease(userId, Duration.ofSeconds(1))).thenReturn(Optional.of("token"));
+        when(followRepo.findFollowees(userId)).thenReturn(Set.of(followee1Id));
+        List<Tweet> tweets = List.of(new Tweet(UUID.randomUUID(), followee1Id, "Tweet", LocalDateTime.now()));
+        when(tweetRepo.findLatestByUserIds(anySet(), anyInt())).thenReturn(tweets);
+
+        // Act
+        List<Tweet> result = timelineService.getTimeline(userId);
+
+        // Assert
+        assertEquals(tweets, result);
+        verify(timelineCachePort).cacheTimeline(userId, tweets, Duration.ofMinutes(5));
+        verify(timelineCachePort).releaseRebuildLease(userId, "token");
+    }
+
+    @Test
+    @DisplayName("Should serve a timeline past its soft TTL immediately and refresh it in the background")
+    void getTimeline_StaleCacheHit_ServedAndRefreshed() {
+        // Arrange: the entry has 2 of its 5 minutes left, past the 1 minute soft TTL
+        ReflectionTestUtils.setField(timelineService, "softTtl", Duration.ofMinutes(1));
+        List<Tweet> staleTweets = List.of(new Tweet(UUID.randomUUID(), followee1Id, "Stale", LocalDateTime.now().minusMinutes(4)));
+        when(timelineCachePort.getCachedTimeline(userId))
+                .thenReturn(Optional.of(new CachedTimeline(staleTweets, Instant.now().plus(Duration.ofMinutes(2)))));
+        when(followRepo.findFollowees(userId)).thenReturn(Set.of(followee1Id));
+        List<Tweet> freshTweets = List.of(new Tweet(UUID.randomUUID(), followee1Id, "Fresh", LocalDateTime.now()));
+        when(tweetRepo.findLatestByUserIds(anySet(), anyInt())).thenReturn(freshTweets);
+        ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+        ReflectionTestUtils.setField(timelineService, "refreshExecutor", refreshExecutor);
+
+        // Act
+        List<Tweet> result = timelineService.getTimeline(userId);
+
+        // Assert: the caller gets the stale copy, the cache gets the rebuilt one
+        assertEquals(staleTweets, result);
+        verify(timelineCachePort, timeout(5000).times(1)).cacheTimeline(userId, freshTweets, Duration.ofMinutes(5));
+        verify(timelineMetrics, times(1)).recordRefreshScheduled();
+        refreshExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should not refresh a cached timeline that is still within its soft TTL")
+    void getTimeline_FreshCacheHit_NoRefresh() {
+        // Arrange
+        ReflectionTestUtils.setField(timelineService, "softTtl", Duration.ofMinutes(1));
+        List<Tweet> cachedTweets = List.of(new Tweet(UUID.randomUUID(), followee1Id, "Fresh", LocalDateTime.now()));
+        when(timelineCachePort.getCachedTimeline(userId))
+                .thenReturn(Optional.of(new CachedTimeline(cachedTweets, Instant.now().plus(Duration.ofSeconds(270)))));
+
+        // Act
+        List<Tweet> result = timelineService.getTimeline(userId);
+
+        // Assert
+        assertEquals(cachedTweets, result);
+        verifyNoInteractions(tweetRepo, followRepo);
+        verify(timelineMetrics, never()).recordRefreshScheduled();
+    }
+
+    @Test
+    @DisplayName("Should judge staleness against the TTL a timeline was cached with, not the user's rising one")
+    void getTimeline_RisingAccessScore_CachedTtlDecidesStaleness() {
+        // Arrange: cached with 16m when the score was 1, this read raises it to 2 and the current TTL to 21m
+        ReflectionTestUtils.setField(timelineService, "softTtl", Duration.ofMinutes(1));
+        TimelineAccessTracker tracker = new TimelineAccessTracker(true, Duration.ofMinutes(1), Duration.ofMinutes(31),
+                1, Duration.ofHours(1), 100, () -> 0L);
+        ReflectionTestUtils.setField(timelineService, "accessTracker", tracker);
+        tracker.recordAccess(userId);
+        List<Tweet> cachedTweets = List.of(new Tweet(UUID.randomUUID(), followee1Id, "Fresh", LocalDateTime.now()));
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(Optional.of(new CachedTimeline(
+                cachedTweets, Instant.now().plus(Duration.ofMinutes(15)), Duration.ofMinutes(16))));
+
+        // Act
+        List<Tweet> result = timelineService.getTimeline(userId);
+
+        // Assert: 15m left of 16m is within the 16m / 5 soft TTL, though short of 21m - 21m / 5
+        assertEquals(cachedTweets, result);
+        verifyNoInteractions(tweetRepo, followRepo);
+        verify(timelineMetrics, never()).recordRefreshScheduled();
+    }
+
+    @Test
+    @DisplayName("Should cache a rebuilt timeline with the TTL adapted to the user's activity")
+    void getTimeline_CacheMiss_AdaptiveTtl() {
+        // Arrange
+        TimelineAccessTracker tracker = new TimelineAccessTracker(true, Duration.ofMinutes(1), Duration.ofMinutes(31),
+                1, Duration.ofHours(1), 100, () -> 0L);
+        ReflectionTestUtils.setField(timelineService, "accessTracker", tracker);
+        tracker.recordAccess(userId); // One earlier read, so the score is 2 after this one
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(Optional.empty());
+        when(followRepo.findFollowees(userId)).thenReturn(Set.of(followee1Id));
+        List<Tweet> tweets = List.of(new Tweet(UUID.randomUUID(), followee1Id, "Tweet", LocalDateTime.now()));
+        when(tweetRepo.findLatestByUserIds(anySet(), anyInt())).thenReturn(tweets);
+
+        // Act
+        timelineService.getTimeline(userId);
+
+        // Assert: 1m + 30m * 2 / (2 + 1)
+        verify(timelineCachePort).cacheTimeline(userId, tweets, Duration.ofMinutes(21));
+    }
+
+    @Test
+    @DisplayName("Should serve a cache miss from the materialized timeline without reading the follow graph")
+    void getTimeline_CacheMiss_MaterializedTimeline() {
+        // Arrange
+        ReflectionTestUtils.setField(timelineService, "materializedTimelines", true);
+        List<Tweet> tweets = List.of(new Tweet(UUID.randomUUID(), followee1Id, "Tweet", LocalDateTime.now()));
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(Optional.empty());
+        when(timelineEntries.findTimeline(userId, TimelineService.TIMELINE_SIZE)).thenReturn(Optional.of(tweets));
+
+        // Act
+        List<Tweet> result = timelineService.getTimeline(userId);
+
+        // Assert
+        assertEquals(tweets, result);
+        verify(timelineCachePort, times(1)).cacheTimeline(userId, tweets, Duration.ofMinutes(5));
+        verify(timelineMetrics, times(1)).recordMaterializedRead();
+        verify(timelineMetrics, never()).recordRebuild();
+        verify(timelineEntries, never()).beginTimeline(any(UUID.class));
+        verifyNoInteractions(tweetRepo, followRepo);
+    }
+
+    @Test
+    @DisplayName("Should materialize a timeline rebuilt from the follow graph")
+    void getTimeline_CacheMiss_MaterializesTimeline() {
+        // Arrange
+        ReflectionTestUtils.setField(timelineService, "materializedTimelines", true);
+        List<Tweet> tweets = List.of(new Tweet(UUID.randomUUID(), followee1Id, "Tweet", LocalDateTime.now()));
+        when(timelineCachePort.getCachedTimeline(userId)).thenReturn(Optional.empty());
+        when(timelineEntries.findTimeline(userId, TimelineService.TIMELINE_SIZE)).thenReturn(Optional.empty());
+        when(followRepo.findFollowees(userId)).thenReturn(Set.of(followee1Id));
+        when(tweetRepo.findLatestByUserIds(anySet(), anyInt())).thenReturn(tweets);
+        UUID buildId = UUID.randomUUID();
+        when(timelineEntries.beginTimeline(userId)).thenReturn(buildId);
+        doThrow(new IllegalStateException("Database unavailable"))
+                .when(timelineEntries).completeTimeline(userId, buildId, tweets);
+
+        // Act
+        List<Tweet> result = timelineService.getTimeline(userId);
+
+        // Assert: the build begins before the follow graph is read, a failed materialization does not fail the read
+        assertEquals(tweets, result);
+        InOrder inOrder = inOrder(timelineEntries, followRepo);
+        inOrder.verify(timelineEntries).beginTimeline(userId);
+        inOrder.verify(followRepo).findFollowees(userId);
+        inOrder.verify(timelineEntries).completeTimeline(userId, buildId, tweets);
+        verify(timelineCachePort, times(1)).cacheTimeline(userId, tweets, Duration.ofMinutes(5));
+        verify(timelineMetrics, times(1)).recordRebuild();
+    }
+
+    // A timeline cached just now with the default 5 minute hard TTL
+    private static Optional<CachedTimeline> cached(List<Tweet> tweets) {
+        return Optional.of(new CachedTimeline(tweets, Instant.now().plus(Duration.ofMinutes(5))));
+    }
+
+
+    @Test
+    @DisplayName("Should warm up an uncached timeline without counting it as a read, and skip a cached one")
+    void warmTimeline_RebuildsOnlyMissingTimelines() {
+        // Arrange
+        UUID cachedUserId = UUID.randomUUID();
+        when(timelineCachePort.hasTimeline(cachedUserId)).thenReturn(true);
+        when(timelineCachePort.hasTimeline(userId)).thenReturn(false);
+        when(followRepo.findFollowees(userId)).thenReturn(Set.of(followee1Id));
+        List<Tweet> tweets = List.of(new Tweet(UUID.randomUUID(), followee1Id, "Tweet", LocalDateTime.now()));
+        when(tweetRepo.findLatestByUserIds(anySet(), anyInt())).thenReturn(tweets);
+
+        // Act & Assert
+        assertFalse(timelineService.warmTimeline(cachedUserId));
+        assertTrue(timelineService.warmTimeline(userId));
+        verify(timelineCachePort).cacheTimeline(userId, tweets, Duration.ofMinutes(5));
+        verify(timelineCachePort, never()).cacheTimeline(eq(cachedUserId), anyList(), any());
+        verify(accessTracker, never()).recordAccess(any());
+        // The check must not go through the read path, which records the read in the cache's access index
+        verify(timelineCachePort, never()).getCachedTimeline(any());
+    }
+}
@@ -0,0 +1,158 @@
+package com.microblogging.project;
+
+import com.microblogging.project.application.metrics.TimelineMetrics;
+import com.microblogging.project.application.service.TimelineService;
+import com.microblogging.project.application.service.TimelineWarmupService;
+import com.microblogging.project.domain.exception.WarmupAlreadyRunningException;
+import com.microblogging.project.domain.model.TimelineWarmupProgress;
+import com.microblogging.project.domain.model.TimelineWarmupProgress.State;
+import com.microblogging.project.domain.port.TimelineCachePort;
+import com.microblogging.project.domain.port.TweetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimelineWarmupServiceTest {
+
+    @Mock
+    private TimelineService timelineService;
+    @Mock
+    private TimelineCachePort timelineCachePort;
+    @Mock
+    private TweetRepository tweetRepo;
+    @Mock
+    private TimelineMetrics timelineMetrics;
+
+    @InjectMocks
+    private TimelineWarmupService warmupService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(warmupService, "ratePerSecond", 0.0);
+    }
+
+    @Test
+    @DisplayName("Should warm recent readers first, then recent authors, and report what was warmed or skipped")
+    void start_WarmsCandidatesInPriorityOrder() throws InterruptedException {
+        // Arrange: one user is both a recent reader and a recent author, one timeline is already cached
+        UUID reader = UUID.randomUUID();
+        UUID readerAndAuthor = UUID.randomUUID();
+        UUID author = UUID.randomUUID();
+        ReflectionTestUtils.setField(warmupService, "concurrency", 1);
+        when(timelineCachePort.findRecentlyReadTimelines(10)).thenReturn(List.of(reader, readerAndAuthor));
+        when(tweetRepo.findRecentAuthors(any(LocalDateTime.class), eq(10))).thenReturn(List.of(readerAndAuthor, author));
+        when(timelineService.warmTimeline(reader)).thenReturn(true);
+        when(timelineService.warmTimeline(readerAndAuthor)).thenReturn(false);
+        when(timelineService.warmTimeline(author)).thenReturn(true);
+
+        // Act
+        warmupService.start(10);
+        TimelineWarmupProgress progress = awaitCompletion();
+
+        // Assert
+        assertEquals(State.COMPLETED, progress.state());
+        assertEquals(3, progress.candidates());
+        assertEquals(2, progress.warmed());
+        assertEquals(1, progress.skipped());
+        assertEquals(0, progress.failed());
+        InOrder inOrder = inOrder(timelineService);
+        inOrder.verify(timelineService).warmTimeline(reader);
+        inOrder.verify(timelineService).warmTimeline(readerAndAuthor);
+        inOrder.verify(timelineService).warmTimeline(author);
+        verify(timelineMetrics, times(2)).recordWarmupWarmed();
+        verify(timelineMetrics).recordWarmupSkipped();
+    }
+
+    @Test
+    @DisplayName("Should count a failed rebuild and carry on with the other timelines")
+    void start_RebuildFails_CountedAndContinues() throws InterruptedException {
+        UUID failing = UUID.randomUUID();
+        UUID healthy = UUID.randomUUID();
+        when(timelineCachePort.findRecentlyReadTimelines(anyInt())).thenReturn(List.of(failing, healthy));
+        when(timelineService.warmTimeline(failing)).thenThrow(new IllegalStateException("Database unavailable"));
+        when(timelineService.warmTimeline(healthy)).thenReturn(true);
+
+        warmupService.start(2);
+        TimelineWarmupProgress progress = awaitCompletion();
+
+        assertEquals(State.COMPLETED, progress.state());
+        assertEquals(1, progress.warmed());
+        assertEquals(1, progress.failed());
+        verify(timelineMetrics).recordWarmupFailed();
+    }
+
+    @Test
+    @DisplayName("Should pace rebuilds to the configured rate")
+    void start_RateLimited() throws InterruptedException {
+        // Arrange: 6 rebuilds at 20 per second need at least 5 intervals of 50 ms
+        ReflectionTestUtils.setField(warmupService, "ratePerSecond", 20.0);
+        List<UUID> users = IntStream.range(0, 6).mapToObj(i -> UUID.randomUUID()).toList();
+        when(timelineCachePort.findRecentlyReadTimelines(anyInt())).thenReturn(users);
+        when(timelineService.warmTimeline(any())).thenReturn(true);
+
+        // Act
+        warmupService.start(users.size());
+        TimelineWarmupProgress progress = awaitCompletion();
+
+        // Assert
+        assertEquals(6, progress.warmed());
+        assertTrue(progress.elapsed().toMillis() >= 250, "Elapsed " + progress.elapsed());
+    }
+
+    @Test
+    @DisplayName("Should refuse to start a warm-up while another one is running")
+    void start_AlreadyRunning_Throws() throws InterruptedException {
+        // Arrange: the first run blocks on its only rebuild
+        CountDownLatch rebuildStarted = new CountDownLatch(1);
+        CountDownLatch releaseRebuild = new CountDownLatch(1);
+        UUID user = UUID.randomUUID();
+        when(timelineCachePort.findRecentlyReadTimelines(anyInt())).thenReturn(List.of(user));
+        when(timelineService.warmTimeline(user)).thenAnswer(invocation -> {
+            rebuildStarted.countDown();
+            releaseRebuild.await();
+            return true;
+        });
+        warmupService.start(1);
+        assertTrue(rebuildStarted.await(5, TimeUnit.SECONDS));
+
+        // Act & Assert
+        assertEquals(State.RUNNING, warmupService.progress().state());
+        assertThrows(WarmupAlreadyRunningException.class, () -> warmupService.start(1));
+
+        releaseRebuild.countDown();
+        assertEquals(State.COMPLETED, awaitCompletion().state());
+    }
+
+    @Test
+    @DisplayName("Should report an idle warm-up before any run")
+    void progress_NoRun_Idle() {
+        assertEquals(State.IDLE, warmupService.progress().state());
+    }
+
+    private TimelineWarmupProgress awaitCompletion() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        TimelineWarmupProgress progress = warmupService.progress();
+        while (progress.state() == State.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            progress = warmupService.progress();
+        }
+        return progress;
+    }
+}
@@ -0,0 +1,123 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.in.web.controller.TweetController;
+import com.microblogging.project.application.usecase.IngestTweetsUseCase;
+import com.microblogging.project.application.usecase.PostTweetUseCase;
+import com.microblogging.project.domain.model.TweetImport;
+import com.microblogging.project.domain.model.TweetIngestionReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TweetController.class)
+class TweetControllerTest {
+
+    private static final UUID USER_ID = UUID.fromString("11111111-1111-1111-1111-111111111111");
+    private static final UUID TWEET_ID = UUID.fromString("aaaaaaaa-0000-0000-0000-000000000001");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PostTweetUseCase postTweetUseCase;
+    @MockitoBean
+    private IngestTweetsUseCase ingestTweetsUseCase;
+
+    // What the import use case was handed
+    private final List<TweetImport> ingested = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Imports every item it reads, as the real use case does with valid ones
+        doAnswer(invocation -> {
+            Iterator<TweetImport> tweets = invocation.getArgument(0);
+            TweetIngestionReport report = invocation.getArgument(1);
+            tweets.forEachRemaining(ingested::add);
+            report.imported(ingested.size());
+            return null;
+        }).when(ingestTweetsUseCase).ingest(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should read an NDJSON body line by line and return the serialized import report")
+    void ingestTweets_Ndjson_ReturnsReport() throws Exception {
+        // Arrange
+        String body = """
+                {"id":"%s","userId":"%s","content":"First","createdAt":"2019-03-01T08:00:00"}
+                {"userId":"not-a-uuid","content":"Bad author"}
+                {"userId":"%s","content":"Last"}
+                """.formatted(TWEET_ID, USER_ID, USER_ID);
+
+        // Act & Assert
+        mockMvc.perform(post("/tweets/bulk").contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.failures", hasSize(1)))
+                .andExpect(jsonPath("$.failures[0].index", is(1)))
+                .andExpect(jsonPath("$.failures[0].reason", startsWith("Invalid tweet")));
+        assertEquals(List.of(new TweetImport(0, TWEET_ID, USER_ID, "First", LocalDateTime.of(2019, 3, 1, 8, 0)),
+                new TweetImport(2, null, USER_ID, "Last", null)), ingested);
+    }
+
+    @Test
+    @DisplayName("Should read a JSON body as an array of tweets")
+    void ingestTweets_JsonArray_ReadsItems() throws Exception {
+        // Arrange
+        String body = """
+                [{"id":"%s","userId":"%s","content":"First"},
+                 {"userId":"%s","content":"Last"}]
+                """.formatted(TWEET_ID, USER_ID, USER_ID);
+
+        // Act & Assert
+        mockMvc.perform(post("/tweets/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.rejected", is(0)))
+                .andExpect(jsonPath("$.failures", hasSize(0)));
+        assertEquals(List.of("First", "Last"), ingested.stream().map(TweetImport::content).toList());
+    }
+
+    @Test
+    @DisplayName("Should pick the reader from the content type, not from the body")
+    void ingestTweets_ArraySentAsNdjson_Rejected() throws Exception {
+        // Arrange: a one-line JSON array is a single NDJSON line that is not an object
+        String body = "[{\"userId\":\"" + USER_ID + "\",\"content\":\"Only\"}]\n";
+
+        // Act & Assert
+        mockMvc.perform(post("/tweets/bulk").contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(0)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.failures[0].reason", is("Expected a JSON object")));
+    }
+
+    @Test
+    @DisplayName("Should refuse bulk bodies of other content types")
+    void ingestTweets_UnsupportedContentType() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/tweets/bulk").contentType(MediaType.TEXT_PLAIN).content("First"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
@@ -0,0 +1,131 @@
+package com.microblogging.project;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.microblogging.project.adapter.in.web.TweetImportReader;
+import com.microblogging.project.domain.model.TweetImport;
+import com.microblogging.project.domain.model.TweetIngestionReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TweetImportReaderTest {
+
+    private static final UUID USER_ID = UUID.fromString("11111111-1111-1111-1111-111111111111");
+    private static final UUID TWEET_ID = UUID.fromString("aaaaaaaa-0000-0000-0000-000000000001");
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final TweetIngestionReport report = new TweetIngestionReport(100);
+
+    @Test
+    @DisplayName("Should read NDJSON tweets, rejecting bad lines without stopping")
+    void ndjson_BadLines_Rejected() throws IOException {
+        // Arrange
+        String body = """
+                {"id":"%s","userId":"%s","content":"First","createdAt":"2019-03-01T08:00:00"}
+
+                {"userId":"%s","content":"Broken"
+                ["not", "an", "object"]
+                {"userId":"not-a-uuid","content":"Bad author"}
+                {"userId":"%s","content":"Last","source":"archive"}
+                """.formatted(TWEET_ID, USER_ID, USER_ID, USER_ID);
+
+        // Act
+        List<TweetImport> tweets = read(stream(body), true);
+
+        // Assert
+        assertEquals(2, tweets.size());
+        assertEquals(new TweetImport(0, TWEET_ID, USER_ID, "First", LocalDateTime.of(2019, 3, 1, 8, 0)), tweets.get(0));
+        assertEquals(new TweetImport(4, null, USER_ID, "Last", null), tweets.get(1));
+        assertEquals(List.of(1L, 2L, 3L), report.getFailures().stream().map(TweetIngestionReport.Failure::index).toList());
+        assertTrue(report.getFailures().get(0).reason().startsWith("Malformed JSON"));
+        assertEquals("Expected a JSON object", report.getFailures().get(1).reason());
+        assertTrue(report.getFailures().get(2).reason().startsWith("Invalid tweet"));
+    }
+
+    @Test
+    @DisplayName("Should reject an overlong NDJSON line without holding it, and go on with the next one")
+    void ndjson_LongLine_Rejected() throws IOException {
+        // Arrange
+        String longLine = "{\"userId\":\"" + USER_ID + "\",\"content\":\"" + "a".repeat(TweetImportReader.MAX_LINE_CHARS) + "\"}\n";
+        String nextLine = "{\"userId\":\"" + USER_ID + "\",\"content\":\"Next\"}\n";
+
+        // Act
+        List<TweetImport> tweets = read(stream(longLine + nextLine), true);
+
+        // Assert
+        assertEquals(List.of("Next"), tweets.stream().map(TweetImport::content).toList());
+        assertEquals(1, tweets.get(0).index());
+        assertEquals(1, report.getRejected());
+        assertTrue(report.getFailures().get(0).reason().startsWith("Line longer than"));
+    }
+
+    @Test
+    @DisplayName("Should read every item of a JSON array, in order")
+    void jsonArray_StreamsItems() throws IOException {
+        // Arrange
+        int count = 10_000;
+        String body = Stream.iterate(0, i -> i < count, i -> i + 1)
+                .map(i -> "{\"userId\":\"" + USER_ID + "\",\"content\":\"Tweet " + i + "\"}")
+                .collect(Collectors.joining(",\n", "[", "]"));
+
+        // Act
+        List<TweetImport> tweets = read(stream(body), false);
+
+        // Assert
+        assertEquals(count, tweets.size());
+        assertEquals("Tweet 9999", tweets.get(count - 1).content());
+        assertEquals(count - 1, tweets.get(count - 1).index());
+        assertEquals(0, report.getRejected());
+    }
+
+    @Test
+    @DisplayName("Should stop reading a JSON array at malformed JSON, keeping the items before it")
+    void jsonArray_Malformed_Stops() throws IOException {
+        // Arrange
+        String body = "[{\"userId\":\"" + USER_ID + "\",\"content\":\"Kept\"}, 42, {\"userId\": oops}, {\"content\":\"Lost\"}]";
+
+        // Act
+        List<TweetImport> tweets = read(stream(body), false);
+
+        // Assert
+        assertEquals(List.of("Kept"), tweets.stream().map(TweetImport::content).toList());
+        assertEquals(List.of(1L, 2L), report.getFailures().stream().map(TweetIngestionReport.Failure::index).toList());
+        assertTrue(report.getFailures().get(1).reason().startsWith("Malformed JSON, stopped reading"));
+    }
+
+    @Test
+    @DisplayName("Should reject a JSON body that is not an array")
+    void jsonArray_NotAnArray_Rejected() throws IOException {
+        // Act
+        List<TweetImport> tweets = read(stream("{\"userId\":\"" + USER_ID + "\",\"content\":\"Alone\"}"), false);
+
+        // Assert
+        assertTrue(tweets.isEmpty());
+        assertEquals("Expected a JSON array of tweets", report.getFailures().get(0).reason());
+    }
+
+    private List<TweetImport> read(InputStream body, boolean ndjson) throws IOException {
+        List<TweetImport> tweets = new ArrayList<>();
+        try (TweetImportReader reader = new TweetImportReader(body, ndjson, mapper, report)) {
+            reader.forEachRemaining(tweets::add);
+        }
+        return tweets;
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,168 @@
+package com.microblogging.project;
+
+import com.microblogging.project.application.service.PostTweetService;
+import com.microblogging.project.application.service.TweetIngestionService;
+import com.microblogging.project.domain.model.Tweet;
+import com.microblogging.project.domain.model.TweetImport;
+import com.microblogging.project.domain.model.TweetIngestionReport;
+import com.microblogging.project.domain.port.TweetRepository;
+import com.microblogging.project.domain.port.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TweetIngestionServiceTest {
+
+    @Mock
+    private UserRepository userRepo;
+    @Mock
+    private TweetRepository tweetRepo;
+    @Mock
+    private PostTweetService posts;
+    @Captor
+    private ArgumentCaptor<List<Tweet>> tweetsCaptor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TweetIngestionReport report = new TweetIngestionReport(100);
+    private TweetIngestionService ingestionService;
+
+    private final UUID authorId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ingestionService = new TweetIngestionService(userRepo, tweetRepo, posts,
+                TransactionOperations.withoutTransaction(), meterRegistry);
+        ReflectionTestUtils.setField(ingestionService, "batchSize", 2);
+    }
+
+    @Test
+    @DisplayName("Should import valid tweets batch by batch, checking the authors of each batch in one query")
+    void ingest_Batches() {
+        // Arrange
+        when(userRepo.findExistingIds(anyCollection())).thenReturn(Set.of(authorId));
+        LocalDateTime postedAt = LocalDateTime.of(2019, 3, 1, 8, 0);
+        UUID tweetId = UUID.randomUUID();
+        List<TweetImport> items = List.of(
+                new TweetImport(0, tweetId, authorId, "First", postedAt),
+                new TweetImport(1, null, authorId, "Second", null),
+                new TweetImport(2, null, authorId, "Third", null));
+
+        // Act
+        ingestionService.ingest(items.iterator(), report);
+
+        // Assert
+        verify(userRepo, times(2)).findExistingIds(anyCollection());
+        verify(tweetRepo, times(2)).insertAll(tweetsCaptor.capture());
+        assertEquals(List.of(2, 1), tweetsCaptor.getAllValues().stream().map(List::size).toList());
+        Tweet first = tweetsCaptor.getAllValues().get(0).get(0);
+        assertEquals(tweetId, first.getId());
+        assertEquals(postedAt, first.getCreatedAt());
+        assertNotNull(tweetsCaptor.getAllValues().get(0).get(1).getId());
+        assertNotNull(tweetsCaptor.getAllValues().get(0).get(1).getCreatedAt());
+        verify(posts, times(2)).tweetsImported(anyList());
+        assertEquals(3, report.getImported());
+        assertEquals(0, report.getRejected());
+        assertEquals(3.0, meterRegistry.counter("tweet.ingestion.imported").count());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid items one by one and still import the others")
+    void ingest_InvalidItems_Rejected() {
+        // Arrange
+        ReflectionTestUtils.setField(ingestionService, "batchSize", 10);
+        UUID unknownAuthorId = UUID.randomUUID();
+        UUID existingTweetId = UUID.randomUUID();
+        UUID repeatedTweetId = UUID.randomUUID();
+        when(userRepo.findExistingIds(anyCollection())).thenReturn(Set.of(authorId));
+        when(tweetRepo.findByIds(anyCollection())).thenReturn(List.of(
+                new Tweet(existingTweetId, authorId, "Imported earlier", LocalDateTime.now())));
+        List<TweetImport> items = List.of(
+                new TweetImport(0, null, unknownAuthorId, "Unknown author", null),
+                new TweetImport(1, null, authorId, " ", null),
+                new TweetImport(2, null, authorId, "a".repeat(281), null),
+                new TweetImport(3, existingTweetId, authorId, "Replayed", null),
+                new TweetImport(4, repeatedTweetId, authorId, "Valid", null),
+                new TweetImport(5, repeatedTweetId, authorId, "Repeated", null),
+                new TweetImport(6, null, null, "No author", null));
+
+        // Act
+        ingestionService.ingest(items.iterator(), report);
+
+        // Assert
+        verify(tweetRepo).insertAll(tweetsCaptor.capture());
+        assertEquals(List.of("Valid"), tweetsCaptor.getValue().stream().map(Tweet::getContent).toList());
+        assertEquals(1, report.getImported());
+        assertEquals(6, report.getRejected());
+        assertEquals(List.of(0L, 1L, 2L, 3L, 5L, 6L),
+                report.getFailures().stream().map(TweetIngestionReport.Failure::index).toList());
+        assertEquals("User with ID " + unknownAuthorId + " not found.", report.getFailures().get(0).reason());
+        assertEquals("Tweet " + existingTweetId + " already exists", report.getFailures().get(3).reason());
+        assertEquals(6.0, meterRegistry.counter("tweet.ingestion.rejected").count());
+    }
+
+    @Test
+    @DisplayName("Should import a failed batch one tweet at a time, rejecting only the tweets that fail")
+    void ingest_FailedBatch_Split() {
+        // Arrange
+        when(userRepo.findExistingIds(anyCollection())).thenReturn(Set.of(authorId));
+        doThrow(new IllegalStateException("Constraint violation"))
+                .when(tweetRepo).insertAll(argThat(tweets -> tweets.stream().anyMatch(t -> t.getContent().equals("Faulty"))));
+        List<TweetImport> items = List.of(
+                new TweetImport(0, null, authorId, "Faulty", null),
+                new TweetImport(1, null, authorId, "Valid", null));
+
+        // Act
+        ingestionService.ingest(items.iterator(), report);
+
+        // Assert
+        assertEquals(1, report.getImported());
+        assertEquals(List.of(new TweetIngestionReport.Failure(0, "Failed to save: Constraint violation")),
+                report.getFailures());
+        verify(posts, times(1)).tweetsImported(argThat(tweets -> tweets.size() == 1
+                && tweets.get(0).getContent().equals("Valid")));
+    }
+
+    @Test
+    @DisplayName("Should detail only the first rejections, still counting all of them")
+    void ingest_ManyRejections_ReportCapped() {
+        // Arrange
+        TweetIngestionReport smallReport = new TweetIngestionReport(2);
+        when(userRepo.findExistingIds(anyCollection())).thenReturn(Set.of());
+        List<TweetImport> items = List.of(
+                new TweetImport(0, null, authorId, "One", null),
+                new TweetImport(1, null, authorId, "Two", null),
+                new TweetImport(2, null, authorId, "Three", null));
+
+        // Act
+        ingestionService.ingest(items.iterator(), smallReport);
+
+        // Assert
+        assertEquals(3, smallReport.getRejected());
+        assertEquals(2, smallReport.getFailures().size());
+        verify(tweetRepo, never()).insertAll(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<UUID> anyCollection() {
+        return any(Collection.class);
+    }
+}
@@ -0,0 +1,76 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.cache.TweetRedisSerializer;
+import com.microblogging.project.domain.model.Tweet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TweetRedisSerializerTest {
+
+    private final TweetRedisSerializer serializer = new TweetRedisSerializer();
+
+    @Test
+    @DisplayName("Should round-trip a tweet exactly, including sub-millisecond precision and non-ASCII content")
+    void serialize_RoundTrip() {
+        Tweet tweet = new Tweet(UUID.randomUUID(), UUID.randomUUID(), "Hola ñandú 🐦",
+                LocalDateTime.of(2024, 5, 17, 10, 30, 15, 123_456_789));
+
+        Tweet copy = serializer.deserialize(serializer.serialize(tweet));
+
+        assertEquals(tweet.getId(), copy.getId());
+        assertEquals(tweet.getUserId(), copy.getUserId());
+        assertEquals(tweet.getContent(), copy.getContent());
+        assertEquals(tweet.getCreatedAt(), copy.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Should keep a null content distinct from an empty one")
+    void serialize_NullContent() {
+        Tweet tweet = new Tweet(UUID.randomUUID(), UUID.randomUUID(), null, LocalDateTime.now());
+
+        assertNull(serializer.deserialize(serializer.serialize(tweet)).getContent());
+    }
+
+    @Test
+    @DisplayName("Should produce a payload much smaller than the JSON one")
+    void serialize_CompactLayout() {
+        Tweet tweet = new Tweet(UUID.randomUUID(), UUID.randomUUID(), "Short tweet", LocalDateTime.now());
+
+        // 1 version + 32 UUIDs + 12 timestamp + 4 length + content
+        assertEquals(49 + "Short tweet".length(), serializer.serialize(tweet).length);
+    }
+
+    @Test
+    @DisplayName("Should still read legacy JSON entries written before the binary format")
+    void deserialize_LegacyJson() {
+        UUID id = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        String json = "{\"id\":\"" + id + "\",\"userId\":\"" + userId + "\",\"content\":\"Old tweet\","
+                + "\"createdAt\":[2024,5,17,10,30,15,500000000]}";
+
+        Tweet tweet = serializer.deserialize(json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(id, tweet.getId());
+        assertEquals(userId, tweet.getUserId());
+        assertEquals("Old tweet", tweet.getContent());
+        assertEquals(LocalDateTime.of(2024, 5, 17, 10, 30, 15, 500_000_000), tweet.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Should reject truncated payloads and unknown versions")
+    void deserialize_Corrupt() {
+        byte[] payload = serializer.serialize(new Tweet(UUID.randomUUID(), UUID.randomUUID(), "Tweet", LocalDateTime.now()));
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(Arrays.copyOf(payload, 20)));
+        payload[0] = 42;
+        assertThrows(SerializationException.class, () -> serializer.deserialize(payload));
+    }
+}
@@ -0,0 +1,142 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.persistence.TweetRepositoryAdapter;
+import com.microblogging.project.domain.model.TimelineCursor;
+import com.microblogging.project.domain.model.Tweet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(TweetRepositoryAdapter.class)
+class TweetRepositoryAdapterTest {
+
+    @Autowired
+    private TweetRepositoryAdapter tweetRepository;
+
+    private UUID authorId;
+    private UUID otherAuthorId;
+    private List<Tweet> timeline; // All saved tweets, newest first
+
+    @BeforeEach
+    void setUp() {
+        authorId = UUID.randomUUID();
+        otherAuthorId = UUID.randomUUID();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        timeline = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            // Pairs of tweets share the same timestamp to exercise the ID tie-break
+            UUID author = i % 2 == 0 ? authorId : otherAuthorId;
+            Tweet tweet = new Tweet(UUID.randomUUID(), author, "Tweet " + i, base.minusMinutes(i / 2));
+            tweetRepository.save(tweet);
+            timeline.add(tweet);
+        }
+        timeline.sort(Tweet.NEWEST_FIRST);
+    }
+
+    @Test
+    @DisplayName("Should walk the whole timeline page by page without gaps or duplicates")
+    void findByUserIdsBefore_WalksAllPages() {
+        List<Tweet> walked = new ArrayList<>();
+        TimelineCursor cursor = TimelineCursor.of(timeline.get(0));
+        walked.add(timeline.get(0));
+
+        List<Tweet> page;
+        do {
+            page = tweetRepository.findByUserIdsBefore(Set.of(authorId, otherAuthorId), cursor, 3);
+            walked.addAll(page);
+            if (!page.isEmpty()) {
+                // Go through the opaque token, like a client would
+                cursor = TimelineCursor.decode(TimelineCursor.of(page.get(page.size() - 1)).encode());
+            }
+        } while (page.size() == 3);
+
+        assertEquals(timeline.stream().map(Tweet::getId).toList(), walked.stream().map(Tweet::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should only return tweets of the requested authors")
+    void findByUserIdsBefore_FiltersAuthors() {
+        TimelineCursor cursor = new TimelineCursor(LocalDateTime.of(2030, 1, 1, 0, 0), UUID.randomUUID());
+
+        List<Tweet> page = tweetRepository.findByUserIdsBefore(Set.of(authorId), cursor, 50);
+
+        assertEquals(5, page.size());
+        assertTrue(page.stream().allMatch(tweet -> tweet.getUserId().equals(authorId)));
+    }
+
+    @Test
+    @DisplayName("Should return only the newest N tweets across authors, newest first")
+    void findLatestByUserIds_ReturnsTopK() {
+        List<Tweet> latest = tweetRepository.findLatestByUserIds(Set.of(authorId, otherAuthorId), 4);
+
+        assertEquals(timeline.subList(0, 4).stream().map(Tweet::getId).toList(),
+                latest.stream().map(Tweet::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should look tweets up by ID, skipping unknown IDs")
+    void findByIds_SkipsUnknown() {
+        List<UUID> ids = List.of(timeline.get(0).getId(), timeline.get(5).getId(), UUID.randomUUID());
+
+        List<Tweet> found = tweetRepository.findByIds(ids);
+
+        assertEquals(Set.of(timeline.get(0).getId(), timeline.get(5).getId()),
+                found.stream().map(Tweet::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    @DisplayName("Should insert a batch of new tweets readable like saved ones")
+    void insertAll_ReadBack() {
+        UUID batchAuthorId = UUID.randomUUID();
+        LocalDateTime createdAt = LocalDateTime.of(2024, 2, 1, 9, 30, 15, 123_456_000);
+        List<Tweet> batch = List.of(
+                new Tweet(UUID.randomUUID(), batchAuthorId, "Batched 1", createdAt),
+                new Tweet(UUID.randomUUID(), batchAuthorId, "Batched 2", createdAt.plusSeconds(1)));
+
+        tweetRepository.insertAll(batch);
+
+        List<Tweet> found = tweetRepository.findLatestByUserIds(Set.of(batchAuthorId), 10);
+        assertEquals(List.of(batch.get(1).getId(), batch.get(0).getId()), found.stream().map(Tweet::getId).toList());
+        assertEquals("Batched 1", found.get(1).getContent());
+        assertEquals(createdAt, found.get(1).getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Should list each author once, the most recent poster first")
+    void findRecentAuthors_MostRecentFirst() {
+        UUID latestAuthorId = UUID.randomUUID();
+        tweetRepository.save(new Tweet(UUID.randomUUID(), latestAuthorId, "Old", LocalDateTime.of(2000, 1, 1, 0, 0)));
+        tweetRepository.save(new Tweet(UUID.randomUUID(), latestAuthorId, "Latest", LocalDateTime.of(2100, 1, 1, 0, 0)));
+
+        List<UUID> authors = tweetRepository.findRecentAuthors(LocalDateTime.of(1999, 1, 1, 0, 0), 2);
+
+        assertEquals(2, authors.size());
+        assertEquals(latestAuthorId, authors.get(0));
+        assertNotEquals(latestAuthorId, authors.get(1));
+    }
+
+    @Test
+    @DisplayName("Should leave out authors who did not tweet within the window")
+    void findRecentAuthors_OutsideWindow_Excluded() {
+        UUID formerAuthorId = UUID.randomUUID();
+        tweetRepository.save(new Tweet(UUID.randomUUID(), formerAuthorId, "Long ago", LocalDateTime.of(2000, 1, 1, 0, 0)));
+
+        List<UUID> authors = tweetRepository.findRecentAuthors(LocalDateTime.of(2001, 1, 1, 0, 0), 100);
+
+        assertFalse(authors.contains(formerAuthorId));
+    }
+}
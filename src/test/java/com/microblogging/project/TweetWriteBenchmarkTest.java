@@ -0,0 +1,162 @@
+package com.microblogging.project;
+
+import com.microblogging.project.adapter.out.message.OutboxMessagePublisher;
+import com.microblogging.project.adapter.out.persistence.TweetRepositoryAdapter;
+import com.microblogging.project.adapter.out.persistence.repository.OutboxEventJpaRepository;
+import com.microblogging.project.application.metrics.TimelineMetrics;
+import com.microblogging.project.application.service.CelebrityTimelineCache;
+import com.microblogging.project.application.service.GroupCommitPostTweetService;
+import com.microblogging.project.application.service.PostTweetService;
+import com.microblogging.project.application.service.TimelineFanoutExecutor;
+import com.microblogging.project.application.usecase.PostTweetUseCase;
+import com.microblogging.project.domain.port.FollowRepository;
+import com.microblogging.project.domain.port.TimelineCachePort;
+import com.microblogging.project.domain.port.TimelineEntryRepository;
+import com.microblogging.project.domain.port.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Post throughput of the per-request transaction against group commit, tweets and outbox events written to a real
+ * database, with concurrent posters. Not part of the regular build:
+ * <pre>
+ * mvn test -Dtest=TweetWriteBenchmarkTest -Dtweet.benchmark=true [-Dtweet.benchmark.url=jdbc:h2:file:./data/benchmark]
+ * </pre>
+ * Defaults to an in-memory H2 database, where commits are cheap: the gap grows with the cost of a commit.
+ */
+@EnabledIfSystemProperty(named = "tweet.benchmark", matches = "true")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=${tweet.benchmark.url:jdbc:h2:mem:tweetbenchmark;DB_CLOSE_DELAY=-1}",
+        "spring.datasource.hikari.maximum-pool-size=16",
+        "spring.jpa.show-sql=false",
+        // Per-statement and per-post logging would dominate the measurement
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql=WARN",
+        "logging.level.com.microblogging.project=WARN"})
+@Import({TweetRepositoryAdapter.class, OutboxEventJpaRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TweetWriteBenchmarkTest {
+
+    private static final int POSTERS = 64;
+    private static final int WARMUP_POSTS = 5_000;
+    private static final int MEASURED_POSTS = 50_000;
+
+    @Autowired
+    private TweetRepositoryAdapter tweetRepo;
+    @Autowired
+    private OutboxEventJpaRepository outbox;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Benchmark: one transaction per post")
+    void perRequest() throws Exception {
+        PostTweetService posts = postTweetService();
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        // What the @Transactional proxy of PostTweetService does
+        run("per-request", (userId, content) -> transactions.execute(status -> posts.post(userId, content)));
+    }
+
+    @Test
+    @DisplayName("Benchmark: group commit")
+    void groupCommit() throws Exception {
+        GroupCommitPostTweetService groupCommit = new GroupCommitPostTweetService(postTweetService(), tweetRepo,
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(), 64, Duration.ofMillis(5), 10_000);
+        try {
+            run("group-commit", groupCommit);
+        } finally {
+            ReflectionTestUtils.invokeMethod(groupCommit, "stop");
+        }
+    }
+
+    private void run(String name, PostTweetUseCase useCase) throws Exception {
+        measure(name, useCase, WARMUP_POSTS);
+        System.gc();
+
+        int before = count();
+        long start = System.nanoTime();
+        long[] latencies = measure(name, useCase, MEASURED_POSTS);
+        long elapsed = System.nanoTime() - start;
+        assertEquals(before + MEASURED_POSTS, count(), name);
+
+        Arrays.sort(latencies);
+        System.out.printf("%-14s %3d posters %,10.0f posts/s  p50 %,10d ns  p99 %,11d ns  p99.9 %,11d ns%n", name,
+                POSTERS, MEASURED_POSTS / (elapsed / 1e9), latencies[latencies.length / 2],
+                latencies[(int) (latencies.length * 0.99)], latencies[(int) (latencies.length * 0.999)]);
+    }
+
+    private long[] measure(String name, PostTweetUseCase useCase, int posts) throws Exception {
+        long[] latencies = new long[posts];
+        AtomicInteger next = new AtomicInteger();
+        UUID userId = UUID.randomUUID();
+        try (ExecutorService posters = Executors.newFixedThreadPool(POSTERS)) {
+            List<Future<?>> done = new ArrayList<>();
+            for (int i = 0; i < POSTERS; i++) {
+                done.add(posters.submit(() -> {
+                    int post;
+                    while ((post = next.getAndIncrement()) < posts) {
+                        long postStart = System.nanoTime();
+                        assertNotNull(useCase.post(userId, "Benchmark tweet " + post
+                                + " with a realistic amount of text in it, around a hundred characters long."), name);
+                        latencies[post] = System.nanoTime() - postStart;
+                    }
+                }));
+            }
+            for (Future<?> poster : done) {
+                poster.get();
+            }
+        }
+        return latencies;
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tweets", Integer.class);
+    }
+
+    // Real tweet and outbox writes, the follow graph and caches are out of the picture
+    private PostTweetService postTweetService() {
+        UserRepository userRepo = stub(UserRepository.class);
+        when(userRepo.existsById(any(UUID.class))).thenReturn(true);
+        return new PostTweetService(tweetRepo, userRepo, stub(FollowRepository.class),
+                new OutboxMessagePublisher(outbox), stub(TimelineCachePort.class), stub(TimelineEntryRepository.class),
+                TimelineFanoutExecutor.direct(), stub(CelebrityTimelineCache.class), stub(TimelineMetrics.class));
+    }
+
+    // Regular mocks record every call, under a lock shared by all the posters
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}